@@ -0,0 +1,10 @@
+package com.mok.application.sys.dto.auth;
+
+import io.micronaut.core.annotation.Introspected;
+
+/**
+ * 登录校验所需的用户字段
+ */
+@Introspected
+public record LoginUserDTO(Long id, String password, Integer state, Boolean isTenantAdmin) {
+}
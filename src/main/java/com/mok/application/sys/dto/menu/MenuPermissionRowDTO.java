@@ -0,0 +1,11 @@
+package com.mok.application.sys.dto.menu;
+
+import io.micronaut.core.annotation.Introspected;
+
+/**
+ * 菜单左连接权限的扁平行，无权限的菜单 permissionId 为 null
+ */
+@Introspected
+public record MenuPermissionRowDTO(Long menuId, Long parentId, String name, String path, String component, String icon,
+                                   Integer sort, Boolean isHidden, Long permissionId, String permissionName) {
+}
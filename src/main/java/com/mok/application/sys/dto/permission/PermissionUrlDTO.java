@@ -0,0 +1,7 @@
+package com.mok.application.sys.dto.permission;
+
+import io.micronaut.core.annotation.Introspected;
+
+@Introspected
+public record PermissionUrlDTO(String code, String url, String method) {
+}
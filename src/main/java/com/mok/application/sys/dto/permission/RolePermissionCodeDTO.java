@@ -0,0 +1,7 @@
+package com.mok.application.sys.dto.permission;
+
+import io.micronaut.core.annotation.Introspected;
+
+@Introspected
+public record RolePermissionCodeDTO(Long roleId, String code) {
+}
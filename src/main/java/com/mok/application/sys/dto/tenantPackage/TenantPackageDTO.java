@@ -14,6 +14,7 @@ public class TenantPackageDTO {
     private String name;
     private String description;
     private Integer state;
+    private String tier;
     private Set<MenuDTO> menus;
     private Set<PermissionDTO> permissions;
 }
@@ -11,4 +11,5 @@ public class TenantPackageSaveDTO {
     private String name;
     private String description;
     private Integer state;
+    private String tier;
 }
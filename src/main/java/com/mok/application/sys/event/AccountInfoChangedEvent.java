@@ -0,0 +1,53 @@
+package com.mok.application.sys.event;
+
+import io.micronaut.context.event.ApplicationEvent;
+
+/**
+ * 用户、角色、租户或套餐变更，事务提交后清理受影响用户的账户信息缓存
+ */
+public class AccountInfoChangedEvent extends ApplicationEvent {
+
+    public enum Scope {
+        USER, ROLE, TENANT, PACKAGE
+    }
+
+    private final Scope scope;
+    private final String tenantId;
+
+    private AccountInfoChangedEvent(Scope scope, String tenantId, Object target) {
+        super(target);
+        this.scope = scope;
+        this.tenantId = tenantId;
+    }
+
+    public static AccountInfoChangedEvent ofUser(String tenantId, Long userId) {
+        return new AccountInfoChangedEvent(Scope.USER, tenantId, userId);
+    }
+
+    public static AccountInfoChangedEvent ofRole(String tenantId, Long roleId) {
+        return new AccountInfoChangedEvent(Scope.ROLE, tenantId, roleId);
+    }
+
+    public static AccountInfoChangedEvent ofTenant(String tenantId) {
+        return new AccountInfoChangedEvent(Scope.TENANT, tenantId, tenantId);
+    }
+
+    public static AccountInfoChangedEvent ofPackage(Long packageId) {
+        return new AccountInfoChangedEvent(Scope.PACKAGE, null, packageId);
+    }
+
+    public Scope getScope() {
+        return scope;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    /**
+     * 用户、角色或套餐 id，租户范围时为 null
+     */
+    public Long getTargetId() {
+        return getSource() instanceof Long id ? id : null;
+    }
+}
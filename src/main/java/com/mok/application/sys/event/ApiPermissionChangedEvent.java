@@ -0,0 +1,13 @@
+package com.mok.application.sys.event;
+
+import io.micronaut.context.event.ApplicationEvent;
+
+/**
+ * 权限的 URL 或方法发生变化，事务提交后通知各节点重建接口权限匹配树
+ */
+public class ApiPermissionChangedEvent extends ApplicationEvent {
+
+    public ApiPermissionChangedEvent(Object source) {
+        super(source);
+    }
+}
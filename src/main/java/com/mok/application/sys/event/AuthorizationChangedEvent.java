@@ -0,0 +1,59 @@
+package com.mok.application.sys.event;
+
+import io.micronaut.context.event.ApplicationEvent;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 角色、套餐授权变更或权限被删除、改名，事务提交后丢弃对应的权限位图和角色权限缓存
+ */
+public class AuthorizationChangedEvent extends ApplicationEvent {
+
+    private final Set<Long> roleIds;
+    private final Set<Long> packageIds;
+    private final Set<String> removedCodes;
+
+    private AuthorizationChangedEvent(Object source, Set<Long> roleIds, Set<Long> packageIds, Set<String> removedCodes) {
+        super(source);
+        this.roleIds = roleIds;
+        this.packageIds = packageIds;
+        this.removedCodes = removedCodes;
+    }
+
+    public static AuthorizationChangedEvent ofRole(Long roleId) {
+        return new AuthorizationChangedEvent(roleId, Set.of(roleId), Set.of(), Set.of());
+    }
+
+    public static AuthorizationChangedEvent ofPackage(Long packageId) {
+        return new AuthorizationChangedEvent(packageId, Set.of(), Set.of(packageId), Set.of());
+    }
+
+    /**
+     * 权限被删除：丢弃引用这些权限的角色位图并回收编码
+     */
+    public static AuthorizationChangedEvent ofRemovedPermissions(Collection<Long> roleIds, Collection<String> codes) {
+        return ofRemovedPermissions(roleIds, List.of(), codes);
+    }
+
+    /**
+     * 权限编码改名：旧编码按删除处理，引用该权限的角色和套餐位图需按新编码重新编译
+     */
+    public static AuthorizationChangedEvent ofRemovedPermissions(Collection<Long> roleIds, Collection<Long> packageIds,
+                                                                 Collection<String> codes) {
+        return new AuthorizationChangedEvent(Set.copyOf(codes), Set.copyOf(roleIds), Set.copyOf(packageIds), Set.copyOf(codes));
+    }
+
+    public Set<Long> getRoleIds() {
+        return roleIds;
+    }
+
+    public Set<Long> getPackageIds() {
+        return packageIds;
+    }
+
+    public Set<String> getRemovedCodes() {
+        return removedCodes;
+    }
+}
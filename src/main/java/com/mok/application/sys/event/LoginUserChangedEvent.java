@@ -0,0 +1,24 @@
+package com.mok.application.sys.event;
+
+import io.micronaut.context.event.ApplicationEvent;
+
+/**
+ * 用户新增、删除或密码、状态、角色变更，事务提交后清理登录缓存
+ */
+public class LoginUserChangedEvent extends ApplicationEvent {
+
+    private final String tenantId;
+
+    public LoginUserChangedEvent(String tenantId, String username) {
+        super(username);
+        this.tenantId = tenantId;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public String getUsername() {
+        return (String) getSource();
+    }
+}
@@ -0,0 +1,13 @@
+package com.mok.application.sys.event;
+
+import io.micronaut.context.event.ApplicationEvent;
+
+/**
+ * 菜单或其下权限发生变化，事务提交后触发菜单树快照失效
+ */
+public class MenuChangedEvent extends ApplicationEvent {
+
+    public MenuChangedEvent(Object source) {
+        super(source);
+    }
+}
@@ -0,0 +1,125 @@
+package com.mok.application.sys.service;
+
+import com.mok.application.sys.dto.auth.AccountInfoDTO;
+import com.mok.application.sys.event.AccountInfoChangedEvent;
+import com.mok.domain.sys.repository.TenantRepository;
+import com.mok.domain.sys.repository.UserRepository;
+import com.mok.infrastructure.cache.JsonCacheCodec;
+import com.mok.infrastructure.cache.TwoLevelCacheManager;
+import com.mok.infrastructure.common.Const;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.core.type.Argument;
+import io.micronaut.transaction.annotation.TransactionalEventListener;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 按 (租户, 用户) 缓存组装好的账户信息，本地与 Redis 两级。
+ * <p>
+ * 缓存值带有菜单树版本，菜单或权限变更后版本不一致即重新组装，无需逐个用户清理；
+ * 用户、角色、套餐、租户变更经 角色→用户、套餐→租户→用户 反查后精确清理，清理在事务提交后进行，
+ * 避免并发请求在提交前重新组装到旧数据。
+ */
+@Singleton
+public class AccountInfoCache {
+
+    private static final Argument<Stamped> TYPE = Argument.of(Stamped.class);
+
+    private final TwoLevelCacheManager cacheManager;
+    private final UserRepository userRepository;
+    private final TenantRepository tenantRepository;
+    private final MenuTreeCache menuTreeCache;
+    private final TwoLevelCacheManager.CachePolicy policy;
+
+    public AccountInfoCache(TwoLevelCacheManager cacheManager,
+                            JsonCacheCodec codec,
+                            UserRepository userRepository,
+                            TenantRepository tenantRepository,
+                            MenuTreeCache menuTreeCache,
+                            @Value("${account.info.cache.ttl:2h}") Duration ttl,
+                            @Value("${account.info.cache.local-ttl:5m}") Duration localTtl) {
+        this.cacheManager = cacheManager;
+        this.userRepository = userRepository;
+        this.tenantRepository = tenantRepository;
+        this.menuTreeCache = menuTreeCache;
+        this.policy = new TwoLevelCacheManager.CachePolicy(Const.CacheKey.ACCOUNT_INFO, ttl, localTtl, 10_000, codec);
+    }
+
+    public AccountInfoDTO get(String tenantId, Long userId, Supplier<AccountInfoDTO> loader) {
+        if (userId == null) {
+            // 缺少用户 id 时不缓存，避免不同用户共用同一个键
+            return loader.get();
+        }
+        String key = key(tenantId, userId);
+        long version = menuTreeCache.version();
+        Stamped cached = cacheManager.get(policy, key, TYPE, () -> load(version, loader));
+        if (cached == null || cached.menuVersion() == version) {
+            return cached != null ? cached.info() : null;
+        }
+        // 菜单已变更，丢弃旧值后按当前版本重新组装
+        cacheManager.evict(Const.CacheKey.ACCOUNT_INFO, key);
+        Stamped reloaded = cacheManager.get(policy, key, TYPE, () -> load(version, loader));
+        return reloaded != null ? reloaded.info() : null;
+    }
+
+    public void evictUser(String tenantId, Long userId) {
+        cacheManager.evict(Const.CacheKey.ACCOUNT_INFO, key(tenantId, userId));
+    }
+
+    /**
+     * 角色授权或状态变更，清理拥有该角色的用户
+     */
+    public void evictRole(String tenantId, Long roleId) {
+        evictUsers(tenantId, userRepository.findIdsByRoleId(roleId));
+    }
+
+    /**
+     * 租户信息或套餐变更，清理该租户的全部用户
+     */
+    public void evictTenant(String tenantId) {
+        evictUsers(tenantId, userRepository.findIdsByTenantId(tenantId));
+    }
+
+    /**
+     * 套餐授权变更，清理使用该套餐的租户
+     */
+    public void evictPackage(Long packageId) {
+        for (String tenantId : tenantRepository.findTenantIdByPackageId(packageId)) {
+            evictTenant(tenantId);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onAccountInfoChanged(AccountInfoChangedEvent event) {
+        switch (event.getScope()) {
+            case USER -> evictUser(event.getTenantId(), event.getTargetId());
+            case ROLE -> evictRole(event.getTenantId(), event.getTargetId());
+            case TENANT -> evictTenant(event.getTenantId());
+            case PACKAGE -> evictPackage(event.getTargetId());
+        }
+    }
+
+    private void evictUsers(String tenantId, Collection<Long> userIds) {
+        List<String> keys = userIds.stream().map(userId -> key(tenantId, userId)).toList();
+        cacheManager.evict(Const.CacheKey.ACCOUNT_INFO, keys);
+    }
+
+    private Stamped load(long version, Supplier<AccountInfoDTO> loader) {
+        AccountInfoDTO info = loader.get();
+        return info != null ? new Stamped(version, info) : null;
+    }
+
+    private static String key(String tenantId, Long userId) {
+        return tenantId + ":" + userId;
+    }
+
+    /**
+     * @param menuVersion 组装时的菜单树版本
+     */
+    public record Stamped(long menuVersion, AccountInfoDTO info) {
+    }
+}
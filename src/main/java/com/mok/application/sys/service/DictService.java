@@ -9,8 +9,9 @@ import com.mok.domain.sys.model.DictData;
 import com.mok.domain.sys.model.DictType;
 import com.mok.domain.sys.repository.DictDataRepository;
 import com.mok.domain.sys.repository.DictTypeRepository;
+import com.mok.infrastructure.cache.Cached;
+import com.mok.infrastructure.cache.TwoLevelCacheManager;
 import com.mok.infrastructure.common.Const;
-import io.lettuce.core.api.sync.RedisCommands;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
 import io.micronaut.transaction.annotation.Transactional;
@@ -28,7 +29,7 @@ public class DictService {
     private final DictDataRepository dictDataRepository;
     private final DictTypeMapper dictTypeMapper;
     private final DictDataMapper dictDataMapper;
-    private final RedisCommands<String, String> redisCommands;
+    private final TwoLevelCacheManager cacheManager;
 
     @Transactional(readOnly = true)
     public Page<DictTypeDTO> findPage(DictTypeQuery query, Pageable pageable) {
@@ -70,11 +71,12 @@ public class DictService {
         }
 
         dictDataRepository.deleteByTypeCode(entity.getCode());
-        redisCommands.del(Const.CacheKey.DICT_DATA + entity.getCode());
+        cacheManager.evictAfterCommit(Const.CacheKey.DICT_DATA, entity.getCode());
 
         dictTypeRepository.delete(entity);
     }
 
+    @Cached(Const.CacheKey.DICT_DATA)
     @Transactional(readOnly = true)
     public List<DictDataDTO> getDataByType(String typeCode) {
         return dictDataRepository.findByTypeCodeOrderBySortAsc(typeCode).stream()
@@ -87,7 +89,7 @@ public class DictService {
         checkSystemDict(dto.getTypeCode());
         DictData entity = DictData.create(dto.getTypeCode(), dto.getLabel(), dto.getValue(), dto.getSort(), dto.getCssClass(), dto.getListClass(), dto.getIsDefault(), dto.getRemark());
         DictData saved = dictDataRepository.save(entity);
-        redisCommands.del(Const.CacheKey.DICT_DATA + dto.getTypeCode());
+        cacheManager.evictAfterCommit(Const.CacheKey.DICT_DATA, dto.getTypeCode());
         return dictDataMapper.toDto(saved);
     }
 
@@ -101,9 +103,9 @@ public class DictService {
         entity.updateInfo(dto.getLabel(), dto.getValue(), dto.getSort(), dto.getCssClass(), dto.getListClass(), dto.getIsDefault(), dto.getRemark());
         DictData saved = dictDataRepository.save(entity);
 
-        redisCommands.del(Const.CacheKey.DICT_DATA + oldTypeCode);
+        cacheManager.evictAfterCommit(Const.CacheKey.DICT_DATA, oldTypeCode);
         if (!oldTypeCode.equals(saved.getTypeCode())) {
-            redisCommands.del(Const.CacheKey.DICT_DATA + saved.getTypeCode());
+            cacheManager.evictAfterCommit(Const.CacheKey.DICT_DATA, saved.getTypeCode());
         }
 
         return dictDataMapper.toDto(saved);
@@ -115,7 +117,7 @@ public class DictService {
                 .orElseThrow(NotFoundException::new);
         checkSystemDict(entity.getTypeCode());
         dictDataRepository.delete(entity);
-        redisCommands.del(Const.CacheKey.DICT_DATA + entity.getTypeCode());
+        cacheManager.evictAfterCommit(Const.CacheKey.DICT_DATA, entity.getTypeCode());
     }
 
     private void checkSystemDict(String typeCode) {
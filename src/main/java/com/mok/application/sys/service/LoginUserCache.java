@@ -0,0 +1,87 @@
+package com.mok.application.sys.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mok.application.sys.event.LoginUserChangedEvent;
+import com.mok.domain.sys.repository.UserRepository;
+import com.mok.infrastructure.cache.CacheInvalidationBus;
+import com.mok.infrastructure.common.Const;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.transaction.annotation.TransactionalEventListener;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 按 (租户, 用户名) 缓存登录校验所需的用户字段，仅在本地保存，不写入 Redis。
+ * <p>
+ * 不存在的用户名短时间记为未知，撞库时无效用户名不再逐次查库；用户变更提交后经广播清理所有节点。
+ */
+@Singleton
+public class LoginUserCache {
+
+    private final UserRepository userRepository;
+    private final CacheInvalidationBus invalidationBus;
+    private final Cache<String, LoginUser> users;
+    private final Cache<String, Boolean> unknown;
+
+    public LoginUserCache(UserRepository userRepository,
+                          CacheInvalidationBus invalidationBus,
+                          @Value("${login.cache.ttl:5m}") Duration ttl,
+                          @Value("${login.cache.negative-ttl:30s}") Duration negativeTtl,
+                          @Value("${login.cache.maximum-size:10000}") long maximumSize) {
+        this.userRepository = userRepository;
+        this.invalidationBus = invalidationBus;
+        this.users = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).build();
+        this.unknown = Caffeine.newBuilder().maximumSize(maximumSize * 10).expireAfterWrite(negativeTtl).build();
+        invalidationBus.subscribe(Const.Channel.LOGIN_USER_EVICT, this::evictLocal);
+    }
+
+    public Optional<LoginUser> find(String tenantId, String username) {
+        String key = key(tenantId, username);
+        if (unknown.getIfPresent(key) != null) {
+            return Optional.empty();
+        }
+        LoginUser user = users.get(key, k -> load(tenantId, username));
+        if (user == null) {
+            unknown.put(key, Boolean.TRUE);
+        }
+        return Optional.ofNullable(user);
+    }
+
+    public void evict(String tenantId, String username) {
+        String key = key(tenantId, username);
+        evictLocal(key);
+        invalidationBus.publish(Const.Channel.LOGIN_USER_EVICT, key);
+    }
+
+    @TransactionalEventListener
+    public void onLoginUserChanged(LoginUserChangedEvent event) {
+        evict(event.getTenantId(), event.getUsername());
+    }
+
+    private void evictLocal(String key) {
+        users.invalidate(key);
+        unknown.invalidate(key);
+    }
+
+    private LoginUser load(String tenantId, String username) {
+        return userRepository.findLoginUser(tenantId, username)
+                .map(user -> new LoginUser(user.id(), user.password(), user.state(),
+                        Boolean.TRUE.equals(user.isTenantAdmin()),
+                        Set.copyOf(userRepository.findRoleIdsByUserId(user.id()))))
+                .orElse(null);
+    }
+
+    private static String key(String tenantId, String username) {
+        return tenantId + ":" + username;
+    }
+
+    /**
+     * @param password 密文
+     */
+    public record LoginUser(Long id, String password, Integer state, boolean isTenantAdmin, Set<Long> roleIds) {
+    }
+}
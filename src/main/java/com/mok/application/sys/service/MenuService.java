@@ -3,17 +3,18 @@ package com.mok.application.sys.service;
 import com.mok.application.exception.NotFoundException;
 import com.mok.application.sys.dto.menu.MenuDTO;
 import com.mok.application.sys.dto.menu.MenuOptionDTO;
-import com.mok.application.sys.dto.permission.PermissionOptionDTO;
+import com.mok.application.sys.event.ApiPermissionChangedEvent;
+import com.mok.application.sys.event.AuthorizationChangedEvent;
+import com.mok.application.sys.event.MenuChangedEvent;
 import com.mok.application.sys.mapper.MenuMapper;
 import com.mok.domain.sys.model.Menu;
 import com.mok.domain.sys.model.Permission;
 import com.mok.domain.sys.repository.MenuRepository;
 import com.mok.domain.sys.repository.PermissionRepository;
 import com.mok.domain.sys.repository.TenantRepository;
-import com.mok.infrastructure.common.Const;
 import com.mok.infrastructure.tenant.TenantContextHolder;
 import com.mok.infrastructure.util.SysUtil;
-import io.lettuce.core.api.sync.RedisCommands;
+import io.micronaut.context.event.ApplicationEventPublisher;
 import io.micronaut.core.annotation.NonNull;
 import io.micronaut.core.util.CollectionUtils;
 import io.micronaut.transaction.annotation.Transactional;
@@ -21,7 +22,6 @@ import jakarta.inject.Singleton;
 import lombok.RequiredArgsConstructor;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Singleton
 @RequiredArgsConstructor
@@ -29,10 +29,13 @@ public class MenuService {
 
     private final MenuRepository menuRepository;
     private final PermissionRepository permissionRepository;
-    private final RedisCommands<String, String> redisCommands;
     private final MenuMapper menuMapper;
     private final TenantRepository tenantRepository;
     private final TenantPackageService tenantPackageService;
+    private final MenuTreeCache menuTreeCache;
+    private final ApplicationEventPublisher<MenuChangedEvent> eventPublisher;
+    private final ApplicationEventPublisher<AuthorizationChangedEvent> authorizationEventPublisher;
+    private final ApplicationEventPublisher<ApiPermissionChangedEvent> apiPermissionEventPublisher;
 
     @Transactional(readOnly = true)
     public List<MenuDTO> findAll() {
@@ -45,8 +48,12 @@ public class MenuService {
         if (dto.getParentId() != null) {
             parent = menuRepository.findById(dto.getParentId()).orElse(null);
         }
-        Menu menu = Menu.create(parent, dto.getName(), dto.getPath(), dto.getComponent(), dto.getIcon(), dto.getSort(), dto.getIsHidden());
-        return menuMapper.toDto(menuRepository.save(menu));
+        Menu menu = menuRepository.save(Menu.create(parent, dto.getName(), dto.getPath(), dto.getComponent(), dto.getIcon(), dto.getSort(), dto.getIsHidden()));
+        // 路径依赖生成的 id，提交时随脏检查写入
+        menu.refreshTreePath();
+        MenuDTO saved = menuMapper.toDto(menu);
+        eventPublisher.publishEvent(new MenuChangedEvent(menu));
+        return saved;
     }
 
     @Transactional
@@ -57,7 +64,13 @@ public class MenuService {
             parent = menuRepository.findById(dto.getParentId()).orElse(null);
         }
         menu.updateInfo(parent, dto.getName(), dto.getPath(), dto.getComponent(), dto.getIcon(), dto.getSort(), dto.getIsHidden());
-        return menuMapper.toDto(menuRepository.save(menu));
+        String oldPath = menu.refreshTreePath();
+        MenuDTO saved = menuMapper.toDto(menuRepository.save(menu));
+        if (oldPath != null && !oldPath.equals(menu.getTreePath())) {
+            menuRepository.moveSubtree(oldPath, menu.getTreePath());
+        }
+        eventPublisher.publishEvent(new MenuChangedEvent(menu));
+        return saved;
     }
 
     @Transactional
@@ -72,40 +85,23 @@ public class MenuService {
         menu.changePermissions(newPermissions);
 
         menuRepository.save(menu);
+        eventPublisher.publishEvent(new MenuChangedEvent(menu));
     }
 
-    public List<MenuDTO> buildMenuTree(@NonNull List<MenuDTO> flatList) {
-        Map<Long, MenuDTO> dtoMap = flatList.stream()
-                .collect(Collectors.toMap(MenuDTO::getId, dto -> dto));
-
-        List<MenuDTO> rootMenus = new ArrayList<>();
-
-        for (MenuDTO dto : flatList) {
-            if (Boolean.TRUE.equals(dto.getIsHidden())) {
-                continue;
-            }
-
-            if (dto.getParentId() == null || dto.getParentId() == 0) {
-                rootMenus.add(dto);
-            } else {
-                MenuDTO parent = dtoMap.get(dto.getParentId());
-                if (parent != null) {
-                    if (parent.getChildren() == null) {
-                        parent.setChildren(new ArrayList<>());
-                    }
-                    parent.getChildren().add(dto);
-                }
-            }
-        }
-
-        return filterEmptyParentMenus(rootMenus);
+    /**
+     * 全量可见菜单树
+     */
+    public List<MenuDTO> findTree() {
+        return menuTreeCache.menuTree(null);
     }
 
     @Transactional
     public void deleteById(Long id) {
-        List<Long> allIds = getAllMenuIds(id);
+        Menu menu = menuRepository.findById(id).orElseThrow(NotFoundException::new);
+        List<Long> allIds = menu.getTreePath() != null ? menuRepository.findSubtreeIds(menu.getTreePath()) : List.of(id);
 
-        List<Long> roleIds = menuRepository.findRoleIdsByMenuIds(allIds);
+        List<Long> permissionRoleIds = permissionRepository.findRoleIdsByMenuIds(allIds);
+        List<String> permissionCodes = permissionRepository.findCodesByMenuIds(allIds);
 
         permissionRepository.deleteRolePermissionsByMenuIds(allIds);
         permissionRepository.deleteByMenuIds(allIds);
@@ -113,166 +109,27 @@ public class MenuService {
         menuRepository.deleteRoleMenuByMenuIds(allIds);
         menuRepository.deleteAllById(allIds);
 
-        redisCommands.del(Const.CacheKey.MENU_TREE);
-        if (CollectionUtils.isNotEmpty(roleIds)) {
-            List<String> keys = roleIds.stream()
-                    .map(roleId -> Const.CacheKey.ROLE_PERMS + ":" + roleId)
-                    .toList();
-            redisCommands.del(keys.toArray(new String[0]));
-        }
-    }
-
-    private List<Long> getAllMenuIds(Long parentId) {
-        List<Long> ids = new ArrayList<>();
-        ids.add(parentId);
-        List<Menu> children = menuRepository.findByParentId(parentId);
-        for (Menu child : children) {
-            ids.addAll(getAllMenuIds(child.getId()));
-        }
-        return ids;
-    }
-
-    private List<MenuDTO> filterEmptyParentMenus(@NonNull List<MenuDTO> menus) {
-        List<MenuDTO> filtered = new ArrayList<>();
-        for (MenuDTO menu : menus) {
-            if (menu.getChildren() != null && !menu.getChildren().isEmpty()) {
-                List<MenuDTO> filteredChildren = filterEmptyParentMenus(menu.getChildren());
-                menu.setChildren(filteredChildren);
-            }
-
-            if ((menu.getChildren() == null || menu.getChildren().isEmpty()) && menu.getPath() != null
-                    && !menu.getPath().isEmpty()) {
-                filtered.add(menu);
-            } else if (menu.getChildren() != null && !menu.getChildren().isEmpty()) {
-                filtered.add(menu);
-            }
-        }
-        return filtered;
+        apiPermissionEventPublisher.publishEvent(new ApiPermissionChangedEvent(id));
+        eventPublisher.publishEvent(new MenuChangedEvent(id));
+        // 角色权限缓存与位图在事务提交后由监听方清理
+        authorizationEventPublisher.publishEvent(
+                AuthorizationChangedEvent.ofRemovedPermissions(permissionRoleIds, permissionCodes));
     }
 
-    @Transactional(readOnly = true)
     public List<MenuOptionDTO> buildMenuAndPermissionTree() {
-        List<Menu> entities = menuRepository.findAll();
-
         String currentTenantId = TenantContextHolder.getTenantId();
-        if (!SysUtil.isSuperTenant(currentTenantId)) {
-            Long packageId = tenantRepository.findByTenantId(currentTenantId)
-                    .map(com.mok.domain.sys.model.Tenant::getPackageId)
-                    .orElse(null);
-
-            if (packageId != null) {
-                Set<Long> allowedMenuIds = tenantPackageService.getMenuIdsByPackage(packageId);
-                Set<Long> allowedPermissionIds = tenantPackageService.getPermissionIdsByPackage(packageId);
-
-                entities = entities.stream()
-                        .filter(m -> allowedMenuIds.contains(m.getId()))
-                        .toList();
-
-                List<MenuOptionDTO> flatList = entities.stream()
-                        .map(entity -> {
-                            MenuOptionDTO dto = new MenuOptionDTO();
-                            dto.setId(entity.getId());
-                            dto.setParentId(entity.getParent() != null ? entity.getParent().getId() : null);
-                            dto.setName(entity.getName());
-                            dto.setPath(entity.getPath());
-                            dto.setIsPermission(false);
-
-                            if (entity.getPermissions() != null) {
-                                List<PermissionOptionDTO> pDtos = entity.getPermissions().stream()
-                                        .filter(p -> allowedPermissionIds.contains(p.getId()))
-                                        .map(p -> {
-                                            PermissionOptionDTO pDto = new PermissionOptionDTO();
-                                            pDto.setId(p.getId());
-                                            pDto.setName(p.getName());
-                                            pDto.setIsPermission(true);
-                                            return pDto;
-                                        }).toList();
-                                dto.setPermissions(pDtos);
-                            }
-                            return dto;
-                        }).toList();
-
-                return buildTreeFromFlatList(flatList);
-            }
-            return Collections.emptyList();
+        if (SysUtil.isSuperTenant(currentTenantId)) {
+            return menuTreeCache.optionTree(null, null);
         }
 
-        List<MenuOptionDTO> flatList = entities.stream()
-                .map(entity -> {
-                    MenuOptionDTO dto = new MenuOptionDTO();
-                    dto.setId(entity.getId());
-                    dto.setParentId(entity.getParent() != null ? entity.getParent().getId() : null);
-                    dto.setName(entity.getName());
-                    dto.setPath(entity.getPath());
-                    dto.setIsPermission(false);
-
-                    if (entity.getPermissions() != null) {
-                        List<PermissionOptionDTO> pDtos = entity.getPermissions().stream()
-                                .map(p -> {
-                                    PermissionOptionDTO pDto = new PermissionOptionDTO();
-                                    pDto.setId(p.getId());
-                                    pDto.setName(p.getName());
-                                    pDto.setIsPermission(true);
-                                    return pDto;
-                                }).toList();
-                        dto.setPermissions(pDtos);
-                    }
-                    return dto;
-                }).toList();
-
-        return buildTreeFromFlatList(flatList);
-    }
-
-    private List<MenuOptionDTO> buildTreeFromFlatList(List<MenuOptionDTO> flatList) {
-        Map<Long, MenuOptionDTO> dtoMap = flatList.stream()
-                .collect(Collectors.toMap(MenuOptionDTO::getId, dto -> dto));
-
-        List<MenuOptionDTO> rootMenus = new ArrayList<>();
-
-        for (MenuOptionDTO dto : flatList) {
-            if (dto.getPermissions() != null && !dto.getPermissions().isEmpty()) {
-                if (dto.getChildren() == null) {
-                    dto.setChildren(new ArrayList<>());
-                }
-                for (PermissionOptionDTO perm : dto.getPermissions()) {
-                    MenuOptionDTO permNode = new MenuOptionDTO();
-                    permNode.setId(perm.getId());
-                    permNode.setName("[按钮] " + perm.getName());
-                    permNode.setIsPermission(true);
-                    dto.getChildren().add(permNode);
-                }
-            }
-
-            if (dto.getParentId() == null || dto.getParentId() == 0) {
-                rootMenus.add(dto);
-            } else {
-                MenuOptionDTO parent = dtoMap.get(dto.getParentId());
-                if (parent != null) {
-                    if (parent.getChildren() == null) {
-                        parent.setChildren(new ArrayList<>());
-                    }
-                    parent.getChildren().add(dto);
-                }
-            }
-        }
-        return filterEmptyParentMenuOptions(rootMenus);
-    }
-
-    private List<MenuOptionDTO> filterEmptyParentMenuOptions(@NonNull List<MenuOptionDTO> menus) {
-        List<MenuOptionDTO> filtered = new ArrayList<>();
-        for (MenuOptionDTO menu : menus) {
-            if (menu.getChildren() != null && !menu.getChildren().isEmpty()) {
-                menu.setChildren(filterEmptyParentMenuOptions(menu.getChildren()));
-            }
-
-            boolean hasChildren = menu.getChildren() != null && !menu.getChildren().isEmpty();
-            boolean hasPath = menu.getPath() != null && !menu.getPath().isEmpty();
-            boolean isButton = Boolean.TRUE.equals(menu.getIsPermission());
-
-            if (isButton || hasPath || hasChildren) {
-                filtered.add(menu);
-            }
+        Long packageId = tenantRepository.findByTenantId(currentTenantId)
+                .map(com.mok.domain.sys.model.Tenant::getPackageId)
+                .orElse(null);
+        if (packageId == null) {
+            return Collections.emptyList();
         }
-        return filtered;
+        Set<Long> allowedMenuIds = tenantPackageService.getMenuIdsByPackage(packageId);
+        Set<Long> allowedPermissionIds = tenantPackageService.getPermissionIdsByPackage(packageId);
+        return menuTreeCache.optionTree(allowedMenuIds, allowedPermissionIds);
     }
 }
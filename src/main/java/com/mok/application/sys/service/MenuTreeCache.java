@@ -0,0 +1,308 @@
+package com.mok.application.sys.service;
+
+import com.mok.application.sys.dto.menu.MenuDTO;
+import com.mok.application.sys.dto.menu.MenuOptionDTO;
+import com.mok.application.sys.dto.menu.MenuPermissionRowDTO;
+import com.mok.application.sys.dto.permission.PermissionOptionDTO;
+import com.mok.application.sys.event.MenuChangedEvent;
+import com.mok.domain.sys.repository.MenuRepository;
+import com.mok.infrastructure.cache.CacheInvalidationBus;
+import com.mok.infrastructure.common.Const;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.scheduling.annotation.Scheduled;
+import io.micronaut.transaction.annotation.TransactionalEventListener;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 全量菜单树的不可变快照，用户、套餐等范围的菜单树均按 id 集合从快照裁剪得到。
+ * <p>
+ * 快照带有版本号，版本号保存在 Redis 中：菜单变更提交后递增版本并广播，各节点在下次读取时发现版本不一致再重建；
+ * 另有定时任务对齐版本，防止遗漏广播。
+ */
+@Slf4j
+@Singleton
+public class MenuTreeCache {
+
+    private static final String BUTTON_PREFIX = "[按钮] ";
+
+    private final MenuRepository menuRepository;
+    private final RedisCommands<String, String> redisCommands;
+    private final CacheInvalidationBus invalidationBus;
+
+    private final AtomicLong latestVersion = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public MenuTreeCache(MenuRepository menuRepository,
+                         RedisCommands<String, String> redisCommands,
+                         CacheInvalidationBus invalidationBus) {
+        this.menuRepository = menuRepository;
+        this.redisCommands = redisCommands;
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(Const.Channel.MENU_CHANGED, this::onVersion);
+    }
+
+    /**
+     * 可见菜单树：隐藏菜单及其下级不展示，无路由且无可见下级的目录被裁剪
+     *
+     * @param menuIds 允许的菜单 id，为 null 时不限制；菜单的上级不在集合中时该菜单不展示
+     */
+    public List<MenuDTO> menuTree(@Nullable Collection<Long> menuIds) {
+        List<MenuDTO> result = new ArrayList<>();
+        for (Node root : current().roots()) {
+            if (allowed(menuIds, root.id)) {
+                MenuDTO dto = toMenu(root, menuIds);
+                if (dto != null) {
+                    result.add(dto);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 菜单及按钮权限的授权选项树，包含隐藏菜单
+     *
+     * @param menuIds       允许的菜单 id，为 null 时不限制
+     * @param permissionIds 允许的权限 id，为 null 时不限制
+     */
+    public List<MenuOptionDTO> optionTree(@Nullable Collection<Long> menuIds, @Nullable Collection<Long> permissionIds) {
+        List<MenuOptionDTO> result = new ArrayList<>();
+        for (Node root : current().roots()) {
+            if (allowed(menuIds, root.id)) {
+                MenuOptionDTO dto = toOption(root, menuIds, permissionIds);
+                if (dto != null) {
+                    result.add(dto);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 当前快照的版本，菜单或权限变更后递增
+     */
+    public long version() {
+        return current().version();
+    }
+
+    @TransactionalEventListener
+    public void onMenuChanged(MenuChangedEvent event) {
+        long version = redisCommands.incr(Const.CacheKey.MENU_TREE_VERSION);
+        latestVersion.accumulateAndGet(version, Math::max);
+        invalidationBus.publish(Const.Channel.MENU_CHANGED, String.valueOf(version));
+    }
+
+    @Scheduled(fixedDelay = "${menu.tree.version-check-interval:30s}",
+            initialDelay = "${menu.tree.version-check-interval:30s}")
+    public void syncVersion() {
+        // Redis 中的版本可能被重置，以 Redis 为准
+        latestVersion.set(readVersion());
+    }
+
+    Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && current.version() == latestVersion.get()) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current != null && current.version() == latestVersion.get()) {
+                return current;
+            }
+            // 先取版本再加载，加载期间的变更会使版本再次不一致，下次读取时重建
+            long version = Math.max(readVersion(), latestVersion.get());
+            current = Snapshot.of(version, menuRepository.findMenuPermissionRows());
+            snapshot = current;
+            latestVersion.accumulateAndGet(version, Math::max);
+            return current;
+        }
+    }
+
+    private void onVersion(String message) {
+        try {
+            latestVersion.accumulateAndGet(Long.parseLong(message), Math::max);
+        } catch (NumberFormatException e) {
+            log.warn("Ignore invalid menu tree version: {}", message);
+        }
+    }
+
+    private long readVersion() {
+        String version = redisCommands.get(Const.CacheKey.MENU_TREE_VERSION);
+        return version == null ? 0 : Long.parseLong(version);
+    }
+
+    private static MenuDTO toMenu(Node node, @Nullable Collection<Long> menuIds) {
+        List<MenuDTO> children = null;
+        for (Node child : node.children) {
+            if (allowed(menuIds, child.id) && !Boolean.TRUE.equals(child.isHidden)) {
+                if (children == null) {
+                    children = new ArrayList<>();
+                }
+                MenuDTO dto = toMenu(child, menuIds);
+                if (dto != null) {
+                    children.add(dto);
+                }
+            }
+        }
+        boolean hasChildren = children != null && !children.isEmpty();
+        if (Boolean.TRUE.equals(node.isHidden) || !hasChildren && !hasText(node.path)) {
+            return null;
+        }
+
+        MenuDTO dto = new MenuDTO();
+        dto.setId(node.id);
+        dto.setParentId(node.parentId);
+        dto.setName(node.name);
+        dto.setPath(node.path);
+        dto.setComponent(node.component);
+        dto.setIcon(node.icon);
+        dto.setSort(node.sort);
+        dto.setIsHidden(node.isHidden);
+        dto.setPermissionIds(node.permissionIds);
+        dto.setChildren(children);
+        return dto;
+    }
+
+    private static MenuOptionDTO toOption(Node node, @Nullable Collection<Long> menuIds,
+                                          @Nullable Collection<Long> permissionIds) {
+        MenuOptionDTO dto = new MenuOptionDTO();
+        dto.setId(node.id);
+        dto.setParentId(node.parentId);
+        dto.setName(node.name);
+        dto.setPath(node.path);
+        dto.setIsPermission(false);
+
+        List<MenuOptionDTO> children = null;
+        List<PermissionOptionDTO> permissions = new ArrayList<>();
+        for (PermissionRef ref : node.permissions) {
+            if (allowed(permissionIds, ref.id())) {
+                PermissionOptionDTO permission = new PermissionOptionDTO();
+                permission.setId(ref.id());
+                permission.setName(ref.name());
+                permission.setIsPermission(true);
+                permissions.add(permission);
+            }
+        }
+        dto.setPermissions(permissions);
+        for (PermissionOptionDTO permission : permissions) {
+            if (children == null) {
+                children = new ArrayList<>();
+            }
+            MenuOptionDTO button = new MenuOptionDTO();
+            button.setId(permission.getId());
+            button.setName(BUTTON_PREFIX + permission.getName());
+            button.setIsPermission(true);
+            children.add(button);
+        }
+        for (Node child : node.children) {
+            if (allowed(menuIds, child.id)) {
+                if (children == null) {
+                    children = new ArrayList<>();
+                }
+                MenuOptionDTO option = toOption(child, menuIds, permissionIds);
+                if (option != null) {
+                    children.add(option);
+                }
+            }
+        }
+        dto.setChildren(children);
+
+        boolean hasChildren = children != null && !children.isEmpty();
+        return hasChildren || hasText(node.path) ? dto : null;
+    }
+
+    private static boolean allowed(@Nullable Collection<Long> ids, Long id) {
+        return ids == null || ids.contains(id);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isEmpty();
+    }
+
+    /**
+     * @param roots 上级为空或为 0 的菜单，上级不存在的菜单不在树中
+     */
+    record Snapshot(long version, List<Node> roots) {
+
+        private static final Comparator<Node> ORDER = Comparator.comparing(n -> n.sort,
+                Comparator.nullsLast(Comparator.naturalOrder()));
+
+        static Snapshot of(long version, List<MenuPermissionRowDTO> rows) {
+            Map<Long, List<MenuPermissionRowDTO>> rowsByMenu = new LinkedHashMap<>();
+            for (MenuPermissionRowDTO row : rows) {
+                rowsByMenu.computeIfAbsent(row.menuId(), k -> new ArrayList<>()).add(row);
+            }
+            Map<Long, Node> nodes = new LinkedHashMap<>();
+            for (List<MenuPermissionRowDTO> menuRows : rowsByMenu.values()) {
+                Node node = new Node(menuRows);
+                nodes.put(node.id, node);
+            }
+            List<Node> roots = new ArrayList<>();
+            for (Node node : nodes.values()) {
+                if (node.parentId == null || node.parentId == 0) {
+                    roots.add(node);
+                } else {
+                    Node parent = nodes.get(node.parentId);
+                    if (parent != null) {
+                        parent.children.add(node);
+                    }
+                }
+            }
+            for (Node node : nodes.values()) {
+                node.children.sort(ORDER);
+            }
+            roots.sort(ORDER);
+            return new Snapshot(version, List.copyOf(roots));
+        }
+    }
+
+    /**
+     * 快照内的菜单节点，发布后不再修改
+     */
+    static final class Node {
+        private final Long id;
+        private final Long parentId;
+        private final String name;
+        private final String path;
+        private final String component;
+        private final String icon;
+        private final Integer sort;
+        private final Boolean isHidden;
+        private final Set<Long> permissionIds;
+        private final List<PermissionRef> permissions;
+        private final List<Node> children = new ArrayList<>();
+
+        /**
+         * @param rows 同一菜单的行，每个权限一行
+         */
+        private Node(List<MenuPermissionRowDTO> rows) {
+            MenuPermissionRowDTO menu = rows.getFirst();
+            this.id = menu.menuId();
+            this.parentId = menu.parentId();
+            this.name = menu.name();
+            this.path = menu.path();
+            this.component = menu.component();
+            this.icon = menu.icon();
+            this.sort = menu.sort();
+            this.isHidden = menu.isHidden();
+            Set<Long> ids = new HashSet<>();
+            List<PermissionRef> refs = new ArrayList<>();
+            for (MenuPermissionRowDTO row : rows) {
+                if (row.permissionId() != null) {
+                    ids.add(row.permissionId());
+                    refs.add(new PermissionRef(row.permissionId(), row.permissionName()));
+                }
+            }
+            this.permissionIds = Collections.unmodifiableSet(ids);
+            this.permissions = List.copyOf(refs);
+        }
+    }
+
+    private record PermissionRef(Long id, String name) {
+    }
+}
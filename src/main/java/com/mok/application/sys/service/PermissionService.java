@@ -3,33 +3,80 @@ package com.mok.application.sys.service;
 import com.mok.application.exception.NotFoundException;
 import com.mok.application.sys.dto.permission.PermissionDTO;
 import com.mok.application.sys.dto.permission.PermissionQuery;
+import com.mok.application.sys.dto.permission.RolePermissionCodeDTO;
+import com.mok.application.sys.event.ApiPermissionChangedEvent;
+import com.mok.application.sys.event.AuthorizationChangedEvent;
+import com.mok.application.sys.event.MenuChangedEvent;
 import com.mok.application.sys.mapper.PermissionMapper;
 import com.mok.domain.sys.model.Menu;
 import com.mok.domain.sys.model.Permission;
 import com.mok.domain.sys.repository.MenuRepository;
 import com.mok.domain.sys.repository.PermissionRepository;
+import com.mok.infrastructure.cache.RedisScript;
+import com.mok.infrastructure.cache.SingleFlightLoader;
 import com.mok.infrastructure.common.Const;
+import io.lettuce.core.ScriptOutputType;
 import io.lettuce.core.api.sync.RedisCommands;
+import io.micronaut.context.event.ApplicationEventPublisher;
 import io.micronaut.core.annotation.NonNull;
-import io.micronaut.core.util.CollectionUtils;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
 import io.micronaut.transaction.annotation.Transactional;
+import io.micronaut.transaction.annotation.TransactionalEventListener;
 import jakarta.inject.Singleton;
 import lombok.RequiredArgsConstructor;
 
-import java.util.List;
-import java.util.Set;
+import java.time.Duration;
+import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Singleton
 @RequiredArgsConstructor
 public class PermissionService {
+
+    /**
+     * KEYS: 各角色权限缓存 key。按 KEYS 顺序返回每个角色的权限列表，未缓存的为空列表
+     */
+    private static final RedisScript READ_ROLE_PERMS_SCRIPT = new RedisScript("""
+            local result = {}
+            for i, key in ipairs(KEYS) do
+                result[i] = redis.call('LRANGE', key, 0, -1)
+            end
+            return result
+            """, ScriptOutputType.MULTI);
+
+    /**
+     * KEYS: 各角色权限缓存 key；ARGV: 依次为每个角色的权限数量、过期秒数及权限编码。
+     * 已被其他请求写入的 key 保持不变，避免重复追加
+     */
+    private static final RedisScript WRITE_ROLE_PERMS_SCRIPT = new RedisScript("""
+            local i = 1
+            for _, key in ipairs(KEYS) do
+                local n = tonumber(ARGV[i])
+                if redis.call('EXISTS', key) == 0 then
+                    local j = i + 2
+                    while j <= i + n + 1 do
+                        local last = math.min(j + 999, i + n + 1)
+                        redis.call('RPUSH', key, unpack(ARGV, j, last))
+                        j = last + 1
+                    end
+                    redis.call('EXPIRE', key, ARGV[i + 1])
+                end
+                i = i + n + 2
+            end
+            return 1
+            """, ScriptOutputType.INTEGER);
+
+    private static final Duration ROLE_PERMS_TTL = Duration.ofHours(12);
+
     private final PermissionRepository permissionRepository;
     private final MenuRepository menuRepository;
     private final PermissionMapper permissionMapper;
     private final RedisCommands<String, String> redisCommands;
+    private final SingleFlightLoader singleFlightLoader;
+    private final ApplicationEventPublisher<MenuChangedEvent> eventPublisher;
+    private final ApplicationEventPublisher<AuthorizationChangedEvent> authorizationEventPublisher;
+    private final ApplicationEventPublisher<ApiPermissionChangedEvent> apiPermissionEventPublisher;
 
     @Transactional(readOnly = true)
     public Page<PermissionDTO> findPage(PermissionQuery query, Pageable pageable) {
@@ -51,7 +98,10 @@ public class PermissionService {
             menu = menuRepository.findById(dto.getMenuId()).orElse(null);
         }
         Permission permission = Permission.create(dto.getName(), dto.getCode(), dto.getUrl(), dto.getMethod(), dto.getDescription(), menu);
-        return permissionMapper.toDto(permissionRepository.save(permission));
+        PermissionDTO saved = permissionMapper.toDto(permissionRepository.save(permission));
+        apiPermissionEventPublisher.publishEvent(new ApiPermissionChangedEvent(permission));
+        eventPublisher.publishEvent(new MenuChangedEvent(permission));
+        return saved;
     }
 
     @Transactional
@@ -61,8 +111,19 @@ public class PermissionService {
         if (dto.getMenuId() != null) {
             menu = menuRepository.findById(dto.getMenuId()).orElse(null);
         }
+        String oldCode = permission.getCode();
         permission.updateInfo(dto.getName(), dto.getCode(), dto.getUrl(), dto.getMethod(), dto.getDescription(), menu);
-        return permissionMapper.toDto(permissionRepository.save(permission));
+        PermissionDTO saved = permissionMapper.toDto(permissionRepository.save(permission));
+        if (oldCode != null && !oldCode.equals(permission.getCode())) {
+            // 编码改名：旧编码按删除处理，引用该权限的角色、套餐位图和角色权限缓存在提交后重建
+            authorizationEventPublisher.publishEvent(AuthorizationChangedEvent.ofRemovedPermissions(
+                    permissionRepository.findRoleIdsByPermissionId(permission.getId()),
+                    permissionRepository.findPackageIdsByPermissionId(permission.getId()),
+                    List.of(oldCode)));
+        }
+        apiPermissionEventPublisher.publishEvent(new ApiPermissionChangedEvent(permission));
+        eventPublisher.publishEvent(new MenuChangedEvent(permission));
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -77,34 +138,84 @@ public class PermissionService {
             return Set.of();
         }
 
-        return roleIds.stream().flatMap(roleId -> {
-            String cacheKey = Const.CacheKey.ROLE_PERMS + ":" + roleId;
-            List<String> cachedPerms = redisCommands.lrange(cacheKey, 0, -1);
-
-            if (cachedPerms == null || cachedPerms.isEmpty()) {
-                List<String> dbPerms = permissionRepository.findCodesByRoleId(roleId);
-                if (!dbPerms.isEmpty()) {
-                    redisCommands.rpush(cacheKey, dbPerms.toArray(new String[0]));
-                    return dbPerms.stream();
-                }
-                return Stream.empty();
+        List<Long> ids = List.copyOf(roleIds);
+        String[] keys = ids.stream().map(PermissionService::rolePermsKey).toArray(String[]::new);
+        List<Object> cached = READ_ROLE_PERMS_SCRIPT.execute(redisCommands, keys);
+
+        Set<String> result = new HashSet<>();
+        List<Long> missed = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Object perms = cached == null || i >= cached.size() ? null : cached.get(i);
+            if (perms instanceof List<?> list && !list.isEmpty()) {
+                list.forEach(code -> result.add((String) code));
+            } else {
+                missed.add(ids.get(i));
+            }
+        }
+        if (!missed.isEmpty()) {
+            loadRolePermissions(missed).values().forEach(result::addAll);
+        }
+        return result;
+    }
+
+    /**
+     * 一次查询加载所有未命中角色的权限并批量回写缓存，同一角色的并发加载合并为一次
+     */
+    private Map<Long, List<String>> loadRolePermissions(List<Long> roleIds) {
+        Map<Long, List<String>> loaded = singleFlightLoader.loadAll(Const.CacheKey.ROLE_PERMS, roleIds, ids -> {
+            Map<Long, List<String>> fromDb = permissionRepository.findCodesByRoleIds(ids).stream()
+                    .collect(Collectors.groupingBy(RolePermissionCodeDTO::roleId,
+                            Collectors.mapping(RolePermissionCodeDTO::code, Collectors.toList())));
+            writeRolePermissions(fromDb);
+            return fromDb;
+        });
+        loaded.replaceAll((roleId, codes) -> codes != null ? codes : List.of());
+        return loaded;
+    }
+
+    private void writeRolePermissions(Map<Long, List<String>> rolePerms) {
+        // 没有权限的角色不写入缓存，与原有逻辑一致
+        List<String> keys = new ArrayList<>();
+        List<String> args = new ArrayList<>();
+        rolePerms.forEach((roleId, codes) -> {
+            if (!codes.isEmpty()) {
+                keys.add(rolePermsKey(roleId));
+                args.add(String.valueOf(codes.size()));
+                args.add(String.valueOf(singleFlightLoader.ttlSeconds(ROLE_PERMS_TTL)));
+                args.addAll(codes);
             }
-            return cachedPerms.stream();
-        }).collect(Collectors.toSet());
+        });
+        if (!keys.isEmpty()) {
+            WRITE_ROLE_PERMS_SCRIPT.execute(redisCommands, keys.toArray(String[]::new), args.toArray(String[]::new));
+        }
+    }
+
+    /**
+     * 事务提交后丢弃受影响角色的权限缓存，避免并发读取在提交前把旧数据写回
+     */
+    @TransactionalEventListener
+    public void onAuthorizationChanged(AuthorizationChangedEvent event) {
+        if (!event.getRoleIds().isEmpty()) {
+            redisCommands.del(event.getRoleIds().stream().map(PermissionService::rolePermsKey).toArray(String[]::new));
+        }
+    }
+
+    private static String rolePermsKey(Long roleId) {
+        return Const.CacheKey.ROLE_PERMS + ":" + roleId;
     }
 
     @Transactional
     public void deleteById(Long id) {
         List<Long> roleIds = permissionRepository.findRoleIdsByPermissionId(id);
+        String code = permissionRepository.findById(id).map(Permission::getCode).orElse(null);
 
         permissionRepository.deleteRolePermissionsByPermissionId(id);
         permissionRepository.deleteById(id);
 
-        if (CollectionUtils.isNotEmpty(roleIds)) {
-            List<String> keys = roleIds.stream()
-                    .map(roleId -> Const.CacheKey.ROLE_PERMS + ":" + roleId)
-                    .toList();
-            redisCommands.del(keys.toArray(new String[0]));
-        }
+        // 角色权限缓存与位图在事务提交后由监听方清理
+        authorizationEventPublisher.publishEvent(AuthorizationChangedEvent.ofRemovedPermissions(
+                roleIds, code == null ? List.of() : List.of(code)));
+        apiPermissionEventPublisher.publishEvent(new ApiPermissionChangedEvent(id));
+        eventPublisher.publishEvent(new MenuChangedEvent(id));
     }
 }
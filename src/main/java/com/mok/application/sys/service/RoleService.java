@@ -5,6 +5,8 @@ import com.mok.application.exception.NotFoundException;
 import com.mok.application.sys.dto.menu.MenuDTO;
 import com.mok.application.sys.dto.permission.PermissionDTO;
 import com.mok.application.sys.dto.role.*;
+import com.mok.application.sys.event.AccountInfoChangedEvent;
+import com.mok.application.sys.event.AuthorizationChangedEvent;
 import com.mok.application.sys.mapper.MenuMapper;
 import com.mok.application.sys.mapper.PermissionMapper;
 import com.mok.application.sys.mapper.RoleMapper;
@@ -15,7 +17,7 @@ import com.mok.domain.sys.repository.MenuRepository;
 import com.mok.domain.sys.repository.PermissionRepository;
 import com.mok.domain.sys.repository.RoleRepository;
 import com.mok.infrastructure.common.Const;
-import io.lettuce.core.api.sync.RedisCommands;
+import io.micronaut.context.event.ApplicationEventPublisher;
 import io.micronaut.core.annotation.NonNull;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
@@ -39,7 +41,8 @@ public class RoleService {
     private final RoleMapper roleMapper;
     private final PermissionMapper permissionMapper;
     private final MenuMapper menuMapper;
-    private final RedisCommands<String, String> redisCommands;
+    private final ApplicationEventPublisher<AccountInfoChangedEvent> accountInfoEventPublisher;
+    private final ApplicationEventPublisher<AuthorizationChangedEvent> authorizationEventPublisher;
 
     @Transactional(readOnly = true)
     public Page<RoleDTO> findPage(RoleQuery query, Pageable pageable) {
@@ -82,7 +85,9 @@ public class RoleService {
         } else if (Objects.equals(state, Const.RoleState.DISABLED)) {
             role.disable();
         }
-        return roleMapper.toDto(roleRepository.save(role));
+        RoleDTO saved = roleMapper.toDto(roleRepository.save(role));
+        accountInfoEventPublisher.publishEvent(AccountInfoChangedEvent.ofRole(role.getTenantId(), id));
+        return saved;
     }
 
     @Transactional
@@ -112,8 +117,9 @@ public class RoleService {
 
         roleRepository.save(role);
 
-        String cacheKey = Const.CacheKey.ROLE_PERMS + ":" + roleId;
-        redisCommands.del(cacheKey);
+        // 角色权限缓存与位图在事务提交后由监听方清理
+        authorizationEventPublisher.publishEvent(AuthorizationChangedEvent.ofRole(roleId));
+        accountInfoEventPublisher.publishEvent(AccountInfoChangedEvent.ofRole(role.getTenantId(), roleId));
     }
 
     @Transactional(readOnly = true)
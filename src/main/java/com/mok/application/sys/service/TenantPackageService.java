@@ -1,9 +1,9 @@
 package com.mok.application.sys.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mok.application.exception.BizException;
 import com.mok.application.sys.dto.tenantPackage.*;
+import com.mok.application.sys.event.AccountInfoChangedEvent;
+import com.mok.application.sys.event.AuthorizationChangedEvent;
 import com.mok.application.sys.mapper.MenuMapper;
 import com.mok.application.sys.mapper.PermissionMapper;
 import com.mok.application.sys.mapper.TenantPackageMapper;
@@ -14,8 +14,10 @@ import com.mok.domain.sys.repository.MenuRepository;
 import com.mok.domain.sys.repository.PermissionRepository;
 import com.mok.domain.sys.repository.TenantPackageRepository;
 import com.mok.domain.sys.repository.TenantRepository;
+import com.mok.infrastructure.cache.CacheEvict;
+import com.mok.infrastructure.cache.Cached;
 import com.mok.infrastructure.common.Const;
-import io.lettuce.core.api.sync.RedisCommands;
+import io.micronaut.context.event.ApplicationEventPublisher;
 import io.micronaut.core.annotation.NonNull;
 import io.micronaut.core.util.StringUtils;
 import io.micronaut.data.model.Page;
@@ -24,7 +26,6 @@ import io.micronaut.transaction.annotation.Transactional;
 import jakarta.inject.Singleton;
 import lombok.RequiredArgsConstructor;
 
-import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -37,10 +38,10 @@ public class TenantPackageService {
     private final PermissionRepository permissionRepository;
     private final TenantPackageMapper packageMapper;
     private final TenantRepository tenantRepository;
-    private final RedisCommands<String, String> redisCommands;
     private final MenuMapper menuMapper;
     private final PermissionMapper permissionMapper;
-    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher<AccountInfoChangedEvent> accountInfoEventPublisher;
+    private final ApplicationEventPublisher<AuthorizationChangedEvent> authorizationEventPublisher;
 
     @Transactional(readOnly = true)
     public Page<TenantPackageDTO> findPage(TenantPackageQuery query, Pageable pageable) {
@@ -51,17 +52,23 @@ public class TenantPackageService {
     @Transactional
     public void createPackage(TenantPackageSaveDTO dto) {
         TenantPackage entity = TenantPackage.create(dto.getName(), dto.getDescription());
+        entity.changeTier(dto.getTier());
         packageRepository.save(entity);
     }
 
+    @CacheEvict(value = Const.CacheKey.TENANT_PACKAGE_TIER, parameters = "id")
     @Transactional
     public void updatePackage(Long id, TenantPackageSaveDTO dto) {
         TenantPackage entity = packageRepository.findById(id)
                 .orElseThrow(() -> new BizException("套餐不存在"));
         entity.updateInfo(dto.getName(), dto.getDescription());
+        if (dto.getTier() != null) {
+            entity.changeTier(dto.getTier());
+        }
         packageRepository.save(entity);
     }
 
+    @CacheEvict(value = {Const.CacheKey.TENANT_PACKAGE_MENU_IDS, Const.CacheKey.TENANT_PACKAGE_PERMISSION_IDS}, parameters = "id")
     @Transactional
     public void grant(Long id, TenantPackageGrantDTO dto) {
         TenantPackage entity = packageRepository.findById(id)
@@ -76,13 +83,8 @@ public class TenantPackageService {
             entity.changePermissions(permissions);
         }
         packageRepository.save(entity);
-
-        // 清理缓存
-        String[] keys = {
-                Const.CacheKey.TENANT_PACKAGE_PERMS + ":menus:" + id,
-                Const.CacheKey.TENANT_PACKAGE_PERMS + ":permissions:" + id
-        };
-        redisCommands.del(keys);
+        authorizationEventPublisher.publishEvent(AuthorizationChangedEvent.ofPackage(id));
+        accountInfoEventPublisher.publishEvent(AccountInfoChangedEvent.ofPackage(id));
     }
 
     @Transactional
@@ -125,56 +127,35 @@ public class TenantPackageService {
                 .collect(Collectors.toList());
     }
 
+    @Cached(Const.CacheKey.TENANT_PACKAGE_MENU_IDS)
     @Transactional(readOnly = true)
     public Set<Long> getMenuIdsByPackage(Long id) {
-        String cacheKey = Const.CacheKey.TENANT_PACKAGE_PERMS + ":menus:" + id;
-        String cached = redisCommands.get(cacheKey);
-        if (cached != null) {
-            try {
-                return objectMapper.readValue(cached, new TypeReference<Set<Long>>() {
-                });
-            } catch (IOException e) {
-                // Log error
-            }
-        }
-
         TenantPackage tenantPackage = packageRepository.findById(id).orElse(null);
         if (tenantPackage == null || tenantPackage.getMenus() == null) {
             return Collections.emptySet();
         }
-        Set<Long> menuIds = tenantPackage.getMenus().stream().map(Menu::getId).collect(Collectors.toSet());
-        try {
-            redisCommands.set(cacheKey, objectMapper.writeValueAsString(menuIds));
-        } catch (IOException e) {
-            // Log error
-        }
-        return menuIds;
+        return tenantPackage.getMenus().stream().map(Menu::getId).collect(Collectors.toSet());
     }
 
+    @Cached(Const.CacheKey.TENANT_PACKAGE_PERMISSION_IDS)
     @Transactional(readOnly = true)
     public Set<Long> getPermissionIdsByPackage(Long id) {
-        String cacheKey = Const.CacheKey.TENANT_PACKAGE_PERMS + ":permissions:" + id;
-        String cached = redisCommands.get(cacheKey);
-        if (cached != null) {
-            try {
-                return objectMapper.readValue(cached, new TypeReference<Set<Long>>() {
-                });
-            } catch (IOException e) {
-                // Log error
-            }
-        }
-
         TenantPackage tenantPackage = packageRepository.findById(id).orElse(null);
         if (tenantPackage == null || tenantPackage.getPermissions() == null) {
             return Collections.emptySet();
         }
-        Set<Long> permissionIds = tenantPackage.getPermissions().stream().map(Permission::getId).collect(Collectors.toSet());
-        try {
-            redisCommands.set(cacheKey, objectMapper.writeValueAsString(permissionIds));
-        } catch (IOException e) {
-            // Log error
-        }
-        return permissionIds;
+        return tenantPackage.getPermissions().stream().map(Permission::getId).collect(Collectors.toSet());
+    }
+
+    /**
+     * 套餐的服务档位，套餐不存在或未设置时为默认档位
+     */
+    @Cached(Const.CacheKey.TENANT_PACKAGE_TIER)
+    @Transactional(readOnly = true)
+    public String getTierByPackage(Long id) {
+        return packageRepository.findById(id)
+                .map(TenantPackage::getTier)
+                .orElse(Const.TenantPackageTier.DEFAULT);
     }
 
     @Transactional(readOnly = true)
@@ -2,14 +2,15 @@ package com.mok.application.sys.service;
 
 import com.mok.application.exception.BizException;
 import com.mok.application.sys.dto.tenant.*;
+import com.mok.application.sys.event.AccountInfoChangedEvent;
 import com.mok.application.sys.event.TenantCreatedEvent;
 import com.mok.application.sys.mapper.TenantMapper;
 import com.mok.domain.sys.model.Tenant;
 import com.mok.domain.sys.repository.TenantRepository;
+import com.mok.infrastructure.cache.TwoLevelCacheManager;
 import com.mok.infrastructure.common.Const;
 import com.mok.infrastructure.util.PasswordGenerator;
 import com.mok.infrastructure.util.SysUtil;
-import io.lettuce.core.api.sync.RedisCommands;
 import io.micronaut.context.event.ApplicationEventPublisher;
 import io.micronaut.core.annotation.NonNull;
 import io.micronaut.core.util.StringUtils;
@@ -30,7 +31,8 @@ public class TenantService {
     private final TenantRepository tenantRepository;
     private final TenantMapper tenantMapper;
     private final ApplicationEventPublisher<TenantCreatedEvent> eventPublisher;
-    private final RedisCommands<String, String> redisCommands;
+    private final TwoLevelCacheManager cacheManager;
+    private final ApplicationEventPublisher<AccountInfoChangedEvent> accountInfoEventPublisher;
 
     @Transactional(readOnly = true)
     public Page<TenantDTO> findPage(TenantQuery query, Pageable pageable) {
@@ -75,7 +77,8 @@ public class TenantService {
         existingTenant.changePackage(dto.getPackageId());
 
         Tenant savedTenant = tenantRepository.save(existingTenant);
-        redisCommands.del(Const.CacheKey.TENANT + savedTenant.getTenantId());
+        cacheManager.evictAfterCommit(Const.CacheKey.TENANT, savedTenant.getTenantId());
+        accountInfoEventPublisher.publishEvent(AccountInfoChangedEvent.ofTenant(savedTenant.getTenantId()));
         return tenantMapper.toDto(savedTenant);
     }
 
@@ -92,7 +95,7 @@ public class TenantService {
         }
 
         Tenant savedTenant = tenantRepository.save(existingTenant);
-        redisCommands.del(Const.CacheKey.TENANT + savedTenant.getTenantId());
+        cacheManager.evictAfterCommit(Const.CacheKey.TENANT, savedTenant.getTenantId());
         return tenantMapper.toDto(savedTenant);
     }
 
@@ -105,7 +108,7 @@ public class TenantService {
 
         // TODO其他业务数据判断
         tenantRepository.deleteById(id);
-        redisCommands.del(Const.CacheKey.TENANT + old.getTenantId());
+        cacheManager.evictAfterCommit(Const.CacheKey.TENANT, old.getTenantId());
         return true;
     }
 
@@ -4,8 +4,9 @@ import com.mok.application.exception.BizException;
 import com.mok.application.exception.NotFoundException;
 import com.mok.application.sys.dto.auth.AccountInfoDTO;
 import com.mok.application.sys.dto.menu.MenuDTO;
+import com.mok.application.sys.event.AccountInfoChangedEvent;
+import com.mok.application.sys.event.LoginUserChangedEvent;
 import com.mok.application.sys.dto.user.*;
-import com.mok.application.sys.mapper.MenuMapper;
 import com.mok.application.sys.mapper.UserMapper;
 import com.mok.domain.sys.model.*;
 import com.mok.domain.sys.repository.*;
@@ -13,6 +14,7 @@ import com.mok.infrastructure.common.Const;
 import com.mok.infrastructure.sys.security.PasswordEncoder;
 import com.mok.infrastructure.tenant.TenantContextHolder;
 import com.mok.infrastructure.util.SysUtil;
+import io.micronaut.context.event.ApplicationEventPublisher;
 import io.micronaut.core.annotation.NonNull;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
@@ -31,12 +33,12 @@ public class UserService {
     private final RoleRepository roleRepository;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
-    private final MenuService menuService;
-    private final MenuMapper menuMapper;
-    private final MenuRepository menuRepository;
+    private final MenuTreeCache menuTreeCache;
     private final PermissionService permissionService;
     private final TenantRepository tenantRepository;
     private final TenantPackageRepository tenantPackageRepository;
+    private final ApplicationEventPublisher<AccountInfoChangedEvent> accountInfoEventPublisher;
+    private final ApplicationEventPublisher<LoginUserChangedEvent> eventPublisher;
 
     @Transactional(readOnly = true)
     public Page<UserDTO> findPage(UserQuery query, Pageable pageable) {
@@ -65,7 +67,9 @@ public class UserService {
             entity.changeRoles(roles);
         }
 
-        return userMapper.toDto(userRepository.save(entity));
+        UserDTO saved = userMapper.toDto(userRepository.save(entity));
+        eventPublisher.publishEvent(new LoginUserChangedEvent(entity.getTenantId(), entity.getUsername()));
+        return saved;
     }
 
     @Transactional
@@ -87,7 +91,9 @@ public class UserService {
             entity.changeRoles(roles);
         }
 
-        return userMapper.toDto(userRepository.save(entity));
+        UserDTO saved = userMapper.toDto(userRepository.save(entity));
+        eventPublisher.publishEvent(new LoginUserChangedEvent(entity.getTenantId(), entity.getUsername()));
+        return saved;
     }
 
     @Transactional
@@ -100,7 +106,10 @@ public class UserService {
             roles = new HashSet<>(roleRepository.findByIdIn(dto.getRoleIds()));
         }
         entity.updateInfo(dto.getNickname(), roles);
-        return userMapper.toDto(userRepository.save(entity));
+        UserDTO saved = userMapper.toDto(userRepository.save(entity));
+        accountInfoEventPublisher.publishEvent(AccountInfoChangedEvent.ofUser(entity.getTenantId(), dto.getId()));
+        eventPublisher.publishEvent(new LoginUserChangedEvent(entity.getTenantId(), entity.getUsername()));
+        return saved;
     }
 
     @Transactional
@@ -109,6 +118,7 @@ public class UserService {
                 .orElseThrow(() -> new NotFoundException(Const.NOT_FOUND_MESSAGE));
         user.updateInfo(nickname, user.getRoles());
         userRepository.save(user);
+        accountInfoEventPublisher.publishEvent(AccountInfoChangedEvent.ofUser(user.getTenantId(), id));
     }
 
     @Transactional
@@ -119,7 +129,10 @@ public class UserService {
         } else {
             entity.disable();
         }
-        return userMapper.toDto(userRepository.save(entity));
+        UserDTO saved = userMapper.toDto(userRepository.save(entity));
+        accountInfoEventPublisher.publishEvent(AccountInfoChangedEvent.ofUser(entity.getTenantId(), id));
+        eventPublisher.publishEvent(new LoginUserChangedEvent(entity.getTenantId(), entity.getUsername()));
+        return saved;
     }
 
     @Transactional
@@ -130,6 +143,7 @@ public class UserService {
         Objects.requireNonNull(encodedPassword, "密码加密失败");
         user.changePassword(encodedPassword);
         userRepository.save(user);
+        eventPublisher.publishEvent(new LoginUserChangedEvent(user.getTenantId(), user.getUsername()));
     }
 
     @Transactional
@@ -147,6 +161,7 @@ public class UserService {
         }
 
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new LoginUserChangedEvent(userToDelete.get().getTenantId(), userToDelete.get().getUsername()));
     }
 
     @Transactional(readOnly = true)
@@ -160,12 +175,12 @@ public class UserService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new NotFoundException(Const.NOT_FOUND_MESSAGE));
 
-        List<MenuDTO> flatMenus;
+        Set<Long> menuIds;
         Set<String> distinctPermissions;
 
         if (SysUtil.isSuperAdmin(user.getTenantId(), username)) {
             // 超级管理员拥有所有权限
-            flatMenus = menuRepository.findAll().stream().map(menuMapper::toDto).collect(Collectors.toList());
+            menuIds = null;
             distinctPermissions = new HashSet<>(permissionService.getAllPermissionCodes());
             distinctPermissions.add(Const.SUPER_ADMIN_ROLE_CODE);
         } else if (Boolean.TRUE.equals(user.getIsTenantAdmin())) {
@@ -174,37 +189,25 @@ public class UserService {
                     .map(Tenant::getPackageId)
                     .orElse(null);
 
-            if (packageId != null) {
-                TenantPackage tenantPackage = tenantPackageRepository.findById(packageId).orElse(null);
-                if (tenantPackage != null) {
-                    flatMenus = new ArrayList<>(menuMapper.toDtoList(tenantPackage.getMenus()));
-                    distinctPermissions = tenantPackage.getPermissions().stream()
-                            .map(Permission::getCode)
-                            .collect(Collectors.toSet());
-                } else {
-                    flatMenus = new ArrayList<>();
-                    distinctPermissions = new HashSet<>();
-                }
+            TenantPackage tenantPackage = packageId != null ? tenantPackageRepository.findById(packageId).orElse(null) : null;
+            if (tenantPackage != null) {
+                menuIds = tenantPackage.getMenus().stream()
+                        .map(Menu::getId)
+                        .collect(Collectors.toSet());
+                distinctPermissions = tenantPackage.getPermissions().stream()
+                        .map(Permission::getCode)
+                        .collect(Collectors.toSet());
             } else {
-                flatMenus = new ArrayList<>();
+                menuIds = Collections.emptySet();
                 distinctPermissions = new HashSet<>();
             }
         } else {
-            // 普通用户，根据角色获取权限
-            Set<Menu> distinctMenuEntities = user.getRoles().stream()
-                    .flatMap(role -> role.getMenus().stream())
-                    .collect(Collectors.toSet());
-
-            flatMenus = new ArrayList<>(menuMapper.toDtoList(distinctMenuEntities));
-
-            distinctPermissions = user.getRoles().stream()
-                    .flatMap(r -> r.getPermissions().stream())
-                    .map(Permission::getCode)
-                    .collect(Collectors.toSet());
+            // 普通用户，经用户-角色关联直接查询菜单与权限，不加载角色集合
+            menuIds = new HashSet<>(userRepository.findMenuIdsByUserId(user.getId()));
+            distinctPermissions = new HashSet<>(userRepository.findPermissionCodesByUserId(user.getId()));
         }
 
-        flatMenus.sort(Comparator.comparing(MenuDTO::getSort, Comparator.nullsLast(Comparator.naturalOrder())));
-        List<MenuDTO> menuTree = menuService.buildMenuTree(flatMenus);
+        List<MenuDTO> menuTree = menuTreeCache.menuTree(menuIds);
 
         return AccountInfoDTO.builder()
                 .user(userMapper.toDto(user))
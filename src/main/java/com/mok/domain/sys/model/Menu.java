@@ -1,5 +1,6 @@
 package com.mok.domain.sys.model;
 
+import com.mok.application.exception.BizException;
 import com.mok.domain.common.BaseEntity;
 import io.micronaut.core.annotation.Introspected;
 import jakarta.persistence.*;
@@ -26,6 +27,12 @@ public class Menu extends BaseEntity {
     private Integer sort;
     private Boolean isHidden;
 
+    /**
+     * 从根到自身的 id 路径，如 {@code /1/5/12/}，用于一次查询取得整棵子树
+     */
+    @Column(name = "tree_path", length = 1000)
+    private String treePath;
+
     @OneToMany(mappedBy = "menu", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Permission> permissions = new HashSet<>();
 
@@ -42,6 +49,9 @@ public class Menu extends BaseEntity {
     }
 
     public void updateInfo(Menu parent, String name, String path, String component, String icon, Integer sort, Boolean isHidden) {
+        if (parent != null && isAncestorOf(parent)) {
+            throw new BizException("上级菜单不能是当前菜单或其下级");
+        }
         this.parent = parent;
         this.name = name;
         this.path = path;
@@ -57,4 +67,29 @@ public class Menu extends BaseEntity {
         newPermissions.forEach(p -> p.setMenu(this));
         this.permissions.addAll(newPermissions);
     }
+
+    /**
+     * 按上级路径重新计算自身路径，需在生成 id 后、上级变更后调用
+     *
+     * @return 变更前的路径
+     */
+    public String refreshTreePath() {
+        String old = this.treePath;
+        this.treePath = childPath(parent != null ? parent.getTreePath() : null, getId());
+        return old;
+    }
+
+    /**
+     * 自身或其下级
+     */
+    public boolean isAncestorOf(Menu other) {
+        if (other == this || getId() != null && getId().equals(other.getId())) {
+            return true;
+        }
+        return treePath != null && other.getTreePath() != null && other.getTreePath().startsWith(treePath);
+    }
+
+    public static String childPath(String parentPath, Long id) {
+        return (parentPath != null ? parentPath : "/") + id + "/";
+    }
 }
@@ -22,6 +22,11 @@ public class TenantPackage extends BaseEntity {
     private String description;
     private Integer state;
 
+    /**
+     * 服务档位，决定租户及其用户的限流配额
+     */
+    private String tier;
+
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "sys_package_menu",
@@ -43,9 +48,14 @@ public class TenantPackage extends BaseEntity {
         tenantPackage.name = name;
         tenantPackage.description = description;
         tenantPackage.state = Const.TenantPackageState.NORMAL;
+        tenantPackage.tier = Const.TenantPackageTier.DEFAULT;
         return tenantPackage;
     }
 
+    public void changeTier(String tier) {
+        this.tier = tier == null || tier.isBlank() ? Const.TenantPackageTier.DEFAULT : tier;
+    }
+
     public void updateInfo(@NonNull String name, String description) {
         this.name = name;
         this.description = description;
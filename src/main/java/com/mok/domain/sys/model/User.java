@@ -11,7 +11,7 @@ import lombok.*;
 import java.util.Set;
 
 @Entity
-@Table(name = "sys_user")
+@Table(name = "sys_user", indexes = @Index(name = "uk_user_tenant_username", columnList = "tenant_id, username", unique = true))
 @EntityListeners(AuditEntityListener.class)
 @Getter
 @Setter
@@ -1,5 +1,6 @@
 package com.mok.domain.sys.repository;
 
+import com.mok.application.sys.dto.menu.MenuPermissionRowDTO;
 import com.mok.domain.sys.model.Menu;
 import io.micronaut.data.annotation.Query;
 import io.micronaut.data.jpa.repository.JpaRepository;
@@ -23,4 +24,31 @@ public interface MenuRepository extends JpaRepository<Menu, Long> {
     void deleteAllById(Collection<Long> ids);
 
     List<Menu> findByIdIn(Collection<Long> ids);
+
+    /**
+     * 一条语句取出全部菜单及其权限，不加载实体；按 tree_path 排序，上级总在下级之前
+     */
+    @Query(value = "SELECT m.id AS menuId, m.parent_id AS parentId, m.name AS name, m.path AS path, " +
+            "m.component AS component, m.icon AS icon, m.sort AS sort, m.is_hidden AS isHidden, " +
+            "p.id AS permissionId, p.name AS permissionName FROM sys_menu m " +
+            "LEFT JOIN sys_permission p ON p.menu_id = m.id ORDER BY m.tree_path, p.id", nativeQuery = true)
+    List<MenuPermissionRowDTO> findMenuPermissionRows();
+
+    /**
+     * 自身及全部下级的 id
+     */
+    @Query(value = "SELECT id FROM sys_menu WHERE tree_path LIKE CONCAT(:treePath, '%')", nativeQuery = true)
+    List<Long> findSubtreeIds(String treePath);
+
+    /**
+     * 子树整体移动：将以 oldPath 开头的路径前缀替换为 newPath
+     */
+    @Transactional
+    @Query(value = "UPDATE sys_menu SET tree_path = CONCAT(:newPath, SUBSTRING(tree_path, CHAR_LENGTH(:oldPath) + 1)) " +
+            "WHERE tree_path LIKE CONCAT(:oldPath, '%')", nativeQuery = true)
+    void moveSubtree(String oldPath, String newPath);
+
+    @Transactional
+    @Query(value = "UPDATE sys_menu SET tree_path = :treePath WHERE id = :id", nativeQuery = true)
+    void updateTreePath(Long id, String treePath);
 }
\ No newline at end of file
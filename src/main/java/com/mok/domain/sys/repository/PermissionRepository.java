@@ -1,6 +1,8 @@
 package com.mok.domain.sys.repository;
 
 
+import com.mok.application.sys.dto.permission.PermissionUrlDTO;
+import com.mok.application.sys.dto.permission.RolePermissionCodeDTO;
 import com.mok.domain.sys.model.Permission;
 import io.micronaut.core.annotation.Nullable;
 import io.micronaut.data.annotation.Query;
@@ -24,6 +26,9 @@ public interface PermissionRepository extends PageableRepository<Permission, Lon
     @Query(value = "SELECT DISTINCT role_id FROM sys_role_permission WHERE permission_id = :id", nativeQuery = true)
     List<Long> findRoleIdsByPermissionId(Long id);
 
+    @Query(value = "SELECT DISTINCT package_id FROM sys_package_permission WHERE permission_id = :id", nativeQuery = true)
+    List<Long> findPackageIdsByPermissionId(Long id);
+
     @Transactional
     @Query(value = "DELETE FROM sys_role_permission WHERE permission_id = :id", nativeQuery = true)
     void deleteRolePermissionsByPermissionId(Long id);
@@ -36,10 +41,26 @@ public interface PermissionRepository extends PageableRepository<Permission, Lon
     @Query("DELETE FROM com.mok.ddd.domain.sys.model.Permission p WHERE p.menu.id IN :menuIds")
     void deleteByMenuIds(List<Long> menuIds);
 
-    @Query(value = "SELECT p.code FROM sys_permission p " +
+    @Query(value = "SELECT DISTINCT rp.role_id FROM sys_role_permission rp " +
+            "JOIN sys_permission p ON p.id = rp.permission_id " +
+            "WHERE p.menu_id IN :menuIds", nativeQuery = true)
+    List<Long> findRoleIdsByMenuIds(List<Long> menuIds);
+
+    @Query(value = "SELECT code FROM sys_permission WHERE menu_id IN :menuIds", nativeQuery = true)
+    List<String> findCodesByMenuIds(List<Long> menuIds);
+
+    @Query(value = "SELECT rp.role_id AS roleId, p.code AS code FROM sys_permission p " +
             "JOIN sys_role_permission rp ON p.id = rp.permission_id " +
-            "WHERE rp.role_id = :roleId", nativeQuery = true)
-    List<String> findCodesByRoleId(Long roleId);
+            "WHERE rp.role_id IN :roleIds", nativeQuery = true)
+    List<RolePermissionCodeDTO> findCodesByRoleIds(Collection<Long> roleIds);
+
+    @Query(value = "SELECT p.code FROM sys_permission p " +
+            "JOIN sys_package_permission pp ON p.id = pp.permission_id " +
+            "WHERE pp.package_id = :packageId", nativeQuery = true)
+    List<String> findCodesByPackageId(Long packageId);
+
+    @Query(value = "SELECT code, url, method FROM sys_permission WHERE url IS NOT NULL AND url <> ''", nativeQuery = true)
+    List<PermissionUrlDTO> findAllUrlRules();
 
     @Query("SELECT p FROM com.mok.ddd.domain.sys.model.Permission p WHERE p.id IN :ids")
     List<Permission> findAllById(Collection<Long> ids);
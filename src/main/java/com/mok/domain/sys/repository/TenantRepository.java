@@ -19,6 +19,8 @@ public interface TenantRepository extends PageableRepository<Tenant, Long>, JpaR
 
     long countByPackageId(Long packageId);
 
+    List<String> findTenantIdByPackageId(Long packageId);
+
     List<Tenant> findByNameContainsIgnoreCaseAndState(String name, Integer state);
 
     List<Tenant> findByState(Integer state);
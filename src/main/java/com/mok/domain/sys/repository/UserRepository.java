@@ -1,5 +1,6 @@
 package com.mok.domain.sys.repository;
 
+import com.mok.application.sys.dto.auth.LoginUserDTO;
 import com.mok.application.sys.dto.user.UserDTO;
 import com.mok.domain.sys.model.User;
 import io.micronaut.data.annotation.Query;
@@ -9,7 +10,9 @@ import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
 import io.micronaut.data.repository.PageableRepository;
 import io.micronaut.data.repository.jpa.criteria.PredicateSpecification;
+import io.micronaut.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -18,6 +21,16 @@ public interface UserRepository extends PageableRepository<User, Long>, JpaRepos
 
     Optional<User> findByTenantIdAndUsername(String tenantId, String username);
 
+    /**
+     * 登录查询，命中 (tenant_id, username) 唯一索引
+     */
+    @Query(value = "SELECT id AS id, password AS password, state AS state, is_tenant_admin AS isTenantAdmin " +
+            "FROM sys_user WHERE tenant_id = :tenantId AND username = :username", nativeQuery = true)
+    Optional<LoginUserDTO> findLoginUser(String tenantId, String username);
+
+    @Query(value = "SELECT role_id FROM sys_user_role WHERE user_id = :userId", nativeQuery = true)
+    List<Long> findRoleIdsByUserId(Long userId);
+
     @Query(value = """
             SELECT u.id as id, u.username as username, u.nickname as nickname, 
                    u.state as state, u.createTime as createTime, u.tenantId as tenantId, 
@@ -26,4 +39,28 @@ public interface UserRepository extends PageableRepository<User, Long>, JpaRepos
             """,
             countQuery = "SELECT count(u) FROM User u")
     Page<UserDTO> findUserPage(PredicateSpecification<User> spec, Pageable pageable);
-}
\ No newline at end of file
+
+    @Query(value = "SELECT DISTINCT rm.menu_id FROM sys_user_role ur " +
+            "JOIN sys_role_menu rm ON rm.role_id = ur.role_id " +
+            "WHERE ur.user_id = :userId", nativeQuery = true)
+    List<Long> findMenuIdsByUserId(Long userId);
+
+    @Query(value = "SELECT DISTINCT p.code FROM sys_user_role ur " +
+            "JOIN sys_role_permission rp ON rp.role_id = ur.role_id " +
+            "JOIN sys_permission p ON p.id = rp.permission_id " +
+            "WHERE ur.user_id = :userId", nativeQuery = true)
+    List<String> findPermissionCodesByUserId(Long userId);
+
+    @Query(value = "SELECT user_id FROM sys_user_role WHERE role_id = :roleId", nativeQuery = true)
+    List<Long> findIdsByRoleId(Long roleId);
+
+    @Query(value = "SELECT id FROM sys_user WHERE tenant_id = :tenantId", nativeQuery = true)
+    List<Long> findIdsByTenantId(String tenantId);
+
+    /**
+     * 密文仍为 oldPassword 时替换为 newPassword
+     */
+    @Transactional
+    @Query(value = "UPDATE sys_user SET password = :newPassword WHERE id = :id AND password = :oldPassword", nativeQuery = true)
+    void updatePassword(Long id, String oldPassword, String newPassword);
+}
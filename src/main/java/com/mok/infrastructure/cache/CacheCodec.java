@@ -0,0 +1,15 @@
+package com.mok.infrastructure.cache;
+
+import io.micronaut.core.type.Argument;
+
+import java.io.IOException;
+
+/**
+ * 缓存值与 Redis 中字符串之间的转换
+ */
+public interface CacheCodec {
+
+    String encode(Object value, Argument<?> type) throws IOException;
+
+    Object decode(String data, Argument<?> type) throws IOException;
+}
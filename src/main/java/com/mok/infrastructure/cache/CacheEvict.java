@@ -0,0 +1,27 @@
+package com.mok.infrastructure.cache;
+
+import io.micronaut.aop.Around;
+import io.micronaut.context.annotation.Type;
+
+import java.lang.annotation.*;
+
+/**
+ * 方法成功返回后清理指定键族下的缓存，存在事务时在提交后清理；key 的生成规则与 {@link Cached} 相同
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Around
+@Type(CacheInterceptor.class)
+public @interface CacheEvict {
+
+    /**
+     * 键族
+     */
+    String[] value();
+
+    /**
+     * 参与生成 key 的参数名，默认全部参数
+     */
+    String[] parameters() default {};
+}
@@ -0,0 +1,86 @@
+package com.mok.infrastructure.cache;
+
+import io.micronaut.aop.InterceptorBean;
+import io.micronaut.aop.MethodInterceptor;
+import io.micronaut.aop.MethodInvocationContext;
+import io.micronaut.context.BeanContext;
+import io.micronaut.core.annotation.AnnotationValue;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.type.Argument;
+import io.micronaut.inject.ExecutableMethod;
+import jakarta.inject.Singleton;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link Cached} 和 {@link CacheEvict} 的实现，策略按方法解析一次后复用。
+ * 清理经 {@link TwoLevelCacheManager#evictAfterCommit} 在事务提交后执行，避免并发读取在提交前把旧数据重新写回缓存
+ */
+@Singleton
+@InterceptorBean({Cached.class, CacheEvict.class})
+@RequiredArgsConstructor
+public class CacheInterceptor implements MethodInterceptor<Object, Object> {
+
+    private final TwoLevelCacheManager cacheManager;
+    private final BeanContext beanContext;
+
+    private final Map<ExecutableMethod<?, ?>, TwoLevelCacheManager.CachePolicy> policies = new ConcurrentHashMap<>();
+
+    @Nullable
+    @Override
+    public Object intercept(MethodInvocationContext<Object, Object> context) {
+        AnnotationValue<Cached> cached = context.getAnnotation(Cached.class);
+        if (cached != null) {
+            TwoLevelCacheManager.CachePolicy policy = policies.computeIfAbsent(context.getExecutableMethod(), m -> policy(cached));
+            String key = key(context, cached.stringValues("parameters"));
+            @SuppressWarnings("unchecked")
+            Argument<Object> type = (Argument<Object>) context.getReturnType().asArgument();
+            return cacheManager.get(policy, key, type, context::proceed);
+        }
+
+        Object result = context.proceed();
+        AnnotationValue<CacheEvict> evict = context.getAnnotation(CacheEvict.class);
+        if (evict != null) {
+            String key = key(context, evict.stringValues("parameters"));
+            for (String name : evict.stringValues()) {
+                cacheManager.evictAfterCommit(name, key);
+            }
+        }
+        return result;
+    }
+
+    private TwoLevelCacheManager.CachePolicy policy(AnnotationValue<Cached> cached) {
+        Class<? extends CacheCodec> codecType = cached.classValue("codec", CacheCodec.class)
+                .orElse(JsonCacheCodec.class);
+        return new TwoLevelCacheManager.CachePolicy(
+                cached.stringValue().orElseThrow(),
+                duration(cached, "ttl", "12h"),
+                duration(cached, "localTtl", "30s"),
+                cached.longValue("maximumSize").orElse(1000),
+                beanContext.getBean(codecType));
+    }
+
+    private Duration duration(AnnotationValue<Cached> cached, String member, String defaultValue) {
+        String value = cached.stringValue(member).orElse(defaultValue);
+        return beanContext.getConversionService().convertRequired(value, Duration.class);
+    }
+
+    private static String key(MethodInvocationContext<Object, Object> context, String[] parameters) {
+        StringJoiner key = new StringJoiner(":");
+        if (parameters.length == 0) {
+            for (Object value : context.getParameterValues()) {
+                key.add(String.valueOf(value));
+            }
+        } else {
+            Map<String, Object> values = context.getParameterValueMap();
+            for (String parameter : parameters) {
+                key.add(String.valueOf(values.get(parameter)));
+            }
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,72 @@
+package com.mok.infrastructure.cache;
+
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 基于 Redis Pub/Sub 的本地缓存失效广播。
+ * 各节点在本地缓存数据后订阅对应频道，任一节点修改数据时发布消息，所有节点（包括自身）收到后清理本地副本。
+ * 消息丢失（如断线期间）时依赖本地缓存自身的过期时间兜底。
+ */
+@Slf4j
+@Singleton
+public class CacheInvalidationBus {
+
+    private final StatefulRedisPubSubConnection<String, String> pubSubConnection;
+    private final RedisCommands<String, String> redisCommands;
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+
+    public CacheInvalidationBus(StatefulRedisPubSubConnection<String, String> pubSubConnection,
+                                RedisCommands<String, String> redisCommands) {
+        this.pubSubConnection = pubSubConnection;
+        this.redisCommands = redisCommands;
+        this.pubSubConnection.addListener(new RedisPubSubAdapter<>() {
+            @Override
+            public void message(String channel, String message) {
+                dispatch(channel, message);
+            }
+        });
+    }
+
+    public void subscribe(String channel, Consumer<String> listener) {
+        boolean[] created = {false};
+        listeners.computeIfAbsent(channel, c -> {
+            created[0] = true;
+            return new CopyOnWriteArrayList<>();
+        }).add(listener);
+        if (created[0]) {
+            pubSubConnection.sync().subscribe(channel);
+        }
+    }
+
+    public void publish(String channel, String message) {
+        try {
+            redisCommands.publish(channel, message);
+        } catch (Exception e) {
+            log.warn("Failed to publish invalidation message to channel {}", channel, e);
+        }
+    }
+
+    void dispatch(String channel, String message) {
+        List<Consumer<String>> channelListeners = listeners.get(channel);
+        if (channelListeners == null) {
+            return;
+        }
+        for (Consumer<String> listener : channelListeners) {
+            try {
+                listener.accept(message);
+            } catch (Exception e) {
+                log.warn("Invalidation listener failed on channel {}", channel, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.mok.infrastructure.cache;
+
+import io.micronaut.aop.Around;
+import io.micronaut.context.annotation.Type;
+
+import java.lang.annotation.*;
+
+/**
+ * 方法结果缓存：本地 Caffeine + Redis 两级，Redis 未命中时经 {@link SingleFlightLoader} 合并加载。
+ * 返回 null 不缓存。
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Around
+@Type(CacheInterceptor.class)
+public @interface Cached {
+
+    /**
+     * 键族，同时作为 Redis key 前缀，完整 key 为前缀加参数值
+     */
+    String value();
+
+    /**
+     * 参与生成 key 的参数名，默认全部参数，多个参数以冒号连接
+     */
+    String[] parameters() default {};
+
+    /**
+     * Redis 过期时间，实际写入时附加随机抖动
+     */
+    String ttl() default "12h";
+
+    /**
+     * 本地缓存过期时间，为 0 时不使用本地缓存
+     */
+    String localTtl() default "30s";
+
+    /**
+     * 本地缓存最大条目数
+     */
+    long maximumSize() default 1000;
+
+    Class<? extends CacheCodec> codec() default JsonCacheCodec.class;
+}
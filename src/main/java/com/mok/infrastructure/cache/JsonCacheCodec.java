@@ -0,0 +1,39 @@
+package com.mok.infrastructure.cache;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import io.micronaut.core.type.Argument;
+import jakarta.inject.Singleton;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+
+@Singleton
+@RequiredArgsConstructor
+public class JsonCacheCodec implements CacheCodec {
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public String encode(Object value, Argument<?> type) throws IOException {
+        return objectMapper.writeValueAsString(value);
+    }
+
+    @Override
+    public Object decode(String data, Argument<?> type) throws IOException {
+        return objectMapper.readValue(data, javaType(objectMapper.getTypeFactory(), type));
+    }
+
+    private static JavaType javaType(TypeFactory typeFactory, Argument<?> type) {
+        Argument<?>[] parameters = type.getTypeParameters();
+        if (parameters.length == 0) {
+            return typeFactory.constructType(type.getType());
+        }
+        JavaType[] parameterTypes = new JavaType[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            parameterTypes[i] = javaType(typeFactory, parameters[i]);
+        }
+        return typeFactory.constructParametricType(type.getType(), parameterTypes);
+    }
+}
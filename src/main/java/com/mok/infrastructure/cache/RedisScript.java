@@ -0,0 +1,48 @@
+package com.mok.infrastructure.cache;
+
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.sync.RedisCommands;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Redis Lua 脚本，按 SHA1 以 EVALSHA 执行，服务端未缓存该脚本时回退到 EVAL（同时会被服务端缓存）。
+ */
+public final class RedisScript {
+
+    private final String source;
+    private final String sha1;
+    private final ScriptOutputType outputType;
+
+    public RedisScript(String source, ScriptOutputType outputType) {
+        this.source = source;
+        this.sha1 = sha1Hex(source);
+        this.outputType = outputType;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(RedisCommands<String, String> redisCommands, String[] keys, String... args) {
+        try {
+            return (T) redisCommands.evalsha(sha1, outputType, keys, args);
+        } catch (RedisNoScriptException e) {
+            return (T) redisCommands.eval(source, outputType, keys, args);
+        }
+    }
+
+    public String getSha1() {
+        return sha1;
+    }
+
+    private static String sha1Hex(String source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            return HexFormat.of().formatHex(digest.digest(source.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
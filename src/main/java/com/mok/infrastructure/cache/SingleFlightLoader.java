@@ -0,0 +1,216 @@
+package com.mok.infrastructure.cache;
+
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.core.type.Argument;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Redis 读穿透缓存的统一加载入口。
+ * <p>
+ * 同一 key 的并发未命中在本节点内只执行一次加载，其余请求等待其结果；开启租约后，
+ * 各节点先以 {@code SET NX PX} 抢占短期租约，未抢到的节点等待持有者回写，租约释放或超时后再自行加载。
+ * 回写的 TTL 附加随机抖动，避免同一批 key 同时过期。
+ */
+@Slf4j
+@Singleton
+public class SingleFlightLoader {
+
+    private static final String LEASE_SUFFIX = ":lease";
+    private static final long POLL_INTERVAL_MILLIS = 20;
+
+    /**
+     * KEYS: 租约 key；ARGV: 持有者标识。仅释放自己持有的租约
+     */
+    private static final RedisScript RELEASE_LEASE_SCRIPT = new RedisScript("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, ScriptOutputType.INTEGER);
+
+    private final RedisCommands<String, String> redisCommands;
+    private final double jitter;
+    private final boolean leaseEnabled;
+    private final Duration leaseTime;
+
+    private final Map<String, CompletableFuture<Object>> inflight = new ConcurrentHashMap<>();
+
+    public SingleFlightLoader(RedisCommands<String, String> redisCommands,
+                              @Value("${cache.single-flight.ttl-jitter:0.1}") double jitter,
+                              @Value("${cache.single-flight.lease.enabled:false}") boolean leaseEnabled,
+                              @Value("${cache.single-flight.lease.time:3s}") Duration leaseTime) {
+        this.redisCommands = redisCommands;
+        this.jitter = jitter;
+        this.leaseEnabled = leaseEnabled;
+        this.leaseTime = leaseTime;
+    }
+
+    /**
+     * 读取缓存，未命中时加载并回写
+     *
+     * @param loader 返回 null 表示数据不存在，不回写
+     */
+    public <V> V get(String key, Duration ttl, CacheCodec codec, Argument<V> type, Supplier<V> loader) {
+        V cached = read(key, codec, type);
+        if (cached != null) {
+            return cached;
+        }
+        return singleFlight(key, () -> leaseEnabled
+                ? loadWithLease(key, ttl, codec, type, loader)
+                : load(key, ttl, codec, type, loader));
+    }
+
+    /**
+     * 批量加载，仅合并本节点内的并发加载，缓存的读取和回写由调用方负责。
+     * 正在被其他请求加载的 id 等待其结果，其余 id 由本次调用一次性加载。
+     *
+     * @param namespace 区分不同数据的前缀，通常为缓存 key 前缀
+     * @param loader    加载给定 id 的数据，结果中缺少的 id 视为空
+     */
+    public <K, V> Map<K, V> loadAll(String namespace, Collection<K> ids, Function<Collection<K>, Map<K, V>> loader) {
+        Map<K, CompletableFuture<Object>> owned = new LinkedHashMap<>();
+        Map<K, CompletableFuture<Object>> waiting = new HashMap<>();
+        for (K id : ids) {
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            CompletableFuture<Object> existing = inflight.putIfAbsent(namespace + ":" + id, future);
+            if (existing == null) {
+                owned.put(id, future);
+            } else {
+                waiting.put(id, existing);
+            }
+        }
+
+        Map<K, V> loaded = new HashMap<>();
+        if (!owned.isEmpty()) {
+            try {
+                Map<K, V> result = loader.apply(owned.keySet());
+                owned.forEach((id, future) -> {
+                    V value = result.get(id);
+                    loaded.put(id, value);
+                    future.complete(value);
+                });
+            } catch (RuntimeException e) {
+                owned.values().forEach(future -> future.completeExceptionally(e));
+                throw e;
+            } finally {
+                owned.forEach((id, future) -> inflight.remove(namespace + ":" + id, future));
+            }
+        }
+        waiting.forEach((id, future) -> loaded.put(id, this.<V>join(future)));
+        return loaded;
+    }
+
+    /**
+     * @return 附加 [0, jitter) 比例随机抖动后的 TTL 秒数
+     */
+    public long ttlSeconds(Duration ttl) {
+        long seconds = Math.max(1, ttl.toSeconds());
+        long bound = (long) (seconds * jitter);
+        return bound > 0 ? seconds + ThreadLocalRandom.current().nextLong(bound) : seconds;
+    }
+
+    private <V> V loadWithLease(String key, Duration ttl, CacheCodec codec, Argument<V> type, Supplier<V> loader) {
+        String leaseKey = key + LEASE_SUFFIX;
+        String holder = UUID.randomUUID().toString();
+        if ("OK".equals(redisCommands.set(leaseKey, holder, SetArgs.Builder.nx().px(leaseTime.toMillis())))) {
+            try {
+                // 抢到租约前其他节点可能刚完成回写
+                V cached = read(key, codec, type);
+                return cached != null ? cached : load(key, ttl, codec, type, loader);
+            } finally {
+                RELEASE_LEASE_SCRIPT.execute(redisCommands, new String[]{leaseKey}, holder);
+            }
+        }
+
+        long deadline = System.currentTimeMillis() + leaseTime.toMillis();
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            V cached = read(key, codec, type);
+            if (cached != null) {
+                return cached;
+            }
+            if (redisCommands.exists(leaseKey) == 0) {
+                // 持有者已结束但未回写（数据不存在或加载失败）
+                break;
+            }
+        }
+        return load(key, ttl, codec, type, loader);
+    }
+
+    private <V> V load(String key, Duration ttl, CacheCodec codec, Argument<V> type, Supplier<V> loader) {
+        V value = loader.get();
+        if (value != null) {
+            try {
+                redisCommands.setex(key, ttlSeconds(ttl), codec.encode(value, type));
+            } catch (IOException e) {
+                log.warn("Failed to serialize cache value for key {}", key, e);
+            }
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> V read(String key, CacheCodec codec, Argument<V> type) {
+        String data = redisCommands.get(key);
+        if (data == null) {
+            return null;
+        }
+        try {
+            return (V) codec.decode(data, type);
+        } catch (IOException | RuntimeException e) {
+            // 无法解析的缓存按未命中处理，加载后覆盖
+            log.warn("Failed to deserialize cache value for key {}", key, e);
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> V singleFlight(String key, Supplier<V> loader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inflight.putIfAbsent(key, future);
+        if (existing != null) {
+            return (V) join(existing);
+        }
+        try {
+            V value = loader.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inflight.remove(key, future);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> V join(CompletableFuture<Object> future) {
+        try {
+            return (V) future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
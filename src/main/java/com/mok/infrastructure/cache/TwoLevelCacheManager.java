@@ -0,0 +1,201 @@
+package com.mok.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mok.infrastructure.common.Const;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.core.type.Argument;
+import io.micronaut.transaction.TransactionOperations;
+import io.micronaut.transaction.TransactionOperationsRegistry;
+import io.micronaut.transaction.TransactionStatus;
+import io.micronaut.transaction.support.TransactionSynchronization;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 本地 Caffeine + Redis 两级缓存，按键族管理过期时间、容量和编解码方式。
+ * <p>
+ * 读取顺序为本地、Redis、加载；清理时同时删除 Redis 中的数据，并通过 {@link CacheInvalidationBus} 通知所有节点清理本地副本，
+ * 消息格式为键族和 key 以换行连接，可携带多个 key。
+ * 指标：{@code cache.gets}（result 为 local、redis 或 miss）和 {@code cache.loads}（加载耗时），均带 family 标签。
+ */
+@Singleton
+public class TwoLevelCacheManager {
+
+    private static final String SEPARATOR = "\n";
+
+    private final RedisCommands<String, String> redisCommands;
+    private final SingleFlightLoader singleFlightLoader;
+    private final CacheInvalidationBus invalidationBus;
+    private final MeterRegistry meterRegistry;
+    private final TransactionOperationsRegistry transactionOperationsRegistry;
+
+    private final Map<String, Family> families = new ConcurrentHashMap<>();
+
+    private volatile TransactionOperations<?> transactionOperations;
+
+    public TwoLevelCacheManager(RedisCommands<String, String> redisCommands,
+                                SingleFlightLoader singleFlightLoader,
+                                CacheInvalidationBus invalidationBus,
+                                MeterRegistry meterRegistry,
+                                TransactionOperationsRegistry transactionOperationsRegistry) {
+        this.redisCommands = redisCommands;
+        this.singleFlightLoader = singleFlightLoader;
+        this.invalidationBus = invalidationBus;
+        this.meterRegistry = meterRegistry;
+        this.transactionOperationsRegistry = transactionOperationsRegistry;
+        invalidationBus.subscribe(Const.Channel.CACHE_EVICT, this::onEvict);
+    }
+
+    /**
+     * @param loader 返回 null 表示数据不存在，不缓存
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V get(CachePolicy policy, String key, Argument<V> type, Supplier<V> loader) {
+        Family family = family(policy);
+        if (family.local != null) {
+            Object local = family.local.getIfPresent(key);
+            if (local != null) {
+                family.localHits.increment();
+                return (V) local;
+            }
+        }
+
+        boolean[] loaded = {false};
+        V value = singleFlightLoader.get(policy.name() + key, policy.ttl(), policy.codec(), type, () -> {
+            loaded[0] = true;
+            return family.loadTimer.record(loader);
+        });
+        if (loaded[0]) {
+            family.misses.increment();
+        } else {
+            family.redisHits.increment();
+        }
+        if (value != null && family.local != null) {
+            // 本地副本由所有调用方共享，集合转为不可变副本，避免一处修改影响其他请求
+            value = (V) unmodifiable(value);
+            family.local.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * 清理某个键族下的一个 key
+     */
+    public void evict(String name, String key) {
+        redisCommands.del(name + key);
+        evictLocal(name, key);
+        invalidationBus.publish(Const.Channel.CACHE_EVICT, name + SEPARATOR + key);
+    }
+
+    /**
+     * 存在事务时推迟到事务提交后清理，避免并发读取在提交前把旧数据重新写回缓存；没有事务时立即清理
+     */
+    public void evictAfterCommit(String name, String key) {
+        Optional<? extends TransactionStatus<?>> status = transactionOperations().findTransactionStatus();
+        if (status.isEmpty()) {
+            evict(name, key);
+            return;
+        }
+        status.get().registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(name, key);
+            }
+        });
+    }
+
+    /**
+     * 批量清理同一键族下的多个 key，Redis 删除和广播各一次
+     */
+    public void evict(String name, Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        redisCommands.del(keys.stream().map(key -> name + key).toArray(String[]::new));
+        keys.forEach(key -> evictLocal(name, key));
+        invalidationBus.publish(Const.Channel.CACHE_EVICT, name + SEPARATOR + String.join(SEPARATOR, keys));
+    }
+
+    private void onEvict(String message) {
+        String[] parts = message.split(SEPARATOR);
+        for (int i = 1; i < parts.length; i++) {
+            evictLocal(parts[0], parts[i]);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private TransactionOperations<?> transactionOperations() {
+        TransactionOperations<?> operations = transactionOperations;
+        if (operations == null) {
+            operations = transactionOperationsRegistry.provideSynchronous(TransactionOperations.class, "default");
+            transactionOperations = operations;
+        }
+        return operations;
+    }
+
+    private void evictLocal(String name, String key) {
+        Family family = families.get(name);
+        if (family != null && family.local != null) {
+            family.local.invalidate(key);
+        }
+    }
+
+    private static Object unmodifiable(Object value) {
+        return switch (value) {
+            case List<?> list -> Collections.unmodifiableList(new ArrayList<>(list));
+            case Set<?> set -> Collections.unmodifiableSet(new LinkedHashSet<>(set));
+            case Map<?, ?> map -> Collections.unmodifiableMap(new LinkedHashMap<>(map));
+            default -> value;
+        };
+    }
+
+    private Family family(CachePolicy policy) {
+        Family family = families.get(policy.name());
+        return family != null ? family : families.computeIfAbsent(policy.name(), name -> new Family(policy, meterRegistry));
+    }
+
+    /**
+     * 键族的缓存策略，同一键族以首次使用时的策略为准
+     *
+     * @param name     键族，同时作为 Redis key 前缀
+     * @param localTtl 为 0 时不使用本地缓存
+     */
+    public record CachePolicy(String name, Duration ttl, Duration localTtl, long maximumSize, CacheCodec codec) {
+    }
+
+    private static final class Family {
+        private final Cache<String, Object> local;
+        private final Counter localHits;
+        private final Counter redisHits;
+        private final Counter misses;
+        private final Timer loadTimer;
+
+        private Family(CachePolicy policy, MeterRegistry meterRegistry) {
+            this.local = policy.localTtl().isZero() ? null : Caffeine.newBuilder()
+                    .maximumSize(policy.maximumSize())
+                    .expireAfterWrite(policy.localTtl())
+                    .build();
+            this.localHits = counter(meterRegistry, policy.name(), "local");
+            this.redisHits = counter(meterRegistry, policy.name(), "redis");
+            this.misses = counter(meterRegistry, policy.name(), "miss");
+            this.loadTimer = Timer.builder("cache.loads")
+                    .tag("family", policy.name())
+                    .register(meterRegistry);
+        }
+
+        private static Counter counter(MeterRegistry meterRegistry, String family, String result) {
+            return Counter.builder("cache.gets")
+                    .tag("family", family)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+    }
+}
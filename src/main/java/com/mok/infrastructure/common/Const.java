@@ -14,15 +14,36 @@ public interface Const {
 
     class CacheKey {
         public static final String MENU_TREE = "sys:menu:tree";
+        public static final String MENU_TREE_VERSION = MENU_TREE + ":version";
         public static final String ROLE_PERMS = "sys:role:perms";
         public static final String TENANT_PACKAGE_PERMS = "sys:tenant:package:perms";
+        public static final String TENANT_PACKAGE_MENU_IDS = TENANT_PACKAGE_PERMS + ":menus:";
+        public static final String TENANT_PACKAGE_PERMISSION_IDS = TENANT_PACKAGE_PERMS + ":permissions:";
+        public static final String TENANT_PACKAGE_TIER = "sys:tenant:package:tier:";
 
         public static final String TENANT = "sys:tenant:";
 
         public static final String AUTH_TOKEN = "auth:token:";
         public static final String USER_TOKENS = "user:tokens:";
+        public static final String AUTH_ONLINE = "auth:online:";
+        public static final String AUTH_ONLINE_ALL = "auth:online-all";
+        public static final String AUTH_AUTHORITIES = "auth:authorities:";
+        public static final String LOGIN_THROTTLE = "auth:login:throttle:";
+
+        public static final String RATE_LIMIT = "rate:limit:";
 
         public static final String DICT_DATA = "sys:dict:";
+
+        public static final String ACCOUNT_INFO = "sys:account:info:";
+    }
+
+    class Channel {
+        public static final String TOKEN_INVALIDATE = "channel:auth:token:invalidate";
+        public static final String AUTHORIZATION_INVALIDATE = "channel:auth:authorization:invalidate";
+        public static final String PERMISSION_CHANGED = "channel:sys:permission:changed";
+        public static final String CACHE_EVICT = "channel:cache:evict";
+        public static final String MENU_CHANGED = "channel:sys:menu:changed";
+        public static final String LOGIN_USER_EVICT = "channel:auth:login:user:evict";
     }
 
     class UserState {
@@ -44,4 +65,11 @@ public interface Const {
         public static final Integer NORMAL = 1;
         public static final Integer DISABLED = 0;
     }
+
+    class TenantPackageTier {
+        /**
+         * 未设置档位的套餐使用的档位，各档位的限流配额见 rate-limit.tiers
+         */
+        public static final String DEFAULT = "standard";
+    }
 }
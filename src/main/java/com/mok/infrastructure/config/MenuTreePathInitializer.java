@@ -0,0 +1,63 @@
+package com.mok.infrastructure.config;
+
+import com.mok.domain.sys.model.Menu;
+import com.mok.domain.sys.repository.MenuRepository;
+import io.micronaut.context.event.ApplicationEventListener;
+import io.micronaut.context.event.StartupEvent;
+import jakarta.inject.Singleton;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 为缺少 tree_path 的历史菜单补齐路径
+ */
+@Slf4j
+@Singleton
+@RequiredArgsConstructor
+public class MenuTreePathInitializer implements ApplicationEventListener<StartupEvent> {
+
+    private final MenuRepository menuRepository;
+
+    @Override
+    public void onApplicationEvent(StartupEvent event) {
+        List<Menu> menus = menuRepository.findAll();
+        if (menus.stream().allMatch(m -> m.getTreePath() != null)) {
+            return;
+        }
+        Map<Long, Long> parentIds = new HashMap<>();
+        for (Menu menu : menus) {
+            parentIds.put(menu.getId(), menu.getParent() != null ? menu.getParent().getId() : null);
+        }
+        Map<Long, String> paths = new HashMap<>();
+        for (Menu menu : menus) {
+            String path = pathOf(menu.getId(), parentIds, paths, new HashSet<>());
+            if (!path.equals(menu.getTreePath())) {
+                menuRepository.updateTreePath(menu.getId(), path);
+            }
+        }
+        log.info("Menu tree paths rebuilt for {} menus", menus.size());
+    }
+
+    private static String pathOf(Long id, Map<Long, Long> parentIds, Map<Long, String> paths, Set<Long> visiting) {
+        String cached = paths.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        Long parentId = parentIds.get(id);
+        String parentPath = null;
+        visiting.add(id);
+        // 上级不存在或成环时按根处理
+        if (parentId != null && parentIds.containsKey(parentId) && !visiting.contains(parentId)) {
+            parentPath = pathOf(parentId, parentIds, paths, visiting);
+        }
+        String path = Menu.childPath(parentPath, id);
+        paths.put(id, path);
+        return path;
+    }
+}
@@ -0,0 +1,90 @@
+package com.mok.infrastructure.limiter;
+
+import com.mok.web.common.RestResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.core.annotation.Order;
+import io.micronaut.http.HttpMethod;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MutableHttpResponse;
+import io.micronaut.http.annotation.Filter;
+import io.micronaut.http.filter.HttpServerFilter;
+import io.micronaut.http.filter.ServerFilterChain;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * 过载保护：按观测到的延迟自适应限制同时处理的接口请求数，读写请求分别计算上限。
+ * 超过上限的请求在进入业务代码、排队等待数据库连接之前直接返回 503。
+ * 在 {@link RateLimitFilter} 之后执行，被限流的请求不占用并发额度。
+ */
+@Order(10)
+@Filter("/api/**")
+public class AdaptiveConcurrencyFilter implements HttpServerFilter {
+
+    private final ConcurrencyLimitConfig config;
+    private final GradientConcurrencyLimit readLimit;
+    private final GradientConcurrencyLimit writeLimit;
+    private final Counter readRejected;
+    private final Counter writeRejected;
+
+    public AdaptiveConcurrencyFilter(ConcurrencyLimitConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.readLimit = limit(config.getReadMaxLimit());
+        this.writeLimit = limit(config.getWriteMaxLimit());
+        this.readRejected = register(meterRegistry, "read", readLimit);
+        this.writeRejected = register(meterRegistry, "write", writeLimit);
+    }
+
+    @Override
+    public Publisher<MutableHttpResponse<?>> doFilter(HttpRequest<?> request, ServerFilterChain chain) {
+        if (!config.isEnabled()) {
+            return chain.proceed(request);
+        }
+        boolean read = isRead(request.getMethod());
+        GradientConcurrencyLimit limit = read ? readLimit : writeLimit;
+        int inFlight = limit.tryAcquire();
+        if (inFlight < 0) {
+            (read ? readRejected : writeRejected).increment();
+            return Mono.just(HttpResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(RestResponse.failure(503, "系统繁忙，请稍后重试")));
+        }
+        long startedAt = System.nanoTime();
+        return Mono.from(chain.proceed(request)).doFinally(signal -> {
+            if (signal == SignalType.ON_COMPLETE) {
+                limit.onSample(System.nanoTime() - startedAt, inFlight);
+            } else {
+                limit.release();
+            }
+        });
+    }
+
+    GradientConcurrencyLimit readLimit() {
+        return readLimit;
+    }
+
+    GradientConcurrencyLimit writeLimit() {
+        return writeLimit;
+    }
+
+    private GradientConcurrencyLimit limit(int maxLimit) {
+        return new GradientConcurrencyLimit(config.getInitialLimit(), config.getMinLimit(), maxLimit,
+                config.getSmoothing(), config.getTolerance(), config.getLongWindow());
+    }
+
+    private static Counter register(MeterRegistry meterRegistry, String type, GradientConcurrencyLimit limit) {
+        Gauge.builder("http.concurrency.limit", limit, GradientConcurrencyLimit::getLimit)
+                .tag("type", type).register(meterRegistry);
+        Gauge.builder("http.concurrency.in-flight", limit, GradientConcurrencyLimit::getInFlight)
+                .tag("type", type).register(meterRegistry);
+        return meterRegistry.counter("http.concurrency.rejected", "type", type);
+    }
+
+    private static boolean isRead(HttpMethod method) {
+        return method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.OPTIONS;
+    }
+}
@@ -0,0 +1,40 @@
+package com.mok.infrastructure.limiter;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Data;
+
+@Data
+@ConfigurationProperties("concurrency-limit")
+public class ConcurrencyLimitConfig {
+
+    private boolean enabled = true;
+
+    private int initialLimit = 20;
+
+    private int minLimit = 4;
+
+    /**
+     * 读请求（GET、HEAD、OPTIONS）的并发上限
+     */
+    private int readMaxLimit = 200;
+
+    /**
+     * 写请求的并发上限，写请求持有连接和锁的时间更长，上限更低
+     */
+    private int writeMaxLimit = 50;
+
+    /**
+     * 每个样本对上限的调整幅度，0 到 1 之间
+     */
+    private double smoothing = 0.2;
+
+    /**
+     * 当前延迟不超过长期延迟的该倍数时不收缩上限
+     */
+    private double tolerance = 2.0;
+
+    /**
+     * 长期延迟按最近约多少个样本做指数平均
+     */
+    private int longWindow = 600;
+}
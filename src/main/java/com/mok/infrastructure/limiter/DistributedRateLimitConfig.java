@@ -0,0 +1,42 @@
+package com.mok.infrastructure.limiter;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties("rate-limit.distributed")
+public class DistributedRateLimitConfig {
+
+    /**
+     * 开启后按限流器的 limitForPeriod / limitRefreshPeriod 在所有节点间共享配额，关闭时每个节点独立计数
+     */
+    private boolean enabled = false;
+
+    /**
+     * 每次从 Redis 预取的许可数上限，实际不超过限流器每周期许可数的十分之一
+     */
+    private int batchSize = 10;
+
+    /**
+     * Redis 调用超过该时长视为变慢
+     */
+    private Duration slowThreshold = Duration.ofMillis(50);
+
+    /**
+     * Redis 出错或变慢后改用本节点限流器的时长
+     */
+    private Duration fallbackDuration = Duration.ofSeconds(10);
+
+    /**
+     * 按限流器名称追加的计数维度，未配置的限流器全局计数
+     */
+    private Map<String, Dimension> dimensions = new HashMap<>();
+
+    public enum Dimension {
+        NONE, TENANT, USER
+    }
+}
@@ -0,0 +1,236 @@
+package com.mok.infrastructure.limiter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mok.infrastructure.cache.RedisScript;
+import com.mok.infrastructure.common.Const;
+import com.mok.infrastructure.tenant.TenantContextHolder;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.micronaut.scheduling.TaskExecutors;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 跨节点共享的限流，配额取自同名 resilience4j 限流器的配置。
+ * <p>
+ * Redis 中以 GCRA 记录每个 key 的理论到达时间，节点每次按批预取许可，批内许可在本地消费，用完或过期后再访问 Redis；
+ * 配额耗尽时本地记住可再次获取的时间，期间直接拒绝。Redis 出错或变慢时在一段时间内改用本节点的限流器。
+ * <p>
+ * 预取在阻塞线程池中异步执行，调用线程（通常是事件循环）不等待 Redis，也不在锁内做网络调用。
+ * 预取结果返回前每个节点最多预支一批许可，从后续预取到的许可中扣还，集群放行总量至多超出 节点数 × 批大小；
+ * 本节点的限流器只在降级期使用。
+ */
+@Slf4j
+@Singleton
+public class DistributedRateLimiter {
+
+    /**
+     * KEYS: 理论到达时间；ARGV: 每个许可的间隔微秒, 允许突发的微秒, 请求的许可数。
+     * 返回 {获得的许可数, 获得 0 个时距下一个许可的微秒}。
+     */
+    private static final RedisScript ACQUIRE_SCRIPT = new RedisScript("""
+            redis.replicate_commands()
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local interval = tonumber(ARGV[1])
+            local burst = tonumber(ARGV[2])
+            local tat = math.max(tonumber(redis.call('GET', KEYS[1]) or now), now)
+            local granted = math.min(tonumber(ARGV[3]), math.floor((now + burst - tat) / interval))
+            if granted <= 0 then
+                return {0, math.ceil(tat + interval - burst - now)}
+            end
+            tat = tat + granted * interval
+            redis.call('SET', KEYS[1], string.format('%.0f', tat), 'PX', math.ceil((tat - now) / 1000) + 1)
+            return {granted, 0}
+            """, ScriptOutputType.MULTI);
+
+    private final RedisCommands<String, String> redisCommands;
+    private final DistributedRateLimitConfig config;
+    private final Executor blockingExecutor;
+
+    private final Cache<String, Permits> permits;
+    private volatile long fallbackUntil;
+
+    public DistributedRateLimiter(RedisCommands<String, String> redisCommands, DistributedRateLimitConfig config,
+                                  @Named(TaskExecutors.BLOCKING) Executor blockingExecutor) {
+        this.redisCommands = redisCommands;
+        this.config = config;
+        this.blockingExecutor = blockingExecutor;
+        this.permits = Caffeine.newBuilder().maximumSize(100_000).expireAfterAccess(Duration.ofMinutes(10)).build();
+        this.fallbackUntil = System.nanoTime();
+    }
+
+    /**
+     * 未开启或处于降级期时由本节点的 {@code local} 判定
+     */
+    public boolean acquirePermission(RateLimiter local) {
+        if (!config.isEnabled() || System.nanoTime() - fallbackUntil < 0) {
+            return local.acquirePermission();
+        }
+        String key = key(local.getName());
+        if (key == null) {
+            return local.acquirePermission();
+        }
+        Permits keyed = permits.get(key, k -> new Permits());
+        RateLimiterConfig limit = local.getRateLimiterConfig();
+        int batch = batchSize(limit);
+        boolean refill;
+        synchronized (keyed) {
+            long now = System.nanoTime();
+            if (keyed.tryAcquire(now)) {
+                return true;
+            }
+            if (now - keyed.blockedUntil < 0) {
+                return false;
+            }
+            refill = keyed.startRefill();
+            if (!refill) {
+                return keyed.tryBorrow(batch);
+            }
+        }
+        refill(key, keyed, limit, batch);
+        // 预取可能已经完成（例如 Redis 很快返回），再看一次本地批次
+        synchronized (keyed) {
+            long now = System.nanoTime();
+            if (keyed.tryAcquire(now)) {
+                return true;
+            }
+            if (now - keyed.blockedUntil < 0) {
+                return false;
+            }
+            if (keyed.refilling) {
+                return keyed.tryBorrow(batch);
+            }
+        }
+        // 预取失败已进入降级期
+        return System.nanoTime() - fallbackUntil < 0 && local.acquirePermission();
+    }
+
+    private int batchSize(RateLimiterConfig limit) {
+        return Math.max(1, Math.min(config.getBatchSize(), limit.getLimitForPeriod() / 10));
+    }
+
+    /**
+     * 在阻塞线程池中执行预取脚本，结果写回 {@code keyed}；同一个 key 同时只有一个预取
+     */
+    private void refill(String key, Permits keyed, RateLimiterConfig limit, int batch) {
+        long periodMicros = limit.getLimitRefreshPeriod().toNanos() / 1000;
+        try {
+            blockingExecutor.execute(() -> {
+                long start = System.nanoTime();
+                List<Long> result = null;
+                try {
+                    result = ACQUIRE_SCRIPT.execute(redisCommands, new String[]{key},
+                            String.valueOf(Math.max(1, periodMicros / limit.getLimitForPeriod())),
+                            String.valueOf(periodMicros), String.valueOf(batch));
+                    long elapsed = System.nanoTime() - start;
+                    if (elapsed > config.getSlowThreshold().toNanos()) {
+                        fallback("slow (" + elapsed / 1_000_000 + "ms)", null);
+                    }
+                } catch (RuntimeException e) {
+                    fallback("failed", e);
+                } finally {
+                    synchronized (keyed) {
+                        keyed.finishRefill(result, System.nanoTime(), limit.getLimitRefreshPeriod().toNanos());
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            fallback("rejected", e);
+            synchronized (keyed) {
+                keyed.finishRefill(null, System.nanoTime(), 0);
+            }
+        }
+    }
+
+    private void fallback(String reason, Exception e) {
+        fallbackUntil = System.nanoTime() + config.getFallbackDuration().toNanos();
+        log.warn("Distributed rate limit {}, using local limiters for {}", reason, config.getFallbackDuration(), e);
+    }
+
+    /**
+     * @return 需要按租户或用户计数但上下文中缺少该信息时返回 null
+     */
+    private String key(String name) {
+        DistributedRateLimitConfig.Dimension dimension = config.getDimensions()
+                .getOrDefault(name, DistributedRateLimitConfig.Dimension.NONE);
+        return switch (dimension) {
+            case NONE -> Const.CacheKey.RATE_LIMIT + name;
+            case TENANT -> {
+                String tenantId = TenantContextHolder.getTenantId();
+                yield tenantId.isEmpty() ? null : Const.CacheKey.RATE_LIMIT + name + ":tenant:" + tenantId;
+            }
+            case USER -> {
+                Long userId = TenantContextHolder.getUserId();
+                yield userId == null ? null : Const.CacheKey.RATE_LIMIT + name + ":user:" + userId;
+            }
+        };
+    }
+
+    /**
+     * 本地持有的一批许可，由调用方加锁访问
+     */
+    static final class Permits {
+        private int available;
+        private long expiresAt;
+        private long blockedUntil = System.nanoTime();
+        private boolean refilling;
+        /**
+         * 预取进行中预支、尚未从 Redis 扣还的许可数
+         */
+        private int borrowed;
+
+        boolean tryAcquire(long now) {
+            if (available > 0 && now - expiresAt < 0) {
+                available--;
+                return true;
+            }
+            return false;
+        }
+
+        boolean tryBorrow(int limit) {
+            if (borrowed < limit) {
+                borrowed++;
+                return true;
+            }
+            return false;
+        }
+
+        boolean startRefill() {
+            if (refilling) {
+                return false;
+            }
+            refilling = true;
+            return true;
+        }
+
+        /**
+         * @param result 预取脚本的返回值，失败时为 null
+         * @param ttl    批内许可的有效时间：只在一个周期内有效，避免长时间囤积后集中放行
+         */
+        void finishRefill(List<Long> result, long now, long ttl) {
+            refilling = false;
+            if (result == null) {
+                return;
+            }
+            long granted = result.get(0);
+            if (granted <= 0) {
+                blockedUntil = now + result.get(1) * 1000;
+            } else {
+                int repaid = (int) Math.min(granted, borrowed);
+                borrowed -= repaid;
+                available = (int) granted - repaid;
+                expiresAt = now + ttl;
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.mok.infrastructure.limiter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按延迟梯度自适应的并发上限。
+ * <p>
+ * 以长期延迟（指数平均）与本次延迟之比作为梯度：延迟升高时梯度小于 1，上限按比例收缩；
+ * 延迟平稳时梯度为 1，上限每次增加 sqrt(上限) 作为排队余量。并发未达到上限一半时不增加上限，
+ * 避免空闲时上限无限增长。负载下降后长期延迟逐步回落，以便重新适应。
+ */
+public final class GradientConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double tolerance;
+    private final double longAlpha;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private double longRtt;
+
+    public GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double smoothing, double tolerance,
+                                    int longWindow) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.tolerance = tolerance;
+        this.longAlpha = 2.0 / (Math.max(longWindow, 1) + 1);
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    /**
+     * @return 获得许可时为获得前的并发数，超过上限时为 -1
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * 归还许可，不计入延迟样本，用于出错或取消的请求
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * 归还许可并按本次延迟调整上限
+     *
+     * @param inFlightAtStart {@link #tryAcquire()} 的返回值
+     */
+    public void onSample(long rttNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        if (rttNanos <= 0) {
+            return;
+        }
+        synchronized (this) {
+            longRtt = longRtt == 0 ? rttNanos : longRtt + longAlpha * (rttNanos - longRtt);
+            if (longRtt > 2.0 * rttNanos) {
+                longRtt *= 0.95;
+            }
+            double current = limit;
+            if (inFlightAtStart + 1 < current / 2) {
+                return;
+            }
+            double gradient = Math.clamp(tolerance * longRtt / rttNanos, 0.5, 1.0);
+            double estimated = current * gradient + Math.sqrt(current);
+            limit = Math.clamp(current * (1 - smoothing) + estimated * smoothing, minLimit, maxLimit);
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
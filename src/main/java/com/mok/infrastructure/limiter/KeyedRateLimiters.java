@@ -0,0 +1,68 @@
+package com.mok.infrastructure.limiter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mok.infrastructure.tenant.TenantContextHolder;
+import com.mok.infrastructure.util.SysUtil;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+
+/**
+ * 按租户和用户分别计数的限流，配额取自租户套餐档位对应的 {@link RateLimitTier}，避免单个租户耗尽共享的限流器。
+ * <p>
+ * 限流器实例按访问淘汰，数量有上限；档位由 {@link TenantTiers} 解析。
+ * 超级租户不受限制。
+ */
+@Singleton
+public class KeyedRateLimiters {
+
+    private final TenantTiers tenantTiers;
+    private final DistributedRateLimiter distributedRateLimiter;
+
+    private final Cache<String, RateLimiter> limiters;
+
+    public KeyedRateLimiters(TenantTiers tenantTiers,
+                             DistributedRateLimiter distributedRateLimiter,
+                             @Value("${rate-limit.keyed.maximum-size:10000}") long maximumSize,
+                             @Value("${rate-limit.keyed.idle-timeout:10m}") Duration idleTimeout) {
+        this.tenantTiers = tenantTiers;
+        this.distributedRateLimiter = distributedRateLimiter;
+        this.limiters = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterAccess(idleTimeout).build();
+    }
+
+    /**
+     * 先检查当前用户再检查当前租户的配额，单个用户超限时不占用租户的配额；上下文中没有租户时放行
+     */
+    public boolean acquirePermission() {
+        String tenantId = TenantContextHolder.getTenantId();
+        if (tenantId.isEmpty() || SysUtil.isSuperTenant(tenantId)) {
+            return true;
+        }
+        RateLimitTier tier = tenantTiers.resolve(tenantId);
+        if (tier == null) {
+            return true;
+        }
+        Long userId = TenantContextHolder.getUserId();
+        if (userId != null && tier.getUserLimit() > 0
+                && !distributedRateLimiter.acquirePermission(limiter("user:" + userId, tier, tier.getUserLimit()))) {
+            return false;
+        }
+        return tier.getTenantLimit() <= 0
+                || distributedRateLimiter.acquirePermission(limiter("tenant:" + tenantId, tier, tier.getTenantLimit()));
+    }
+
+    /**
+     * 档位参与缓存 key，档位变更后使用新配额的实例，旧实例空闲后淘汰
+     */
+    private RateLimiter limiter(String name, RateLimitTier tier, int limit) {
+        return limiters.get(tier.getName() + "@" + name, k -> RateLimiter.of(name, RateLimiterConfig.custom()
+                .limitForPeriod(limit)
+                .limitRefreshPeriod(tier.getRefreshPeriod())
+                .timeoutDuration(Duration.ZERO)
+                .build()));
+    }
+}
@@ -9,63 +9,83 @@ import io.micronaut.http.MutableHttpResponse;
 import io.micronaut.http.annotation.Filter;
 import io.micronaut.http.filter.HttpServerFilter;
 import io.micronaut.http.filter.ServerFilterChain;
+import io.micronaut.runtime.context.scope.refresh.RefreshEvent;
+import io.micronaut.runtime.event.annotation.EventListener;
 import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Mono;
 
-import java.util.Map;
+import java.util.Optional;
 
+/**
+ * 按路径与方法选择限流器。映射在启动时编译为 {@link RateLimitRouteTrie}，配置刷新后在下次请求时重新编译。
+ * 先按 {@link KeyedRateLimiters} 检查租户与用户配额，再检查路由对应的共享限流器；
+ * 开启分布式限流时由 {@link DistributedRateLimiter} 在节点间共享配额。
+ */
+@Slf4j
 @Filter("/**")
 @Singleton
 public class RateLimitFilter implements HttpServerFilter {
 
+    private static final String DEFAULT = "default";
+
     private final RateLimiterRegistry rateLimiterRegistry;
     private final RateLimitConfig config;
+    private final DistributedRateLimiter distributedRateLimiter;
+    private final KeyedRateLimiters keyedRateLimiters;
+
+    private volatile RateLimitRouteTrie routes;
 
-    public RateLimitFilter(RateLimiterRegistry rateLimiterRegistry, RateLimitConfig config) {
+    public RateLimitFilter(RateLimiterRegistry rateLimiterRegistry, RateLimitConfig config,
+                           DistributedRateLimiter distributedRateLimiter, KeyedRateLimiters keyedRateLimiters) {
         this.rateLimiterRegistry = rateLimiterRegistry;
         this.config = config;
+        this.distributedRateLimiter = distributedRateLimiter;
+        this.keyedRateLimiters = keyedRateLimiters;
+        this.routes = compile();
     }
 
     @Override
     public Publisher<MutableHttpResponse<?>> doFilter(HttpRequest<?> request, ServerFilterChain chain) {
-        String path = request.getPath();
-        String method = request.getMethodName();
-
-        String rateLimiterName = "default"; // 默认
-
-        // 检查映射配置
-        if (config.getMappings() != null) {
-            for (Map.Entry<String, String> entry : config.getMappings().entrySet()) {
-                String key = entry.getKey();
-                if (key.contains(":")) {
-                    // 带方法的映射，如 "/api/users:post"
-                    String[] parts = key.split(":");
-                    if (parts.length == 2 && path.startsWith(parts[0]) && method.equalsIgnoreCase(parts[1])) {
-                        rateLimiterName = entry.getValue();
-                        break;
-                    }
-                } else {
-                    // 路径匹配，如 "/api/seckill/**"
-                    if (path.startsWith(key.replace("/**", ""))) {
-                        rateLimiterName = entry.getValue();
-                        break;
-                    }
-                }
-            }
+        RateLimitRouteTrie current = routes;
+        if (current == null) {
+            current = routes = compile();
         }
+        RateLimiter rateLimiter = current.match(request.getMethod(), request.getPath());
 
-        // 验证限流器名称，只允许预定义的
-        if (!"default".equals(rateLimiterName) && !"high".equals(rateLimiterName) && !"sensitive".equals(rateLimiterName)) {
-            rateLimiterName = "default";
-        }
-
-        RateLimiter rateLimiter = rateLimiterRegistry.rateLimiter(rateLimiterName);
-
-        if (rateLimiter.acquirePermission()) {
+        if (keyedRateLimiters.acquirePermission() && distributedRateLimiter.acquirePermission(rateLimiter)) {
             return chain.proceed(request);
         } else {
             return Mono.just(HttpResponse.status(HttpStatus.TOO_MANY_REQUESTS));
         }
     }
-}
\ No newline at end of file
+
+    @EventListener
+    public void onRefresh(RefreshEvent event) {
+        // 配置绑定的刷新顺序不确定，延迟到下次请求时按新配置编译
+        routes = null;
+    }
+
+    private RateLimitRouteTrie compile() {
+        return RateLimitRouteTrie.compile(config.getMappings(), this::limiter, rateLimiterRegistry.rateLimiter(DEFAULT));
+    }
+
+    /**
+     * 只允许已配置的限流器，避免拼写错误时静默创建默认配置的限流器
+     */
+    private RateLimiter limiter(String name) {
+        if (DEFAULT.equals(name)) {
+            return rateLimiterRegistry.rateLimiter(DEFAULT);
+        }
+        Optional<RateLimiter> existing = rateLimiterRegistry.find(name);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        if (rateLimiterRegistry.getConfiguration(name).isPresent()) {
+            return rateLimiterRegistry.rateLimiter(name, name);
+        }
+        log.warn("Ignore rate limit mapping to unknown limiter: {}", name);
+        return null;
+    }
+}
@@ -0,0 +1,136 @@
+package com.mok.infrastructure.limiter;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.micronaut.http.HttpMethod;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 限流映射按路径前缀逐字符组织的前缀树，构建后只读，可在多线程间共享。
+ * <p>
+ * 映射 key 为 {@code 前缀/**} 或 {@code 前缀:方法}，值为限流器名称，编译时直接解析为限流器实例。
+ * 查找取最长的匹配前缀，同一前缀上指定方法的映射优先于不限方法的映射；查找过程不分配对象。
+ */
+public final class RateLimitRouteTrie {
+
+    private static final int METHODS = HttpMethod.values().length;
+
+    private final Node root;
+    private final RateLimiter fallback;
+
+    private RateLimitRouteTrie(Node root, RateLimiter fallback) {
+        this.root = root;
+        this.fallback = fallback;
+    }
+
+    /**
+     * @param limiters 按名称取得限流器，名称无效时返回 null，该映射被忽略
+     * @param fallback 未匹配任何映射时使用的限流器
+     */
+    public static RateLimitRouteTrie compile(Map<String, String> mappings, Function<String, RateLimiter> limiters,
+                                             RateLimiter fallback) {
+        Node root = new Node();
+        if (mappings != null) {
+            for (Map.Entry<String, String> entry : mappings.entrySet()) {
+                String key = entry.getKey();
+                HttpMethod method = null;
+                String prefix;
+                int colon = key.indexOf(':');
+                if (colon >= 0) {
+                    // 带方法的映射，如 "/api/users:post"
+                    if (key.indexOf(':', colon + 1) >= 0) {
+                        continue;
+                    }
+                    method = HttpMethod.parse(key.substring(colon + 1).toUpperCase(Locale.ROOT));
+                    prefix = key.substring(0, colon);
+                } else {
+                    // 路径匹配，如 "/api/seckill/**"
+                    prefix = key.replace("/**", "");
+                }
+                RateLimiter limiter = limiters.apply(entry.getValue());
+                if (limiter == null) {
+                    continue;
+                }
+                Node node = root;
+                for (int i = 0; i < prefix.length(); i++) {
+                    node = node.childOrCreate(prefix.charAt(i));
+                }
+                if (method == null) {
+                    node.any = limiter;
+                } else {
+                    node.methods()[method.ordinal()] = limiter;
+                }
+            }
+        }
+        return new RateLimitRouteTrie(root, fallback);
+    }
+
+    public RateLimiter match(HttpMethod method, String path) {
+        int ordinal = method.ordinal();
+        RateLimiter matched = root.limiter(ordinal);
+        Node node = root;
+        for (int i = 0, length = path.length(); i < length; i++) {
+            node = node.child(path.charAt(i));
+            if (node == null) {
+                break;
+            }
+            RateLimiter limiter = node.limiter(ordinal);
+            if (limiter != null) {
+                matched = limiter;
+            }
+        }
+        return matched != null ? matched : fallback;
+    }
+
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        /**
+         * 子节点按字符有序排列，查找时二分
+         */
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private RateLimiter any;
+        private RateLimiter[] methods;
+
+        private Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node childOrCreate(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insert = -index - 1;
+            Node child = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insert);
+            System.arraycopy(children, 0, newChildren, 0, insert);
+            newKeys[insert] = c;
+            newChildren[insert] = child;
+            System.arraycopy(keys, insert, newKeys, insert + 1, keys.length - insert);
+            System.arraycopy(children, insert, newChildren, insert + 1, children.length - insert);
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+        private RateLimiter[] methods() {
+            return methods == null ? methods = new RateLimiter[METHODS] : methods;
+        }
+
+        private RateLimiter limiter(int method) {
+            if (methods != null && methods[method] != null) {
+                return methods[method];
+            }
+            return any;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.mok.infrastructure.limiter;
+
+import io.micronaut.context.annotation.EachProperty;
+import io.micronaut.context.annotation.Parameter;
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * 套餐档位的限流配额与并发上限，名称对应 {@code TenantPackage.tier}
+ */
+@Data
+@EachProperty("rate-limit.tiers")
+public class RateLimitTier {
+
+    private final String name;
+
+    /**
+     * 每个租户每周期的请求数，不大于 0 时不限制
+     */
+    private int tenantLimit;
+
+    /**
+     * 每个用户每周期的请求数，不大于 0 时不限制
+     */
+    private int userLimit;
+
+    private Duration refreshPeriod = Duration.ofSeconds(1);
+
+    /**
+     * 每个租户同时处理的请求数，不大于 0 时只受全局上限约束
+     */
+    private int maxConcurrent;
+
+    public RateLimitTier(@Parameter String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,89 @@
+package com.mok.infrastructure.limiter;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mok.application.sys.dto.tenant.TenantDTO;
+import com.mok.application.sys.service.TenantCacheService;
+import com.mok.application.sys.service.TenantPackageService;
+import com.mok.infrastructure.common.Const;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.scheduling.TaskExecutors;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * 租户 → 套餐 → 档位配额。租户的档位在本地缓存一段时间，套餐档位变更在该时间内生效；
+ * 套餐未设置档位、档位未配置或加载失败时使用默认档位。
+ * <p>
+ * 加载需要查询 Redis 或数据库，在阻塞线程池上异步执行，请求线程只读取已加载的结果。
+ */
+@Slf4j
+@Singleton
+public class TenantTiers {
+
+    private final TenantCacheService tenantCacheService;
+    private final TenantPackageService tenantPackageService;
+    private final Map<String, RateLimitTier> tiers = new HashMap<>();
+
+    private final AsyncLoadingCache<String, String> tenantTiers;
+
+    public TenantTiers(TenantCacheService tenantCacheService,
+                       TenantPackageService tenantPackageService,
+                       List<RateLimitTier> tiers,
+                       @Named(TaskExecutors.BLOCKING) Executor blockingExecutor,
+                       @Value("${rate-limit.keyed.maximum-size:10000}") long maximumSize,
+                       @Value("${rate-limit.keyed.tier-ttl:1m}") Duration tierTtl) {
+        this.tenantCacheService = tenantCacheService;
+        this.tenantPackageService = tenantPackageService;
+        for (RateLimitTier tier : tiers) {
+            this.tiers.put(tier.getName(), tier);
+        }
+        this.tenantTiers = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(tierTtl)
+                .executor(blockingExecutor)
+                .buildAsync(this::load);
+    }
+
+    /**
+     * 不等待加载，租户的档位尚未加载完成时先按默认档位
+     *
+     * @return 默认档位也未配置时为 null
+     */
+    public RateLimitTier resolve(String tenantId) {
+        return tierOf(tenantTiers.get(tenantId).getNow(Const.TenantPackageTier.DEFAULT));
+    }
+
+    /**
+     * 加载完成后得到租户的档位，已加载时返回已完成的 future
+     */
+    public CompletableFuture<RateLimitTier> resolveAsync(String tenantId) {
+        return tenantTiers.get(tenantId).thenApply(this::tierOf);
+    }
+
+    private RateLimitTier tierOf(String name) {
+        RateLimitTier tier = tiers.get(name);
+        return tier != null ? tier : tiers.get(Const.TenantPackageTier.DEFAULT);
+    }
+
+    private String load(String tenantId) {
+        try {
+            TenantDTO tenant = tenantCacheService.findByTenantId(tenantId);
+            if (tenant == null || tenant.getPackageId() == null) {
+                return Const.TenantPackageTier.DEFAULT;
+            }
+            return tenantPackageService.getTierByPackage(tenant.getPackageId());
+        } catch (RuntimeException e) {
+            log.warn("Failed to load tier of tenant {}, using default", tenantId, e);
+            return Const.TenantPackageTier.DEFAULT;
+        }
+    }
+}
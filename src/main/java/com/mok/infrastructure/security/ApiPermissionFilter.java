@@ -0,0 +1,127 @@
+package com.mok.infrastructure.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mok.application.sys.dto.tenant.TenantDTO;
+import com.mok.application.sys.service.TenantCacheService;
+import com.mok.infrastructure.tenant.TenantContextHolder;
+import com.mok.web.common.RestResponse;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MutableHttpResponse;
+import io.micronaut.http.annotation.Filter;
+import io.micronaut.http.filter.HttpServerFilter;
+import io.micronaut.http.filter.ServerFilterChain;
+import io.micronaut.http.filter.ServerFilterPhase;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.security.authentication.Authentication;
+import jakarta.inject.Named;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+/**
+ * 按 {@code Permission.url} 和 {@code Permission.method} 的动态接口权限拦截。
+ * 在安全过滤器之后执行，未配置权限的接口和匿名请求交由 {@code intercept-url-map} 处理。
+ * <p>
+ * 用户的有效权限为角色权限与租户套餐权限的交集。所需位图和租户套餐都已在本地时直接在当前线程判定；
+ * 否则需要查库，切换到阻塞线程池判定后在该线程上恢复租户上下文继续执行过滤器链。
+ */
+@Filter("/api/**")
+public class ApiPermissionFilter implements HttpServerFilter {
+
+    private final ApiPermissionMatcher permissionMatcher;
+    private final AuthorizationEngine authorizationEngine;
+    private final TenantCacheService tenantCacheService;
+    private final Scheduler blockingScheduler;
+
+    /**
+     * 租户 → 套餐，租户更换套餐在缓存时间内生效；未绑定套餐的租户不受套餐限制
+     */
+    private final Cache<String, Optional<Long>> tenantPackages;
+
+    public ApiPermissionFilter(ApiPermissionMatcher permissionMatcher,
+                               AuthorizationEngine authorizationEngine,
+                               TenantCacheService tenantCacheService,
+                               @Named(TaskExecutors.BLOCKING) ExecutorService blockingExecutor,
+                               @Value("${auth.api-permission.tenant-package-ttl:1m}") Duration tenantPackageTtl) {
+        this.permissionMatcher = permissionMatcher;
+        this.authorizationEngine = authorizationEngine;
+        this.tenantCacheService = tenantCacheService;
+        this.blockingScheduler = Schedulers.fromExecutorService(blockingExecutor);
+        this.tenantPackages = Caffeine.newBuilder().maximumSize(10_000).expireAfterWrite(tenantPackageTtl).build();
+    }
+
+    @Override
+    public int getOrder() {
+        return ServerFilterPhase.SECURITY.after();
+    }
+
+    @Override
+    public Publisher<MutableHttpResponse<?>> doFilter(HttpRequest<?> request, ServerFilterChain chain) {
+        Optional<Authentication> authOpt = request.getUserPrincipal(Authentication.class);
+        if (authOpt.isEmpty()) {
+            return chain.proceed(request);
+        }
+        Map<String, Object> attrs = authOpt.get().getAttributes();
+        // 管理员的可分配范围已由套餐和授权界面约束
+        if (Boolean.TRUE.equals(attrs.get("isSuperAdmin")) || Boolean.TRUE.equals(attrs.get("isTenantAdmin"))) {
+            return chain.proceed(request);
+        }
+        List<String> codes = permissionMatcher.match(request.getMethodName(), request.getPath());
+        if (codes == null) {
+            return chain.proceed(request);
+        }
+        if (!(attrs.get("roleIds") instanceof Collection<?> coll) || coll.isEmpty()) {
+            return Mono.just(forbidden());
+        }
+        Set<Long> roleIds = coll.stream()
+                .map(o -> o instanceof Long id ? id : Long.valueOf(o.toString()))
+                .collect(Collectors.toSet());
+        String tenantId = (String) attrs.get("tenantId");
+
+        Optional<Long> packageId = tenantId != null ? tenantPackages.getIfPresent(tenantId) : Optional.empty();
+        if (packageId != null && authorizationEngine.isLoaded(roleIds, packageId.orElse(null))) {
+            return isGranted(roleIds, packageId.orElse(null), codes) ? chain.proceed(request) : Mono.just(forbidden());
+        }
+
+        ScopedValue.Carrier context = TenantContextHolder.capture();
+        return Mono.fromCallable(() -> isGranted(roleIds, tenantId != null ? packageOf(tenantId) : null, codes))
+                .subscribeOn(blockingScheduler)
+                .flatMap(granted -> granted
+                        ? context.call(() -> Mono.from(chain.proceed(request)))
+                        : Mono.just(forbidden()));
+    }
+
+    private boolean isGranted(Set<Long> roleIds, Long packageId, List<String> codes) {
+        for (String code : codes) {
+            if (authorizationEngine.hasAuthority(roleIds, packageId, code)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Long packageOf(String tenantId) {
+        return tenantPackages.get(tenantId, id -> {
+            TenantDTO tenant = tenantCacheService.findByTenantId(id);
+            return Optional.ofNullable(tenant != null ? tenant.getPackageId() : null);
+        }).orElse(null);
+    }
+
+    private static MutableHttpResponse<?> forbidden() {
+        return HttpResponse.status(HttpStatus.FORBIDDEN).body(RestResponse.failure(403, "权限不足"));
+    }
+}
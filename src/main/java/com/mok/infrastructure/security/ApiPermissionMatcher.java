@@ -0,0 +1,99 @@
+package com.mok.infrastructure.security;
+
+import com.mok.application.sys.event.ApiPermissionChangedEvent;
+import com.mok.domain.sys.repository.PermissionRepository;
+import com.mok.infrastructure.cache.CacheInvalidationBus;
+import com.mok.infrastructure.common.Const;
+import io.micronaut.context.event.ApplicationEventListener;
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.scheduling.annotation.Scheduled;
+import io.micronaut.transaction.annotation.TransactionalEventListener;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 持有当前生效的 {@link PermissionUrlTrie}，请求路径上只读取本地快照，不访问数据库或 Redis。
+ * <p>
+ * 权限变更的事务提交后由 {@link #onApiPermissionChanged} 通知所有节点，各节点合并并发的通知后在后台重建并整体替换快照；
+ * 另有定时全量重建，兜底通知丢失的情况。首个快照在启动时编译，不在请求线程上查库。
+ */
+@Slf4j
+@Singleton
+public class ApiPermissionMatcher implements ApplicationEventListener<StartupEvent> {
+
+    private final PermissionRepository permissionRepository;
+    private final CacheInvalidationBus invalidationBus;
+    private final Executor rebuildExecutor;
+
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private volatile PermissionUrlTrie trie;
+
+    public ApiPermissionMatcher(PermissionRepository permissionRepository,
+                                CacheInvalidationBus invalidationBus,
+                                @Named(TaskExecutors.BLOCKING) Executor rebuildExecutor) {
+        this.permissionRepository = permissionRepository;
+        this.invalidationBus = invalidationBus;
+        this.rebuildExecutor = rebuildExecutor;
+        invalidationBus.subscribe(Const.Channel.PERMISSION_CHANGED, message -> scheduleRebuild());
+    }
+
+    @Override
+    public void onApplicationEvent(StartupEvent event) {
+        initialize();
+    }
+
+    /**
+     * @return 访问该接口所需的权限编码（满足其一即可），未配置权限的接口返回 null
+     */
+    public List<String> match(String method, String path) {
+        PermissionUrlTrie current = trie;
+        if (current == null) {
+            current = initialize();
+        }
+        return current.match(method, path);
+    }
+
+    /**
+     * 事务提交后执行，重建时读取到的已是提交后的数据
+     */
+    @TransactionalEventListener
+    public void onApiPermissionChanged(ApiPermissionChangedEvent event) {
+        scheduleRebuild();
+        invalidationBus.publish(Const.Channel.PERMISSION_CHANGED, "");
+    }
+
+    @Scheduled(fixedDelay = "${auth.api-permission.refresh-interval:10m}",
+            initialDelay = "${auth.api-permission.refresh-interval:10m}")
+    public void rebuild() {
+        try {
+            trie = PermissionUrlTrie.compile(permissionRepository.findAllUrlRules());
+        } catch (RuntimeException e) {
+            // 保留旧快照继续服务，等待下次重建
+            log.warn("Failed to rebuild API permission trie", e);
+        }
+    }
+
+    void scheduleRebuild() {
+        // 尚未开始的重建会读取到最新数据，期间的通知合并为一次；开始后再到达的通知另行调度
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildScheduled.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    private synchronized PermissionUrlTrie initialize() {
+        if (trie == null) {
+            // 首次加载失败时直接抛出，不放行未校验的请求
+            trie = PermissionUrlTrie.compile(permissionRepository.findAllUrlRules());
+        }
+        return trie;
+    }
+}
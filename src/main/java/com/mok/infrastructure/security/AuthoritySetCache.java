@@ -0,0 +1,86 @@
+package com.mok.infrastructure.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mok.infrastructure.common.Const;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.core.util.StringUtils;
+import jakarta.inject.Singleton;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * 会话权限集合的共享存储。
+ * <p>
+ * 相同的权限集合在 Redis 中只保存一份，key 为内容摘要 {@code auth:authorities:<digest>}，会话仅记录摘要。
+ * 内容与 key 一一对应、不会被修改，因此本地缓存无需失效通知。写入和续期由 {@link JwtTokenProvider} 的 Lua 脚本完成。
+ */
+@Singleton
+public class AuthoritySetCache {
+
+    private static final String SEPARATOR = "\n";
+
+    private final RedisCommands<String, String> redisCommands;
+    private final Cache<String, List<String>> cache;
+
+    public AuthoritySetCache(RedisCommands<String, String> redisCommands,
+                             @Value("${auth.authority-cache.maximum-size:1000}") long maximumSize,
+                             @Value("${auth.authority-cache.expire-after-access:1h}") Duration expireAfterAccess) {
+        this.redisCommands = redisCommands;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfterAccess)
+                .build();
+    }
+
+    /**
+     * 排序后以换行拼接，作为 Redis 中保存的内容
+     */
+    public String serialize(Collection<String> authorities) {
+        String[] sorted = authorities.toArray(String[]::new);
+        Arrays.sort(sorted);
+        return String.join(SEPARATOR, sorted);
+    }
+
+    public String digest(String serialized) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(serialized.getBytes(StandardCharsets.UTF_8));
+            // 128 位足以避免碰撞，同时缩短 key 和会话体积
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 登录时预先放入本地缓存，避免随后的请求再读一次 Redis
+     */
+    public void put(String digest, Collection<String> authorities) {
+        cache.put(digest, List.copyOf(authorities));
+    }
+
+    /**
+     * @return 权限集合，Redis 中已不存在时返回 null
+     */
+    public List<String> resolve(String digest) {
+        List<String> authorities = cache.getIfPresent(digest);
+        if (authorities != null) {
+            return authorities;
+        }
+        String data = redisCommands.get(Const.CacheKey.AUTH_AUTHORITIES + digest);
+        if (data == null) {
+            return null;
+        }
+        authorities = StringUtils.isEmpty(data) ? List.of() : List.of(data.split(SEPARATOR));
+        cache.put(digest, authorities);
+        return authorities;
+    }
+}
@@ -0,0 +1,246 @@
+package com.mok.infrastructure.security;
+
+import com.mok.application.sys.dto.permission.RolePermissionCodeDTO;
+import com.mok.application.sys.event.AuthorizationChangedEvent;
+import com.mok.domain.sys.repository.PermissionRepository;
+import com.mok.infrastructure.cache.CacheInvalidationBus;
+import com.mok.infrastructure.common.Const;
+import io.micronaut.transaction.annotation.TransactionalEventListener;
+import jakarta.inject.Singleton;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 基于位图的权限判定。
+ * <p>
+ * 每个权限编码分配一个稠密的整数下标，角色和租户套餐的权限预先编译为 {@code long[]} 位图，
+ * 判定只需一次下标查找和位运算。普通用户的有效权限为其所有角色位图的并集再与租户套餐位图取交集。
+ * 位图按需从数据库加载，授权变更时通过 {@link CacheInvalidationBus} 通知所有节点丢弃对应位图后重新加载。
+ */
+@Singleton
+public class AuthorizationEngine {
+
+    private static final String ROLE = "role:";
+    private static final String PACKAGE = "package:";
+    private static final String PERMISSION = "permission:";
+
+    private static final long[] EMPTY = new long[0];
+
+    private final PermissionRepository permissionRepository;
+    private final CacheInvalidationBus invalidationBus;
+
+    /**
+     * 下标只增不减：删除的权限仅移除编码映射，已编译位图中残留的位不会再被查到
+     */
+    private final Map<String, Integer> codeIndex = new ConcurrentHashMap<>();
+    private final AtomicInteger nextIndex = new AtomicInteger();
+
+    private final Map<Long, long[]> roleBits = new ConcurrentHashMap<>();
+    private final Map<Long, long[]> packageBits = new ConcurrentHashMap<>();
+
+    /**
+     * 每次失效递增。加载期间发生过失效时不回写，避免把变更前读到的数据留在本地
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public AuthorizationEngine(PermissionRepository permissionRepository, CacheInvalidationBus invalidationBus) {
+        this.permissionRepository = permissionRepository;
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(Const.Channel.AUTHORIZATION_INVALIDATE, this::apply);
+    }
+
+    /**
+     * 编译用户的有效权限位图，结果可在请求内或会话内复用
+     *
+     * @param packageId 租户套餐，为 null 时不受套餐限制
+     */
+    public long[] compile(Collection<Long> roleIds, Long packageId) {
+        long[] result = EMPTY;
+        if (roleIds != null && !roleIds.isEmpty()) {
+            for (long[] bits : roleBits(roleIds)) {
+                result = or(result, bits);
+            }
+        }
+        if (packageId != null) {
+            result = and(result, packageBits(packageId));
+        }
+        return result;
+    }
+
+    /**
+     * 租户管理员拥有套餐内的全部权限
+     */
+    public long[] compilePackage(Long packageId) {
+        return packageBits(packageId).clone();
+    }
+
+    public boolean hasAuthority(long[] bits, String code) {
+        Integer index = codeIndex.get(code);
+        return index != null && test(bits, index);
+    }
+
+    /**
+     * 单次判定，不分配中间位图
+     */
+    public boolean hasAuthority(Collection<Long> roleIds, Long packageId, String code) {
+        if (roleIds == null || roleIds.isEmpty()) {
+            return false;
+        }
+        List<long[]> bitsList = roleBits(roleIds);
+        Integer index = codeIndex.get(code);
+        if (index == null) {
+            return false;
+        }
+        if (packageId != null && !test(packageBits(packageId), index)) {
+            return false;
+        }
+        for (long[] bits : bitsList) {
+            if (test(bits, index)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 判定所需的位图是否都已在本地，为 false 时 {@link #hasAuthority(Collection, Long, String)} 会查询数据库
+     */
+    public boolean isLoaded(Collection<Long> roleIds, Long packageId) {
+        if (packageId != null && !packageBits.containsKey(packageId)) {
+            return false;
+        }
+        for (Long roleId : roleIds) {
+            if (!roleBits.containsKey(roleId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void evictRole(Long roleId) {
+        apply(ROLE + roleId);
+        invalidationBus.publish(Const.Channel.AUTHORIZATION_INVALIDATE, ROLE + roleId);
+    }
+
+    public void evictPackage(Long packageId) {
+        apply(PACKAGE + packageId);
+        invalidationBus.publish(Const.Channel.AUTHORIZATION_INVALIDATE, PACKAGE + packageId);
+    }
+
+    /**
+     * 权限删除后立即对所有位图失效，无需重新编译套餐位图
+     */
+    public void removePermission(String code) {
+        apply(PERMISSION + code);
+        invalidationBus.publish(Const.Channel.AUTHORIZATION_INVALIDATE, PERMISSION + code);
+    }
+
+    /**
+     * 在事务提交后失效，避免并发请求在提交前重新加载到旧数据并长期留在本地
+     */
+    @TransactionalEventListener
+    public void onAuthorizationChanged(AuthorizationChangedEvent event) {
+        event.getRoleIds().forEach(this::evictRole);
+        event.getPackageIds().forEach(this::evictPackage);
+        event.getRemovedCodes().forEach(this::removePermission);
+    }
+
+    void apply(String message) {
+        generation.incrementAndGet();
+        if (message.startsWith(ROLE)) {
+            roleBits.remove(Long.valueOf(message.substring(ROLE.length())));
+        } else if (message.startsWith(PACKAGE)) {
+            packageBits.remove(Long.valueOf(message.substring(PACKAGE.length())));
+        } else if (message.startsWith(PERMISSION)) {
+            codeIndex.remove(message.substring(PERMISSION.length()));
+        }
+    }
+
+    private List<long[]> roleBits(Collection<Long> roleIds) {
+        List<long[]> result = new ArrayList<>(roleIds.size());
+        List<Long> missed = null;
+        for (Long roleId : roleIds) {
+            long[] bits = roleBits.get(roleId);
+            if (bits != null) {
+                result.add(bits);
+            } else {
+                if (missed == null) {
+                    missed = new ArrayList<>();
+                }
+                missed.add(roleId);
+            }
+        }
+        if (missed != null) {
+            long gen = generation.get();
+            Map<Long, List<String>> loaded = permissionRepository.findCodesByRoleIds(missed).stream()
+                    .collect(Collectors.groupingBy(RolePermissionCodeDTO::roleId,
+                            Collectors.mapping(RolePermissionCodeDTO::code, Collectors.toList())));
+            for (Long roleId : missed) {
+                long[] bits = toBits(loaded.getOrDefault(roleId, List.of()));
+                if (generation.get() == gen) {
+                    roleBits.put(roleId, bits);
+                }
+                result.add(bits);
+            }
+        }
+        return result;
+    }
+
+    private long[] packageBits(Long packageId) {
+        long[] bits = packageBits.get(packageId);
+        if (bits != null) {
+            return bits;
+        }
+        long gen = generation.get();
+        bits = toBits(permissionRepository.findCodesByPackageId(packageId));
+        if (generation.get() == gen) {
+            packageBits.put(packageId, bits);
+        }
+        return bits;
+    }
+
+    private long[] toBits(Collection<String> codes) {
+        if (codes.isEmpty()) {
+            return EMPTY;
+        }
+        int[] indexes = new int[codes.size()];
+        int max = 0;
+        int i = 0;
+        for (String code : codes) {
+            int index = codeIndex.computeIfAbsent(code, c -> nextIndex.getAndIncrement());
+            indexes[i++] = index;
+            max = Math.max(max, index);
+        }
+        long[] bits = new long[(max >>> 6) + 1];
+        for (int index : indexes) {
+            bits[index >>> 6] |= 1L << index;
+        }
+        return bits;
+    }
+
+    private static boolean test(long[] bits, int index) {
+        int word = index >>> 6;
+        return word < bits.length && (bits[word] & (1L << index)) != 0;
+    }
+
+    private static long[] or(long[] a, long[] b) {
+        long[] result = Arrays.copyOf(a.length >= b.length ? a : b, Math.max(a.length, b.length));
+        long[] shorter = a.length >= b.length ? b : a;
+        for (int i = 0; i < shorter.length; i++) {
+            result[i] |= shorter[i];
+        }
+        return result;
+    }
+
+    private static long[] and(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = a[i] & b[i];
+        }
+        return result;
+    }
+}
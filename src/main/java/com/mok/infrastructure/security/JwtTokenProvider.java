@@ -1,10 +1,14 @@
 package com.mok.infrastructure.security;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mok.application.exception.BizException;
+import com.mok.infrastructure.cache.RedisScript;
 import com.mok.infrastructure.common.Const;
-import io.lettuce.core.ScanArgs;
-import io.lettuce.core.ScanIterator;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.Limit;
+import io.lettuce.core.Range;
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.ScriptOutputType;
 import io.lettuce.core.api.sync.RedisCommands;
 import io.micronaut.context.annotation.Value;
 import io.micronaut.core.util.StringUtils;
@@ -13,6 +17,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Singleton
@@ -20,6 +25,139 @@ import java.util.stream.Collectors;
 @Slf4j
 public class JwtTokenProvider {
 
+    private static final long REFRESH_THRESHOLD_SECONDS = 600;
+
+    /**
+     * KEYS: userKey, tokenKey, onlineKey, onlineAllKey, authKey；ARGV: token, session, 过期秒数, 是否多端(1/0), 令牌key前缀, 登录时间, 权限集合。
+     * 单端登录时顺带删除旧令牌并返回旧令牌，供调用方清理本地缓存。
+     * 在线索引（租户与全局各一个）按登录时间排序，每次登录顺带检查最早的几条，清理已过期的令牌。
+     * 共享权限集合的剩余时间不短于本次会话，不存在时写入。
+     */
+    private static final RedisScript CREATE_SCRIPT = new RedisScript("""
+            local old = false
+            if ARGV[4] == '0' then
+                old = redis.call('GET', KEYS[1])
+                if old then
+                    redis.call('DEL', ARGV[5] .. old)
+                    redis.call('ZREM', KEYS[3], old)
+                    redis.call('ZREM', KEYS[4], old)
+                end
+            end
+            if KEYS[5] and redis.call('TTL', KEYS[5]) < tonumber(ARGV[3]) then
+                redis.call('SET', KEYS[5], ARGV[7], 'EX', ARGV[3])
+            end
+            redis.call('SET', KEYS[2], ARGV[2], 'EX', ARGV[3])
+            if ARGV[4] == '1' then
+                redis.call('SADD', KEYS[1], ARGV[1])
+            else
+                redis.call('SET', KEYS[1], ARGV[1])
+            end
+            redis.call('EXPIRE', KEYS[1], ARGV[3])
+            for i = 3, 4 do
+                for _, t in ipairs(redis.call('ZRANGE', KEYS[i], 0, 2)) do
+                    if redis.call('EXISTS', ARGV[5] .. t) == 0 then
+                        redis.call('ZREM', KEYS[i], t)
+                    end
+                end
+                redis.call('ZADD', KEYS[i], ARGV[6], ARGV[1])
+            end
+            return old
+            """, ScriptOutputType.VALUE);
+
+    /**
+     * KEYS: tokenKey；ARGV: 刷新阈值秒数, 过期秒数, 用户令牌key前缀, 权限集合key前缀。
+     * 返回 {session, 剩余秒数}，剩余时间低于阈值时同时续期令牌、用户令牌索引和共享权限集合。
+     * 后两者的 key 由会话内容得出：二进制格式取自首行（版本 3 按字节数截取 tenantId:username），JSON 格式经 cjson 解析。
+     */
+    private static final RedisScript GET_SCRIPT = new RedisScript("""
+            local data = redis.call('GET', KEYS[1])
+            if not data then
+                return false
+            end
+            local ttl = redis.call('TTL', KEYS[1])
+            if ttl > 0 and ttl < tonumber(ARGV[1]) then
+                redis.call('EXPIRE', KEYS[1], ARGV[2])
+                ttl = tonumber(ARGV[2])
+                local tenantUser, ref
+                if string.sub(data, 1, 1) == '$' then
+                    local version = string.match(data, '^%$(%d+) ')
+                    if version == '1' then
+                        tenantUser = string.match(data, '^%$1 ([^\\n]+)\\n')
+                    elseif version == '2' then
+                        ref, tenantUser = string.match(data, '^%$2 (%S+) ([^\\n]+)\\n')
+                    elseif version then
+                        local len, pos
+                        ref, len, pos = string.match(data, '^%$%d+ (%S+) (%d+) ()')
+                        if pos then
+                            tenantUser = string.sub(data, pos, pos + tonumber(len) - 1)
+                        end
+                    end
+                else
+                    local ok, s = pcall(cjson.decode, data)
+                    if ok and type(s) == 'table' then
+                        if type(s.tenantId) == 'string' and type(s.username) == 'string' then
+                            tenantUser = s.tenantId .. ':' .. s.username
+                        end
+                        if type(s.authoritiesRef) == 'string' then
+                            ref = s.authoritiesRef
+                        end
+                    end
+                end
+                if tenantUser then
+                    redis.call('EXPIRE', ARGV[3] .. tenantUser, ARGV[2])
+                end
+                if ref and ref ~= '-' and redis.call('TTL', ARGV[4] .. ref) < ttl then
+                    redis.call('EXPIRE', ARGV[4] .. ref, ARGV[2])
+                end
+            end
+            return {data, ttl}
+            """, ScriptOutputType.MULTI);
+
+    /**
+     * KEYS: tokenKey, userKey[, authKey]；ARGV: 过期秒数。令牌已不存在时返回 0。
+     */
+    private static final RedisScript TOUCH_SCRIPT = new RedisScript("""
+            if redis.call('EXPIRE', KEYS[1], ARGV[1]) == 0 then
+                return 0
+            end
+            redis.call('EXPIRE', KEYS[2], ARGV[1])
+            if KEYS[3] and redis.call('TTL', KEYS[3]) < tonumber(ARGV[1]) then
+                redis.call('EXPIRE', KEYS[3], ARGV[1])
+            end
+            return 1
+            """, ScriptOutputType.INTEGER);
+
+    /**
+     * KEYS: tokenKey, userKey, onlineKey, onlineAllKey；ARGV: token, 是否多端(1/0)。单端时仅当用户令牌仍指向该令牌才删除。
+     */
+    private static final RedisScript REMOVE_SCRIPT = new RedisScript("""
+            redis.call('DEL', KEYS[1])
+            redis.call('ZREM', KEYS[3], ARGV[1])
+            redis.call('ZREM', KEYS[4], ARGV[1])
+            if ARGV[2] == '1' then
+                redis.call('SREM', KEYS[2], ARGV[1])
+            elseif redis.call('GET', KEYS[2]) == ARGV[1] then
+                redis.call('DEL', KEYS[2])
+            end
+            return 1
+            """, ScriptOutputType.INTEGER);
+
+    /**
+     * KEYS: onlineKey；ARGV: 令牌key前缀, 登录时间下限。统计在线会话数并清理已过期的索引项。
+     * 登录时间晚于下限（当前时间减去有效期）的会话必然未过期，直接计数；更早的会话可能已过期，逐个检查。
+     */
+    private static final RedisScript COUNT_SCRIPT = new RedisScript("""
+            local n = redis.call('ZCOUNT', KEYS[1], '(' .. ARGV[2], '+inf')
+            for _, t in ipairs(redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[2])) do
+                if redis.call('EXISTS', ARGV[1] .. t) == 1 then
+                    n = n + 1
+                else
+                    redis.call('ZREM', KEYS[1], t)
+                end
+            end
+            return n
+            """, ScriptOutputType.INTEGER);
+
     @Value("${auth.expiration-ms}")
     private long jwtExpirationInMs;
 
@@ -27,86 +165,188 @@ public class JwtTokenProvider {
     private boolean allowMultiDevice;
 
     private final RedisCommands<String, String> redisCommands;
-    private final ObjectMapper objectMapper;
+    private final TokenSessionCodec sessionCodec;
+    private final TokenSessionCache sessionCache;
+    private final AuthoritySetCache authoritySetCache;
 
     public String createToken(String username, String tenantId, CustomUserDetail principal, String ipAddress, String browser) throws JsonProcessingException {
         String userKey = Const.CacheKey.USER_TOKENS + tenantId + ":" + username;
-        if (!allowMultiDevice) {
-            String oldToken = redisCommands.get(userKey);
-            if (StringUtils.isNotEmpty(oldToken)) {
-                redisCommands.del(Const.CacheKey.AUTH_TOKEN + oldToken);
-            }
-        }
-
         String token = UUID.randomUUID().toString();
         String tokenKey = Const.CacheKey.AUTH_TOKEN + token;
+        String onlineKey = Const.CacheKey.AUTH_ONLINE + tenantId;
         TokenSessionDTO session = new TokenSessionDTO(username, tenantId, principal, ipAddress, browser, System.currentTimeMillis());
         session.setToken(token);
-        String sessionJson = objectMapper.writeValueAsString(session);
 
-        redisCommands.setex(tokenKey, jwtExpirationInMs / 1000, sessionJson); // setex takes seconds
-        if (allowMultiDevice) {
-            redisCommands.sadd(userKey, token);
-        } else {
-            redisCommands.set(userKey, token);
+        // 权限集合单独共享存储，会话中只保留摘要
+        String[] keys = {userKey, tokenKey, onlineKey, Const.CacheKey.AUTH_ONLINE_ALL};
+        String authorities = "";
+        if (principal != null && principal.authrizes() != null) {
+            authorities = authoritySetCache.serialize(principal.authrizes());
+            String digest = authoritySetCache.digest(authorities);
+            authoritySetCache.put(digest, principal.authrizes());
+            session.setAuthoritiesRef(digest);
+            session.setPrincipal(withAuthorities(principal, null));
+            keys = new String[]{userKey, tokenKey, onlineKey, Const.CacheKey.AUTH_ONLINE_ALL, Const.CacheKey.AUTH_AUTHORITIES + digest};
+        }
+        String sessionData = sessionCodec.encode(session);
+
+        String oldToken = CREATE_SCRIPT.execute(redisCommands, keys,
+                token, sessionData, String.valueOf(jwtExpirationInMs / 1000), allowMultiDevice ? "1" : "0",
+                Const.CacheKey.AUTH_TOKEN, String.valueOf(session.getLoginTime()), authorities);
+        if (StringUtils.isNotEmpty(oldToken)) {
+            sessionCache.invalidate(oldToken);
         }
-        redisCommands.expire(userKey, jwtExpirationInMs / 1000); // expire takes seconds
 
         return token;
     }
 
     public TokenSessionDTO getSession(String token) {
-        String tokenKey = Const.CacheKey.AUTH_TOKEN + token;
-        String data = redisCommands.get(tokenKey);
-        if (StringUtils.isNotEmpty(data)) {
-            try {
-                TokenSessionDTO session = objectMapper.readValue(data, TokenSessionDTO.class);
-                if (session == null) {
-                    return null;
-                }
-
-                Long expire = redisCommands.ttl(tokenKey); // ttl returns seconds, -1 if no expire, -2 if key not exist
+        long now = System.currentTimeMillis();
+        TokenSessionCache.Entry cached = sessionCache.get(token);
+        if (cached != null) {
+            if (cached.remainingSeconds(now) < REFRESH_THRESHOLD_SECONDS) {
+                return refresh(token, cached.session(), now) ? cached.session() : null;
+            }
+            return cached.session();
+        }
 
-                // 剩余时间小于10分钟，刷新
-                if (expire != null && expire > 0 && expire < 600) { // 600 seconds = 10 minutes
-                    redisCommands.expire(tokenKey, jwtExpirationInMs / 1000);
-                    String userKey = Const.CacheKey.USER_TOKENS + session.getTenantId() + ":" + session.getUsername();
-                    redisCommands.expire(userKey, jwtExpirationInMs / 1000);
-                }
-                return session;
-            } catch (Exception e) {
-                log.error("Failed to deserialize TokenSessionDTO from Redis", e);
+        String tokenKey = Const.CacheKey.AUTH_TOKEN + token;
+        List<Object> result = GET_SCRIPT.execute(redisCommands,
+                new String[]{tokenKey},
+                String.valueOf(REFRESH_THRESHOLD_SECONDS), String.valueOf(jwtExpirationInMs / 1000),
+                Const.CacheKey.USER_TOKENS, Const.CacheKey.AUTH_AUTHORITIES);
+        if (result == null || result.size() < 2 || !(result.getFirst() instanceof String data) || StringUtils.isEmpty(data)) {
+            return null;
+        }
+        try {
+            TokenSessionDTO session = sessionCodec.decode(data);
+            if (session == null || !resolveAuthorities(session)) {
                 return null;
             }
+            session.setToken(token);
+
+            // ttl 单位为秒，-1 表示未设置过期时间
+            long expire = result.get(1) instanceof Long ttl ? ttl : -2;
+            if (expire > 0) {
+                sessionCache.put(token, session, now + expire * 1000);
+            } else if (expire == -1) {
+                sessionCache.put(token, session, Long.MAX_VALUE);
+            }
+            return session;
+        } catch (Exception e) {
+            log.error("Failed to deserialize TokenSessionDTO from Redis", e);
+            return null;
         }
-        return null;
     }
 
-    public List<OnlineUserDTO> getAllOnlineUsers(Map<String, String> tenantMap, String currentTenantId, boolean isSuper) {
-        Set<String> keys = new HashSet<>();
-        ScanIterator<String> scanIterator = ScanIterator.scan(redisCommands, ScanArgs.Builder.matches(Const.CacheKey.AUTH_TOKEN + "*").limit(1000));
-        while (scanIterator.hasNext()) {
-            keys.add(scanIterator.next());
+    private boolean refresh(String token, TokenSessionDTO session, long now) {
+        String tokenKey = Const.CacheKey.AUTH_TOKEN + token;
+        String userKey = Const.CacheKey.USER_TOKENS + session.getTenantId() + ":" + session.getUsername();
+        String[] keys = session.getAuthoritiesRef() == null
+                ? new String[]{tokenKey, userKey}
+                : new String[]{tokenKey, userKey, Const.CacheKey.AUTH_AUTHORITIES + session.getAuthoritiesRef()};
+        Long alive = TOUCH_SCRIPT.execute(redisCommands, keys, String.valueOf(jwtExpirationInMs / 1000));
+        if (alive == null || alive == 0) {
+            // 令牌已在其他节点被移除，本地副本作废
+            sessionCache.invalidate(token);
+            return false;
+        }
+        sessionCache.put(token, session, now + jwtExpirationInMs);
+        return true;
+    }
+
+    /**
+     * 将共享权限集合填回 principal。集合已丢失时视为会话无效，宁可要求重新登录也不放行
+     */
+    private boolean resolveAuthorities(TokenSessionDTO session) {
+        if (session.getAuthoritiesRef() == null || session.getPrincipal() == null) {
+            return true;
+        }
+        List<String> authorities = authoritySetCache.resolve(session.getAuthoritiesRef());
+        if (authorities == null) {
+            log.warn("Authority set {} not found for user {}", session.getAuthoritiesRef(), session.getUsername());
+            return false;
+        }
+        session.setPrincipal(withAuthorities(session.getPrincipal(), authorities));
+        return true;
+    }
+
+    private static CustomUserDetail withAuthorities(CustomUserDetail principal, Collection<String> authorities) {
+        return new CustomUserDetail(principal.userId(), principal.username(), principal.password(), principal.tenantId(),
+                principal.roleIds(), principal.isSuperAdmin(), authorities);
+    }
+
+    /**
+     * 按登录时间倒序分页查询在线用户，同一用户的多个会话在当前页内合并。
+     *
+     * @param tenantId    租户，为空时查询所有租户
+     * @param tenantNames 按租户 ID 取租户名称
+     * @param cursor      上一页返回的 nextCursor，为空时从最新登录开始
+     */
+    public OnlineUserPageDTO getOnlineUsers(String tenantId, Function<String, String> tenantNames, String cursor, int size) {
+        String onlineKey = StringUtils.isEmpty(tenantId) ? Const.CacheKey.AUTH_ONLINE_ALL : Const.CacheKey.AUTH_ONLINE + tenantId;
+
+        // 游标格式：<登录时间>-<该时间点已返回的条数>，避免同一毫秒登录的会话跨页时丢失
+        Long cursorScore = null;
+        long skip = 0;
+        if (StringUtils.isNotEmpty(cursor)) {
+            String[] parts = cursor.split("-", 2);
+            try {
+                cursorScore = Long.parseLong(parts[0]);
+                skip = parts.length > 1 ? Long.parseLong(parts[1]) : 0;
+            } catch (NumberFormatException e) {
+                throw new BizException("无效的分页游标");
+            }
         }
 
+        Range<Long> range = Range.from(Range.Boundary.unbounded(),
+                cursorScore == null ? Range.Boundary.unbounded() : Range.Boundary.including(cursorScore));
+        List<ScoredValue<String>> page = redisCommands.zrevrangebyscoreWithScores(onlineKey, range, Limit.create(skip, size));
+
         List<TokenSessionDTO> sessions = new ArrayList<>();
-        if (!keys.isEmpty()) {
-            for (String fullKey : keys) {
-                String token = fullKey.replace(Const.CacheKey.AUTH_TOKEN, "");
-                TokenSessionDTO session = getSession(token);
-                if (session != null) {
+        Set<String> stale = new HashSet<>();
+        if (!page.isEmpty()) {
+            String[] tokenKeys = page.stream().map(v -> Const.CacheKey.AUTH_TOKEN + v.getValue()).toArray(String[]::new);
+            List<KeyValue<String, String>> values = redisCommands.mget(tokenKeys);
+            for (int i = 0; i < page.size(); i++) {
+                String token = page.get(i).getValue();
+                KeyValue<String, String> value = values.get(i);
+                if (!value.hasValue()) {
+                    stale.add(token);
+                    continue;
+                }
+                try {
+                    TokenSessionDTO session = sessionCodec.decode(value.getValue());
                     session.setToken(token);
                     sessions.add(session);
+                } catch (Exception e) {
+                    log.error("Failed to deserialize TokenSessionDTO from Redis", e);
                 }
             }
         }
+        if (!stale.isEmpty()) {
+            // 会话已过期，顺带清理索引
+            redisCommands.zrem(onlineKey, stale.toArray(String[]::new));
+        }
+
+        String nextCursor = null;
+        if (page.size() == size) {
+            long last = (long) page.getLast().getScore();
+            long sameScore = page.stream()
+                    .filter(v -> (long) v.getScore() == last && !stale.contains(v.getValue()))
+                    .count();
+            if (cursorScore != null && cursorScore == last) {
+                sameScore += skip;
+            }
+            nextCursor = last + "-" + sameScore;
+        }
 
         Map<String, List<TokenSessionDTO>> grouped = sessions.stream()
                 .filter(s -> s.getPrincipal() != null)
-                .filter(s -> isSuper || s.getTenantId().equals(currentTenantId))
-                .collect(Collectors.groupingBy(s -> s.getTenantId() + ":" + s.getPrincipal().userId()));
+                .collect(Collectors.groupingBy(s -> s.getTenantId() + ":" + s.getPrincipal().userId(), LinkedHashMap::new, Collectors.toList()));
+        Map<String, String> names = new HashMap<>();
 
-        return grouped.values().stream().map(userSessions -> {
+        List<OnlineUserDTO> records = grouped.values().stream().map(userSessions -> {
             TokenSessionDTO first = userSessions.getFirst();
             List<OnlineUserDTO.SessionDetail> details = userSessions.stream()
                     .map(s -> new OnlineUserDTO.SessionDetail(
@@ -120,10 +360,14 @@ public class JwtTokenProvider {
                     first.getPrincipal().userId(),
                     first.getUsername(),
                     first.getTenantId(),
-                    tenantMap.getOrDefault(first.getTenantId(), first.getTenantId()),
+                    names.computeIfAbsent(first.getTenantId(), tenantNames),
                     details
             );
         }).toList();
+
+        Long total = COUNT_SCRIPT.execute(redisCommands, new String[]{onlineKey},
+                Const.CacheKey.AUTH_TOKEN, String.valueOf(System.currentTimeMillis() - jwtExpirationInMs));
+        return new OnlineUserPageDTO(records, total == null ? 0 : total, nextCursor);
     }
 
     public void removeToken(String token) {
@@ -131,14 +375,11 @@ public class JwtTokenProvider {
         if (session != null) {
             String tokenKey = Const.CacheKey.AUTH_TOKEN + token;
             String userKey = Const.CacheKey.USER_TOKENS + session.getTenantId() + ":" + session.getUsername();
+            String onlineKey = Const.CacheKey.AUTH_ONLINE + session.getTenantId();
 
-            redisCommands.del(tokenKey);
-
-            if (allowMultiDevice) {
-                redisCommands.srem(userKey, token);
-            } else {
-                redisCommands.del(userKey);
-            }
+            REMOVE_SCRIPT.execute(redisCommands, new String[]{tokenKey, userKey, onlineKey, Const.CacheKey.AUTH_ONLINE_ALL},
+                    token, allowMultiDevice ? "1" : "0");
+            sessionCache.invalidate(token);
         }
     }
 }
@@ -0,0 +1,10 @@
+package com.mok.infrastructure.security;
+
+import java.util.List;
+
+public record OnlineUserPageDTO(
+        List<OnlineUserDTO> records,
+        long total,
+        String nextCursor
+) {
+}
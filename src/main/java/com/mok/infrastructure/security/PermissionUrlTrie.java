@@ -0,0 +1,114 @@
+package com.mok.infrastructure.security;
+
+import com.mok.application.sys.dto.permission.PermissionUrlDTO;
+import io.micronaut.core.util.StringUtils;
+
+import java.util.*;
+
+/**
+ * 按路径段组织的权限 URL 前缀树，构建后只读，可在多线程间共享。
+ * <p>
+ * 支持的模式段：字面量、{@code {id}} 或 {@code *}（匹配一段）、{@code **}（匹配零或多段）。
+ * 匹配优先级为字面量 &gt; 单段通配 &gt; 多段通配；叶子节点按 HTTP 方法保存权限编码，方法为空或 {@code ALL} 时匹配所有方法。
+ */
+public final class PermissionUrlTrie {
+
+    private static final String ALL = "ALL";
+
+    private final Node root;
+
+    private PermissionUrlTrie(Node root) {
+        this.root = root;
+    }
+
+    public static PermissionUrlTrie compile(Collection<PermissionUrlDTO> rules) {
+        Node root = new Node();
+        for (PermissionUrlDTO rule : rules) {
+            if (StringUtils.isEmpty(rule.url()) || StringUtils.isEmpty(rule.code())) {
+                continue;
+            }
+            Node node = root;
+            for (String segment : segments(rule.url())) {
+                if (segment.equals("**")) {
+                    node = node.multi == null ? node.multi = new Node() : node.multi;
+                } else if (segment.equals("*") || (segment.startsWith("{") && segment.endsWith("}"))) {
+                    node = node.single == null ? node.single = new Node() : node.single;
+                } else {
+                    node = node.literals.computeIfAbsent(segment, s -> new Node());
+                }
+            }
+            String method = StringUtils.isEmpty(rule.method()) ? ALL : rule.method().toUpperCase(Locale.ROOT);
+            node.methods.computeIfAbsent(method, m -> new ArrayList<>()).add(rule.code());
+        }
+        return new PermissionUrlTrie(root);
+    }
+
+    /**
+     * @return 访问该接口所需的权限编码（满足其一即可），未配置权限的接口返回 null
+     */
+    public List<String> match(String method, String path) {
+        return match(root, segments(path), 0, method.toUpperCase(Locale.ROOT));
+    }
+
+    private static List<String> match(Node node, List<String> segments, int index, String method) {
+        if (index == segments.size()) {
+            List<String> codes = node.codes(method);
+            if (codes != null) {
+                return codes;
+            }
+            // 末尾的 ** 也可以匹配零段
+            return node.multi == null ? null : node.multi.codes(method);
+        }
+        Node literal = node.literals.get(segments.get(index));
+        if (literal != null) {
+            List<String> codes = match(literal, segments, index + 1, method);
+            if (codes != null) {
+                return codes;
+            }
+        }
+        if (node.single != null) {
+            List<String> codes = match(node.single, segments, index + 1, method);
+            if (codes != null) {
+                return codes;
+            }
+        }
+        if (node.multi != null) {
+            for (int next = segments.size(); next >= index; next--) {
+                List<String> codes = match(node.multi, segments, next, method);
+                if (codes != null) {
+                    return codes;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static List<String> segments(String path) {
+        List<String> segments = new ArrayList<>(8);
+        int start = 0;
+        int length = path.length();
+        while (start < length) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                segments.add(path.substring(start, end));
+            }
+            start = end + 1;
+        }
+        return segments;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> literals = new HashMap<>();
+        private final Map<String, List<String>> methods = new HashMap<>(4);
+        private Node single;
+        private Node multi;
+
+        private List<String> codes(String method) {
+            List<String> codes = methods.get(method);
+            return codes != null ? codes : methods.get(ALL);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.mok.infrastructure.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mok.infrastructure.cache.CacheInvalidationBus;
+import com.mok.infrastructure.common.Const;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+
+/**
+ * 令牌会话的本地近端缓存，避免每次请求都访问 Redis 并反序列化会话。
+ * 移除令牌时通过 {@link CacheInvalidationBus} 通知所有节点清理本地副本。
+ */
+@Singleton
+public class TokenSessionCache {
+
+    private final Cache<String, Entry> cache;
+    private final CacheInvalidationBus invalidationBus;
+
+    public TokenSessionCache(CacheInvalidationBus invalidationBus,
+                             @Value("${auth.session-cache.maximum-size:10000}") long maximumSize,
+                             @Value("${auth.session-cache.expire-after-write:30s}") Duration expireAfterWrite) {
+        this.invalidationBus = invalidationBus;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+        invalidationBus.subscribe(Const.Channel.TOKEN_INVALIDATE, cache::invalidate);
+    }
+
+    /**
+     * @return 未过期的本地会话，不存在或 Redis 中已过期时返回 null
+     */
+    public Entry get(String token) {
+        Entry entry = cache.getIfPresent(token);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expireAt() <= System.currentTimeMillis()) {
+            cache.invalidate(token);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * @param expireAt 会话在 Redis 中的预计过期时间（毫秒时间戳）
+     */
+    public void put(String token, TokenSessionDTO session, long expireAt) {
+        cache.put(token, new Entry(session, expireAt));
+    }
+
+    /**
+     * 清理本节点及其他节点上的会话副本
+     */
+    public void invalidate(String token) {
+        cache.invalidate(token);
+        invalidationBus.publish(Const.Channel.TOKEN_INVALIDATE, token);
+    }
+
+    public record Entry(TokenSessionDTO session, long expireAt) {
+
+        public long remainingSeconds(long now) {
+            return (expireAt - now) / 1000;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.mok.infrastructure.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Redis 中令牌会话的编解码。
+ * <p>
+ * 通过 {@code auth.session-codec} 选择写入格式：{@code json}（默认）或 {@code binary}。
+ * 读取时按首字符自动识别，因此切换格式期间新旧会话都能正常读取；
+ * 所有节点升级完成后再切换为 binary，避免旧版本节点读到无法解析的会话。
+ * <p>
+ * 二进制格式：{@code $<版本> <权限摘要或-> <字节数> <tenantId>:<username>\n<正文>}，
+ * 首行明文仅供 Lua 脚本续期用户令牌索引和共享权限集合使用，{@code tenantId:username} 按前面的 UTF-8 字节数截取，
+ * 其中含空格或换行也能正确解析；正文为完整会话（与 JSON 格式字段一致）的 Base64，写入 Redis 后一字符一字节。
+ * 版本 1、2 的首行不带字节数（版本 1 也不带权限摘要），正文按 ISO-8859-1 映射为字符，仅保留读取。
+ */
+@Singleton
+public class TokenSessionCodec {
+
+    static final char BINARY_MARKER = '$';
+    static final int VERSION = 3;
+
+    private static final int FLAG_PRINCIPAL = 1;
+    private static final int FLAG_SUPER_ADMIN = 1 << 1;
+    private static final int FLAG_ROLE_IDS = 1 << 2;
+    private static final int FLAG_AUTHORITIES = 1 << 3;
+
+    private final ObjectMapper objectMapper;
+    private final boolean binary;
+
+    public TokenSessionCodec(ObjectMapper objectMapper, @Value("${auth.session-codec:json}") String codec) {
+        this.objectMapper = objectMapper;
+        this.binary = "binary".equalsIgnoreCase(codec);
+    }
+
+    public String encode(TokenSessionDTO session) throws JsonProcessingException {
+        if (!binary) {
+            return objectMapper.writeValueAsString(session);
+        }
+        BinaryWriter out = new BinaryWriter();
+        out.writeString(session.getToken());
+        out.writeString(session.getUsername());
+        out.writeString(session.getTenantId());
+        out.writeString(session.getIp());
+        out.writeString(session.getBrowser());
+        out.writeVarLong(session.getLoginTime());
+        out.writeString(session.getAuthoritiesRef());
+        writePrincipal(out, session.getPrincipal());
+        String tenantUser = session.getTenantId() + ':' + session.getUsername();
+        return BINARY_MARKER + String.valueOf(VERSION) + ' '
+                + (session.getAuthoritiesRef() == null ? "-" : session.getAuthoritiesRef()) + ' '
+                + tenantUser.getBytes(StandardCharsets.UTF_8).length + ' ' + tenantUser + '\n'
+                + Base64.getEncoder().withoutPadding().encodeToString(out.toByteArray());
+    }
+
+    public TokenSessionDTO decode(String data) throws IOException {
+        if (data.isEmpty() || data.charAt(0) != BINARY_MARKER) {
+            return objectMapper.readValue(data, TokenSessionDTO.class);
+        }
+        int space = data.indexOf(' ');
+        if (space < 0) {
+            throw new IOException("Malformed binary token session");
+        }
+        int version = Integer.parseInt(data, 1, space, 10);
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported token session version: " + version);
+        }
+        // 版本 3 的正文为 Base64，不含换行，首行中的用户名可能含换行
+        int newline = version >= 3 ? data.lastIndexOf('\n') : data.indexOf('\n', space);
+        if (newline < space) {
+            throw new IOException("Malformed binary token session");
+        }
+        BinaryReader in;
+        try {
+            in = new BinaryReader(version >= 3
+                    ? Base64.getDecoder().decode(data.substring(newline + 1))
+                    : data.substring(newline + 1).getBytes(StandardCharsets.ISO_8859_1));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Malformed binary token session", e);
+        }
+        TokenSessionDTO session = new TokenSessionDTO();
+        if (version >= 3) {
+            session.setToken(in.readString());
+        }
+        session.setUsername(in.readString());
+        session.setTenantId(in.readString());
+        session.setIp(in.readString());
+        session.setBrowser(in.readString());
+        session.setLoginTime(in.readVarLong());
+        if (version >= 2) {
+            session.setAuthoritiesRef(in.readString());
+        }
+        session.setPrincipal(readPrincipal(in, version));
+        return session;
+    }
+
+    private static void writePrincipal(BinaryWriter out, CustomUserDetail principal) {
+        if (principal == null) {
+            out.writeByte(0);
+            return;
+        }
+        int flags = FLAG_PRINCIPAL;
+        if (principal.isSuperAdmin()) {
+            flags |= FLAG_SUPER_ADMIN;
+        }
+        if (principal.roleIds() != null) {
+            flags |= FLAG_ROLE_IDS;
+        }
+        if (principal.authrizes() != null) {
+            flags |= FLAG_AUTHORITIES;
+        }
+        out.writeByte(flags);
+        out.writeVarLong(principal.userId() == null ? -1 : principal.userId());
+        out.writeString(principal.username());
+        out.writeString(principal.tenantId());
+        out.writeString(principal.password());
+        if (principal.roleIds() != null) {
+            out.writeVarLong(principal.roleIds().size());
+            for (Long roleId : principal.roleIds()) {
+                out.writeVarLong(roleId);
+            }
+        }
+        if (principal.authrizes() != null) {
+            // 权限标识排序后仅写入与前一个不同的后缀，大量同模块权限共享前缀
+            String[] authorities = principal.authrizes().toArray(String[]::new);
+            Arrays.sort(authorities);
+            out.writeVarLong(authorities.length);
+            String previous = "";
+            for (String authority : authorities) {
+                int common = commonPrefix(previous, authority);
+                out.writeVarLong(common);
+                out.writeString(authority.substring(common));
+                previous = authority;
+            }
+        }
+    }
+
+    private static CustomUserDetail readPrincipal(BinaryReader in, int version) throws IOException {
+        int flags = in.readByte();
+        if ((flags & FLAG_PRINCIPAL) == 0) {
+            return null;
+        }
+        long userId = in.readVarLong();
+        String username = in.readString();
+        String tenantId = in.readString();
+        String password = version >= 3 ? in.readString() : null;
+        Set<Long> roleIds = null;
+        if ((flags & FLAG_ROLE_IDS) != 0) {
+            int size = (int) in.readVarLong();
+            roleIds = new LinkedHashSet<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                roleIds.add(in.readVarLong());
+            }
+        }
+        Collection<String> authorities = null;
+        if ((flags & FLAG_AUTHORITIES) != 0) {
+            int size = (int) in.readVarLong();
+            List<String> list = new ArrayList<>(size);
+            String previous = "";
+            for (int i = 0; i < size; i++) {
+                int common = (int) in.readVarLong();
+                String authority = previous.substring(0, common) + in.readString();
+                list.add(authority);
+                previous = authority;
+            }
+            authorities = list;
+        }
+        return new CustomUserDetail(userId < 0 ? null : userId, username, password, tenantId, roleIds,
+                (flags & FLAG_SUPER_ADMIN) != 0, authorities);
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int max = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < max && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 字符串写为 “长度+1” 的变长整数加 UTF-8 字节，长度 0 表示 null；整数使用 ZigZag 变长编码
+     */
+    private static final class BinaryWriter {
+
+        private byte[] buf = new byte[256];
+        private int pos;
+
+        void writeByte(int b) {
+            ensure(1);
+            buf[pos++] = (byte) b;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            long v = (value << 1) ^ (value >> 63);
+            while ((v & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[pos++] = (byte) v;
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+
+        private void ensure(int n) {
+            if (pos + n > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + n));
+            }
+        }
+    }
+
+    private static final class BinaryReader {
+
+        private final byte[] buf;
+        private int pos;
+
+        BinaryReader(byte[] buf) {
+            this.buf = buf;
+        }
+
+        int readByte() throws IOException {
+            if (pos >= buf.length) {
+                throw new EOFException();
+            }
+            return buf[pos++] & 0xFF;
+        }
+
+        long readVarLong() throws IOException {
+            long v = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                v |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return (v >>> 1) ^ -(v & 1);
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        String readString() throws IOException {
+            int length = (int) readVarLong();
+            if (length == 0) {
+                return null;
+            }
+            if (pos + length - 1 > buf.length) {
+                throw new EOFException();
+            }
+            String value = new String(buf, pos, length - 1, StandardCharsets.UTF_8);
+            pos += length - 1;
+            return value;
+        }
+    }
+}
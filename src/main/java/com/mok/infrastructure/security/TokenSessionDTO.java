@@ -21,6 +21,10 @@ public class TokenSessionDTO implements Serializable {
     private String ip;
     private String browser;
     private long loginTime;
+    /**
+     * 共享权限集合的摘要，见 {@link AuthoritySetCache}；为空时权限直接保存在 principal 中
+     */
+    private String authoritiesRef;
 
     public TokenSessionDTO() {
     }
@@ -1,18 +1,104 @@
 package com.mok.infrastructure.sys.security;
 
+import io.micronaut.context.annotation.Value;
+import io.micronaut.core.annotation.Nullable;
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
 import org.mindrot.jbcrypt.BCrypt;
 
+import java.time.Duration;
+import java.util.function.IntToLongFunction;
+
+/**
+ * BCrypt 加密。
+ * <p>
+ * 配置了 {@code password.bcrypt.target-latency} 时启动时测量本机耗时，在不低于 {@code password.bcrypt.strength}
+ * 的前提下选取单次加密不超过目标耗时的最大强度；否则固定使用 {@code password.bcrypt.strength}。
+ */
+@Slf4j
 @Singleton
 public class BCryptPasswordEncoder implements PasswordEncoder {
 
+    static final int DEFAULT_STRENGTH = 10;
+    static final int MAX_STRENGTH = 16;
+    private static final int SAMPLES = 2;
+
+    private final int strength;
+
+    public BCryptPasswordEncoder() {
+        this(DEFAULT_STRENGTH, null);
+    }
+
+    @Inject
+    public BCryptPasswordEncoder(@Value("${password.bcrypt.strength:10}") int strength,
+                                 @Nullable @Value("${password.bcrypt.target-latency}") Duration targetLatency) {
+        if (targetLatency == null) {
+            this.strength = strength;
+        } else {
+            this.strength = calibrate(strength, targetLatency, BCryptPasswordEncoder::measure);
+            log.info("BCrypt strength calibrated to {} for target latency {}", this.strength, targetLatency);
+        }
+    }
+
     @Override
     public String encode(CharSequence rawPassword) {
-        return BCrypt.hashpw(rawPassword.toString(), BCrypt.gensalt());
+        return BCrypt.hashpw(rawPassword.toString(), BCrypt.gensalt(strength));
     }
 
     @Override
     public boolean matches(CharSequence rawPassword, String encodedPassword) {
         return BCrypt.checkpw(rawPassword.toString(), encodedPassword);
     }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int stored = strengthOf(encodedPassword);
+        return stored > 0 && stored < strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * 在最低强度上测量耗时，强度每加一耗时翻倍，据此推算不超过目标耗时的最大强度
+     *
+     * @param nanosAtStrength 指定强度下单次加密的耗时（纳秒）
+     */
+    static int calibrate(int minStrength, Duration targetLatency, IntToLongFunction nanosAtStrength) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            best = Math.min(best, nanosAtStrength.applyAsLong(minStrength));
+        }
+        int result = minStrength;
+        long estimated = Math.max(best, 1);
+        while (result < MAX_STRENGTH && estimated * 2 <= targetLatency.toNanos()) {
+            estimated *= 2;
+            result++;
+        }
+        return result;
+    }
+
+    /**
+     * 从 {@code $2a$10$...} 格式的密文中解析强度，无法识别时返回 0
+     */
+    static int strengthOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$'
+                || encodedPassword.charAt(3) != '$' || encodedPassword.charAt(6) != '$') {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static long measure(int strength) {
+        String salt = BCrypt.gensalt(strength);
+        long start = System.nanoTime();
+        BCrypt.hashpw("calibration", salt);
+        return System.nanoTime() - start;
+    }
 }
@@ -1,53 +1,88 @@
 package com.mok.infrastructure.sys.security;
 
-import com.mok.domain.sys.model.Role;
-import com.mok.domain.sys.repository.UserRepository;
+import com.mok.application.sys.service.LoginUserCache;
 import com.mok.infrastructure.util.SysUtil;
+import io.micronaut.context.event.ApplicationEventPublisher;
 import io.micronaut.http.HttpRequest;
 import io.micronaut.security.authentication.AuthenticationRequest;
 import io.micronaut.security.authentication.AuthenticationResponse;
-import io.micronaut.security.authentication.provider.HttpRequestAuthenticationProvider;
+import io.micronaut.security.authentication.provider.HttpRequestExecutorAuthenticationProvider;
 import jakarta.inject.Singleton;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
+/**
+ * 先经 {@link LoginThrottle} 查询 Redis 中的锁定（本地限流已在提交到登录线程池之前完成），再按 (租户, 用户名) 经 {@link LoginUserCache} 查找用户；
+ * 查库与 BCrypt 校验均为阻塞操作，在 {@link LoginExecutor} 上执行
+ */
 @Singleton
-public class DatabaseAuthenticationProvider<T> implements HttpRequestAuthenticationProvider<T> {
+public class DatabaseAuthenticationProvider<T> implements HttpRequestExecutorAuthenticationProvider<T> {
 
-    private final UserRepository userRepository;
+    private final LoginUserCache loginUserCache;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher<PasswordRehashEvent> eventPublisher;
+    private final LoginThrottle loginThrottle;
 
     private static final String ACCOUNT_NOT_FOUND_OR_PASSWORD_ERROR = "用户不存在或密码错误";
 
-    public DatabaseAuthenticationProvider(UserRepository userRepository, PasswordEncoder passwordEncoder) {
-        this.userRepository = userRepository;
+    public DatabaseAuthenticationProvider(LoginUserCache loginUserCache, PasswordEncoder passwordEncoder,
+                                          ApplicationEventPublisher<PasswordRehashEvent> eventPublisher,
+                                          LoginThrottle loginThrottle) {
+        this.loginUserCache = loginUserCache;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
+        this.loginThrottle = loginThrottle;
+    }
+
+    @Override
+    public String getExecutorName() {
+        return LoginExecutor.NAME;
     }
 
     @Override
     public AuthenticationResponse authenticate(HttpRequest<T> requestContext,
                                                AuthenticationRequest<String, String> authRequest) {
 
+        if (!(authRequest instanceof TenantUsernamePasswordCredentials credentials) || credentials.getTenantId() == null) {
+            return AuthenticationResponse.failure(ACCOUNT_NOT_FOUND_OR_PASSWORD_ERROR);
+        }
+        String tenantId = credentials.getTenantId();
         String username = authRequest.getIdentity();
         String password = authRequest.getSecret();
+        String ip = Objects.requireNonNullElse(loginThrottle.clientIp(requestContext), "unknown");
 
-        return userRepository.findByUsername(username)
+        Duration locked = loginThrottle.check(tenantId, username, ip);
+        if (!locked.isZero()) {
+            return AuthenticationResponse.failure(LoginThrottle.lockedMessage(locked));
+        }
+
+        return loginUserCache.find(tenantId, username)
                 .map(user -> {
-                    if (Integer.valueOf(0).equals(user.getState())) {
+                    if (Integer.valueOf(0).equals(user.state())) {
                         return AuthenticationResponse.failure("账户已禁用");
                     }
-                    if (passwordEncoder.matches(password, user.getPassword())) {
+                    if (passwordEncoder.matches(password, user.password())) {
+                        if (passwordEncoder.upgradeEncoding(user.password())) {
+                            eventPublisher.publishEvent(new PasswordRehashEvent(user.id(), tenantId, username, user.password(), password));
+                        }
                         Map<String, Object> attributes = new HashMap<>();
-                        attributes.put("tenantId", user.getTenantId());
-                        attributes.put("userId", user.getId());
-                        attributes.put("roleIds", user.getRoles().stream().map(Role::getId).collect(Collectors.toSet()));
-                        attributes.put("isSuperAdmin", SysUtil.isSuperAdmin(user.getTenantId(), user.getUsername()));
+                        attributes.put("tenantId", tenantId);
+                        attributes.put("userId", user.id());
+                        attributes.put("roleIds", user.roleIds());
+                        attributes.put("isSuperAdmin", SysUtil.isSuperAdmin(tenantId, username));
+                        attributes.put("isTenantAdmin", user.isTenantAdmin());
+                        loginThrottle.onSuccess(tenantId, username);
                         return AuthenticationResponse.success(username, attributes);
                     }
+                    loginThrottle.onFailure(tenantId, username, ip);
                     return AuthenticationResponse.failure(ACCOUNT_NOT_FOUND_OR_PASSWORD_ERROR);
                 })
-                .orElse(AuthenticationResponse.failure(ACCOUNT_NOT_FOUND_OR_PASSWORD_ERROR));
+                .orElseGet(() -> {
+                    loginThrottle.onFailure(tenantId, username, ip);
+                    return AuthenticationResponse.failure(ACCOUNT_NOT_FOUND_OR_PASSWORD_ERROR);
+                });
     }
 }
@@ -0,0 +1,80 @@
+package com.mok.infrastructure.sys.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.context.annotation.Bean;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 登录专用线程池，认证（查库 + BCrypt 校验）不占用事件循环。
+ * <p>
+ * 并发数与排队长度有界，排满后立即拒绝，由全局异常处理返回 503，避免登录洪峰拖垮其他请求。
+ */
+@Singleton
+@Named(LoginExecutor.NAME)
+@Bean(preDestroy = "shutdown")
+public class LoginExecutor extends ThreadPoolExecutor {
+
+    public static final String NAME = "login";
+
+    private final Timer waitTimer;
+    private final Timer executionTimer;
+
+    /**
+     * @param concurrency 同时进行的认证数，不大于 0 时取 CPU 核数
+     * @param queueDepth  等待中的认证数上限
+     */
+    public LoginExecutor(@Value("${login.executor.concurrency:0}") int concurrency,
+                         @Value("${login.executor.queue-depth:64}") int queueDepth,
+                         MeterRegistry meterRegistry) {
+        super(poolSize(concurrency), poolSize(concurrency), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueDepth, 1)), threadFactory());
+        this.waitTimer = meterRegistry.timer("login.executor.wait");
+        this.executionTimer = meterRegistry.timer("login.executor.execution");
+        Counter rejected = meterRegistry.counter("login.executor.rejected");
+        Gauge.builder("login.executor.queued", this, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("login.executor.active", this, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        setRejectedExecutionHandler((task, executor) -> {
+            rejected.increment();
+            throw new RejectedExecutionException("登录请求过多，请稍后重试");
+        });
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        long enqueuedAt = System.nanoTime();
+        super.execute(() -> {
+            long startedAt = System.nanoTime();
+            waitTimer.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+            try {
+                command.run();
+            } finally {
+                executionTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    private static int poolSize(int concurrency) {
+        return concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors();
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger index = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "login-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,280 @@
+package com.mok.infrastructure.sys.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mok.infrastructure.cache.RedisScript;
+import com.mok.infrastructure.common.Const;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.http.HttpRequest;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * 登录限流，在查库和 BCrypt 校验之前执行。
+ * <p>
+ * 本地：按 IP 的令牌桶限制尝试速率，并记住已知的锁定截止时间，命中时不访问 Redis；
+ * Redis：按 (租户, 用户名) 与 IP 分别以滑动窗口统计失败次数，窗口内达到阈值即锁定，同一对象再次被锁定时时长翻倍，直至上限。
+ * Redis 不可用时放行，仅保留本地限制。
+ * <p>
+ * 本地检查 {@link #checkLocal} 在提交到 {@link LoginExecutor} 之前执行，被限流的请求不占用登录线程池的排队位置。
+ * 客户端 IP 取直连地址，只有直连方是配置的受信任代理时才采用 X-Forwarded-For。
+ * 按 IP 的限制只在配置了受信任代理或声明直连部署时启用：否则反向代理之后的所有用户共用代理地址，
+ * 一处的失败会锁住全部登录，此时只保留按账号的限制并在启动时告警。
+ */
+@Slf4j
+@Singleton
+public class LoginThrottle {
+
+    private static final String ACCOUNT = "account:";
+    private static final String IP = "ip:";
+
+    /**
+     * KEYS: 账号锁定[, IP 锁定]。返回 {账号剩余毫秒[, IP 剩余毫秒]}，未锁定为负数。
+     */
+    private static final RedisScript CHECK_SCRIPT = new RedisScript("""
+            local result = {}
+            for i, key in ipairs(KEYS) do
+                result[i] = redis.call('PTTL', key)
+            end
+            return result
+            """, ScriptOutputType.MULTI);
+
+    /**
+     * KEYS: 账号 窗口、锁定、级别[, IP 窗口、锁定、级别]；
+     * ARGV: 当前毫秒, 窗口毫秒, 账号阈值, IP 阈值, 基础锁定毫秒, 最长锁定毫秒, 级别保留毫秒, 本次失败的唯一成员。
+     * 记录一次失败，达到阈值时清空窗口、级别加一并锁定 基础 × 2^(级别-1)；返回 {账号新增锁定毫秒[, IP 新增锁定毫秒]}。
+     */
+    private static final RedisScript FAIL_SCRIPT = new RedisScript("""
+            local now = tonumber(ARGV[1])
+            local result = {}
+            for i = 0, #KEYS / 3 - 1 do
+                result[i + 1] = 0
+                local window, lock, level = KEYS[i * 3 + 1], KEYS[i * 3 + 2], KEYS[i * 3 + 3]
+                redis.call('ZREMRANGEBYSCORE', window, 0, now - tonumber(ARGV[2]))
+                redis.call('ZADD', window, now, ARGV[8])
+                redis.call('PEXPIRE', window, ARGV[2])
+                if redis.call('ZCARD', window) >= tonumber(ARGV[3 + i]) then
+                    local n = redis.call('INCR', level)
+                    redis.call('PEXPIRE', level, ARGV[7])
+                    local ms = math.floor(math.min(tonumber(ARGV[5]) * 2 ^ (n - 1), tonumber(ARGV[6])))
+                    redis.call('SET', lock, '1', 'PX', ms)
+                    redis.call('DEL', window)
+                    result[i + 1] = ms
+                end
+            end
+            return result
+            """, ScriptOutputType.MULTI);
+
+    private final RedisCommands<String, String> redisCommands;
+    private final Duration window;
+    private final int accountThreshold;
+    private final int ipThreshold;
+    private final Duration lockDuration;
+    private final Duration maxLockDuration;
+    private final Duration levelTtl;
+    private final int burst;
+    private final double tokensPerNano;
+
+    private final Set<String> trustedProxies;
+    private final boolean ipEnabled;
+
+    private final Cache<String, TokenBucket> buckets;
+    private final Cache<String, Long> lockedUntil;
+
+    public LoginThrottle(RedisCommands<String, String> redisCommands,
+                         @Value("${login.throttle.window:15m}") Duration window,
+                         @Value("${login.throttle.account-threshold:5}") int accountThreshold,
+                         @Value("${login.throttle.ip-threshold:50}") int ipThreshold,
+                         @Value("${login.throttle.lock-duration:1m}") Duration lockDuration,
+                         @Value("${login.throttle.max-lock-duration:1h}") Duration maxLockDuration,
+                         @Value("${login.throttle.level-ttl:24h}") Duration levelTtl,
+                         @Value("${login.throttle.ip-burst:20}") int burst,
+                         @Value("${login.throttle.ip-rate:5}") double ratePerSecond,
+                         @Value("${login.throttle.trusted-proxies:}") List<String> trustedProxies,
+                         @Value("${login.throttle.direct-clients:false}") boolean directClients) {
+        this.redisCommands = redisCommands;
+        this.window = window;
+        this.accountThreshold = accountThreshold;
+        this.ipThreshold = ipThreshold;
+        this.lockDuration = lockDuration;
+        this.maxLockDuration = maxLockDuration;
+        this.levelTtl = levelTtl;
+        this.burst = burst;
+        this.tokensPerNano = ratePerSecond / 1_000_000_000d;
+        this.trustedProxies = trustedProxies.stream().map(String::trim).filter(ip -> !ip.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.ipEnabled = directClients || !this.trustedProxies.isEmpty();
+        if (!ipEnabled) {
+            log.warn("Per-IP login throttling is disabled: configure login.throttle.trusted-proxies when behind a reverse proxy, "
+                    + "or set login.throttle.direct-clients=true when clients connect directly");
+        }
+        this.buckets = Caffeine.newBuilder().maximumSize(100_000).expireAfterAccess(Duration.ofMinutes(10)).build();
+        this.lockedUntil = Caffeine.newBuilder().maximumSize(100_000).expireAfterWrite(maxLockDuration).build();
+    }
+
+    /**
+     * 客户端 IP：直连方是受信任的代理时，取 X-Forwarded-For 中从右往左第一个不受信任的地址；
+     * 否则取直连地址，客户端自带的转发头不被采用
+     */
+    public String clientIp(HttpRequest<?> request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        String ip = remoteAddress != null && remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress() : "unknown";
+        String forwardedFor = trustedProxies.contains(ip) ? request.getHeaders().get("X-Forwarded-For") : null;
+        if (forwardedFor == null) {
+            return ip;
+        }
+        String[] hops = forwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (!hop.isEmpty() && !"unknown".equalsIgnoreCase(hop)) {
+                ip = hop;
+                if (!trustedProxies.contains(hop)) {
+                    break;
+                }
+            }
+        }
+        return ip;
+    }
+
+    /**
+     * 只查本地的锁定记录和 IP 令牌桶，不访问 Redis，可在事件循环上调用
+     *
+     * @return 剩余锁定时长，允许尝试时为 {@link Duration#ZERO}
+     */
+    public Duration checkLocal(String tenantId, String username, String ip) {
+        long local = localLock(account(tenantId, username), ip, System.currentTimeMillis());
+        if (local > 0) {
+            return Duration.ofMillis(local);
+        }
+        if (ipEnabled && !buckets.get(ip, k -> new TokenBucket(burst)).tryAcquire(burst, tokensPerNano, System.nanoTime())) {
+            return Duration.ofSeconds(1);
+        }
+        return Duration.ZERO;
+    }
+
+    /**
+     * 查询 Redis 中的锁定，应在 {@link #checkLocal} 通过之后调用；不再消耗 IP 令牌
+     *
+     * @return 剩余锁定时长，允许尝试时为 {@link Duration#ZERO}
+     */
+    public Duration check(String tenantId, String username, String ip) {
+        String account = account(tenantId, username);
+        long now = System.currentTimeMillis();
+        long local = localLock(account, ip, now);
+        if (local > 0) {
+            return Duration.ofMillis(local);
+        }
+        try {
+            String[] keys = {key(ACCOUNT, "lock:", account), key(IP, "lock:", ip)};
+            List<Long> remaining = CHECK_SCRIPT.execute(redisCommands, ipEnabled ? keys : Arrays.copyOf(keys, 1));
+            long accountRemaining = remember(ACCOUNT + account, remaining.get(0), now);
+            long ipRemaining = ipEnabled ? remember(IP + ip, remaining.get(1), now) : 0;
+            if (accountRemaining > 0 || ipRemaining > 0) {
+                return Duration.ofMillis(Math.max(accountRemaining, ipRemaining));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Login throttle check failed, allowing attempt", e);
+        }
+        return Duration.ZERO;
+    }
+
+    public static String lockedMessage(Duration locked) {
+        return "登录尝试过于频繁，请 " + Math.max(locked.toSeconds(), 1) + " 秒后重试";
+    }
+
+    /**
+     * 记录一次失败，达到阈值时锁定
+     */
+    public void onFailure(String tenantId, String username, String ip) {
+        String account = account(tenantId, username);
+        try {
+            String[] keys = {
+                    key(ACCOUNT, "window:", account), key(ACCOUNT, "lock:", account), key(ACCOUNT, "level:", account),
+                    key(IP, "window:", ip), key(IP, "lock:", ip), key(IP, "level:", ip)};
+            List<Long> locked = FAIL_SCRIPT.execute(redisCommands, ipEnabled ? keys : Arrays.copyOf(keys, 3),
+                    String.valueOf(System.currentTimeMillis()), String.valueOf(window.toMillis()),
+                    String.valueOf(accountThreshold), String.valueOf(ipThreshold),
+                    String.valueOf(lockDuration.toMillis()), String.valueOf(maxLockDuration.toMillis()),
+                    String.valueOf(levelTtl.toMillis()), Long.toHexString(ThreadLocalRandom.current().nextLong()));
+            long now = System.currentTimeMillis();
+            remember(ACCOUNT + account, locked.get(0), now);
+            if (ipEnabled) {
+                remember(IP + ip, locked.get(1), now);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to record login failure", e);
+        }
+    }
+
+    /**
+     * 登录成功后清除账号的失败记录和锁定级别，IP 的记录保留
+     */
+    public void onSuccess(String tenantId, String username) {
+        String account = account(tenantId, username);
+        try {
+            redisCommands.del(key(ACCOUNT, "window:", account), key(ACCOUNT, "level:", account));
+        } catch (RuntimeException e) {
+            log.warn("Failed to reset login failures", e);
+        }
+    }
+
+    private long remember(String key, Long remaining, long now) {
+        if (remaining == null || remaining <= 0) {
+            return 0;
+        }
+        lockedUntil.put(key, now + remaining);
+        return remaining;
+    }
+
+    private long localLock(String account, String ip, long now) {
+        long accountLock = localLock(ACCOUNT + account, now);
+        return ipEnabled ? Math.max(accountLock, localLock(IP + ip, now)) : accountLock;
+    }
+
+    private long localLock(String key, long now) {
+        Long until = lockedUntil.getIfPresent(key);
+        return until != null && until > now ? until - now : 0;
+    }
+
+    private static String account(String tenantId, String username) {
+        return tenantId + ":" + username;
+    }
+
+    private static String key(String type, String part, String id) {
+        return Const.CacheKey.LOGIN_THROTTLE + type + part + id;
+    }
+
+    /**
+     * 本地令牌桶，容量为 burst，按速率持续补充
+     */
+    static final class TokenBucket {
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(int burst) {
+            this.tokens = burst;
+            this.refilledAt = System.nanoTime();
+        }
+
+        synchronized boolean tryAcquire(int burst, double tokensPerNano, long now) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
@@ -7,4 +7,11 @@ public interface PasswordEncoder {
     String encode(CharSequence rawPassword);
 
     boolean matches(CharSequence rawPassword, String encodedPassword);
+
+    /**
+     * 已存储的密文强度是否低于当前配置，需要在校验通过后重新加密
+     */
+    default boolean upgradeEncoding(String encodedPassword) {
+        return false;
+    }
 }
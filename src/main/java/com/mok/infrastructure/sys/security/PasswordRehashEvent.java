@@ -0,0 +1,28 @@
+package com.mok.infrastructure.sys.security;
+
+import io.micronaut.context.event.ApplicationEvent;
+import lombok.Getter;
+
+/**
+ * 登录校验通过且密文强度低于当前配置，需使用明文重新加密
+ */
+@Getter
+public class PasswordRehashEvent extends ApplicationEvent {
+
+    private final String tenantId;
+    private final String username;
+    private final String encodedPassword;
+    private final transient String rawPassword;
+
+    public PasswordRehashEvent(Long userId, String tenantId, String username, String encodedPassword, String rawPassword) {
+        super(userId);
+        this.tenantId = tenantId;
+        this.username = username;
+        this.encodedPassword = encodedPassword;
+        this.rawPassword = rawPassword;
+    }
+
+    public Long getUserId() {
+        return (Long) getSource();
+    }
+}
@@ -0,0 +1,45 @@
+package com.mok.infrastructure.sys.security;
+
+import com.mok.application.sys.service.LoginUserCache;
+import com.mok.domain.sys.repository.UserRepository;
+import io.micronaut.runtime.event.annotation.EventListener;
+import io.micronaut.scheduling.annotation.Async;
+import jakarta.inject.Singleton;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 异步将低强度密文升级到当前强度，同一用户同时只处理一次
+ */
+@Slf4j
+@Singleton
+@RequiredArgsConstructor
+public class PasswordRehashListener {
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final LoginUserCache loginUserCache;
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    @Async
+    @EventListener
+    public void rehash(PasswordRehashEvent event) {
+        Long userId = event.getUserId();
+        if (!pending.add(userId)) {
+            return;
+        }
+        try {
+            String encoded = passwordEncoder.encode(event.getRawPassword());
+            // 仅在密文未被修改时替换，避免覆盖期间的改密
+            userRepository.updatePassword(userId, event.getEncodedPassword(), encoded);
+            loginUserCache.evict(event.getTenantId(), event.getUsername());
+        } catch (Exception e) {
+            log.error("Failed to rehash password for user {}", userId, e);
+        } finally {
+            pending.remove(userId);
+        }
+    }
+}
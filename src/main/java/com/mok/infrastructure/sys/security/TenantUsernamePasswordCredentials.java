@@ -0,0 +1,18 @@
+package com.mok.infrastructure.sys.security;
+
+import io.micronaut.security.authentication.UsernamePasswordCredentials;
+import lombok.Getter;
+
+/**
+ * 携带租户的登录凭证，用户名仅在租户内唯一
+ */
+@Getter
+public class TenantUsernamePasswordCredentials extends UsernamePasswordCredentials {
+
+    private final String tenantId;
+
+    public TenantUsernamePasswordCredentials(String tenantId, String username, String password) {
+        super(username, password);
+        this.tenantId = tenantId;
+    }
+}
@@ -0,0 +1,161 @@
+package com.mok.infrastructure.tenant;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 按 key 分舱的并发许可：总并发与每个 key 的并发都有上限，超出时排队。
+ * <p>
+ * 有许可释放时在排队的 key 之间轮转，每轮每个 key 最多获得一个许可，
+ * 排队多的 key 不会挤占排队少的 key，少量请求的 key 最多等待一轮。
+ */
+public final class FairBulkhead {
+
+    private static final CompletableFuture<Void> GRANTED = CompletableFuture.completedFuture(null);
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+
+    private final Map<String, Compartment> compartments = new HashMap<>();
+    /**
+     * 有排队且未达到自身上限的分舱，按轮转顺序
+     */
+    private final ArrayDeque<Compartment> ready = new ArrayDeque<>();
+    private int inUse;
+
+    /**
+     * @param maxConcurrent 所有 key 合计的并发上限
+     * @param maxQueued     每个 key 排队的上限
+     */
+    public FairBulkhead(int maxConcurrent, int maxQueued) {
+        this.maxConcurrent = Math.max(maxConcurrent, 1);
+        this.maxQueued = Math.max(maxQueued, 0);
+    }
+
+    /**
+     * 获得许可后必须调用 {@link #release(String)}；排队中取消返回的 future 即放弃排队。
+     *
+     * @param limit 该 key 的并发上限，不大于 0 时只受总并发限制
+     * @return 已完成或排队中的 future，排队已满时为 null
+     */
+    public CompletableFuture<Void> acquire(String key, int limit) {
+        CompletableFuture<Void> waiter;
+        synchronized (this) {
+            Compartment compartment = compartments.computeIfAbsent(key, Compartment::new);
+            compartment.limit = limit > 0 ? limit : Integer.MAX_VALUE;
+            if (compartment.waiters.isEmpty() && compartment.inFlight < compartment.limit && inUse < maxConcurrent) {
+                compartment.inFlight++;
+                inUse++;
+                return GRANTED;
+            }
+            if (compartment.waiters.size() >= maxQueued) {
+                removeIfIdle(compartment);
+                return null;
+            }
+            waiter = new CompletableFuture<>();
+            compartment.waiters.add(waiter);
+            markReady(compartment);
+        }
+        waiter.whenComplete((v, e) -> {
+            if (waiter.isCancelled()) {
+                cancelled(key, waiter);
+            }
+        });
+        return waiter;
+    }
+
+    public void release(String key) {
+        List<Grant> grants;
+        synchronized (this) {
+            Compartment compartment = compartments.get(key);
+            if (compartment == null || compartment.inFlight == 0) {
+                return;
+            }
+            compartment.inFlight--;
+            inUse--;
+            markReady(compartment);
+            grants = dispatch();
+            removeIfIdle(compartment);
+        }
+        complete(grants);
+    }
+
+    public synchronized int getInUse() {
+        return inUse;
+    }
+
+    public synchronized int getQueued() {
+        int queued = 0;
+        for (Compartment compartment : compartments.values()) {
+            queued += compartment.waiters.size();
+        }
+        return queued;
+    }
+
+    private synchronized void cancelled(String key, CompletableFuture<Void> waiter) {
+        Compartment compartment = compartments.get(key);
+        if (compartment != null && compartment.waiters.remove(waiter)) {
+            removeIfIdle(compartment);
+        }
+    }
+
+    private List<Grant> dispatch() {
+        List<Grant> grants = new ArrayList<>();
+        while (inUse < maxConcurrent && !ready.isEmpty()) {
+            Compartment compartment = ready.poll();
+            compartment.ready = false;
+            CompletableFuture<Void> waiter = compartment.waiters.poll();
+            if (waiter != null) {
+                compartment.inFlight++;
+                inUse++;
+                grants.add(new Grant(compartment.key, waiter));
+            }
+            markReady(compartment);
+            removeIfIdle(compartment);
+        }
+        return grants;
+    }
+
+    /**
+     * 在锁外完成 future，等待方的后续处理不占用锁；已被取消的许可立即归还
+     */
+    private void complete(List<Grant> grants) {
+        for (Grant grant : grants) {
+            if (!grant.waiter.complete(null)) {
+                release(grant.key);
+            }
+        }
+    }
+
+    private void markReady(Compartment compartment) {
+        if (!compartment.ready && !compartment.waiters.isEmpty() && compartment.inFlight < compartment.limit) {
+            compartment.ready = true;
+            ready.add(compartment);
+        }
+    }
+
+    private void removeIfIdle(Compartment compartment) {
+        if (compartment.inFlight == 0 && compartment.waiters.isEmpty() && !compartment.ready) {
+            compartments.remove(compartment.key);
+        }
+    }
+
+    private static final class Compartment {
+        private final String key;
+        private final ArrayDeque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+        private int limit;
+        private int inFlight;
+        private boolean ready;
+
+        private Compartment(String key) {
+            this.key = key;
+        }
+    }
+
+    private record Grant(String key, CompletableFuture<Void> waiter) {
+    }
+}
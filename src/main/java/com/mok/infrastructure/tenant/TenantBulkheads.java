@@ -0,0 +1,123 @@
+package com.mok.infrastructure.tenant;
+
+import com.mok.infrastructure.limiter.RateLimitTier;
+import com.mok.infrastructure.limiter.TenantTiers;
+import com.mok.infrastructure.util.SysUtil;
+import com.mok.web.common.RestResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MutableHttpResponse;
+import io.micronaut.http.server.netty.NettyHttpRequest;
+import jakarta.inject.Singleton;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 按租户隔离的并发舱壁，单个租户的大批量查询或授权操作不能占满阻塞线程和数据库连接池。
+ * <p>
+ * 每个租户的并发上限取自套餐档位的 {@link RateLimitTier#getMaxConcurrent()}，另有全局上限；
+ * 超出时在 {@link FairBulkhead} 中排队，许可在租户之间轮转分配，等待超时或排队已满时返回 503。
+ * 超级租户不受限制。
+ */
+@Singleton
+public class TenantBulkheads {
+
+    private final TenantTiers tenantTiers;
+    private final boolean enabled;
+    private final Duration maxWait;
+    private final FairBulkhead bulkhead;
+    private final Counter rejected;
+
+    /**
+     * @param maxConcurrent 所有租户合计的并发上限
+     * @param maxQueued     每个租户排队的请求数上限
+     * @param maxWait       排队等待的最长时间
+     */
+    public TenantBulkheads(TenantTiers tenantTiers, MeterRegistry meterRegistry,
+                           @Value("${tenant-bulkhead.enabled:true}") boolean enabled,
+                           @Value("${tenant-bulkhead.max-concurrent:32}") int maxConcurrent,
+                           @Value("${tenant-bulkhead.max-queued:64}") int maxQueued,
+                           @Value("${tenant-bulkhead.max-wait:2s}") Duration maxWait) {
+        this.tenantTiers = tenantTiers;
+        this.enabled = enabled;
+        this.maxWait = maxWait;
+        this.bulkhead = new FairBulkhead(maxConcurrent, maxQueued);
+        this.rejected = meterRegistry.counter("tenant.bulkhead.rejected");
+        Gauge.builder("tenant.bulkhead.in-use", bulkhead, FairBulkhead::getInUse).register(meterRegistry);
+        Gauge.builder("tenant.bulkhead.queued", bulkhead, FairBulkhead::getQueued).register(meterRegistry);
+    }
+
+    /**
+     * 获得租户的许可后执行 {@code action}，响应结束时归还许可。
+     * 档位尚未加载或许可需要排队时不阻塞当前线程，等待结束后回到请求所在的事件循环继续执行
+     */
+    public Publisher<MutableHttpResponse<?>> execute(HttpRequest<?> request, String tenantId,
+                                                     Supplier<Publisher<MutableHttpResponse<?>>> action) {
+        if (!enabled || SysUtil.isSuperTenant(tenantId)) {
+            return action.get();
+        }
+        CompletableFuture<RateLimitTier> tier = tenantTiers.resolveAsync(tenantId);
+        if (tier.isDone()) {
+            return withPermit(request, tenantId, tier.join(), action);
+        }
+        return Mono.fromFuture(tier)
+                .publishOn(eventLoopOf(request))
+                .flatMap(resolved -> withPermit(request, tenantId, resolved, action));
+    }
+
+    private Mono<MutableHttpResponse<?>> withPermit(HttpRequest<?> request, String tenantId, RateLimitTier tier,
+                                                    Supplier<Publisher<MutableHttpResponse<?>>> action) {
+        return Mono.defer(() -> {
+            CompletableFuture<Void> permit = bulkhead.acquire(tenantId, tier == null ? 0 : tier.getMaxConcurrent());
+            if (permit == null) {
+                return reject();
+            }
+            Mono<Boolean> granted = permit.isDone() ? Mono.just(true) : Mono.fromFuture(permit)
+                    .thenReturn(true)
+                    .timeout(maxWait)
+                    .onErrorResume(TimeoutException.class, e -> {
+                        // 超时与分配同时发生时以分配为准
+                        permit.cancel(false);
+                        return Mono.just(!permit.isCancelled());
+                    })
+                    .publishOn(eventLoopOf(request));
+            // 在外层归还许可：分配后、执行 action 前被取消时同样归还，且只归还一次
+            AtomicBoolean released = new AtomicBoolean();
+            return granted
+                    .flatMap(ok -> ok ? Mono.defer(() -> Mono.from(action.get())) : reject())
+                    .doFinally(signal -> {
+                        if (permit.isDone() && !permit.isCancelled() && released.compareAndSet(false, true)) {
+                            bulkhead.release(tenantId);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * 排队的许可在归还许可的线程上分配，需回到请求所在的事件循环
+     */
+    private static Scheduler eventLoopOf(HttpRequest<?> request) {
+        return request instanceof NettyHttpRequest<?> nettyRequest
+                ? Schedulers.fromExecutor(nettyRequest.getChannelHandlerContext().executor())
+                : Schedulers.immediate();
+    }
+
+    private Mono<MutableHttpResponse<?>> reject() {
+        rejected.increment();
+        return Mono.just(HttpResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(RestResponse.failure(503, "系统繁忙，请稍后重试")));
+    }
+}
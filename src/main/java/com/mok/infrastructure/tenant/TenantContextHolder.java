@@ -20,6 +20,15 @@ public class TenantContextHolder {
         return USER_ID.isBound() ? USER_ID.get() : null;
     }
 
+    /**
+     * 捕获当前绑定的上下文，请求切换到其他线程继续执行时重新绑定
+     */
+    public static ScopedValue.Carrier capture() {
+        return ScopedValue.where(TENANT_ID, getTenantId())
+                .where(USERNAME, getUsername())
+                .where(USER_ID, getUserId());
+    }
+
     public static boolean isSuperAdmin() {
         String tenantId = getTenantId();
         String username = getUsername();
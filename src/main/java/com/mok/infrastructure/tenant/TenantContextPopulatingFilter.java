@@ -18,9 +18,11 @@ import java.util.Optional;
 public class TenantContextPopulatingFilter implements HttpServerFilter {
 
     private final SecurityService securityService;
+    private final TenantBulkheads tenantBulkheads;
 
-    public TenantContextPopulatingFilter(SecurityService securityService) {
+    public TenantContextPopulatingFilter(SecurityService securityService, TenantBulkheads tenantBulkheads) {
         this.securityService = securityService;
+        this.tenantBulkheads = tenantBulkheads;
     }
 
     @Override
@@ -51,14 +53,14 @@ public class TenantContextPopulatingFilter implements HttpServerFilter {
             throw new BizException("无法获取租户信息");
         }
 
-        // 绑定所有上下文值并继续执行过滤器链
+        // 获得租户的并发许可后绑定所有上下文值并继续执行过滤器链
         String finalTenantId = tenantId;
         String finalUsername = username;
         Long finalUserId = userId;
 
-        return ScopedValue.where(TenantContextHolder.TENANT_ID, finalTenantId)
+        return tenantBulkheads.execute(request, finalTenantId, () -> ScopedValue.where(TenantContextHolder.TENANT_ID, finalTenantId)
                 .where(TenantContextHolder.USERNAME, finalUsername)
                 .where(TenantContextHolder.USER_ID, finalUserId)
-                .call(() -> Mono.from(chain.proceed(request)));
+                .call(() -> Mono.from(chain.proceed(request))));
     }
 }
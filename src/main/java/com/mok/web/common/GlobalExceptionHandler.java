@@ -15,6 +15,8 @@ import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.concurrent.RejectedExecutionException;
+
 @Slf4j
 @Produces
 @Singleton
@@ -28,6 +30,7 @@ public class GlobalExceptionHandler implements ExceptionHandler<Throwable, HttpR
             case ConstraintViolationException ex -> handleValidation(ex);
             case AuthenticationException ex -> HttpResponse.status(HttpStatus.UNAUTHORIZED).body(RestResponse.failure(401, ex.getMessage()));
             case AuthorizationException ex -> HttpResponse.status(HttpStatus.FORBIDDEN).body(RestResponse.failure(403, "权限不足"));
+            case RejectedExecutionException ex -> HttpResponse.status(HttpStatus.SERVICE_UNAVAILABLE).body(RestResponse.failure(503, "系统繁忙，请稍后重试"));
             case Exception ex -> handleGeneric(ex);
             default -> HttpResponse.ok(RestResponse.failure(500, "未知错误"));
         };
@@ -4,6 +4,7 @@ import com.mok.application.sys.dto.auth.AccountInfoDTO;
 import com.mok.application.sys.dto.auth.SelfPasswordUpdateDTO;
 import com.mok.application.sys.dto.user.UserDTO;
 import com.mok.application.sys.dto.user.UserPasswordDTO;
+import com.mok.application.sys.service.AccountInfoCache;
 import com.mok.application.sys.service.UserService;
 import com.mok.infrastructure.log.BusinessType;
 import com.mok.infrastructure.log.OperLogRecord;
@@ -27,6 +28,7 @@ import java.io.Serializable;
 public class AccountController {
 
     private final UserService userService;
+    private final AccountInfoCache accountInfoCache;
 
     @Put("/password")
     @OperLogRecord(title = "个人信息", businessType = BusinessType.UPDATE)
@@ -42,7 +44,9 @@ public class AccountController {
 
     @Get("/info")
     public RestResponse<AccountInfoDTO> getMyInfo() {
-        AccountInfoDTO user = userService.findAccountInfoByUsername(TenantContextHolder.getUsername());
+        String username = TenantContextHolder.getUsername();
+        AccountInfoDTO user = accountInfoCache.get(TenantContextHolder.getTenantId(), TenantContextHolder.getUserId(),
+                () -> userService.findAccountInfoByUsername(username));
         return RestResponse.success(user);
     }
 
@@ -4,6 +4,8 @@ import com.mok.application.sys.dto.auth.LoginRequest;
 import com.mok.application.sys.dto.auth.LoginResDTO;
 import com.mok.infrastructure.security.CustomUserDetail;
 import com.mok.infrastructure.security.JwtTokenProvider;
+import com.mok.infrastructure.sys.security.LoginThrottle;
+import com.mok.infrastructure.sys.security.TenantUsernamePasswordCredentials;
 import com.mok.infrastructure.util.SysUtil;
 import com.mok.web.common.RestResponse;
 import io.micronaut.core.util.StringUtils;
@@ -13,11 +15,11 @@ import io.micronaut.http.annotation.Controller;
 import io.micronaut.http.annotation.Post;
 import io.micronaut.security.authentication.Authentication;
 import io.micronaut.security.authentication.Authenticator;
-import io.micronaut.security.authentication.UsernamePasswordCredentials;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
@@ -30,15 +32,20 @@ public class AuthController {
 
     private final Authenticator<HttpRequest<?>> authenticator;
     private final JwtTokenProvider tokenProvider;
+    private final LoginThrottle loginThrottle;
 
     @Post("/login")
     public Mono<RestResponse<LoginResDTO>> authenticateUser(@Valid @Body LoginRequest loginRequest, HttpRequest<?> request) {
         String tenantId = loginRequest.getTenantId();
         String username = loginRequest.getUsername();
         String password = loginRequest.getPassword();
-        String ipAddress = SysUtil.getIpAddress(request);
+        // 本地锁定与 IP 限速在提交到登录线程池之前判定，被限流的请求不占用排队位置
+        Duration locked = loginThrottle.checkLocal(tenantId, username, loginThrottle.clientIp(request));
+        if (!locked.isZero()) {
+            return Mono.just(RestResponse.failure(LoginThrottle.lockedMessage(locked)));
+        }
 
-        return Mono.from(authenticator.authenticate(request, new UsernamePasswordCredentials(username, password)))
+        return Mono.from(authenticator.authenticate(request, new TenantUsernamePasswordCredentials(tenantId, username, password)))
                 .map(response -> {
                     if (!response.isAuthenticated() || response.getAuthentication().isEmpty()) {
                         return RestResponse.failure(response.getMessage().orElse("认证失败"));
@@ -52,7 +59,7 @@ public class AuthController {
                                 username,
                                 tenantId,
                                 userDetail,
-                                ipAddress,
+                                SysUtil.getIpAddress(request),
                                 SysUtil.getBrowser(request.getHeaders().get("User-Agent")));
 
                         return RestResponse.success(new LoginResDTO(
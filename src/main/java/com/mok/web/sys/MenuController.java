@@ -19,7 +19,7 @@ public class MenuController {
     @Get("/tree")
     @Secured("hasRole('SUPER_ADMIN')")
     public RestResponse<List<MenuDTO>> getTree() {
-        return RestResponse.success(menuService.buildMenuTree(menuService.findAll()));
+        return RestResponse.success(menuService.findTree());
     }
 
     @Post
@@ -1,40 +1,51 @@
 package com.mok.web.sys;
 
-import com.mok.application.sys.dto.tenant.TenantOptionDTO;
-import com.mok.application.sys.service.TenantService;
+import com.mok.application.sys.dto.tenant.TenantDTO;
+import com.mok.application.sys.service.TenantCacheService;
 import com.mok.infrastructure.log.BusinessType;
 import com.mok.infrastructure.log.OperLogRecord;
 import com.mok.infrastructure.security.JwtTokenProvider;
-import com.mok.infrastructure.security.OnlineUserDTO;
+import com.mok.infrastructure.security.OnlineUserPageDTO;
 import com.mok.infrastructure.tenant.TenantContextHolder;
 import com.mok.web.common.RestResponse;
+import io.micronaut.core.util.StringUtils;
 import io.micronaut.http.annotation.Body;
 import io.micronaut.http.annotation.Controller;
 import io.micronaut.http.annotation.Get;
 import io.micronaut.http.annotation.Post;
+import io.micronaut.http.annotation.QueryValue;
 import io.micronaut.security.annotation.Secured;
 import lombok.RequiredArgsConstructor;
 
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 @Controller("/api/online-user")
 public class OnlineUserController {
 
     private final JwtTokenProvider tokenProvider;
-    private final TenantService tenantService;
+    private final TenantCacheService tenantCacheService;
 
     @Get("/list")
     @Secured("hasAuthority('admin:online-user')")
-    public RestResponse<List<OnlineUserDTO>> list() {
-        Map<String, String> tenantMap = tenantService.findOptions(null).stream()
-                .collect(Collectors.toMap(TenantOptionDTO::getTenantId, TenantOptionDTO::getName, (a, b) -> a));
-        String currentTenantId = TenantContextHolder.getTenantId();
+    public RestResponse<OnlineUserPageDTO> list(@QueryValue(defaultValue = "") String tenantId,
+                                                @QueryValue(defaultValue = "") String cursor,
+                                                @QueryValue(defaultValue = "20") int size) {
+        // 超级租户默认查看所有租户的在线用户，可按 tenantId 筛选；其他租户只能查看本租户
         boolean isSuper = TenantContextHolder.isSuperTenant();
+        String targetTenantId = isSuper ? tenantId : TenantContextHolder.getTenantId();
+        if (!isSuper && StringUtils.isEmpty(targetTenantId)) {
+            return RestResponse.success(new OnlineUserPageDTO(List.of(), 0, null));
+        }
+        int pageSize = Math.clamp(size, 1, 200);
+
+        return RestResponse.success(tokenProvider.getOnlineUsers(targetTenantId, this::tenantName, cursor, pageSize));
+    }
 
-        return RestResponse.success(tokenProvider.getAllOnlineUsers(tenantMap, currentTenantId, isSuper));
+    private String tenantName(String tenantId) {
+        TenantDTO tenant = tenantCacheService.findByTenantId(tenantId);
+        return tenant != null ? tenant.getName() : tenantId;
     }
 
     @Post("/kickout")
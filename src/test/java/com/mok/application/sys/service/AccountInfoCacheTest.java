@@ -0,0 +1,136 @@
+package com.mok.application.sys.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mok.application.sys.dto.auth.AccountInfoDTO;
+import com.mok.application.sys.event.AccountInfoChangedEvent;
+import com.mok.domain.sys.repository.TenantRepository;
+import com.mok.domain.sys.repository.UserRepository;
+import com.mok.infrastructure.cache.CacheInvalidationBus;
+import com.mok.infrastructure.cache.JsonCacheCodec;
+import com.mok.infrastructure.cache.SingleFlightLoader;
+import com.mok.infrastructure.cache.TwoLevelCacheManager;
+import com.mok.infrastructure.common.Const;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.transaction.TransactionOperationsRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class AccountInfoCacheTest {
+
+    private RedisCommands<String, String> redisCommands;
+    private CacheInvalidationBus invalidationBus;
+    private UserRepository userRepository;
+    private TenantRepository tenantRepository;
+    private MenuTreeCache menuTreeCache;
+    private AccountInfoCache accountInfoCache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisCommands = mock(RedisCommands.class);
+        invalidationBus = mock(CacheInvalidationBus.class);
+        userRepository = mock(UserRepository.class);
+        tenantRepository = mock(TenantRepository.class);
+        menuTreeCache = mock(MenuTreeCache.class);
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(redisCommands,
+                new SingleFlightLoader(redisCommands, 0, false, Duration.ofSeconds(1)), invalidationBus, new SimpleMeterRegistry(),
+                mock(TransactionOperationsRegistry.class));
+        accountInfoCache = new AccountInfoCache(cacheManager, new JsonCacheCodec(new ObjectMapper()), userRepository,
+                tenantRepository, menuTreeCache, Duration.ofHours(2), Duration.ofMinutes(5));
+    }
+
+    @Test
+    void get_SameMenuVersion_LoadsOnce() {
+        AtomicInteger loads = new AtomicInteger();
+
+        AccountInfoDTO first = accountInfoCache.get("t1", 1L, () -> info(loads));
+        AccountInfoDTO second = accountInfoCache.get("t1", 1L, () -> info(loads));
+
+        assertEquals(1, loads.get());
+        assertSame(first, second);
+        verify(redisCommands).setex(eq(Const.CacheKey.ACCOUNT_INFO + "t1:1"), anyLong(), anyString());
+    }
+
+    @Test
+    void get_MenuVersionChanged_Reloads() {
+        AtomicInteger loads = new AtomicInteger();
+        accountInfoCache.get("t1", 1L, () -> info(loads));
+
+        when(menuTreeCache.version()).thenReturn(2L);
+        accountInfoCache.get("t1", 1L, () -> info(loads));
+        accountInfoCache.get("t1", 1L, () -> info(loads));
+
+        assertEquals(2, loads.get());
+        verify(redisCommands).del(Const.CacheKey.ACCOUNT_INFO + "t1:1");
+    }
+
+    @Test
+    void evictUser_NextReadReloads() {
+        AtomicInteger loads = new AtomicInteger();
+        accountInfoCache.get("t1", 1L, () -> info(loads));
+
+        accountInfoCache.evictUser("t1", 1L);
+        accountInfoCache.get("t1", 1L, () -> info(loads));
+
+        assertEquals(2, loads.get());
+        verify(invalidationBus).publish(Const.Channel.CACHE_EVICT, Const.CacheKey.ACCOUNT_INFO + "\nt1:1");
+    }
+
+    @Test
+    void evictRole_EvictsUsersHoldingRole() {
+        when(userRepository.findIdsByRoleId(5L)).thenReturn(List.of(1L, 2L));
+
+        accountInfoCache.evictRole("t1", 5L);
+
+        verify(redisCommands).del(Const.CacheKey.ACCOUNT_INFO + "t1:1", Const.CacheKey.ACCOUNT_INFO + "t1:2");
+    }
+
+    @Test
+    void evictPackage_EvictsUsersOfEachTenant() {
+        when(tenantRepository.findTenantIdByPackageId(9L)).thenReturn(List.of("t1", "t2"));
+        when(userRepository.findIdsByTenantId("t1")).thenReturn(List.of(1L));
+        when(userRepository.findIdsByTenantId("t2")).thenReturn(List.of());
+
+        accountInfoCache.evictPackage(9L);
+
+        verify(redisCommands).del(Const.CacheKey.ACCOUNT_INFO + "t1:1");
+        verify(invalidationBus, times(1)).publish(eq(Const.Channel.CACHE_EVICT), anyString());
+    }
+
+    @Test
+    void get_NullUserId_NotCached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        accountInfoCache.get("t1", null, () -> info(loads));
+        accountInfoCache.get("t1", null, () -> info(loads));
+
+        assertEquals(2, loads.get());
+        verifyNoInteractions(redisCommands);
+    }
+
+    @Test
+    void onAccountInfoChanged_EvictsByScope() {
+        when(userRepository.findIdsByRoleId(5L)).thenReturn(List.of(2L));
+
+        accountInfoCache.onAccountInfoChanged(AccountInfoChangedEvent.ofUser("t1", 1L));
+        accountInfoCache.onAccountInfoChanged(AccountInfoChangedEvent.ofRole("t1", 5L));
+
+        verify(redisCommands).del(Const.CacheKey.ACCOUNT_INFO + "t1:1");
+        verify(redisCommands).del(Const.CacheKey.ACCOUNT_INFO + "t1:2");
+    }
+
+    private static AccountInfoDTO info(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return AccountInfoDTO.builder().permissions(Set.of("sys:user:list")).menus(List.of()).build();
+    }
+}
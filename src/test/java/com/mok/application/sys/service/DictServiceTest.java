@@ -13,8 +13,8 @@ import com.mok.domain.sys.model.DictData;
 import com.mok.domain.sys.model.DictType;
 import com.mok.domain.sys.repository.DictDataRepository;
 import com.mok.domain.sys.repository.DictTypeRepository;
+import com.mok.infrastructure.cache.TwoLevelCacheManager;
 import com.mok.infrastructure.common.Const;
-import io.lettuce.core.api.sync.RedisCommands;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
 import org.junit.jupiter.api.BeforeEach;
@@ -35,7 +35,7 @@ class DictServiceTest {
     private DictDataRepository dictDataRepository;
     private DictTypeMapper dictTypeMapper;
     private DictDataMapper dictDataMapper;
-    private RedisCommands<String, String> redisCommands;
+    private TwoLevelCacheManager cacheManager;
     private DictService dictService;
 
     @BeforeEach
@@ -44,8 +44,8 @@ class DictServiceTest {
         dictDataRepository = mock(DictDataRepository.class);
         dictTypeMapper = mock(DictTypeMapper.class);
         dictDataMapper = mock(DictDataMapper.class);
-        redisCommands = mock(RedisCommands.class);
-        dictService = new DictService(dictTypeRepository, dictDataRepository, dictTypeMapper, dictDataMapper, redisCommands);
+        cacheManager = mock(TwoLevelCacheManager.class);
+        dictService = new DictService(dictTypeRepository, dictDataRepository, dictTypeMapper, dictDataMapper, cacheManager);
     }
 
     @Test
@@ -154,7 +154,7 @@ class DictServiceTest {
         dictService.deleteType(typeId);
 
         verify(dictDataRepository).deleteByTypeCode("test_type");
-        verify(redisCommands).del(Const.CacheKey.DICT_DATA + "test_type");
+        verify(cacheManager).evictAfterCommit(Const.CacheKey.DICT_DATA, "test_type");
         verify(dictTypeRepository).delete(existingType);
     }
 
@@ -191,7 +191,7 @@ class DictServiceTest {
         assertEquals("Label", savedEntity.getLabel());
         assertEquals("Value", savedEntity.getValue());
 
-        verify(redisCommands).del(Const.CacheKey.DICT_DATA + "test_type");
+        verify(cacheManager).evictAfterCommit(Const.CacheKey.DICT_DATA, "test_type");
     }
 
     @Test
@@ -220,7 +220,7 @@ class DictServiceTest {
         dictService.deleteData(dataId);
 
         verify(dictDataRepository).delete(existingData);
-        verify(redisCommands).del(Const.CacheKey.DICT_DATA + "test_type");
+        verify(cacheManager).evictAfterCommit(Const.CacheKey.DICT_DATA, "test_type");
     }
     
 @Test
@@ -284,7 +284,7 @@ class DictServiceTest {
         
         assertNotNull(result);
         verify(dictDataRepository).save(any());
-        verify(redisCommands).del(Const.CacheKey.DICT_DATA + "test_type");
+        verify(cacheManager).evictAfterCommit(Const.CacheKey.DICT_DATA, "test_type");
     }
 
     @Test
@@ -334,8 +334,8 @@ class DictServiceTest {
         
         dictService.updateData(dto);
         
-        verify(redisCommands).del(Const.CacheKey.DICT_DATA + "old_type");
-        verify(redisCommands).del(Const.CacheKey.DICT_DATA + "new_type");
+        verify(cacheManager).evictAfterCommit(Const.CacheKey.DICT_DATA, "old_type");
+        verify(cacheManager).evictAfterCommit(Const.CacheKey.DICT_DATA, "new_type");
     }
 
     @Test
@@ -369,6 +369,6 @@ class DictServiceTest {
         
         assertNotNull(result);
         verify(dictDataRepository).save(any());
-        verify(redisCommands).del(Const.CacheKey.DICT_DATA + "nonexistent_type");
+        verify(cacheManager).evictAfterCommit(Const.CacheKey.DICT_DATA, "nonexistent_type");
     }
 }
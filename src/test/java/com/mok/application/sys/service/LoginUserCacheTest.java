@@ -0,0 +1,88 @@
+package com.mok.application.sys.service;
+
+import com.mok.application.sys.dto.auth.LoginUserDTO;
+import com.mok.application.sys.event.LoginUserChangedEvent;
+import com.mok.domain.sys.repository.UserRepository;
+import com.mok.infrastructure.cache.CacheInvalidationBus;
+import com.mok.infrastructure.common.Const;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LoginUserCacheTest {
+
+    private UserRepository userRepository;
+    private CacheInvalidationBus invalidationBus;
+    private LoginUserCache cache;
+    private Consumer<String> evictListener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        invalidationBus = mock(CacheInvalidationBus.class);
+        cache = new LoginUserCache(userRepository, invalidationBus, Duration.ofMinutes(5), Duration.ofSeconds(30), 100);
+
+        ArgumentCaptor<Consumer<String>> captor = ArgumentCaptor.forClass(Consumer.class);
+        verify(invalidationBus).subscribe(eq(Const.Channel.LOGIN_USER_EVICT), captor.capture());
+        evictListener = captor.getValue();
+    }
+
+    @Test
+    void find_LoadsOnceWithRoles() {
+        when(userRepository.findLoginUser("t1", "alice")).thenReturn(Optional.of(new LoginUserDTO(1L, "hash", 1, null)));
+        when(userRepository.findRoleIdsByUserId(1L)).thenReturn(List.of(2L, 3L));
+
+        LoginUserCache.LoginUser user = cache.find("t1", "alice").orElseThrow();
+        cache.find("t1", "alice");
+
+        assertEquals(new LoginUserCache.LoginUser(1L, "hash", 1, false, Set.of(2L, 3L)), user);
+        verify(userRepository, times(1)).findLoginUser("t1", "alice");
+    }
+
+    @Test
+    void find_UnknownUser_CachedNegatively() {
+        when(userRepository.findLoginUser("t1", "ghost")).thenReturn(Optional.empty());
+
+        assertTrue(cache.find("t1", "ghost").isEmpty());
+        assertTrue(cache.find("t1", "ghost").isEmpty());
+
+        verify(userRepository, times(1)).findLoginUser("t1", "ghost");
+        verify(userRepository, never()).findRoleIdsByUserId(any());
+    }
+
+    @Test
+    void onLoginUserChanged_EvictsBothCachesAndBroadcasts() {
+        when(userRepository.findLoginUser("t1", "bob")).thenReturn(Optional.empty());
+        cache.find("t1", "bob");
+
+        cache.onLoginUserChanged(new LoginUserChangedEvent("t1", "bob"));
+        when(userRepository.findLoginUser("t1", "bob")).thenReturn(Optional.of(new LoginUserDTO(5L, "hash", 1, true)));
+
+        assertTrue(cache.find("t1", "bob").orElseThrow().isTenantAdmin());
+        verify(invalidationBus).publish(Const.Channel.LOGIN_USER_EVICT, "t1:bob");
+    }
+
+    @Test
+    void remoteEvict_InvalidatesLocalEntry() {
+        when(userRepository.findLoginUser("t1", "alice")).thenReturn(Optional.of(new LoginUserDTO(1L, "old", 1, false)));
+        cache.find("t1", "alice");
+
+        when(userRepository.findLoginUser("t1", "alice")).thenReturn(Optional.of(new LoginUserDTO(1L, "new", 1, false)));
+        evictListener.accept("t1:alice");
+
+        assertEquals("new", cache.find("t1", "alice").orElseThrow().password());
+        verify(invalidationBus, never()).publish(eq(Const.Channel.LOGIN_USER_EVICT), any());
+    }
+}
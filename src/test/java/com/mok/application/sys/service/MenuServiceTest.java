@@ -3,15 +3,21 @@ package com.mok.application.sys.service;
 import com.mok.application.exception.NotFoundException;
 import com.mok.application.sys.dto.menu.MenuDTO;
 import com.mok.application.sys.dto.menu.MenuOptionDTO;
+import com.mok.application.sys.dto.menu.MenuPermissionRowDTO;
+import com.mok.application.sys.event.ApiPermissionChangedEvent;
+import com.mok.application.sys.event.AuthorizationChangedEvent;
+import com.mok.application.sys.event.MenuChangedEvent;
 import com.mok.application.sys.mapper.MenuMapper;
 import com.mok.domain.sys.model.Menu;
 import com.mok.domain.sys.model.Permission;
 import com.mok.domain.sys.repository.MenuRepository;
 import com.mok.domain.sys.repository.PermissionRepository;
 import com.mok.domain.sys.repository.TenantRepository;
+import com.mok.infrastructure.cache.CacheInvalidationBus;
 import com.mok.infrastructure.common.Const;
 import com.mok.infrastructure.tenant.TenantContextHolder;
 import io.lettuce.core.api.sync.RedisCommands;
+import io.micronaut.context.event.ApplicationEventPublisher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -30,6 +36,9 @@ class MenuServiceTest {
     private MenuMapper menuMapper;
     private TenantRepository tenantRepository;
     private TenantPackageService tenantPackageService;
+    private ApplicationEventPublisher<MenuChangedEvent> eventPublisher;
+    private ApplicationEventPublisher<AuthorizationChangedEvent> authorizationEventPublisher;
+    private ApplicationEventPublisher<ApiPermissionChangedEvent> apiPermissionEventPublisher;
     private MenuService menuService;
 
     @BeforeEach
@@ -40,7 +49,12 @@ class MenuServiceTest {
         menuMapper = mock(MenuMapper.class);
         tenantRepository = mock(TenantRepository.class);
         tenantPackageService = mock(TenantPackageService.class);
-        menuService = new MenuService(menuRepository, permissionRepository, redisCommands, menuMapper, tenantRepository, tenantPackageService);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        authorizationEventPublisher = mock(ApplicationEventPublisher.class);
+        apiPermissionEventPublisher = mock(ApplicationEventPublisher.class);
+        MenuTreeCache menuTreeCache = new MenuTreeCache(menuRepository, redisCommands, mock(CacheInvalidationBus.class));
+        menuService = new MenuService(menuRepository, permissionRepository, menuMapper, tenantRepository,
+                tenantPackageService, menuTreeCache, eventPublisher, authorizationEventPublisher, apiPermissionEventPublisher);
     }
 
     @Test
@@ -61,7 +75,9 @@ class MenuServiceTest {
         dto.setPath("/child");
 
         Menu parentMenu = mock(Menu.class);
+        when(parentMenu.getTreePath()).thenReturn("/1/");
         when(menuRepository.findById(1L)).thenReturn(Optional.of(parentMenu));
+        stubSaveWithId(10L);
 
         menuService.createMenu(dto);
 
@@ -72,6 +88,8 @@ class MenuServiceTest {
         assertEquals("Child Menu", savedMenu.getName());
         assertEquals("/child", savedMenu.getPath());
         assertSame(parentMenu, savedMenu.getParent());
+        assertEquals("/1/10/", savedMenu.getTreePath());
+        verify(eventPublisher).publishEvent(any(MenuChangedEvent.class));
     }
 
     @Test
@@ -79,6 +97,7 @@ class MenuServiceTest {
         MenuDTO dto = new MenuDTO();
         dto.setName("Root Menu");
         dto.setPath("/root");
+        stubSaveWithId(10L);
 
         menuService.createMenu(dto);
 
@@ -88,6 +107,7 @@ class MenuServiceTest {
 
         assertEquals("Root Menu", savedMenu.getName());
         assertNull(savedMenu.getParent());
+        assertEquals("/10/", savedMenu.getTreePath());
     }
 
     @Test
@@ -98,6 +118,7 @@ class MenuServiceTest {
         dto.setPath("/orphan");
 
         when(menuRepository.findById(999L)).thenReturn(Optional.empty());
+        stubSaveWithId(10L);
 
         menuService.createMenu(dto);
 
@@ -132,6 +153,42 @@ class MenuServiceTest {
         assertEquals("/updated", savedMenu.getPath());
     }
 
+    @Test
+    void updateMenu_ParentChanged_MovesSubtree() {
+        Menu existingMenu = Menu.create(null, "Menu", "/menu", null, null, 1, false);
+        existingMenu.setId(5L);
+        existingMenu.refreshTreePath();
+        Menu newParent = Menu.create(null, "Parent", "/parent", null, null, 1, false);
+        newParent.setId(2L);
+        newParent.refreshTreePath();
+        MenuDTO dto = new MenuDTO();
+        dto.setId(5L);
+        dto.setParentId(2L);
+        dto.setName("Menu");
+        when(menuRepository.findById(5L)).thenReturn(Optional.of(existingMenu));
+        when(menuRepository.findById(2L)).thenReturn(Optional.of(newParent));
+
+        menuService.updateMenu(dto);
+
+        assertEquals("/2/5/", existingMenu.getTreePath());
+        verify(menuRepository).moveSubtree("/5/", "/2/5/");
+    }
+
+    @Test
+    void updateMenu_ParentUnchanged_DoesNotMoveSubtree() {
+        Menu existingMenu = Menu.create(null, "Menu", "/menu", null, null, 1, false);
+        existingMenu.setId(5L);
+        existingMenu.refreshTreePath();
+        MenuDTO dto = new MenuDTO();
+        dto.setId(5L);
+        dto.setName("Renamed");
+        when(menuRepository.findById(5L)).thenReturn(Optional.of(existingMenu));
+
+        menuService.updateMenu(dto);
+
+        verify(menuRepository, never()).moveSubtree(any(), any());
+    }
+
     @Test
     void updateMenu_WithParent() {
         Long menuId = 1L;
@@ -189,17 +246,13 @@ class MenuServiceTest {
         Long childId = 2L;
 
         Menu parentMenu = mock(Menu.class);
-        when(parentMenu.getId()).thenReturn(menuIdToDelete);
-        Menu childMenu = mock(Menu.class);
-        when(childMenu.getId()).thenReturn(childId);
-
-        when(menuRepository.findByParentId(menuIdToDelete)).thenReturn(Collections.singletonList(childMenu));
-        when(menuRepository.findByParentId(childId)).thenReturn(Collections.emptyList());
-        
-        List<Long> allIds = new ArrayList<>(List.of(menuIdToDelete, childId));
-        List<Long> roleIds = List.of(10L);
+        when(parentMenu.getTreePath()).thenReturn("/1/");
+        when(menuRepository.findById(menuIdToDelete)).thenReturn(Optional.of(parentMenu));
 
-        when(menuRepository.findRoleIdsByMenuIds(allIds)).thenReturn(roleIds);
+        List<Long> allIds = List.of(menuIdToDelete, childId);
+        when(menuRepository.findSubtreeIds("/1/")).thenReturn(allIds);
+        when(permissionRepository.findRoleIdsByMenuIds(allIds)).thenReturn(List.of(10L, 20L));
+        when(permissionRepository.findCodesByMenuIds(allIds)).thenReturn(List.of("menu:list"));
 
         menuService.deleteById(menuIdToDelete);
 
@@ -207,22 +260,37 @@ class MenuServiceTest {
         verify(permissionRepository).deleteByMenuIds(allIds);
         verify(menuRepository).deleteRoleMenuByMenuIds(allIds);
         verify(menuRepository).deleteAllById(allIds);
-        verify(redisCommands).del(Const.CacheKey.MENU_TREE);
-        verify(redisCommands).del(Const.CacheKey.ROLE_PERMS + ":" + 10L);
+        verify(redisCommands, never()).del(any(String[].class));
+        verify(eventPublisher).publishEvent(any(MenuChangedEvent.class));
+        verify(apiPermissionEventPublisher).publishEvent(any(ApiPermissionChangedEvent.class));
+
+        ArgumentCaptor<AuthorizationChangedEvent> event = ArgumentCaptor.forClass(AuthorizationChangedEvent.class);
+        verify(authorizationEventPublisher).publishEvent(event.capture());
+        assertEquals(Set.of(10L, 20L), event.getValue().getRoleIds());
+        assertEquals(Set.of("menu:list"), event.getValue().getRemovedCodes());
     }
 
     @Test
     void deleteById_NoRoles() {
         Long menuId = 1L;
         Menu menu = mock(Menu.class);
-        when(menu.getId()).thenReturn(menuId);
-        when(menuRepository.findByParentId(menuId)).thenReturn(Collections.emptyList());
-        when(menuRepository.findRoleIdsByMenuIds(anyList())).thenReturn(Collections.emptyList());
+        when(menuRepository.findById(menuId)).thenReturn(Optional.of(menu));
 
         menuService.deleteById(menuId);
 
+        // 未补齐路径的菜单只删除自身
+        verify(menuRepository, never()).findSubtreeIds(any());
+        verify(menuRepository).deleteAllById(List.of(menuId));
         verify(redisCommands, never()).del(startsWith(Const.CacheKey.ROLE_PERMS));
-        verify(redisCommands).del(Const.CacheKey.MENU_TREE);
+        verify(eventPublisher).publishEvent(any(MenuChangedEvent.class));
+    }
+
+    @Test
+    void deleteById_NotFound_ShouldThrowNotFoundException() {
+        when(menuRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> menuService.deleteById(99L));
+        verify(menuRepository, never()).deleteAllById(any());
     }
 
     @Test
@@ -241,6 +309,7 @@ class MenuServiceTest {
 
         verify(menu).changePermissions(anySet());
         verify(menuRepository).save(menu);
+        verify(eventPublisher).publishEvent(any(MenuChangedEvent.class));
     }
 
     @Test
@@ -266,225 +335,6 @@ class MenuServiceTest {
         verify(permissionRepository, never()).findAllById(any());
     }
 
-    @Test
-    void buildMenuTree_Success() {
-        MenuDTO root = new MenuDTO();
-        root.setId(1L);
-        root.setName("Root");
-        root.setParentId(null);
-        root.setPath("/root");
-
-        MenuDTO child = new MenuDTO();
-        child.setId(2L);
-        child.setName("Child");
-        child.setParentId(1L);
-        child.setPath("/child");
-
-        List<MenuDTO> flatList = List.of(root, child);
-
-        List<MenuDTO> tree = menuService.buildMenuTree(flatList);
-
-        assertEquals(1, tree.size());
-        assertEquals("Root", tree.getFirst().getName());
-        assertNotNull(tree.getFirst().getChildren());
-        assertEquals(1, tree.getFirst().getChildren().size());
-        assertEquals("Child", tree.getFirst().getChildren().getFirst().getName());
-    }
-
-    @Test
-    void buildMenuTree_ParentIdZero() {
-        MenuDTO root = new MenuDTO();
-        root.setId(1L);
-        root.setName("Root");
-        root.setParentId(0L);
-        root.setPath("/root");
-
-        List<MenuDTO> flatList = List.of(root);
-
-        List<MenuDTO> tree = menuService.buildMenuTree(flatList);
-
-        assertEquals(1, tree.size());
-        assertEquals("Root", tree.getFirst().getName());
-    }
-
-    @Test
-    void buildMenuTree_MultipleChildren() {
-        MenuDTO root = new MenuDTO();
-        root.setId(1L);
-        root.setName("Root");
-        root.setPath("/root");
-
-        MenuDTO child1 = new MenuDTO();
-        child1.setId(2L);
-        child1.setParentId(1L);
-        child1.setName("Child1");
-        child1.setPath("/child1");
-
-        MenuDTO child2 = new MenuDTO();
-        child2.setId(3L);
-        child2.setParentId(1L);
-        child2.setName("Child2");
-        child2.setPath("/child2");
-
-        List<MenuDTO> flatList = List.of(root, child1, child2);
-
-        List<MenuDTO> tree = menuService.buildMenuTree(flatList);
-
-        assertEquals(1, tree.size());
-        assertEquals(2, tree.getFirst().getChildren().size());
-    }
-
-    @Test
-    void buildMenuTree_BranchCoverage() {
-        MenuDTO leafPathNull = new MenuDTO();
-        leafPathNull.setId(1L);
-        leafPathNull.setPath(null);
-
-        MenuDTO leafPathEmpty = new MenuDTO();
-        leafPathEmpty.setId(2L);
-        leafPathEmpty.setPath("");
-
-        MenuDTO leafPathValid = new MenuDTO();
-        leafPathValid.setId(3L);
-        leafPathValid.setPath("/valid");
-
-        MenuDTO parentEmptyPathNull = new MenuDTO();
-        parentEmptyPathNull.setId(4L);
-        parentEmptyPathNull.setPath(null);
-        
-        MenuDTO childOf4 = new MenuDTO();
-        childOf4.setId(41L);
-        childOf4.setParentId(4L);
-        childOf4.setPath(null);
-
-        MenuDTO parentEmptyPathValid = new MenuDTO();
-        parentEmptyPathValid.setId(5L);
-        parentEmptyPathValid.setPath("/parent-valid");
-
-        MenuDTO childOf5 = new MenuDTO();
-        childOf5.setId(51L);
-        childOf5.setParentId(5L);
-        childOf5.setPath(null);
-
-        MenuDTO parentValidChildren = new MenuDTO();
-        parentValidChildren.setId(6L);
-        parentValidChildren.setPath(null);
-
-        MenuDTO childOf6 = new MenuDTO();
-        childOf6.setId(61L);
-        childOf6.setParentId(6L);
-        childOf6.setPath("/child-valid");
-
-        List<MenuDTO> list = List.of(
-            leafPathNull, leafPathEmpty, leafPathValid,
-            parentEmptyPathNull, childOf4,
-            parentEmptyPathValid, childOf5,
-            parentValidChildren, childOf6
-        );
-
-        List<MenuDTO> tree = menuService.buildMenuTree(list);
-
-        assertEquals(3, tree.size());
-        assertTrue(tree.stream().anyMatch(m -> m.getId().equals(3L)));
-        assertTrue(tree.stream().anyMatch(m -> m.getId().equals(5L)));
-        assertTrue(tree.stream().anyMatch(m -> m.getId().equals(6L)));
-    }
-
-    @Test
-    void buildMenuTree_ExplicitEmptyChildren() {
-        MenuDTO menu = new MenuDTO();
-        menu.setId(1L);
-        menu.setPath("/path");
-        menu.setChildren(new ArrayList<>());
-
-        List<MenuDTO> list = List.of(menu);
-
-        List<MenuDTO> tree = menuService.buildMenuTree(list);
-
-        assertEquals(1, tree.size());
-        assertNotNull(tree.getFirst().getChildren());
-        assertTrue(tree.getFirst().getChildren().isEmpty());
-    }
-
-    @Test
-    void buildMenuTree_ExplicitEmptyChildren_NoPath() {
-        MenuDTO menu = new MenuDTO();
-        menu.setId(1L);
-        menu.setPath(null);
-        menu.setChildren(new ArrayList<>());
-
-        List<MenuDTO> list = List.of(menu);
-
-        List<MenuDTO> tree = menuService.buildMenuTree(list);
-
-        assertTrue(tree.isEmpty());
-    }
-
-    @Test
-    void buildMenuTree_RecursiveFiltering_ParentRemoved() {
-        MenuDTO parent = new MenuDTO();
-        parent.setId(1L);
-        parent.setName("Parent");
-        parent.setPath("");
-
-        MenuDTO child = new MenuDTO();
-        child.setId(2L);
-        child.setParentId(1L);
-        child.setName("Child");
-        child.setIsHidden(true);
-
-        List<MenuDTO> list = List.of(parent, child);
-
-        List<MenuDTO> tree = menuService.buildMenuTree(list);
-
-        assertTrue(tree.isEmpty());
-    }
-
-    @Test
-    void buildMenuTree_RecursiveFiltering_ParentKeptWithPath() {
-        MenuDTO parent = new MenuDTO();
-        parent.setId(1L);
-        parent.setName("Parent");
-        parent.setPath("/parent");
-
-        MenuDTO child = new MenuDTO();
-        child.setId(2L);
-        child.setParentId(1L);
-        child.setName("Child");
-        child.setIsHidden(true);
-
-        List<MenuDTO> list = List.of(parent, child);
-
-        List<MenuDTO> tree = menuService.buildMenuTree(list);
-
-        assertEquals(1, tree.size());
-        assertEquals("Parent", tree.getFirst().getName());
-        assertTrue(tree.getFirst().getChildren() == null || tree.getFirst().getChildren().isEmpty());
-    }
-
-    @Test
-    void buildMenuTree_ChildFilteredOut_ParentKept() {
-        MenuDTO parent = new MenuDTO();
-        parent.setId(1L);
-        parent.setName("Parent");
-        parent.setPath("/parent");
-
-        MenuDTO child = new MenuDTO();
-        child.setId(2L);
-        child.setParentId(1L);
-        child.setName("Child");
-        child.setPath("");
-
-        List<MenuDTO> list = List.of(parent, child);
-
-        List<MenuDTO> tree = menuService.buildMenuTree(list);
-
-        assertEquals(1, tree.size());
-        assertEquals("Parent", tree.getFirst().getName());
-        assertNotNull(tree.getFirst().getChildren());
-        assertTrue(tree.getFirst().getChildren().isEmpty());
-    }
-
     @Test
     void buildMenuAndPermissionTree_SuperTenant() throws Exception {
         Menu menu1 = mock(Menu.class);
@@ -494,7 +344,7 @@ class MenuServiceTest {
         when(menu1.getPermissions()).thenReturn(Collections.emptySet());
         when(menu1.getPath()).thenReturn("/menu1");
 
-        when(menuRepository.findAll()).thenReturn(List.of(menu1));
+        stubMenus(menu1);
 
         List<MenuOptionDTO> result = ScopedValue.where(TenantContextHolder.TENANT_ID, Const.SUPER_TENANT_ID).call(() -> 
             menuService.buildMenuAndPermissionTree()
@@ -526,7 +376,7 @@ class MenuServiceTest {
         Menu menu2 = mock(Menu.class);
         when(menu2.getId()).thenReturn(2L);
 
-        when(menuRepository.findAll()).thenReturn(List.of(menu1, menu2));
+        stubMenus(menu1, menu2);
 
         List<MenuOptionDTO> result = ScopedValue.where(TenantContextHolder.TENANT_ID, tenantId).call(() -> 
             menuService.buildMenuAndPermissionTree()
@@ -565,7 +415,7 @@ class MenuServiceTest {
 
         when(menu1.getPermissions()).thenReturn(Set.of(p1, p2));
 
-        when(menuRepository.findAll()).thenReturn(List.of(menu1));
+        stubMenus(menu1);
 
         List<MenuOptionDTO> result = ScopedValue.where(TenantContextHolder.TENANT_ID, tenantId).call(() ->
                 menuService.buildMenuAndPermissionTree()
@@ -579,7 +429,7 @@ class MenuServiceTest {
     }
 
     @Test
-    void buildMenuAndPermissionTree_NormalTenant_NullPermissions() throws Exception {
+    void buildMenuAndPermissionTree_NormalTenant_NoPermissionRows() throws Exception {
         String tenantId = "tenant1";
         Long packageId = 100L;
 
@@ -597,14 +447,14 @@ class MenuServiceTest {
         when(menu1.getPath()).thenReturn("/menu1");
         when(menu1.getPermissions()).thenReturn(null);
 
-        when(menuRepository.findAll()).thenReturn(List.of(menu1));
+        stubMenus(menu1);
 
         List<MenuOptionDTO> result = ScopedValue.where(TenantContextHolder.TENANT_ID, tenantId).call(() ->
                 menuService.buildMenuAndPermissionTree()
         );
 
         assertEquals(1, result.size());
-        assertNull(result.getFirst().getPermissions());
+        assertTrue(result.getFirst().getPermissions().isEmpty());
     }
 
     @Test
@@ -614,7 +464,7 @@ class MenuServiceTest {
         when(tenant.getPackageId()).thenReturn(null);
         when(tenantRepository.findByTenantId(tenantId)).thenReturn(Optional.of(tenant));
 
-        when(menuRepository.findAll()).thenReturn(List.of(mock(Menu.class)));
+        stubMenus(mock(Menu.class));
 
         List<MenuOptionDTO> result = ScopedValue.where(TenantContextHolder.TENANT_ID, tenantId).call(() ->
                 menuService.buildMenuAndPermissionTree()
@@ -635,7 +485,7 @@ class MenuServiceTest {
         when(perm.getName()).thenReturn("Btn");
 
         when(menu.getPermissions()).thenReturn(Set.of(perm));
-        when(menuRepository.findAll()).thenReturn(List.of(menu));
+        stubMenus(menu);
 
         List<MenuOptionDTO> result = ScopedValue.where(TenantContextHolder.TENANT_ID, Const.SUPER_TENANT_ID).call(() ->
                 menuService.buildMenuAndPermissionTree()
@@ -650,21 +500,21 @@ class MenuServiceTest {
     }
 
     @Test
-    void buildMenuAndPermissionTree_NullPermissions() throws Exception {
+    void buildMenuAndPermissionTree_NoPermissionRows() throws Exception {
         Menu menu = mock(Menu.class);
         when(menu.getId()).thenReturn(1L);
         when(menu.getName()).thenReturn("Menu");
         when(menu.getPath()).thenReturn("/menu");
         when(menu.getPermissions()).thenReturn(null);
 
-        when(menuRepository.findAll()).thenReturn(List.of(menu));
+        stubMenus(menu);
 
         List<MenuOptionDTO> result = ScopedValue.where(TenantContextHolder.TENANT_ID, Const.SUPER_TENANT_ID).call(() ->
                 menuService.buildMenuAndPermissionTree()
         );
 
         assertEquals(1, result.size());
-        assertNull(result.getFirst().getPermissions());
+        assertTrue(result.getFirst().getPermissions().isEmpty());
     }
 
     @Test
@@ -688,7 +538,7 @@ class MenuServiceTest {
         when(perm.getName()).thenReturn("Btn");
         when(parent.getPermissions()).thenReturn(Set.of(perm));
 
-        when(menuRepository.findAll()).thenReturn(List.of(child, parent));
+        stubMenus(child, parent);
 
         List<MenuOptionDTO> result = ScopedValue.where(TenantContextHolder.TENANT_ID, Const.SUPER_TENANT_ID).call(() ->
                 menuService.buildMenuAndPermissionTree()
@@ -719,7 +569,7 @@ class MenuServiceTest {
         when(parentRef.getId()).thenReturn(999L);
         when(menu.getParent()).thenReturn(parentRef);
 
-        when(menuRepository.findAll()).thenReturn(List.of(menu));
+        stubMenus(menu);
 
         List<MenuOptionDTO> result = ScopedValue.where(TenantContextHolder.TENANT_ID, Const.SUPER_TENANT_ID).call(() ->
                 menuService.buildMenuAndPermissionTree()
@@ -752,7 +602,7 @@ class MenuServiceTest {
         when(child.getParent()).thenReturn(parent);
         when(child.getPath()).thenReturn("/child");
 
-        when(menuRepository.findAll()).thenReturn(List.of(parent, child));
+        stubMenus(parent, child);
 
         List<MenuOptionDTO> result = ScopedValue.where(TenantContextHolder.TENANT_ID, tenantId).call(() ->
                 menuService.buildMenuAndPermissionTree()
@@ -776,7 +626,7 @@ class MenuServiceTest {
         when(parentZero.getId()).thenReturn(0L);
         when(menu.getParent()).thenReturn(parentZero);
 
-        when(menuRepository.findAll()).thenReturn(List.of(menu));
+        stubMenus(menu);
 
         List<MenuOptionDTO> result = ScopedValue.where(TenantContextHolder.TENANT_ID, Const.SUPER_TENANT_ID).call(() ->
                 menuService.buildMenuAndPermissionTree()
@@ -806,7 +656,7 @@ class MenuServiceTest {
         when(child2.getPath()).thenReturn("/child2");
         when(child2.getParent()).thenReturn(parent);
 
-        when(menuRepository.findAll()).thenReturn(List.of(parent, child1, child2));
+        stubMenus(parent, child1, child2);
 
         List<MenuOptionDTO> result = ScopedValue.where(TenantContextHolder.TENANT_ID, Const.SUPER_TENANT_ID).call(() ->
                 menuService.buildMenuAndPermissionTree()
@@ -858,7 +708,7 @@ class MenuServiceTest {
         when(m5.getParent()).thenReturn(null);
         when(m5.getPermissions()).thenReturn(Collections.emptySet());
 
-        when(menuRepository.findAll()).thenReturn(List.of(m1, m2, m3, m3Child, m4, m5));
+        stubMenus(m1, m2, m3, m3Child, m4, m5);
 
         List<MenuOptionDTO> result = ScopedValue.where(TenantContextHolder.TENANT_ID, Const.SUPER_TENANT_ID).call(() ->
                 menuService.buildMenuAndPermissionTree()
@@ -886,7 +736,7 @@ class MenuServiceTest {
         when(child.getParent()).thenReturn(parent);
         when(child.getPermissions()).thenReturn(Collections.emptySet());
 
-        when(menuRepository.findAll()).thenReturn(List.of(parent, child));
+        stubMenus(parent, child);
 
         List<MenuOptionDTO> result = ScopedValue.where(TenantContextHolder.TENANT_ID, Const.SUPER_TENANT_ID).call(() ->
                 menuService.buildMenuAndPermissionTree()
@@ -898,35 +748,32 @@ class MenuServiceTest {
         assertTrue(result.getFirst().getChildren().isEmpty());
     }
 
-    @Test
-    void buildMenuAndPermissionTree_ExplicitEmptyChildren() throws Exception {
-        Menu menu = mock(Menu.class);
-        when(menu.getId()).thenReturn(1L);
-        when(menu.getName()).thenReturn("Menu");
-        when(menu.getPath()).thenReturn("/menu");
-        when(menu.getPermissions()).thenReturn(Collections.emptySet());
-
-        when(menuRepository.findAll()).thenReturn(List.of(menu));
+    private void stubSaveWithId(Long id) {
+        when(menuRepository.save(any())).thenAnswer(inv -> {
+            Menu menu = inv.getArgument(0);
+            menu.setId(id);
+            return menu;
+        });
+    }
 
-        List<MenuOptionDTO> result = ScopedValue.where(TenantContextHolder.TENANT_ID, Const.SUPER_TENANT_ID).call(() -> {
-            List<MenuOptionDTO> flatList = new ArrayList<>();
-            MenuOptionDTO dto = new MenuOptionDTO();
-            dto.setId(1L);
-            dto.setPath("/menu");
-            dto.setChildren(new ArrayList<>());
-            flatList.add(dto);
-            
-            try {
-                java.lang.reflect.Method method = MenuService.class.getDeclaredMethod("buildTreeFromFlatList", List.class);
-                method.setAccessible(true);
-                return (List<MenuOptionDTO>) method.invoke(menuService, flatList);
-            } catch (Exception e) {
-                throw new RuntimeException(e);
+    private void stubMenus(Menu... menus) {
+        List<MenuPermissionRowDTO> rows = new ArrayList<>();
+        for (Menu menu : menus) {
+            Long parentId = menu.getParent() != null ? menu.getParent().getId() : null;
+            Set<Permission> permissions = menu.getPermissions() != null ? menu.getPermissions() : Set.of();
+            if (permissions.isEmpty()) {
+                rows.add(row(menu, parentId, null));
             }
-        });
+            for (Permission permission : permissions) {
+                rows.add(row(menu, parentId, permission));
+            }
+        }
+        when(menuRepository.findMenuPermissionRows()).thenReturn(rows);
+    }
 
-        assertEquals(1, result.size());
-        assertNotNull(result.getFirst().getChildren());
-        assertTrue(result.getFirst().getChildren().isEmpty());
+    private static MenuPermissionRowDTO row(Menu menu, Long parentId, Permission permission) {
+        return new MenuPermissionRowDTO(menu.getId(), parentId, menu.getName(), menu.getPath(), menu.getComponent(),
+                menu.getIcon(), menu.getSort(), menu.getIsHidden(),
+                permission != null ? permission.getId() : null, permission != null ? permission.getName() : null);
     }
 }
@@ -0,0 +1,238 @@
+package com.mok.application.sys.service;
+
+import com.mok.application.sys.dto.menu.MenuDTO;
+import com.mok.application.sys.dto.menu.MenuOptionDTO;
+import com.mok.application.sys.dto.menu.MenuPermissionRowDTO;
+import com.mok.application.sys.event.MenuChangedEvent;
+import com.mok.domain.sys.model.Menu;
+import com.mok.domain.sys.model.Permission;
+import com.mok.domain.sys.repository.MenuRepository;
+import com.mok.infrastructure.cache.CacheInvalidationBus;
+import com.mok.infrastructure.common.Const;
+import io.lettuce.core.api.sync.RedisCommands;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MenuTreeCacheTest {
+
+    private MenuRepository menuRepository;
+    private RedisCommands<String, String> redisCommands;
+    private CacheInvalidationBus invalidationBus;
+    private MenuTreeCache menuTreeCache;
+    private Consumer<String> versionListener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        menuRepository = mock(MenuRepository.class);
+        redisCommands = mock(RedisCommands.class);
+        invalidationBus = mock(CacheInvalidationBus.class);
+        menuTreeCache = new MenuTreeCache(menuRepository, redisCommands, invalidationBus);
+
+        ArgumentCaptor<Consumer<String>> captor = ArgumentCaptor.forClass(Consumer.class);
+        verify(invalidationBus).subscribe(eq(Const.Channel.MENU_CHANGED), captor.capture());
+        versionListener = captor.getValue();
+    }
+
+    @Test
+    void menuTree_BuildsHierarchySortedBySort() {
+        Menu root = menu(1L, null, "/root", 2);
+        Menu other = menu(2L, null, "/other", 1);
+        Menu child = menu(3L, root, "/child", null);
+        Menu zero = menu(0L, null, null, null);
+        Menu parentZero = menu(4L, zero, "/zero", 3);
+        stubMenus(root, child, other, parentZero);
+
+        List<MenuDTO> tree = menuTreeCache.menuTree(null);
+
+        assertEquals(List.of(2L, 1L, 4L), tree.stream().map(MenuDTO::getId).toList());
+        assertEquals(1, tree.get(1).getChildren().size());
+        assertEquals(3L, tree.get(1).getChildren().getFirst().getId());
+        assertEquals(1L, tree.get(1).getChildren().getFirst().getParentId());
+        assertNull(tree.getFirst().getChildren());
+    }
+
+    @Test
+    void menuTree_FiltersEmptyDirectoriesAndHiddenMenus() {
+        Menu leafPathNull = menu(1L, null, null, null);
+        Menu leafPathEmpty = menu(2L, null, "", null);
+        Menu leafPathValid = menu(3L, null, "/valid", null);
+        Menu parentPathNull = menu(4L, null, null, null);
+        Menu childOf4 = menu(41L, parentPathNull, null, null);
+        Menu parentWithPath = menu(5L, null, "/parent-valid", null);
+        Menu childOf5 = menu(51L, parentWithPath, "", null);
+        Menu parentValidChildren = menu(6L, null, null, null);
+        Menu childOf6 = menu(61L, parentValidChildren, "/child-valid", null);
+        Menu hiddenParent = menu(7L, null, "/hidden", null);
+        when(hiddenParent.getIsHidden()).thenReturn(true);
+        Menu childOfHidden = menu(71L, hiddenParent, "/under-hidden", null);
+        Menu directoryWithHiddenChild = menu(8L, null, "", null);
+        Menu hiddenChild = menu(81L, directoryWithHiddenChild, "/hidden-child", null);
+        when(hiddenChild.getIsHidden()).thenReturn(true);
+        stubMenus(leafPathNull, leafPathEmpty, leafPathValid,
+                parentPathNull, childOf4, parentWithPath, childOf5, parentValidChildren, childOf6,
+                hiddenParent, childOfHidden, directoryWithHiddenChild, hiddenChild);
+
+        List<MenuDTO> tree = menuTreeCache.menuTree(null);
+
+        assertEquals(List.of(3L, 5L, 6L), tree.stream().map(MenuDTO::getId).toList());
+        // 下级全部被裁剪时保留空列表
+        assertNotNull(tree.get(1).getChildren());
+        assertTrue(tree.get(1).getChildren().isEmpty());
+        assertEquals(61L, tree.get(2).getChildren().getFirst().getId());
+    }
+
+    @Test
+    void menuTree_WithMenuIds_KeepsOnlyReachableAllowedMenus() {
+        Menu root = menu(1L, null, "/root", null);
+        Menu child = menu(2L, root, "/child", null);
+        Menu grandChild = menu(3L, child, "/grand", null);
+        Menu other = menu(4L, null, "/other", null);
+        stubMenus(root, child, grandChild, other);
+
+        List<MenuDTO> tree = menuTreeCache.menuTree(Set.of(1L, 3L, 4L));
+
+        assertEquals(List.of(1L, 4L), tree.stream().map(MenuDTO::getId).toList());
+        assertNull(tree.getFirst().getChildren());
+    }
+
+    @Test
+    void menuTree_ReturnsCopies() {
+        Menu root = menu(1L, null, "/root", null);
+        stubMenus(root);
+
+        menuTreeCache.menuTree(null).getFirst().setName("changed");
+
+        assertEquals("Menu1", menuTreeCache.menuTree(null).getFirst().getName());
+        verify(menuRepository, times(1)).findMenuPermissionRows();
+    }
+
+    @Test
+    void optionTree_FiltersMenusAndPermissions() {
+        Menu root = menu(1L, null, "/root", null);
+        Permission allowed = permission(10L, "Add");
+        Permission denied = permission(11L, "Delete");
+        when(root.getPermissions()).thenReturn(new LinkedHashSet<>(List.of(allowed, denied)));
+        Menu hidden = menu(2L, root, "/hidden", null);
+        when(hidden.getIsHidden()).thenReturn(true);
+        Menu excluded = menu(3L, root, "/excluded", null);
+        stubMenus(root, hidden, excluded);
+
+        List<MenuOptionDTO> tree = menuTreeCache.optionTree(Set.of(1L, 2L), Set.of(10L));
+
+        assertEquals(1, tree.size());
+        MenuOptionDTO dto = tree.getFirst();
+        assertEquals(1, dto.getPermissions().size());
+        assertEquals(2, dto.getChildren().size());
+        assertEquals("[按钮] Add", dto.getChildren().getFirst().getName());
+        assertTrue(dto.getChildren().getFirst().getIsPermission());
+        // 授权选项包含隐藏菜单
+        assertEquals(2L, dto.getChildren().get(1).getId());
+    }
+
+    @Test
+    void snapshot_ReusedUntilVersionChanges() {
+        Menu menu = menu(1L, null, "/a", null);
+        stubMenus(menu);
+
+        menuTreeCache.menuTree(null);
+        menuTreeCache.menuTree(null);
+        verify(menuRepository, times(1)).findMenuPermissionRows();
+
+        when(redisCommands.get(Const.CacheKey.MENU_TREE_VERSION)).thenReturn("3");
+        versionListener.accept("3");
+        menuTreeCache.menuTree(null);
+        menuTreeCache.menuTree(null);
+
+        verify(menuRepository, times(2)).findMenuPermissionRows();
+        assertEquals(3, menuTreeCache.current().version());
+    }
+
+    @Test
+    void onMenuChanged_IncrementsVersionAndBroadcasts() {
+        stubMenus();
+        menuTreeCache.menuTree(null);
+        when(redisCommands.incr(Const.CacheKey.MENU_TREE_VERSION)).thenReturn(5L);
+
+        menuTreeCache.onMenuChanged(new MenuChangedEvent(1L));
+        menuTreeCache.menuTree(null);
+        menuTreeCache.menuTree(null);
+
+        verify(invalidationBus).publish(Const.Channel.MENU_CHANGED, "5");
+        verify(menuRepository, times(2)).findMenuPermissionRows();
+        assertEquals(5, menuTreeCache.current().version());
+    }
+
+    @Test
+    void syncVersion_AdoptsRedisVersion() {
+        stubMenus();
+        when(redisCommands.get(Const.CacheKey.MENU_TREE_VERSION)).thenReturn("7");
+        menuTreeCache.menuTree(null);
+
+        // Redis 中的版本被重置
+        when(redisCommands.get(Const.CacheKey.MENU_TREE_VERSION)).thenReturn(null);
+        menuTreeCache.syncVersion();
+        menuTreeCache.menuTree(null);
+
+        verify(menuRepository, times(2)).findMenuPermissionRows();
+        assertEquals(0, menuTreeCache.current().version());
+    }
+
+    @Test
+    void onVersion_InvalidMessage_Ignored() {
+        stubMenus();
+        menuTreeCache.menuTree(null);
+
+        versionListener.accept("oops");
+        menuTreeCache.menuTree(null);
+
+        verify(menuRepository, times(1)).findMenuPermissionRows();
+    }
+
+    private static Menu menu(Long id, Menu parent, String path, Integer sort) {
+        Menu menu = mock(Menu.class);
+        when(menu.getId()).thenReturn(id);
+        when(menu.getParent()).thenReturn(parent);
+        when(menu.getName()).thenReturn("Menu" + id);
+        when(menu.getPath()).thenReturn(path);
+        when(menu.getSort()).thenReturn(sort);
+        when(menu.getPermissions()).thenReturn(Collections.emptySet());
+        return menu;
+    }
+
+    private static Permission permission(Long id, String name) {
+        Permission permission = mock(Permission.class);
+        when(permission.getId()).thenReturn(id);
+        when(permission.getName()).thenReturn(name);
+        return permission;
+    }
+
+    private void stubMenus(Menu... menus) {
+        List<MenuPermissionRowDTO> rows = new ArrayList<>();
+        for (Menu menu : menus) {
+            Long parentId = menu.getParent() != null ? menu.getParent().getId() : null;
+            Set<Permission> permissions = menu.getPermissions() != null ? menu.getPermissions() : Set.of();
+            if (permissions.isEmpty()) {
+                rows.add(row(menu, parentId, null));
+            }
+            for (Permission permission : permissions) {
+                rows.add(row(menu, parentId, permission));
+            }
+        }
+        when(menuRepository.findMenuPermissionRows()).thenReturn(rows);
+    }
+
+    private static MenuPermissionRowDTO row(Menu menu, Long parentId, Permission permission) {
+        return new MenuPermissionRowDTO(menu.getId(), parentId, menu.getName(), menu.getPath(), menu.getComponent(),
+                menu.getIcon(), menu.getSort(), menu.getIsHidden(),
+                permission != null ? permission.getId() : null, permission != null ? permission.getName() : null);
+    }
+}
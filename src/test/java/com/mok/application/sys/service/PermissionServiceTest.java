@@ -3,13 +3,20 @@ package com.mok.application.sys.service;
 import com.mok.application.exception.NotFoundException;
 import com.mok.application.sys.dto.permission.PermissionDTO;
 import com.mok.application.sys.dto.permission.PermissionQuery;
+import com.mok.application.sys.dto.permission.RolePermissionCodeDTO;
+import com.mok.application.sys.event.ApiPermissionChangedEvent;
+import com.mok.application.sys.event.AuthorizationChangedEvent;
+import com.mok.application.sys.event.MenuChangedEvent;
 import com.mok.application.sys.mapper.PermissionMapper;
 import com.mok.domain.sys.model.Menu;
 import com.mok.domain.sys.model.Permission;
 import com.mok.domain.sys.repository.MenuRepository;
 import com.mok.domain.sys.repository.PermissionRepository;
+import com.mok.infrastructure.cache.SingleFlightLoader;
 import com.mok.infrastructure.common.Const;
+import io.lettuce.core.ScriptOutputType;
 import io.lettuce.core.api.sync.RedisCommands;
+import io.micronaut.context.event.ApplicationEventPublisher;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
 import io.micronaut.data.repository.jpa.criteria.PredicateSpecification;
@@ -19,10 +26,14 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.ArgumentCaptor;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -40,6 +51,15 @@ class PermissionServiceTest {
     @Mock
     private RedisCommands<String, String> redisCommands;
 
+    @Mock
+    private ApplicationEventPublisher<MenuChangedEvent> eventPublisher;
+
+    @Mock
+    private ApplicationEventPublisher<AuthorizationChangedEvent> authorizationEventPublisher;
+
+    @Mock
+    private ApplicationEventPublisher<ApiPermissionChangedEvent> apiPermissionEventPublisher;
+
     private PermissionService permissionService;
     private Permission testPermission;
     private final Long TEST_PERMISSION_ID = 1L;
@@ -54,7 +74,11 @@ class PermissionServiceTest {
             permissionRepository,
             menuRepository,
             permissionMapper,
-            redisCommands
+            redisCommands,
+            new SingleFlightLoader(redisCommands, 0.1, false, Duration.ofSeconds(3)),
+            eventPublisher,
+            authorizationEventPublisher,
+            apiPermissionEventPublisher
         );
 
         testPermission = mock(Permission.class);
@@ -86,6 +110,8 @@ class PermissionServiceTest {
         assertEquals("Test Perm", savedPermission.getName());
         assertEquals("test:perm", savedPermission.getCode());
         assertSame(menu, savedPermission.getMenu());
+        verify(apiPermissionEventPublisher).publishEvent(any(ApiPermissionChangedEvent.class));
+        verify(eventPublisher).publishEvent(any(MenuChangedEvent.class));
     }
 
     @Test
@@ -108,6 +134,46 @@ class PermissionServiceTest {
         assertEquals("Updated Perm", savedPermission.getName());
     }
     
+    @Test
+    void updatePermission_CodeRenamed_PublishesRemovedOldCode() {
+        PermissionDTO dto = new PermissionDTO();
+        dto.setId(1L);
+        dto.setCode("new:perm");
+        Permission existingPermission = spy(Permission.create("Perm", "old:perm", null, null, null, null));
+        when(existingPermission.getId()).thenReturn(1L);
+        when(permissionRepository.findById(1L)).thenReturn(Optional.of(existingPermission));
+        when(permissionRepository.findRoleIdsByPermissionId(1L)).thenReturn(List.of(10L));
+        when(permissionRepository.findPackageIdsByPermissionId(1L)).thenReturn(List.of(5L));
+
+        permissionService.updatePermission(dto);
+
+        ArgumentCaptor<AuthorizationChangedEvent> event = ArgumentCaptor.forClass(AuthorizationChangedEvent.class);
+        verify(authorizationEventPublisher).publishEvent(event.capture());
+        assertEquals(Set.of(10L), event.getValue().getRoleIds());
+        assertEquals(Set.of(5L), event.getValue().getPackageIds());
+        assertEquals(Set.of("old:perm"), event.getValue().getRemovedCodes());
+    }
+
+    @Test
+    void updatePermission_CodeUnchanged_DoesNotInvalidateAuthorization() {
+        PermissionDTO dto = new PermissionDTO();
+        dto.setId(1L);
+        dto.setCode("old:perm");
+        dto.setName("Renamed only");
+        when(permissionRepository.findById(1L)).thenReturn(Optional.of(Permission.create("Perm", "old:perm", null, null, null, null)));
+
+        permissionService.updatePermission(dto);
+
+        verifyNoInteractions(authorizationEventPublisher);
+    }
+
+    @Test
+    void onAuthorizationChanged_EvictsRolePermissionLists() {
+        permissionService.onAuthorizationChanged(AuthorizationChangedEvent.ofRemovedPermissions(List.of(10L), List.of("old:perm")));
+
+        verify(redisCommands).del(Const.CacheKey.ROLE_PERMS + ":10");
+    }
+
     @Test
     void updatePermission_NotFound_ShouldThrowNotFoundException() {
         PermissionDTO dto = new PermissionDTO();
@@ -122,17 +188,21 @@ class PermissionServiceTest {
         List<Long> associatedRoleIds = List.of(10L, 20L);
 
         when(permissionRepository.findRoleIdsByPermissionId(permId)).thenReturn(associatedRoleIds);
+        when(permissionRepository.findById(permId)).thenReturn(Optional.of(testPermission));
 
         permissionService.deleteById(permId);
 
         verify(permissionRepository).deleteRolePermissionsByPermissionId(permId);
         verify(permissionRepository).deleteById(permId);
 
-        String[] expectedRedisKeys = {
-            Const.CacheKey.ROLE_PERMS + ":10",
-            Const.CacheKey.ROLE_PERMS + ":20"
-        };
-        verify(redisCommands).del(expectedRedisKeys);
+        // 角色权限缓存由提交后的监听清理
+        verify(redisCommands, never()).del(any(String[].class));
+        ArgumentCaptor<AuthorizationChangedEvent> event = ArgumentCaptor.forClass(AuthorizationChangedEvent.class);
+        verify(authorizationEventPublisher).publishEvent(event.capture());
+        assertEquals(Set.of(10L, 20L), event.getValue().getRoleIds());
+        assertEquals(Set.of(TEST_PERMISSION_CODE), event.getValue().getRemovedCodes());
+        verify(apiPermissionEventPublisher).publishEvent(any(ApiPermissionChangedEvent.class));
+        verify(eventPublisher).publishEvent(any(MenuChangedEvent.class));
     }
     
     @Test
@@ -219,14 +289,19 @@ class PermissionServiceTest {
         verify(permissionRepository).findAll();
     }
 
+    private void stubCachedRolePerms(List<?> cached) {
+        when(redisCommands.evalsha(anyString(), eq(ScriptOutputType.MULTI), any(String[].class), any(String[].class)))
+                .thenReturn(cached);
+    }
+
     @Test
     void getPermissionsByRoleIds_WithNullRoleIds_ReturnsEmptySet() {
         Set<String> result = permissionService.getPermissionsByRoleIds(null);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(permissionRepository, never()).findCodesByRoleId(any());
-        verify(redisCommands, never()).lrange(any(), anyInt(), anyInt());
+        verify(permissionRepository, never()).findCodesByRoleIds(any());
+        verifyNoInteractions(redisCommands);
     }
 
     @Test
@@ -235,82 +310,108 @@ class PermissionServiceTest {
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(permissionRepository, never()).findCodesByRoleId(any());
-        verify(redisCommands, never()).lrange(any(), anyInt(), anyInt());
+        verify(permissionRepository, never()).findCodesByRoleIds(any());
+        verifyNoInteractions(redisCommands);
     }
 
     @Test
     void getPermissionsByRoleIds_WithCacheHit_ReturnsCachedPermissions() {
-        Set<Long> roleIds = Set.of(1L, 2L);
-        List<String> cachedPerms1 = List.of("perm1", "perm2");
-        List<String> cachedPerms2 = List.of("perm3");
-
-        when(redisCommands.lrange(Const.CacheKey.ROLE_PERMS + ":1", 0, -1)).thenReturn(cachedPerms1);
-        when(redisCommands.lrange(Const.CacheKey.ROLE_PERMS + ":2", 0, -1)).thenReturn(cachedPerms2);
+        Set<Long> roleIds = new LinkedHashSet<>(List.of(1L, 2L));
+        stubCachedRolePerms(List.of(List.of("perm1", "perm2"), List.of("perm3")));
 
         Set<String> result = permissionService.getPermissionsByRoleIds(roleIds);
 
-        assertNotNull(result);
-        assertEquals(3, result.size());
-        assertTrue(result.contains("perm1"));
-        assertTrue(result.contains("perm2"));
-        assertTrue(result.contains("perm3"));
-        verify(redisCommands).lrange(Const.CacheKey.ROLE_PERMS + ":1", 0, -1);
-        verify(redisCommands).lrange(Const.CacheKey.ROLE_PERMS + ":2", 0, -1);
-        verify(permissionRepository, never()).findCodesByRoleId(any());
+        assertEquals(Set.of("perm1", "perm2", "perm3"), result);
+        ArgumentCaptor<String[]> keys = ArgumentCaptor.forClass(String[].class);
+        verify(redisCommands).evalsha(anyString(), eq(ScriptOutputType.MULTI), keys.capture(), any(String[].class));
+        assertArrayEquals(new String[]{Const.CacheKey.ROLE_PERMS + ":1", Const.CacheKey.ROLE_PERMS + ":2"}, keys.getValue());
+        verify(permissionRepository, never()).findCodesByRoleIds(any());
+        verify(redisCommands, never()).evalsha(anyString(), eq(ScriptOutputType.INTEGER), any(String[].class), any(String[].class));
     }
 
     @Test
-    void getPermissionsByRoleIds_WithCacheMiss_ReturnsFromDatabaseAndCaches() {
-        Set<Long> roleIds = Set.of(1L);
-        List<String> dbPerms = List.of("db_perm1", "db_perm2");
-
-        when(redisCommands.lrange(Const.CacheKey.ROLE_PERMS + ":1", 0, -1)).thenReturn(Collections.emptyList());
-        when(permissionRepository.findCodesByRoleId(1L)).thenReturn(dbPerms);
+    void getPermissionsByRoleIds_WithPartialMiss_LoadsMissedInOneQueryAndWritesBack() {
+        Set<Long> roleIds = new LinkedHashSet<>(List.of(1L, 2L, 3L));
+        stubCachedRolePerms(List.of(List.of("perm1"), List.of(), List.of()));
+        when(permissionRepository.findCodesByRoleIds(any())).thenReturn(List.of(
+                new RolePermissionCodeDTO(2L, "db_perm1"),
+                new RolePermissionCodeDTO(2L, "db_perm2")));
 
         Set<String> result = permissionService.getPermissionsByRoleIds(roleIds);
 
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        assertTrue(result.contains("db_perm1"));
-        assertTrue(result.contains("db_perm2"));
-        verify(redisCommands).lrange(Const.CacheKey.ROLE_PERMS + ":1", 0, -1);
-        verify(permissionRepository).findCodesByRoleId(1L);
-        verify(redisCommands).rpush(Const.CacheKey.ROLE_PERMS + ":1", "db_perm1", "db_perm2");
+        assertEquals(Set.of("perm1", "db_perm1", "db_perm2"), result);
+        verify(permissionRepository).findCodesByRoleIds(argThat(ids -> Set.copyOf(ids).equals(Set.of(2L, 3L))));
+        ArgumentCaptor<String[]> keys = ArgumentCaptor.forClass(String[].class);
+        ArgumentCaptor<String[]> args = ArgumentCaptor.forClass(String[].class);
+        verify(redisCommands).evalsha(anyString(), eq(ScriptOutputType.INTEGER), keys.capture(), args.capture());
+        // 无权限的角色 3 不回写
+        assertArrayEquals(new String[]{Const.CacheKey.ROLE_PERMS + ":2"}, keys.getValue());
+        String[] writeArgs = args.getValue();
+        assertEquals(4, writeArgs.length);
+        assertEquals("2", writeArgs[0]);
+        long ttl = Long.parseLong(writeArgs[1]);
+        assertTrue(ttl >= 12 * 3600 && ttl < 12 * 3600 * 1.1);
+        assertArrayEquals(new String[]{"db_perm1", "db_perm2"}, Arrays.copyOfRange(writeArgs, 2, 4));
     }
 
     @Test
-    void getPermissionsByRoleIds_WithNullCache_ReturnsFromDatabaseAndCaches() {
-        Set<Long> roleIds = Set.of(1L);
-        List<String> dbPerms = List.of("db_perm1");
+    void getPermissionsByRoleIds_WithNullCache_ReturnsFromDatabase() {
+        stubCachedRolePerms(null);
+        when(permissionRepository.findCodesByRoleIds(any())).thenReturn(List.of(new RolePermissionCodeDTO(1L, "db_perm1")));
 
-        when(redisCommands.lrange(Const.CacheKey.ROLE_PERMS + ":1", 0, -1)).thenReturn(null);
-        when(permissionRepository.findCodesByRoleId(1L)).thenReturn(dbPerms);
+        Set<String> result = permissionService.getPermissionsByRoleIds(Set.of(1L));
 
-        Set<String> result = permissionService.getPermissionsByRoleIds(roleIds);
-
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertTrue(result.contains("db_perm1"));
-        verify(redisCommands).lrange(Const.CacheKey.ROLE_PERMS + ":1", 0, -1);
-        verify(permissionRepository).findCodesByRoleId(1L);
-        verify(redisCommands).rpush(Const.CacheKey.ROLE_PERMS + ":1", "db_perm1");
+        assertEquals(Set.of("db_perm1"), result);
     }
 
     @Test
     void getPermissionsByRoleIds_WithEmptyDatabaseResult_ReturnsEmptySet() {
-        Set<Long> roleIds = Set.of(1L);
-
-        when(redisCommands.lrange(Const.CacheKey.ROLE_PERMS + ":1", 0, -1)).thenReturn(Collections.emptyList());
-        when(permissionRepository.findCodesByRoleId(1L)).thenReturn(Collections.emptyList());
+        stubCachedRolePerms(List.of(List.of()));
+        when(permissionRepository.findCodesByRoleIds(any())).thenReturn(Collections.emptyList());
 
-        Set<String> result = permissionService.getPermissionsByRoleIds(roleIds);
+        Set<String> result = permissionService.getPermissionsByRoleIds(Set.of(1L));
 
-        assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(redisCommands).lrange(Const.CacheKey.ROLE_PERMS + ":1", 0, -1);
-        verify(permissionRepository).findCodesByRoleId(1L);
-        verify(redisCommands, never()).rpush(any(), any(String[].class));
+        verify(redisCommands, never()).evalsha(anyString(), eq(ScriptOutputType.INTEGER), any(String[].class), any(String[].class));
+    }
+
+    @Test
+    void getPermissionsByRoleIds_ConcurrentMisses_LoadedOnce() throws Exception {
+        stubCachedRolePerms(List.of(List.of()));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(permissionRepository.findCodesByRoleIds(any())).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(new RolePermissionCodeDTO(1L, "db_perm1"));
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Set<String>> first = executor.submit(() -> permissionService.getPermissionsByRoleIds(Set.of(1L)));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<Set<String>> second = executor.submit(() -> permissionService.getPermissionsByRoleIds(Set.of(1L)));
+            // 等待第二个请求进入等待状态
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals(Set.of("db_perm1"), first.get(5, TimeUnit.SECONDS));
+            assertEquals(Set.of("db_perm1"), second.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(permissionRepository, times(1)).findCodesByRoleIds(any());
+    }
+
+    @Test
+    void getPermissionsByRoleIds_LoadFails_NextCallRetries() {
+        stubCachedRolePerms(List.of(List.of()));
+        when(permissionRepository.findCodesByRoleIds(any()))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(List.of(new RolePermissionCodeDTO(1L, "db_perm1")));
+
+        assertThrows(IllegalStateException.class, () -> permissionService.getPermissionsByRoleIds(Set.of(1L)));
+        assertEquals(Set.of("db_perm1"), permissionService.getPermissionsByRoleIds(Set.of(1L)));
     }
 
     @Test
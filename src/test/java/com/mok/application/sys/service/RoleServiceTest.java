@@ -2,6 +2,7 @@ package com.mok.application.sys.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 import com.mok.application.exception.BizException;
@@ -9,6 +10,8 @@ import com.mok.application.exception.NotFoundException;
 import com.mok.application.sys.dto.menu.MenuDTO;
 import com.mok.application.sys.dto.permission.PermissionDTO;
 import com.mok.application.sys.dto.role.*;
+import com.mok.application.sys.event.AccountInfoChangedEvent;
+import com.mok.application.sys.event.AuthorizationChangedEvent;
 import com.mok.application.sys.mapper.MenuMapper;
 import com.mok.application.sys.mapper.PermissionMapper;
 import com.mok.application.sys.mapper.RoleMapper;
@@ -19,7 +22,7 @@ import com.mok.domain.sys.repository.MenuRepository;
 import com.mok.domain.sys.repository.PermissionRepository;
 import com.mok.domain.sys.repository.RoleRepository;
 import com.mok.infrastructure.common.Const;
-import io.lettuce.core.api.sync.RedisCommands;
+import io.micronaut.context.event.ApplicationEventPublisher;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
 import io.micronaut.data.repository.jpa.criteria.PredicateSpecification;
@@ -49,8 +52,12 @@ class RoleServiceTest {
     @Mock
     private MenuMapper menuMapper;
 
+
+    @Mock
+    private ApplicationEventPublisher<AccountInfoChangedEvent> accountInfoEventPublisher;
+
     @Mock
-    private RedisCommands<String, String> redisCommands;
+    private ApplicationEventPublisher<AuthorizationChangedEvent> authorizationEventPublisher;
 
     private RoleService roleService;
     private Role testRole;
@@ -68,7 +75,8 @@ class RoleServiceTest {
             roleMapper,
             permissionMapper,
             menuMapper,
-            redisCommands
+            accountInfoEventPublisher,
+            authorizationEventPublisher
         );
 
         testRole = mock(Role.class);
@@ -235,6 +243,7 @@ class RoleServiceTest {
         verify(testRole).enable();
         verify(roleRepository).save(testRole);
         verify(roleMapper).toDto(testRole);
+        verify(accountInfoEventPublisher).publishEvent(argThat(e -> e.getScope() == AccountInfoChangedEvent.Scope.ROLE && Objects.equals(testRole.getTenantId(), e.getTenantId()) && Objects.equals(TEST_ROLE_ID, e.getTargetId())));
     }
 
     @Test
@@ -336,9 +345,8 @@ class RoleServiceTest {
         verify(testRole).changeMenus(any(Set.class));
         verify(testRole).changePermissions(any(Set.class));
         verify(roleRepository).save(testRole);
-        verify(redisCommands).del(
-            Const.CacheKey.ROLE_PERMS + ":" + TEST_ROLE_ID
-        );
+        verify(authorizationEventPublisher).publishEvent(argThat(e -> e.getRoleIds().equals(Set.of(TEST_ROLE_ID))));
+        verify(accountInfoEventPublisher).publishEvent(argThat(e -> e.getScope() == AccountInfoChangedEvent.Scope.ROLE && Objects.equals(testRole.getTenantId(), e.getTenantId()) && Objects.equals(TEST_ROLE_ID, e.getTargetId())));
     }
 
     @Test
@@ -370,9 +378,7 @@ class RoleServiceTest {
         verify(testRole).changeMenus(any(Set.class));
         verify(testRole, never()).changePermissions(any(Set.class));
         verify(roleRepository).save(testRole);
-        verify(redisCommands).del(
-            Const.CacheKey.ROLE_PERMS + ":" + TEST_ROLE_ID
-        );
+        verify(authorizationEventPublisher).publishEvent(argThat(e -> e.getRoleIds().equals(Set.of(TEST_ROLE_ID))));
     }
 
     @Test
@@ -394,9 +400,7 @@ class RoleServiceTest {
         verify(testRole, never()).changeMenus(any(Set.class));
         verify(testRole).changePermissions(any(Set.class));
         verify(roleRepository).save(testRole);
-        verify(redisCommands).del(
-            Const.CacheKey.ROLE_PERMS + ":" + TEST_ROLE_ID
-        );
+        verify(authorizationEventPublisher).publishEvent(argThat(e -> e.getRoleIds().equals(Set.of(TEST_ROLE_ID))));
     }
 
     @Test
@@ -417,9 +421,7 @@ class RoleServiceTest {
         verify(testRole).changeMenus(any(Set.class));
         verify(testRole).changePermissions(any(Set.class));
         verify(roleRepository).save(testRole);
-        verify(redisCommands).del(
-            Const.CacheKey.ROLE_PERMS + ":" + TEST_ROLE_ID
-        );
+        verify(authorizationEventPublisher).publishEvent(argThat(e -> e.getRoleIds().equals(Set.of(TEST_ROLE_ID))));
     }
 
     @Test
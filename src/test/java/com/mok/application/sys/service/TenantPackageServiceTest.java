@@ -1,10 +1,9 @@
 package com.mok.application.sys.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mok.application.exception.BizException;
 import com.mok.application.sys.dto.tenantPackage.*;
+import com.mok.application.sys.event.AccountInfoChangedEvent;
+import com.mok.application.sys.event.AuthorizationChangedEvent;
 import com.mok.application.sys.mapper.MenuMapper;
 import com.mok.application.sys.mapper.PermissionMapper;
 import com.mok.application.sys.mapper.TenantPackageMapper;
@@ -15,20 +14,20 @@ import com.mok.domain.sys.repository.MenuRepository;
 import com.mok.domain.sys.repository.PermissionRepository;
 import com.mok.domain.sys.repository.TenantPackageRepository;
 import com.mok.domain.sys.repository.TenantRepository;
+import com.mok.infrastructure.cache.CacheEvict;
+import com.mok.infrastructure.cache.Cached;
 import com.mok.infrastructure.common.Const;
-import io.lettuce.core.api.sync.RedisCommands;
+import io.micronaut.context.event.ApplicationEventPublisher;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.io.IOException;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -52,9 +51,6 @@ class TenantPackageServiceTest {
     @Mock
     private TenantRepository tenantRepository;
 
-    @Mock
-    private RedisCommands<String, String> redisCommands;
-
     @Mock
     private MenuMapper menuMapper;
 
@@ -62,9 +58,11 @@ class TenantPackageServiceTest {
     private PermissionMapper permissionMapper;
 
     @Mock
-    private ObjectMapper objectMapper;
+    private ApplicationEventPublisher<AccountInfoChangedEvent> accountInfoEventPublisher;
+
+    @Mock
+    private ApplicationEventPublisher<AuthorizationChangedEvent> authorizationEventPublisher;
 
-    @InjectMocks
     private TenantPackageService packageService;
     private final Long TEST_PACKAGE_ID = 1L;
     private final String TEST_PACKAGE_NAME = "Test Package";
@@ -73,6 +71,8 @@ class TenantPackageServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        packageService = new TenantPackageService(packageRepository, menuRepository, permissionRepository,
+                packageMapper, tenantRepository, menuMapper, permissionMapper, accountInfoEventPublisher, authorizationEventPublisher);
     }
 
 
@@ -99,6 +99,7 @@ class TenantPackageServiceTest {
         TenantPackageSaveDTO dto = new TenantPackageSaveDTO();
         dto.setName(TEST_PACKAGE_NAME);
         dto.setDescription(TEST_DESCRIPTION);
+        dto.setTier("premium");
 
         packageService.createPackage(dto);
 
@@ -109,6 +110,7 @@ class TenantPackageServiceTest {
         assertEquals(TEST_PACKAGE_NAME, savedPackage.getName());
         assertEquals(TEST_DESCRIPTION, savedPackage.getDescription());
         assertEquals(Const.TenantPackageState.NORMAL, savedPackage.getState());
+        assertEquals("premium", savedPackage.getTier());
     }
 
     @Test
@@ -131,6 +133,23 @@ class TenantPackageServiceTest {
 
         assertEquals(newName, updatedPackage.getName());
         assertEquals(newDescription, updatedPackage.getDescription());
+        assertEquals(Const.TenantPackageTier.DEFAULT, updatedPackage.getTier());
+    }
+
+    @Test
+    void getTierByPackage_ReturnsTier() {
+        TenantPackage tenantPackage = TenantPackage.create(TEST_PACKAGE_NAME, "");
+        tenantPackage.changeTier("basic");
+        when(packageRepository.findById(TEST_PACKAGE_ID)).thenReturn(Optional.of(tenantPackage));
+
+        assertEquals("basic", packageService.getTierByPackage(TEST_PACKAGE_ID));
+    }
+
+    @Test
+    void getTierByPackage_PackageNotFound_ReturnsDefault() {
+        when(packageRepository.findById(TEST_PACKAGE_ID)).thenReturn(Optional.empty());
+
+        assertEquals(Const.TenantPackageTier.DEFAULT, packageService.getTierByPackage(TEST_PACKAGE_ID));
     }
 
     @Test
@@ -176,11 +195,8 @@ class TenantPackageServiceTest {
         assertEquals(1, savedPackage.getPermissions().size());
         assertTrue(savedPackage.getPermissions().stream().anyMatch(p -> p.getId().equals(100L)));
 
-        String[] expectedRedisKeys = {
-            Const.CacheKey.TENANT_PACKAGE_PERMS + ":menus:" + TEST_PACKAGE_ID,
-            Const.CacheKey.TENANT_PACKAGE_PERMS + ":permissions:" + TEST_PACKAGE_ID
-        };
-        verify(redisCommands).del(expectedRedisKeys);
+        verify(authorizationEventPublisher).publishEvent(argThat(e -> e.getPackageIds().equals(Set.of(TEST_PACKAGE_ID))));
+        verify(accountInfoEventPublisher).publishEvent(argThat(e -> e.getScope() == AccountInfoChangedEvent.Scope.PACKAGE && Objects.equals(null, e.getTenantId()) && Objects.equals(TEST_PACKAGE_ID, e.getTargetId())));
     }
 
     @Test
@@ -193,7 +209,6 @@ class TenantPackageServiceTest {
         assertEquals("套餐不存在", exception.getMessage());
 
         verify(packageRepository, never()).save(any());
-        verify(redisCommands, never()).del(any(String[].class));
     }
 
     @Test
@@ -355,68 +370,24 @@ class TenantPackageServiceTest {
         verify(packageRepository).findByState(Const.TenantPackageState.NORMAL);
     }
 
-    @Test
-    void getMenuIdsByPackage_CacheHit_Success() throws IOException {
-        String cacheKey = Const.CacheKey.TENANT_PACKAGE_PERMS + ":menus:" + TEST_PACKAGE_ID;
-        String cachedValue = "[1,2,3]";
-        Set<Long> expectedIds = Set.of(1L, 2L, 3L);
-
-        when(redisCommands.get(cacheKey)).thenReturn(cachedValue);
-        when(objectMapper.readValue(eq(cachedValue), any(TypeReference.class))).thenReturn(expectedIds);
-
-        Set<Long> result = packageService.getMenuIdsByPackage(TEST_PACKAGE_ID);
-
-        assertEquals(expectedIds, result);
-        verify(redisCommands).get(cacheKey);
-        verify(objectMapper).readValue(eq(cachedValue), any(TypeReference.class));
-        verify(packageRepository, never()).findById(any());
-        verify(redisCommands, never()).set(anyString(), anyString());
-    }
-
     @Test
     void getMenuIdsByPackage_PackageNotFound_ShouldReturnEmpty() {
-        String cacheKey = Const.CacheKey.TENANT_PACKAGE_PERMS + ":menus:" + TEST_PACKAGE_ID;
-        when(redisCommands.get(cacheKey)).thenReturn(null);
         when(packageRepository.findById(TEST_PACKAGE_ID)).thenReturn(Optional.empty());
 
         Set<Long> result = packageService.getMenuIdsByPackage(TEST_PACKAGE_ID);
 
         assertTrue(result.isEmpty());
-        verify(redisCommands).get(cacheKey);
         verify(packageRepository).findById(TEST_PACKAGE_ID);
-        verify(redisCommands, never()).set(anyString(), anyString());
-    }
-
-    @Test
-    void getPermissionIdsByPackage_CacheHit_Success() throws IOException {
-        String cacheKey = Const.CacheKey.TENANT_PACKAGE_PERMS + ":permissions:" + TEST_PACKAGE_ID;
-        String cachedValue = "[100,200]";
-        Set<Long> expectedIds = Set.of(100L, 200L);
-
-        when(redisCommands.get(cacheKey)).thenReturn(cachedValue);
-        when(objectMapper.readValue(eq(cachedValue), any(TypeReference.class))).thenReturn(expectedIds);
-
-        Set<Long> result = packageService.getPermissionIdsByPackage(TEST_PACKAGE_ID);
-
-        assertEquals(expectedIds, result);
-        verify(redisCommands).get(cacheKey);
-        verify(objectMapper).readValue(eq(cachedValue), any(TypeReference.class));
-        verify(packageRepository, never()).findById(any());
-        verify(redisCommands, never()).set(anyString(), anyString());
     }
 
     @Test
     void getPermissionIdsByPackage_PackageNotFound_ShouldReturnEmpty() {
-        String cacheKey = Const.CacheKey.TENANT_PACKAGE_PERMS + ":permissions:" + TEST_PACKAGE_ID;
-        when(redisCommands.get(cacheKey)).thenReturn(null);
         when(packageRepository.findById(TEST_PACKAGE_ID)).thenReturn(Optional.empty());
 
         Set<Long> result = packageService.getPermissionIdsByPackage(TEST_PACKAGE_ID);
 
         assertTrue(result.isEmpty());
-        verify(redisCommands).get(cacheKey);
         verify(packageRepository).findById(TEST_PACKAGE_ID);
-        verify(redisCommands, never()).set(anyString(), anyString());
     }
 
     @Test
@@ -456,8 +427,6 @@ class TenantPackageServiceTest {
 
     @Test
     void getMenuIdsByPackage_PackageWithNullMenus_ShouldReturnEmpty() {
-        String cacheKey = Const.CacheKey.TENANT_PACKAGE_PERMS + ":menus:" + TEST_PACKAGE_ID;
-        when(redisCommands.get(cacheKey)).thenReturn(null);
 
         TenantPackage tenantPackage = TenantPackage.create(TEST_PACKAGE_NAME, "");
         when(packageRepository.findById(TEST_PACKAGE_ID)).thenReturn(Optional.of(tenantPackage));
@@ -465,34 +434,11 @@ class TenantPackageServiceTest {
         Set<Long> result = packageService.getMenuIdsByPackage(TEST_PACKAGE_ID);
 
         assertTrue(result.isEmpty());
-        verify(redisCommands).get(cacheKey);
-        verify(packageRepository).findById(TEST_PACKAGE_ID);
-    }
-
-    @Test
-    void getMenuIdsByPackage_PackageWithNullMenusAndCacheError_ShouldFallbackToDatabase() throws Exception {
-        String cacheKey = Const.CacheKey.TENANT_PACKAGE_PERMS + ":menus:" + TEST_PACKAGE_ID;
-        String cachedValue = "invalid_json";
-
-        when(redisCommands.get(cacheKey)).thenReturn(cachedValue);
-        doThrow(new JsonProcessingException("Invalid JSON") {})
-            .when(objectMapper).readValue(eq(cachedValue), any(TypeReference.class));
-
-        TenantPackage tenantPackage = TenantPackage.create(TEST_PACKAGE_NAME, "");
-        when(packageRepository.findById(TEST_PACKAGE_ID)).thenReturn(Optional.of(tenantPackage));
-
-        Set<Long> result = packageService.getMenuIdsByPackage(TEST_PACKAGE_ID);
-
-        assertTrue(result.isEmpty());
-        verify(redisCommands).get(cacheKey);
-        verify(objectMapper).readValue(eq(cachedValue), any(TypeReference.class));
         verify(packageRepository).findById(TEST_PACKAGE_ID);
     }
 
     @Test
     void getPermissionIdsByPackage_PackageWithNullPermissions_ShouldReturnEmpty() {
-        String cacheKey = Const.CacheKey.TENANT_PACKAGE_PERMS + ":permissions:" + TEST_PACKAGE_ID;
-        when(redisCommands.get(cacheKey)).thenReturn(null);
 
         TenantPackage tenantPackage = TenantPackage.create(TEST_PACKAGE_NAME, "");
         when(packageRepository.findById(TEST_PACKAGE_ID)).thenReturn(Optional.of(tenantPackage));
@@ -500,33 +446,11 @@ class TenantPackageServiceTest {
         Set<Long> result = packageService.getPermissionIdsByPackage(TEST_PACKAGE_ID);
 
         assertTrue(result.isEmpty());
-        verify(redisCommands).get(cacheKey);
         verify(packageRepository).findById(TEST_PACKAGE_ID);
     }
 
     @Test
-    void getPermissionIdsByPackage_PackageWithNullPermissionsAndCacheError_ShouldFallbackToDatabase() throws Exception {
-        String cacheKey = Const.CacheKey.TENANT_PACKAGE_PERMS + ":permissions:" + TEST_PACKAGE_ID;
-        String cachedValue = "invalid_json";
-
-        when(redisCommands.get(cacheKey)).thenReturn(cachedValue);
-        doThrow(new JsonProcessingException("Invalid JSON") {})
-            .when(objectMapper).readValue(eq(cachedValue), any(TypeReference.class));
-
-        TenantPackage tenantPackage = TenantPackage.create(TEST_PACKAGE_NAME, "");
-        when(packageRepository.findById(TEST_PACKAGE_ID)).thenReturn(Optional.of(tenantPackage));
-
-        Set<Long> result = packageService.getPermissionIdsByPackage(TEST_PACKAGE_ID);
-
-        assertTrue(result.isEmpty());
-        verify(redisCommands).get(cacheKey);
-        verify(objectMapper).readValue(eq(cachedValue), any(TypeReference.class));
-        verify(packageRepository).findById(TEST_PACKAGE_ID);
-    }
-
-    @Test
-    void getMenuIdsByPackage_WithValidMenus_ShouldCacheResult() throws Exception {
-        String cacheKey = Const.CacheKey.TENANT_PACKAGE_PERMS + ":menus:" + TEST_PACKAGE_ID;
+    void getMenuIdsByPackage_WithValidMenus_ReturnsIds() throws Exception {
 
         TenantPackage tenantPackage = mock(TenantPackage.class);
         Menu menu1 = mock(Menu.class);
@@ -535,24 +459,18 @@ class TenantPackageServiceTest {
 
         when(tenantPackage.getMenus()).thenReturn(menus);
 
-        when(redisCommands.get(cacheKey)).thenReturn(null);
         when(packageRepository.findById(TEST_PACKAGE_ID)).thenReturn(Optional.of(tenantPackage));
         when(menu1.getId()).thenReturn(1L);
         when(menu2.getId()).thenReturn(2L);
-        when(objectMapper.writeValueAsString(Set.of(1L, 2L))).thenReturn("[1,2]");
 
         Set<Long> result = packageService.getMenuIdsByPackage(TEST_PACKAGE_ID);
 
         assertEquals(Set.of(1L, 2L), result);
-        verify(redisCommands).get(cacheKey);
         verify(packageRepository).findById(TEST_PACKAGE_ID);
-        verify(redisCommands).set(cacheKey, "[1,2]");
-        verify(objectMapper).writeValueAsString(Set.of(1L, 2L));
     }
 
     @Test
-    void getPermissionIdsByPackage_WithValidPermissionsAndNoCache_ShouldCacheResult() throws Exception {
-        String cacheKey = Const.CacheKey.TENANT_PACKAGE_PERMS + ":permissions:" + TEST_PACKAGE_ID;
+    void getPermissionIdsByPackage_WithValidPermissions_ReturnsIds() throws Exception {
 
         TenantPackage tenantPackage = mock(TenantPackage.class);
         Permission permission1 = mock(Permission.class);
@@ -561,47 +479,14 @@ class TenantPackageServiceTest {
 
         when(tenantPackage.getPermissions()).thenReturn(permissions);
 
-        when(redisCommands.get(cacheKey)).thenReturn(null);
         when(packageRepository.findById(TEST_PACKAGE_ID)).thenReturn(Optional.of(tenantPackage));
         when(permission1.getId()).thenReturn(100L);
         when(permission2.getId()).thenReturn(200L);
-        when(objectMapper.writeValueAsString(Set.of(100L, 200L))).thenReturn("[100,200]");
 
         Set<Long> result = packageService.getPermissionIdsByPackage(TEST_PACKAGE_ID);
 
         assertEquals(Set.of(100L, 200L), result);
-        verify(redisCommands).get(cacheKey);
         verify(packageRepository).findById(TEST_PACKAGE_ID);
-        verify(redisCommands).set(cacheKey, "[100,200]");
-        verify(objectMapper).writeValueAsString(Set.of(100L, 200L));
-    }
-
-    @Test
-    void getMenuIdsByPackage_WithValidMenusButWriteError_ShouldStillReturnResult() throws Exception {
-        String cacheKey = Const.CacheKey.TENANT_PACKAGE_PERMS + ":menus:" + TEST_PACKAGE_ID;
-
-        TenantPackage tenantPackage = mock(TenantPackage.class);
-        Menu menu1 = mock(Menu.class);
-        Menu menu2 = mock(Menu.class);
-        Set<Menu> menus = Set.of(menu1, menu2);
-
-        when(tenantPackage.getMenus()).thenReturn(menus);
-
-        when(redisCommands.get(cacheKey)).thenReturn(null);
-        when(packageRepository.findById(TEST_PACKAGE_ID)).thenReturn(Optional.of(tenantPackage));
-        when(menu1.getId()).thenReturn(1L);
-        when(menu2.getId()).thenReturn(2L);
-        when(objectMapper.writeValueAsString(Set.of(1L, 2L)))
-            .thenThrow(new JsonProcessingException("Cache error") {})
-            .thenReturn("[1,2]");
-
-        Set<Long> result = packageService.getMenuIdsByPackage(TEST_PACKAGE_ID);
-
-        assertEquals(Set.of(1L, 2L), result);
-        verify(redisCommands).get(cacheKey);
-        verify(packageRepository).findById(TEST_PACKAGE_ID);
-        verify(objectMapper, atLeastOnce()).writeValueAsString(Set.of(1L, 2L));
-        verify(redisCommands, never()).set(anyString(), anyString());
     }
 
     @Test
@@ -669,4 +554,16 @@ class TenantPackageServiceTest {
         verify(menuMapper, never()).toDto(any());
         verify(permissionMapper).toDto(permission1);
     }
+
+    @Test
+    void idLookups_CachedPerPackageAndEvictedOnGrant() throws NoSuchMethodException {
+        Cached menus = TenantPackageService.class.getMethod("getMenuIdsByPackage", Long.class).getAnnotation(Cached.class);
+        Cached permissions = TenantPackageService.class.getMethod("getPermissionIdsByPackage", Long.class).getAnnotation(Cached.class);
+        CacheEvict evict = TenantPackageService.class.getMethod("grant", Long.class, TenantPackageGrantDTO.class).getAnnotation(CacheEvict.class);
+
+        assertEquals(Const.CacheKey.TENANT_PACKAGE_MENU_IDS, menus.value());
+        assertEquals(Const.CacheKey.TENANT_PACKAGE_PERMISSION_IDS, permissions.value());
+        assertArrayEquals(new String[]{Const.CacheKey.TENANT_PACKAGE_MENU_IDS, Const.CacheKey.TENANT_PACKAGE_PERMISSION_IDS}, evict.value());
+        assertArrayEquals(new String[]{"id"}, evict.parameters());
+    }
 }
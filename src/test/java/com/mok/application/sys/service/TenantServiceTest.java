@@ -2,14 +2,15 @@ package com.mok.application.sys.service;
 
 import com.mok.application.exception.BizException;
 import com.mok.application.sys.dto.tenant.*;
+import com.mok.application.sys.event.AccountInfoChangedEvent;
 import com.mok.application.sys.event.TenantCreatedEvent;
 import com.mok.application.sys.mapper.TenantMapper;
 import com.mok.domain.sys.model.Tenant;
 import com.mok.domain.sys.repository.TenantRepository;
+import com.mok.infrastructure.cache.TwoLevelCacheManager;
 import com.mok.infrastructure.common.Const;
 import com.mok.infrastructure.util.PasswordGenerator;
 import com.mok.infrastructure.util.SysUtil;
-import io.lettuce.core.api.sync.RedisCommands;
 import io.micronaut.context.event.ApplicationEventPublisher;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
@@ -23,6 +24,7 @@ import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -42,7 +44,10 @@ class TenantServiceTest {
     private ApplicationEventPublisher<TenantCreatedEvent> eventPublisher;
     
     @Mock
-    private RedisCommands<String, String> redisCommands;
+    private TwoLevelCacheManager cacheManager;
+
+    @Mock
+    private ApplicationEventPublisher<AccountInfoChangedEvent> accountInfoEventPublisher;
     
     @Mock
     private PasswordGenerator passwordGenerator;
@@ -58,7 +63,7 @@ class TenantServiceTest {
 
     @BeforeEach
     void setUp() {
-        tenantService = new TenantService(tenantRepository, tenantMapper, eventPublisher, redisCommands);
+        tenantService = new TenantService(tenantRepository, tenantMapper, eventPublisher, cacheManager, accountInfoEventPublisher);
         sysUtilMock = mockStatic(SysUtil.class);
     }
 
@@ -202,7 +207,8 @@ class TenantServiceTest {
         assertEquals("9876543210", savedTenant.getContactPhone());
         assertEquals(Long.valueOf(2), savedTenant.getPackageId());
         
-        verify(redisCommands).del(Const.CacheKey.TENANT + TEST_TENANT_CODE);
+        verify(cacheManager).evictAfterCommit(Const.CacheKey.TENANT, TEST_TENANT_CODE);
+        verify(accountInfoEventPublisher).publishEvent(argThat(e -> e.getScope() == AccountInfoChangedEvent.Scope.TENANT && Objects.equals(TEST_TENANT_CODE, e.getTenantId()) && Objects.equals(null, e.getTargetId())));
     }
 
     @Test
@@ -217,7 +223,7 @@ class TenantServiceTest {
         assertEquals("租户不存在", exception.getMessage());
         
         verify(tenantRepository, never()).save(any());
-        verify(redisCommands, never()).del(anyString());
+        verify(cacheManager, never()).evictAfterCommit(anyString(), anyString());
     }
 
     @Test
@@ -238,7 +244,7 @@ class TenantServiceTest {
         assertEquals("租户编码不可修改", exception.getMessage());
         
         verify(tenantRepository, never()).save(any());
-        verify(redisCommands, never()).del(anyString());
+        verify(cacheManager, never()).evictAfterCommit(anyString(), anyString());
     }
 
     @Test
@@ -264,7 +270,7 @@ class TenantServiceTest {
         Tenant savedTenant = captor.getValue();
         
         assertEquals(Const.TenantState.NORMAL, savedTenant.getState());
-        verify(redisCommands).del(Const.CacheKey.TENANT + TEST_TENANT_CODE);
+        verify(cacheManager).evictAfterCommit(Const.CacheKey.TENANT, TEST_TENANT_CODE);
     }
 
     @Test
@@ -290,7 +296,7 @@ class TenantServiceTest {
         Tenant savedTenant = captor.getValue();
         
         assertEquals(Const.TenantState.DISABLED, savedTenant.getState());
-        verify(redisCommands).del(Const.CacheKey.TENANT + TEST_TENANT_CODE);
+        verify(cacheManager).evictAfterCommit(Const.CacheKey.TENANT, TEST_TENANT_CODE);
     }
 
     @Test
@@ -310,7 +316,7 @@ class TenantServiceTest {
         assertEquals("无效的状态值: " + invalidState, exception.getMessage());
         
         verify(tenantRepository, never()).save(any());
-        verify(redisCommands, never()).del(anyString());
+        verify(cacheManager, never()).evictAfterCommit(anyString(), anyString());
     }
 
     @Test
@@ -324,7 +330,7 @@ class TenantServiceTest {
         assertEquals("租户不存在", exception.getMessage());
         
         verify(tenantRepository, never()).save(any());
-        verify(redisCommands, never()).del(anyString());
+        verify(cacheManager, never()).evictAfterCommit(anyString(), anyString());
     }
 
     @Test
@@ -348,7 +354,7 @@ class TenantServiceTest {
         // Then
         assertTrue(result);
         verify(tenantRepository).deleteById(TEST_TENANT_ID);
-        verify(redisCommands).del(Const.CacheKey.TENANT + TEST_TENANT_CODE);
+        verify(cacheManager).evictAfterCommit(Const.CacheKey.TENANT, TEST_TENANT_CODE);
     }
 
     @Test
@@ -362,7 +368,7 @@ class TenantServiceTest {
         assertEquals("租户不存在", exception.getMessage());
         
         verify(tenantRepository, never()).deleteById(any());
-        verify(redisCommands, never()).del(anyString());
+        verify(cacheManager, never()).evictAfterCommit(anyString(), anyString());
     }
 
     @Test
@@ -386,7 +392,7 @@ class TenantServiceTest {
         assertEquals("该租户不可删除", exception.getMessage());
         
         verify(tenantRepository, never()).deleteById(any());
-        verify(redisCommands, never()).del(anyString());
+        verify(cacheManager, never()).evictAfterCommit(anyString(), anyString());
     }
 
     @Test
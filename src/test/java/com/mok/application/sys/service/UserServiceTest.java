@@ -9,7 +9,8 @@ import com.mok.application.sys.dto.user.UserPasswordDTO;
 import com.mok.application.sys.dto.user.UserPostDTO;
 import com.mok.application.sys.dto.user.UserPutDTO;
 import com.mok.application.sys.dto.user.UserQuery;
-import com.mok.application.sys.mapper.MenuMapper;
+import com.mok.application.sys.event.AccountInfoChangedEvent;
+import com.mok.application.sys.event.LoginUserChangedEvent;
 import com.mok.application.sys.mapper.UserMapper;
 import com.mok.domain.sys.model.Menu;
 import com.mok.domain.sys.model.Permission;
@@ -22,6 +23,7 @@ import com.mok.infrastructure.common.Const;
 import com.mok.infrastructure.sys.security.PasswordEncoder;
 import com.mok.infrastructure.tenant.TenantContextHolder;
 import com.mok.infrastructure.util.SysUtil;
+import io.micronaut.context.event.ApplicationEventPublisher;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
 import org.junit.jupiter.api.AfterEach;
@@ -44,28 +46,30 @@ class UserServiceTest {
     private UserService userService;
     private MockedStatic<TenantContextHolder> tenantContextHolderMock;
     private MockedStatic<SysUtil> sysUtilMock;
-    private MenuService menuService;
-    private MenuMapper menuMapper;
-    private MenuRepository menuRepository;
+    private MenuTreeCache menuTreeCache;
     private PermissionService permissionService;
     private TenantRepository tenantRepository;
     private TenantPackageRepository tenantPackageRepository;
     private UserMapper userMapper;
+    private ApplicationEventPublisher<AccountInfoChangedEvent> accountInfoEventPublisher;
+    private ApplicationEventPublisher<LoginUserChangedEvent> eventPublisher;
 
     @BeforeEach
+    @SuppressWarnings("unchecked")
     void setUp() {
         userRepository = mock(UserRepository.class);
         roleRepository = mock(RoleRepository.class);
         userMapper = mock(UserMapper.class);
         passwordEncoder = mock(PasswordEncoder.class);
-        menuService = mock(MenuService.class);
-        menuMapper = mock(MenuMapper.class);
-        menuRepository = mock(MenuRepository.class);
+        menuTreeCache = mock(MenuTreeCache.class);
         permissionService = mock(PermissionService.class);
         tenantRepository = mock(TenantRepository.class);
         tenantPackageRepository = mock(TenantPackageRepository.class);
 
-        userService = new UserService(userRepository, roleRepository, userMapper, passwordEncoder, menuService, menuMapper, menuRepository, permissionService, tenantRepository, tenantPackageRepository);
+        accountInfoEventPublisher = mock(ApplicationEventPublisher.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+
+        userService = new UserService(userRepository, roleRepository, userMapper, passwordEncoder, menuTreeCache, permissionService, tenantRepository, tenantPackageRepository, accountInfoEventPublisher, eventPublisher);
 
         tenantContextHolderMock = mockStatic(TenantContextHolder.class);
         sysUtilMock = mockStatic(SysUtil.class);
@@ -289,6 +293,7 @@ class UserServiceTest {
         assertEquals("new nickname", savedUser.getNickname());
         assertEquals(1, savedUser.getRoles().size());
         assertTrue(savedUser.getRoles().stream().anyMatch(r -> r.getId().equals(2L)));
+        verify(accountInfoEventPublisher).publishEvent(argThat(e -> e.getScope() == AccountInfoChangedEvent.Scope.USER && Objects.equals(existingUser.getTenantId(), e.getTenantId()) && Objects.equals(userId, e.getTargetId())));
     }
 
     @Test
@@ -312,6 +317,7 @@ class UserServiceTest {
 
         verify(userRepository).save(user);
         assertEquals(newNickname, user.getNickname());
+        verify(accountInfoEventPublisher).publishEvent(argThat(e -> e.getScope() == AccountInfoChangedEvent.Scope.USER && Objects.equals(user.getTenantId(), e.getTenantId()) && Objects.equals(userId, e.getTargetId())));
     }
 
     @Test
@@ -338,6 +344,8 @@ class UserServiceTest {
         assertEquals(Const.UserState.NORMAL, user.getState());
 
         verify(userRepository, times(2)).save(user);
+        verify(accountInfoEventPublisher, times(2)).publishEvent(argThat(e -> e.getScope() == AccountInfoChangedEvent.Scope.USER && Objects.equals(user.getTenantId(), e.getTenantId()) && Objects.equals(userId, e.getTargetId())));
+        verify(eventPublisher, times(2)).publishEvent(any(LoginUserChangedEvent.class));
     }
 
     @Test
@@ -369,6 +377,7 @@ class UserServiceTest {
 
         assertSame(existingUser, savedUser);
         assertEquals("newEncodedPassword", savedUser.getPassword());
+        verify(eventPublisher).publishEvent(any(LoginUserChangedEvent.class));
     }
 
     @Test
@@ -411,6 +420,10 @@ class UserServiceTest {
         userService.deleteById(userId);
 
         verify(userRepository).deleteById(userId);
+        ArgumentCaptor<LoginUserChangedEvent> event = ArgumentCaptor.forClass(LoginUserChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals("tenant1", event.getValue().getTenantId());
+        assertEquals("user", event.getValue().getUsername());
     }
 
     @Test
@@ -479,15 +492,15 @@ class UserServiceTest {
         when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
         sysUtilMock.when(() -> SysUtil.isSuperAdmin(Const.SUPER_TENANT_ID, username)).thenReturn(true);
 
-        Menu menu = mock(Menu.class);
-        when(menuRepository.findAll()).thenReturn(List.of(menu));
-        when(menuMapper.toDto(menu)).thenReturn(new MenuDTO());
+        List<MenuDTO> tree = List.of(new MenuDTO());
+        when(menuTreeCache.menuTree(null)).thenReturn(tree);
 
         when(permissionService.getAllPermissionCodes()).thenReturn(Set.of("perm1"));
 
         AccountInfoDTO result = userService.findAccountInfoByUsername(username);
 
         assertNotNull(result);
+        assertSame(tree, result.getMenus());
         assertTrue(result.getPermissions().contains(Const.SUPER_ADMIN_ROLE_CODE));
         assertTrue(result.getPermissions().contains("perm1"));
     }
@@ -509,6 +522,7 @@ class UserServiceTest {
         
         TenantPackage pkg = mock(TenantPackage.class);
         Menu menu = mock(Menu.class);
+        when(menu.getId()).thenReturn(1L);
         Permission perm = mock(Permission.class);
         when(perm.getCode()).thenReturn("pkg:perm");
         
@@ -516,12 +530,11 @@ class UserServiceTest {
         when(pkg.getPermissions()).thenReturn(Set.of(perm));
         when(tenantPackageRepository.findById(100L)).thenReturn(Optional.of(pkg));
         
-        when(menuMapper.toDtoList(any())).thenReturn(List.of(new MenuDTO()));
-        
         AccountInfoDTO result = userService.findAccountInfoByUsername(username);
         
         assertNotNull(result);
         assertTrue(result.getPermissions().contains("pkg:perm"));
+        verify(menuTreeCache).menuTree(Set.of(1L));
     }
 
     @Test
@@ -579,22 +592,18 @@ class UserServiceTest {
         when(user.getUsername()).thenReturn(username);
         when(user.getIsTenantAdmin()).thenReturn(false);
 
-        Role role = mock(Role.class);
-        Menu menu = mock(Menu.class);
-        Permission perm = mock(Permission.class);
-        when(perm.getCode()).thenReturn("user:perm");
+        when(user.getId()).thenReturn(7L);
 
-        when(role.getMenus()).thenReturn(Set.of(menu));
-        when(role.getPermissions()).thenReturn(Set.of(perm));
-        when(user.getRoles()).thenReturn(Set.of(role));
+        when(userRepository.findMenuIdsByUserId(7L)).thenReturn(List.of(2L, 3L));
+        when(userRepository.findPermissionCodesByUserId(7L)).thenReturn(List.of("user:perm"));
 
         when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
-        when(menuMapper.toDtoList(any())).thenReturn(List.of(new MenuDTO()));
-
         AccountInfoDTO result = userService.findAccountInfoByUsername(username);
 
         assertNotNull(result);
-        assertTrue(result.getPermissions().contains("user:perm"));
+        assertEquals(Set.of("user:perm"), result.getPermissions());
+        verify(menuTreeCache).menuTree(Set.of(2L, 3L));
+        verify(user, never()).getRoles();
     }
 
     @Test
@@ -606,10 +615,7 @@ class UserServiceTest {
         when(user.getUsername()).thenReturn(username);
         when(user.getIsTenantAdmin()).thenReturn(false);
 
-        when(user.getRoles()).thenReturn(Set.of());
-
         when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
-        when(menuMapper.toDtoList(any())).thenReturn(List.of());
 
         AccountInfoDTO result = userService.findAccountInfoByUsername(username);
 
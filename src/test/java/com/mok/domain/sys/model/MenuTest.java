@@ -1,5 +1,6 @@
 package com.mok.domain.sys.model;
 
+import com.mok.application.exception.BizException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
@@ -80,4 +81,39 @@ class MenuTest {
         assertEquals(menu, p2.getMenu(), "p2的menu引用应该指向当前menu");
         assertEquals(menu, p3.getMenu(), "p3的menu引用应该指向当前menu");
     }
+
+    @Test
+    @DisplayName("按上级路径计算树路径")
+    void refreshTreePath_AppendsIdToParentPath() {
+        Menu root = Menu.create(null, "Root", "/root", null, null, 1, false);
+        root.setId(1L);
+        assertNull(root.refreshTreePath());
+        assertEquals("/1/", root.getTreePath());
+
+        Menu child = Menu.create(root, "Child", "/child", null, null, 1, false);
+        child.setId(5L);
+        child.refreshTreePath();
+        assertEquals("/1/5/", child.getTreePath());
+        assertEquals("/1/5/12/", Menu.childPath(child.getTreePath(), 12L));
+    }
+
+    @Test
+    @DisplayName("上级不能是自身或下级")
+    void updateInfo_ParentIsDescendant_ThrowsBizException() {
+        Menu root = Menu.create(null, "Root", "/root", null, null, 1, false);
+        root.setId(1L);
+        root.refreshTreePath();
+        Menu child = Menu.create(root, "Child", "/child", null, null, 1, false);
+        child.setId(11L);
+        child.refreshTreePath();
+        // 路径 /11/ 与 /1/ 仅字符前缀相同，不是下级
+        Menu other = Menu.create(null, "Other", "/other", null, null, 1, false);
+        other.setId(11L);
+        other.refreshTreePath();
+
+        assertThrows(BizException.class, () -> root.updateInfo(child, "Root", "/root", null, null, 1, false));
+        assertThrows(BizException.class, () -> root.updateInfo(root, "Root", "/root", null, null, 1, false));
+        assertFalse(root.isAncestorOf(other));
+        assertDoesNotThrow(() -> root.updateInfo(other, "Root", "/root", null, null, 1, false));
+    }
 }
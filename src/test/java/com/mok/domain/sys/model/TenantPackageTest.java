@@ -43,6 +43,25 @@ class TenantPackageTest {
             assertEquals("Test Package", pkg.getName());
             assertEquals("Desc", pkg.getDescription());
             assertEquals(Const.TenantPackageState.NORMAL, pkg.getState());
+            assertEquals(Const.TenantPackageTier.DEFAULT, pkg.getTier());
+        }
+    }
+
+    @Nested
+    @DisplayName("changeTier")
+    class TierTests {
+        @Test
+        void changeTier_ShouldSetTier() {
+            TenantPackage pkg = createTestPackage("Test", Const.TenantPackageState.NORMAL);
+            pkg.changeTier("premium");
+            assertEquals("premium", pkg.getTier());
+        }
+
+        @Test
+        void changeTier_WithBlank_ShouldUseDefault() {
+            TenantPackage pkg = createTestPackage("Test", Const.TenantPackageState.NORMAL);
+            pkg.changeTier(" ");
+            assertEquals(Const.TenantPackageTier.DEFAULT, pkg.getTier());
         }
     }
 
@@ -0,0 +1,101 @@
+package com.mok.infrastructure.cache;
+
+import io.micronaut.aop.MethodInvocationContext;
+import io.micronaut.context.BeanContext;
+import io.micronaut.core.annotation.AnnotationValue;
+import io.micronaut.core.convert.ConversionService;
+import io.micronaut.core.type.Argument;
+import io.micronaut.core.type.ReturnType;
+import io.micronaut.inject.ExecutableMethod;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CacheInterceptorTest {
+
+    private TwoLevelCacheManager cacheManager;
+    private BeanContext beanContext;
+    private JsonCacheCodec codec;
+    private CacheInterceptor interceptor;
+    private MethodInvocationContext<Object, Object> context;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        cacheManager = mock(TwoLevelCacheManager.class);
+        beanContext = mock(BeanContext.class);
+        codec = mock(JsonCacheCodec.class);
+        when(beanContext.getConversionService()).thenReturn(ConversionService.SHARED);
+        when(beanContext.getBean(JsonCacheCodec.class)).thenReturn(codec);
+        interceptor = new CacheInterceptor(cacheManager, beanContext);
+
+        context = mock(MethodInvocationContext.class);
+        ReturnType<Object> returnType = mock(ReturnType.class);
+        when(returnType.asArgument()).thenReturn((Argument) Argument.of(String.class));
+        when(context.getReturnType()).thenReturn(returnType);
+        when(context.getExecutableMethod()).thenReturn(mock(ExecutableMethod.class));
+        when(context.getParameterValues()).thenReturn(new Object[]{"a", 1L});
+        when(context.getParameterValueMap()).thenReturn(Map.of("code", "a", "id", 1L));
+        when(context.proceed()).thenReturn("loaded");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void intercept_Cached_DelegatesWithPolicyAndJoinedKey() {
+        when(context.getAnnotation(Cached.class)).thenReturn(AnnotationValue.builder(Cached.class)
+                .value("f:").member("ttl", "5m").member("localTtl", "0s").build());
+        when(cacheManager.get(any(), anyString(), any(), any())).thenAnswer(inv -> ((Supplier<Object>) inv.getArgument(3)).get());
+
+        assertEquals("loaded", interceptor.intercept(context));
+
+        ArgumentCaptor<TwoLevelCacheManager.CachePolicy> policy = ArgumentCaptor.forClass(TwoLevelCacheManager.CachePolicy.class);
+        verify(cacheManager).get(policy.capture(), eq("a:1"), eq(Argument.of(String.class)), any());
+        assertEquals("f:", policy.getValue().name());
+        assertEquals(Duration.ofMinutes(5), policy.getValue().ttl());
+        assertTrue(policy.getValue().localTtl().isZero());
+        assertSame(codec, policy.getValue().codec());
+    }
+
+    @Test
+    void intercept_CachedWithNamedParameters_UsesThoseOnly() {
+        when(context.getAnnotation(Cached.class)).thenReturn(AnnotationValue.builder(Cached.class)
+                .value("f:").member("parameters", new String[]{"id"}).build());
+
+        interceptor.intercept(context);
+        interceptor.intercept(context);
+
+        verify(cacheManager, times(2)).get(any(), eq("1"), any(), any());
+        // 策略按方法只解析一次
+        verify(beanContext, times(1)).getBean(JsonCacheCodec.class);
+    }
+
+    @Test
+    void intercept_CacheEvict_EvictsEachFamilyAfterProceed() {
+        when(context.getAnnotation(CacheEvict.class)).thenReturn(AnnotationValue.builder(CacheEvict.class)
+                .values("a:", "b:").member("parameters", new String[]{"id"}).build());
+
+        assertEquals("loaded", interceptor.intercept(context));
+
+        verify(cacheManager).evictAfterCommit("a:", "1");
+        verify(cacheManager).evictAfterCommit("b:", "1");
+    }
+
+    @Test
+    void intercept_CacheEvict_MethodFails_KeepsCache() {
+        when(context.getAnnotation(CacheEvict.class)).thenReturn(AnnotationValue.builder(CacheEvict.class)
+                .values("a:").build());
+        when(context.proceed()).thenThrow(new IllegalStateException("fail"));
+
+        assertThrows(IllegalStateException.class, () -> interceptor.intercept(context));
+
+        verify(cacheManager, never()).evictAfterCommit(anyString(), anyString());
+    }
+}
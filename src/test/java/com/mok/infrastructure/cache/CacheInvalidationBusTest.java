@@ -0,0 +1,61 @@
+package com.mok.infrastructure.cache;
+
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.pubsub.RedisPubSubListener;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import io.lettuce.core.pubsub.api.sync.RedisPubSubCommands;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CacheInvalidationBusTest {
+
+    private RedisPubSubCommands<String, String> pubSubCommands;
+    private RedisCommands<String, String> redisCommands;
+    private CacheInvalidationBus bus;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        StatefulRedisPubSubConnection<String, String> connection = mock(StatefulRedisPubSubConnection.class);
+        pubSubCommands = mock(RedisPubSubCommands.class);
+        when(connection.sync()).thenReturn(pubSubCommands);
+        redisCommands = mock(RedisCommands.class);
+        bus = new CacheInvalidationBus(connection, redisCommands);
+        verify(connection).addListener(any(RedisPubSubListener.class));
+    }
+
+    @Test
+    void subscribe_SubscribesChannelOnce() {
+        bus.subscribe("ch", m -> {});
+        bus.subscribe("ch", m -> {});
+
+        verify(pubSubCommands, times(1)).subscribe("ch");
+    }
+
+    @Test
+    void dispatch_NotifiesAllListenersOfChannel() {
+        List<String> received = new ArrayList<>();
+        bus.subscribe("ch", received::add);
+        bus.subscribe("ch", m -> { throw new IllegalStateException("boom"); });
+        bus.subscribe("ch", m -> received.add("second:" + m));
+
+        bus.dispatch("ch", "token");
+        bus.dispatch("other", "ignored");
+
+        assertEquals(List.of("token", "second:token"), received);
+    }
+
+    @Test
+    void publish_RedisFailure_Swallowed() {
+        when(redisCommands.publish("ch", "msg")).thenThrow(new RuntimeException("down"));
+
+        assertDoesNotThrow(() -> bus.publish("ch", "msg"));
+    }
+}
@@ -0,0 +1,47 @@
+package com.mok.infrastructure.cache;
+
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.sync.RedisCommands;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RedisScriptTest {
+
+    private final RedisScript script = new RedisScript("return ARGV[1]", ScriptOutputType.VALUE);
+
+    @Test
+    void sha1_MatchesRedisScriptDigest() {
+        assertEquals("098e0f0d1448c0a81dafe820f66d460eb09263da", script.getSha1());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void execute_UsesEvalsha() {
+        RedisCommands<String, String> redisCommands = mock(RedisCommands.class);
+        when(redisCommands.evalsha(eq(script.getSha1()), eq(ScriptOutputType.VALUE), any(String[].class), any(String[].class)))
+                .thenReturn("v");
+
+        String result = script.execute(redisCommands, new String[]{"k"}, "v");
+
+        assertEquals("v", result);
+        verify(redisCommands, never()).eval(anyString(), any(), any(String[].class), any(String[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void execute_NoScript_FallsBackToEval() {
+        RedisCommands<String, String> redisCommands = mock(RedisCommands.class);
+        when(redisCommands.evalsha(anyString(), any(), any(String[].class), any(String[].class)))
+                .thenThrow(new RedisNoScriptException("NOSCRIPT"));
+        when(redisCommands.eval(eq("return ARGV[1]"), eq(ScriptOutputType.VALUE), any(String[].class), any(String[].class)))
+                .thenReturn("v");
+
+        String result = script.execute(redisCommands, new String[]{"k"}, "v");
+
+        assertEquals("v", result);
+    }
+}
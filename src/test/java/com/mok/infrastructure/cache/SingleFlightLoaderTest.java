@@ -0,0 +1,204 @@
+package com.mok.infrastructure.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.micronaut.core.type.Argument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SingleFlightLoaderTest {
+
+    private static final Duration TTL = Duration.ofSeconds(1000);
+    private static final Argument<String> STRING = Argument.of(String.class);
+
+    private RedisCommands<String, String> redisCommands;
+    private SingleFlightLoader loader;
+    private final CacheCodec codec = new JsonCacheCodec(new ObjectMapper());
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisCommands = mock(RedisCommands.class);
+        loader = new SingleFlightLoader(redisCommands, 0.1, false, Duration.ofMillis(200));
+    }
+
+    @Test
+    void get_CacheHit_SkipsLoader() {
+        when(redisCommands.get("k")).thenReturn("[1,2]");
+
+        Set<Long> result = loader.get("k", TTL, codec, Argument.setOf(Long.class), () -> fail("should not load"));
+
+        assertEquals(Set.of(1L, 2L), result);
+    }
+
+    @Test
+    void get_Miss_LoadsAndWritesWithJitteredTtl() {
+        String result = loader.get("k", TTL, codec, STRING, () -> "v");
+
+        assertEquals("v", result);
+        verify(redisCommands).setex(eq("k"), longThat(ttl -> ttl >= 1000 && ttl < 1100), eq("\"v\""));
+    }
+
+    @Test
+    void get_LoaderReturnsNull_NotCached() {
+        assertNull(loader.get("k", TTL, codec, STRING, () -> null));
+
+        verify(redisCommands, never()).setex(anyString(), anyLong(), anyString());
+    }
+
+    @Test
+    void get_UnreadableCache_Reloads() {
+        when(redisCommands.get("k")).thenReturn("not-json");
+
+        assertEquals("v", loader.get("k", TTL, codec, STRING, () -> "v"));
+    }
+
+    @Test
+    void get_ConcurrentMisses_LoadedOnce() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Callable<String> task = () -> loader.get("k", TTL, codec, STRING, () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return "v";
+            });
+            Future<String> first = executor.submit(task);
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<String> second = executor.submit(task);
+            // 等待第二个请求进入等待状态
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals("v", first.get(5, TimeUnit.SECONDS));
+            assertEquals("v", second.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+        verify(redisCommands, times(1)).setex(anyString(), anyLong(), anyString());
+    }
+
+    @Test
+    void get_LoaderFails_NextCallRetries() {
+        assertThrows(IllegalStateException.class, () -> loader.get("k", TTL, codec, STRING, () -> {
+            throw new IllegalStateException("db down");
+        }));
+
+        assertEquals("v", loader.get("k", TTL, codec, STRING, () -> "v"));
+    }
+
+    @Test
+    void get_LeaseAcquired_LoadsAndReleases() {
+        loader = new SingleFlightLoader(redisCommands, 0.1, true, Duration.ofMillis(200));
+        when(redisCommands.set(eq("k:lease"), anyString(), any(SetArgs.class))).thenReturn("OK");
+
+        assertEquals("v", loader.get("k", TTL, codec, STRING, () -> "v"));
+
+        verify(redisCommands, times(2)).get("k");
+        verify(redisCommands).setex(eq("k"), anyLong(), eq("\"v\""));
+        verify(redisCommands).evalsha(anyString(), eq(ScriptOutputType.INTEGER), eq(new String[]{"k:lease"}), anyString());
+    }
+
+    @Test
+    void get_LeaseHeldElsewhere_WaitsForWriteBack() {
+        loader = new SingleFlightLoader(redisCommands, 0.1, true, Duration.ofSeconds(5));
+        when(redisCommands.set(eq("k:lease"), anyString(), any(SetArgs.class))).thenReturn(null);
+        when(redisCommands.get("k")).thenReturn(null, null, "\"remote\"");
+        when(redisCommands.exists("k:lease")).thenReturn(1L);
+
+        assertEquals("remote", loader.get("k", TTL, codec, STRING, () -> fail("should not load")));
+
+        verify(redisCommands, never()).setex(anyString(), anyLong(), anyString());
+    }
+
+    @Test
+    void get_LeaseReleasedWithoutValue_LoadsLocally() {
+        loader = new SingleFlightLoader(redisCommands, 0.1, true, Duration.ofSeconds(5));
+        when(redisCommands.set(eq("k:lease"), anyString(), any(SetArgs.class))).thenReturn(null);
+        when(redisCommands.exists("k:lease")).thenReturn(0L);
+
+        assertEquals("v", loader.get("k", TTL, codec, STRING, () -> "v"));
+    }
+
+    @Test
+    void loadAll_LoadsOwnedIdsInOneCall() {
+        AtomicInteger calls = new AtomicInteger();
+
+        Map<Long, String> result = loader.loadAll("ns", List.of(1L, 2L), ids -> {
+            calls.incrementAndGet();
+            return ids.stream().filter(id -> id == 1L).collect(Collectors.toMap(id -> id, id -> "v" + id));
+        });
+
+        assertEquals(1, calls.get());
+        assertEquals("v1", result.get(1L));
+        assertTrue(result.containsKey(2L));
+        assertNull(result.get(2L));
+    }
+
+    @Test
+    void loadAll_ConcurrentCallsShareInflightIds() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loadedIds = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Map<Long, String>> first = executor.submit(() -> loader.loadAll("ns", List.of(1L), ids -> {
+                loadedIds.addAndGet(ids.size());
+                loading.countDown();
+                await(release);
+                return Map.of(1L, "v1");
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<Map<Long, String>> second = executor.submit(() -> loader.loadAll("ns", List.of(1L, 2L), ids -> {
+                loadedIds.addAndGet(ids.size());
+                return Map.of(2L, "v2");
+            }));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals(Map.of(1L, "v1"), first.get(5, TimeUnit.SECONDS));
+            assertEquals(Map.of(1L, "v1", 2L, "v2"), second.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2, loadedIds.get());
+    }
+
+    @Test
+    void ttlSeconds_AddsBoundedJitter() {
+        for (int i = 0; i < 100; i++) {
+            long ttl = loader.ttlSeconds(TTL);
+            assertTrue(ttl >= 1000 && ttl < 1100);
+        }
+        SingleFlightLoader noJitter = new SingleFlightLoader(redisCommands, 0, false, Duration.ofSeconds(1));
+        assertEquals(1000, noJitter.ttlSeconds(TTL));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.mok.infrastructure.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mok.infrastructure.common.Const;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.core.type.Argument;
+import io.micronaut.transaction.TransactionOperations;
+import io.micronaut.transaction.TransactionOperationsRegistry;
+import io.micronaut.transaction.TransactionStatus;
+import io.micronaut.transaction.support.TransactionSynchronization;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TwoLevelCacheManagerTest {
+
+    private static final Argument<String> STRING = Argument.of(String.class);
+
+    private RedisCommands<String, String> redisCommands;
+    private CacheInvalidationBus invalidationBus;
+    private MeterRegistry meterRegistry;
+    private TransactionOperations<?> transactionOperations;
+    private TwoLevelCacheManager cacheManager;
+    private Consumer<String> evictListener;
+    private TwoLevelCacheManager.CachePolicy policy;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisCommands = mock(RedisCommands.class);
+        invalidationBus = mock(CacheInvalidationBus.class);
+        meterRegistry = new SimpleMeterRegistry();
+        transactionOperations = mock(TransactionOperations.class);
+        when(transactionOperations.findTransactionStatus()).thenReturn(Optional.empty());
+        TransactionOperationsRegistry registry = mock(TransactionOperationsRegistry.class);
+        when(registry.provideSynchronous(TransactionOperations.class, "default")).thenReturn(transactionOperations);
+        cacheManager = new TwoLevelCacheManager(redisCommands,
+                new SingleFlightLoader(redisCommands, 0, false, Duration.ofSeconds(1)), invalidationBus, meterRegistry, registry);
+
+        ArgumentCaptor<Consumer<String>> captor = ArgumentCaptor.forClass(Consumer.class);
+        verify(invalidationBus).subscribe(eq(Const.Channel.CACHE_EVICT), captor.capture());
+        evictListener = captor.getValue();
+
+        policy = new TwoLevelCacheManager.CachePolicy("f:", Duration.ofSeconds(60), Duration.ofSeconds(30), 100,
+                new JsonCacheCodec(new ObjectMapper()));
+    }
+
+    @Test
+    void get_Miss_LoadsWritesRedisAndKeepsLocalCopy() {
+        assertEquals("v", cacheManager.get(policy, "1", STRING, () -> "v"));
+        assertEquals("v", cacheManager.get(policy, "1", STRING, () -> fail("should not load")));
+
+        verify(redisCommands, times(1)).get("f:1");
+        verify(redisCommands).setex("f:1", 60, "\"v\"");
+        assertEquals(1, count("miss"));
+        assertEquals(1, count("local"));
+        assertEquals(1, meterRegistry.get("cache.loads").tag("family", "f:").timer().count());
+    }
+
+    @Test
+    void get_Collection_LocalCopyIsImmutable() {
+        Argument<Set<Long>> type = Argument.setOf(Long.class);
+        Set<Long> loaded = new HashSet<>(Set.of(1L, 2L));
+
+        Set<Long> first = cacheManager.get(policy, "s", type, () -> loaded);
+        Set<Long> second = cacheManager.get(policy, "s", type, () -> fail("should not load"));
+
+        assertSame(first, second);
+        assertEquals(Set.of(1L, 2L), second);
+        assertThrows(UnsupportedOperationException.class, () -> second.add(3L));
+        loaded.add(3L);
+        assertEquals(Set.of(1L, 2L), second);
+    }
+
+    @Test
+    void get_RedisHit_CountsRedis() {
+        when(redisCommands.get("f:1")).thenReturn("\"remote\"");
+
+        assertEquals("remote", cacheManager.get(policy, "1", STRING, () -> fail("should not load")));
+
+        assertEquals(1, count("redis"));
+        assertEquals(0, count("miss"));
+    }
+
+    @Test
+    void get_NullValue_NotCachedLocally() {
+        assertNull(cacheManager.get(policy, "1", STRING, () -> null));
+        assertEquals("v", cacheManager.get(policy, "1", STRING, () -> "v"));
+
+        assertEquals(2, count("miss"));
+    }
+
+    @Test
+    void get_ZeroLocalTtl_AlwaysReadsRedis() {
+        TwoLevelCacheManager.CachePolicy redisOnly = new TwoLevelCacheManager.CachePolicy("r:", Duration.ofSeconds(60),
+                Duration.ZERO, 100, policy.codec());
+        when(redisCommands.get("r:1")).thenReturn("\"remote\"");
+
+        cacheManager.get(redisOnly, "1", STRING, () -> "v");
+        cacheManager.get(redisOnly, "1", STRING, () -> "v");
+
+        verify(redisCommands, times(2)).get("r:1");
+    }
+
+    @Test
+    void evict_DeletesRedisAndLocalAndBroadcasts() {
+        cacheManager.get(policy, "1", STRING, () -> "v1");
+
+        cacheManager.evict("f:", "1");
+
+        verify(redisCommands).del("f:1");
+        verify(invalidationBus).publish(Const.Channel.CACHE_EVICT, "f:\n1");
+        assertEquals("v2", cacheManager.get(policy, "1", STRING, () -> "v2"));
+    }
+
+    @Test
+    void evictAfterCommit_NoTransaction_EvictsImmediately() {
+        cacheManager.evictAfterCommit("f:", "1");
+
+        verify(redisCommands).del("f:1");
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void evictAfterCommit_InTransaction_EvictsAfterCommit() {
+        TransactionStatus<?> status = mock(TransactionStatus.class);
+        when(transactionOperations.findTransactionStatus()).thenReturn((Optional) Optional.of(status));
+
+        cacheManager.evictAfterCommit("f:", "1");
+
+        ArgumentCaptor<TransactionSynchronization> synchronization = ArgumentCaptor.forClass(TransactionSynchronization.class);
+        verify(status).registerSynchronization(synchronization.capture());
+        verify(redisCommands, never()).del(anyString());
+
+        synchronization.getValue().afterCommit();
+        verify(redisCommands).del("f:1");
+        verify(invalidationBus).publish(Const.Channel.CACHE_EVICT, "f:\n1");
+    }
+
+    @Test
+    void onEvict_RemoteMessage_DropsLocalCopyOnly() {
+        cacheManager.get(policy, "1", STRING, () -> "v1");
+
+        evictListener.accept("f:\n1");
+
+        verify(redisCommands, never()).del(anyString());
+        assertEquals("v2", cacheManager.get(policy, "1", STRING, () -> "v2"));
+    }
+
+    @Test
+    void evict_Batch_SingleDeleteAndBroadcast() {
+        cacheManager.get(policy, "1", STRING, () -> "v1");
+        cacheManager.get(policy, "2", STRING, () -> "v2");
+
+        cacheManager.evict("f:", List.of("1", "2"));
+
+        verify(redisCommands).del("f:1", "f:2");
+        verify(invalidationBus).publish(Const.Channel.CACHE_EVICT, "f:\n1\n2");
+        assertEquals("n1", cacheManager.get(policy, "1", STRING, () -> "n1"));
+        assertEquals("n2", cacheManager.get(policy, "2", STRING, () -> "n2"));
+    }
+
+    @Test
+    void onEvict_BatchMessage_DropsEachLocalCopy() {
+        cacheManager.get(policy, "1", STRING, () -> "v1");
+        cacheManager.get(policy, "2", STRING, () -> "v2");
+
+        evictListener.accept("f:\n1\n2");
+
+        assertEquals("n1", cacheManager.get(policy, "1", STRING, () -> "n1"));
+        assertEquals("n2", cacheManager.get(policy, "2", STRING, () -> "n2"));
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("cache.gets").tag("family", "f:").tag("result", result).counter().count();
+    }
+}
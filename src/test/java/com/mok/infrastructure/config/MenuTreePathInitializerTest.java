@@ -0,0 +1,71 @@
+package com.mok.infrastructure.config;
+
+import com.mok.domain.sys.model.Menu;
+import com.mok.domain.sys.repository.MenuRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MenuTreePathInitializerTest {
+
+    private MenuRepository menuRepository;
+    private MenuTreePathInitializer initializer;
+
+    @BeforeEach
+    void setUp() {
+        menuRepository = mock(MenuRepository.class);
+        initializer = new MenuTreePathInitializer(menuRepository);
+    }
+
+    @Test
+    void onStartup_AllPathsPresent_DoesNothing() {
+        Menu root = menu(1L, null, "/1/");
+        when(menuRepository.findAll()).thenReturn(List.of(root));
+
+        initializer.onApplicationEvent(null);
+
+        verify(menuRepository, never()).updateTreePath(anyLong(), anyString());
+    }
+
+    @Test
+    void onStartup_MissingPaths_BackfilledFromParentChain() {
+        Menu root = menu(1L, null, "/1/");
+        Menu child = menu(2L, root, null);
+        Menu grandChild = menu(3L, child, null);
+        Menu missingParent = menu(4L, menu(99L, null, null), null);
+        when(menuRepository.findAll()).thenReturn(List.of(grandChild, child, root, missingParent));
+
+        initializer.onApplicationEvent(null);
+
+        verify(menuRepository).updateTreePath(2L, "/1/2/");
+        verify(menuRepository).updateTreePath(3L, "/1/2/3/");
+        verify(menuRepository).updateTreePath(4L, "/4/");
+        verify(menuRepository, never()).updateTreePath(eq(1L), anyString());
+    }
+
+    @Test
+    void onStartup_Cycle_TreatedAsRoot() {
+        Menu a = mock(Menu.class);
+        Menu b = menu(2L, a, null);
+        when(a.getId()).thenReturn(1L);
+        when(a.getParent()).thenReturn(b);
+        when(menuRepository.findAll()).thenReturn(List.of(a, b));
+
+        initializer.onApplicationEvent(null);
+
+        verify(menuRepository).updateTreePath(1L, "/2/1/");
+        verify(menuRepository).updateTreePath(2L, "/2/");
+    }
+
+    private static Menu menu(Long id, Menu parent, String treePath) {
+        Menu menu = mock(Menu.class);
+        when(menu.getId()).thenReturn(id);
+        when(menu.getParent()).thenReturn(parent);
+        when(menu.getTreePath()).thenReturn(treePath);
+        return menu;
+    }
+}
@@ -0,0 +1,88 @@
+package com.mok.infrastructure.limiter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MutableHttpResponse;
+import io.micronaut.http.filter.ServerFilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrencyLimitConfig config;
+    private AdaptiveConcurrencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        config = new ConcurrencyLimitConfig();
+        config.setInitialLimit(1);
+        config.setMinLimit(1);
+        filter = new AdaptiveConcurrencyFilter(config, meterRegistry);
+    }
+
+    @Test
+    void doFilter_OverLimit_Returns503() {
+        Sinks.One<MutableHttpResponse<?>> pending = Sinks.one();
+        Mono.from(filter.doFilter(HttpRequest.GET("/api/users"), req -> pending.asMono())).subscribe();
+
+        MutableHttpResponse<?> response = Mono.from(filter.doFilter(HttpRequest.GET("/api/users"), ok())).block();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatus());
+        assertEquals(1.0, meterRegistry.get("http.concurrency.rejected").tag("type", "read").counter().count());
+        assertEquals(1.0, meterRegistry.get("http.concurrency.in-flight").tag("type", "read").gauge().value());
+    }
+
+    @Test
+    void doFilter_ReadAndWriteLimitsAreSeparate() {
+        Sinks.One<MutableHttpResponse<?>> pending = Sinks.one();
+        Mono.from(filter.doFilter(HttpRequest.POST("/api/users", "{}"), req -> pending.asMono())).subscribe();
+
+        MutableHttpResponse<?> read = Mono.from(filter.doFilter(HttpRequest.GET("/api/users"), ok())).block();
+        MutableHttpResponse<?> write = Mono.from(filter.doFilter(HttpRequest.PUT("/api/users/1", "{}"), ok())).block();
+
+        assertEquals(HttpStatus.OK, read.getStatus());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, write.getStatus());
+    }
+
+    @Test
+    void doFilter_Completed_ReleasesPermit() {
+        for (int i = 0; i < 3; i++) {
+            MutableHttpResponse<?> response = Mono.from(filter.doFilter(HttpRequest.GET("/api/users"), ok())).block();
+            assertEquals(HttpStatus.OK, response.getStatus());
+        }
+        assertEquals(0, filter.readLimit().getInFlight());
+        assertEquals(1.0, meterRegistry.get("http.concurrency.limit").tag("type", "read").gauge().value());
+    }
+
+    @Test
+    void doFilter_Error_ReleasesPermit() {
+        Mono<MutableHttpResponse<?>> result = Mono.from(filter.doFilter(HttpRequest.DELETE("/api/users/1"),
+                req -> Mono.error(new IllegalStateException("boom"))));
+
+        assertThrows(IllegalStateException.class, result::block);
+        assertEquals(0, filter.writeLimit().getInFlight());
+    }
+
+    @Test
+    void doFilter_Disabled_PassesThrough() {
+        config.setEnabled(false);
+        Sinks.One<MutableHttpResponse<?>> pending = Sinks.one();
+        Mono.from(filter.doFilter(HttpRequest.GET("/api/users"), req -> pending.asMono())).subscribe();
+
+        MutableHttpResponse<?> response = Mono.from(filter.doFilter(HttpRequest.GET("/api/users"), ok())).block();
+
+        assertEquals(HttpStatus.OK, response.getStatus());
+    }
+
+    private static ServerFilterChain ok() {
+        return req -> Mono.just(HttpResponse.ok());
+    }
+}
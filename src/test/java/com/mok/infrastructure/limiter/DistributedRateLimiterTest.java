@@ -0,0 +1,195 @@
+package com.mok.infrastructure.limiter;
+
+import com.mok.infrastructure.tenant.TenantContextHolder;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.sync.RedisCommands;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DistributedRateLimiterTest {
+
+    @Mock
+    private RedisCommands<String, String> redisCommands;
+
+    private DistributedRateLimitConfig config;
+    private DistributedRateLimiter limiter;
+    private RateLimiter local;
+
+    @BeforeEach
+    void setUp() {
+        config = new DistributedRateLimitConfig();
+        config.setEnabled(true);
+        config.setSlowThreshold(Duration.ofSeconds(5));
+        limiter = new DistributedRateLimiter(redisCommands, config, Runnable::run);
+        local = spy(RateLimiter.of("high", RateLimiterConfig.custom()
+                .limitForPeriod(100)
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .timeoutDuration(Duration.ZERO)
+                .build()));
+    }
+
+    @Test
+    void acquirePermission_Disabled_UsesLocalLimiter() {
+        config.setEnabled(false);
+
+        assertTrue(limiter.acquirePermission(local));
+
+        verify(local).acquirePermission();
+        verifyNoInteractions(redisCommands);
+    }
+
+    @Test
+    void acquirePermission_ConsumesPrefetchedBatchLocally() {
+        stubAcquire(List.of(10L, 0L));
+
+        for (int i = 0; i < 11; i++) {
+            assertTrue(limiter.acquirePermission(local));
+        }
+
+        // 100 次/秒：间隔 10000 微秒，突发 1 秒，每批 10 个
+        verify(redisCommands, times(2)).evalsha(anyString(), eq(ScriptOutputType.MULTI),
+                eq(new String[]{"rate:limit:high"}), eq("10000"), eq("1000000"), eq("10"));
+        verify(local, never()).acquirePermission();
+    }
+
+    @Test
+    void acquirePermission_Exhausted_RejectsWithoutRedisUntilRetry() {
+        stubAcquire(List.of(0L, 60_000_000L));
+
+        assertFalse(limiter.acquirePermission(local));
+        assertFalse(limiter.acquirePermission(local));
+
+        verify(redisCommands, times(1)).evalsha(anyString(), any(), any(String[].class), any(String[].class));
+    }
+
+    @Test
+    void acquirePermission_RedisFails_FallsBackToLocal() {
+        when(redisCommands.evalsha(anyString(), any(), any(String[].class), any(String[].class)))
+                .thenThrow(new RedisCommandTimeoutException("timeout"));
+
+        assertTrue(limiter.acquirePermission(local));
+        assertTrue(limiter.acquirePermission(local));
+
+        verify(redisCommands, times(1)).evalsha(anyString(), any(), any(String[].class), any(String[].class));
+        verify(local, times(2)).acquirePermission();
+    }
+
+    @Test
+    void acquirePermission_RedisSlow_GrantsThenFallsBack() {
+        config.setSlowThreshold(Duration.ZERO);
+        stubAcquire(List.of(10L, 0L));
+
+        assertTrue(limiter.acquirePermission(local));
+        assertTrue(limiter.acquirePermission(local));
+
+        verify(local, times(1)).acquirePermission();
+    }
+
+    @Test
+    void acquirePermission_RefillInFlight_BorrowsAtMostOneBatch() {
+        List<Runnable> pending = new ArrayList<>();
+        limiter = new DistributedRateLimiter(redisCommands, config, pending::add);
+        stubAcquire(List.of(10L, 0L));
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.acquirePermission(local));
+        }
+        assertFalse(limiter.acquirePermission(local));
+        assertEquals(1, pending.size());
+        verify(local, never()).acquirePermission();
+        verifyNoInteractions(redisCommands);
+
+        // 预取到的 10 个全部用于扣还预支
+        pending.getFirst().run();
+        assertTrue(limiter.acquirePermission(local));
+        assertEquals(2, pending.size());
+        verify(local, never()).acquirePermission();
+    }
+
+    @Test
+    void acquirePermission_SlowRefillUnderLoad_StaysNearClusterLimit() throws Exception {
+        // 集群共享 100 个许可，3 个节点、每批 10 个：最多放行 100 + 3 × 10
+        AtomicInteger remaining = new AtomicInteger(100);
+        when(redisCommands.evalsha(anyString(), any(), any(String[].class), any(String[].class))).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            int requested = Integer.parseInt(invocation.getArgument(5));
+            int granted = Math.max(0, Math.min(requested, remaining.getAndAdd(-requested)));
+            return granted > 0 ? List.of((long) granted, 0L) : List.of(0L, 5_000L);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<DistributedRateLimiter> nodes = List.of(
+                    new DistributedRateLimiter(redisCommands, config, executor),
+                    new DistributedRateLimiter(redisCommands, config, executor),
+                    new DistributedRateLimiter(redisCommands, config, executor));
+            AtomicInteger admitted = new AtomicInteger();
+            long deadline = System.nanoTime() + Duration.ofMillis(300).toNanos();
+            List<Future<?>> callers = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                DistributedRateLimiter node = nodes.get(i % nodes.size());
+                RateLimiter nodeLocal = RateLimiter.of("high", local.getRateLimiterConfig());
+                callers.add(executor.submit(() -> {
+                    while (System.nanoTime() - deadline < 0) {
+                        if (node.acquirePermission(nodeLocal)) {
+                            admitted.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> caller : callers) {
+                caller.get(5, TimeUnit.SECONDS);
+            }
+
+            assertTrue(admitted.get() >= 100, "admitted " + admitted.get());
+            assertTrue(admitted.get() <= 130, "admitted " + admitted.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void acquirePermission_UserDimension_KeysByUser() {
+        config.setDimensions(Map.of("high", DistributedRateLimitConfig.Dimension.USER));
+        stubAcquire(List.of(10L, 0L));
+
+        ScopedValue.where(TenantContextHolder.USER_ID, 7L).run(() -> assertTrue(limiter.acquirePermission(local)));
+
+        verify(redisCommands).evalsha(anyString(), any(), eq(new String[]{"rate:limit:high:user:7"}), any(String[].class));
+    }
+
+    @Test
+    void acquirePermission_UserDimensionWithoutUser_UsesLocalLimiter() {
+        config.setDimensions(Map.of("high", DistributedRateLimitConfig.Dimension.USER));
+
+        assertTrue(limiter.acquirePermission(local));
+
+        verify(local).acquirePermission();
+        verifyNoInteractions(redisCommands);
+    }
+
+    private void stubAcquire(List<Long> result) {
+        when(redisCommands.evalsha(anyString(), any(), any(String[].class), any(String[].class)))
+                .thenAnswer(invocation -> result);
+    }
+}
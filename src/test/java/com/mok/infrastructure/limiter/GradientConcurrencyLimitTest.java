@@ -0,0 +1,68 @@
+package com.mok.infrastructure.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradientConcurrencyLimitTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void tryAcquire_RejectsAtLimit() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(2, 1, 10, 0.2, 2.0, 100);
+
+        assertEquals(0, limit.tryAcquire());
+        assertEquals(1, limit.tryAcquire());
+        assertEquals(-1, limit.tryAcquire());
+
+        limit.release();
+        assertEquals(1, limit.getInFlight());
+        assertEquals(1, limit.tryAcquire());
+    }
+
+    @Test
+    void onSample_SteadyLatencyAtCapacity_GrowsLimit() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(10, 1, 100, 0.2, 2.0, 100);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(10 * MS, limit.getLimit() - 1);
+        }
+
+        assertTrue(limit.getLimit() > 10);
+        assertTrue(limit.getLimit() <= 100);
+    }
+
+    @Test
+    void onSample_LowUtilization_KeepsLimit() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(20, 1, 100, 0.2, 2.0, 100);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(10 * MS, 1);
+        }
+
+        assertEquals(20, limit.getLimit());
+    }
+
+    @Test
+    void onSample_LatencyRises_ShrinksLimitToMin() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(50, 5, 100, 0.5, 1.5, 1000);
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(10 * MS, 49);
+        }
+        int before = limit.getLimit();
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(500 * MS, limit.getLimit() - 1);
+        }
+
+        assertTrue(limit.getLimit() < before);
+        assertEquals(5, limit.getLimit());
+    }
+
+    @Test
+    void constructor_ClampsInitialLimit() {
+        assertEquals(10, new GradientConcurrencyLimit(50, 1, 10, 0.2, 2.0, 100).getLimit());
+        assertEquals(4, new GradientConcurrencyLimit(1, 4, 10, 0.2, 2.0, 100).getLimit());
+    }
+}
@@ -0,0 +1,125 @@
+package com.mok.infrastructure.limiter;
+
+import com.mok.application.sys.dto.tenant.TenantDTO;
+import com.mok.application.sys.service.TenantCacheService;
+import com.mok.application.sys.service.TenantPackageService;
+import com.mok.infrastructure.common.Const;
+import com.mok.infrastructure.tenant.TenantContextHolder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KeyedRateLimitersTest {
+
+    @Mock
+    private TenantCacheService tenantCacheService;
+
+    @Mock
+    private TenantPackageService tenantPackageService;
+
+    private KeyedRateLimiters limiters;
+
+    @BeforeEach
+    void setUp() {
+        TenantTiers tenantTiers = new TenantTiers(tenantCacheService, tenantPackageService,
+                List.of(tier("basic", 3, 2), tier(Const.TenantPackageTier.DEFAULT, 100, 0)),
+                Runnable::run,
+                100, Duration.ofMinutes(1));
+        limiters = new KeyedRateLimiters(tenantTiers,
+                new DistributedRateLimiter(null, new DistributedRateLimitConfig(), Runnable::run), 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void acquirePermission_NoTenant_Allows() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiters.acquirePermission());
+        }
+        verifyNoInteractions(tenantCacheService);
+    }
+
+    @Test
+    void acquirePermission_SuperTenant_Allows() {
+        assertTrue(as(Const.SUPER_TENANT_ID, 1L, () -> limiters.acquirePermission()));
+        verifyNoInteractions(tenantCacheService);
+    }
+
+    @Test
+    void acquirePermission_TenantQuotaFromPackageTier() {
+        stubTier("T1", 10L, "basic");
+
+        assertEquals(3, count("T1", null, 10));
+        // 租户配额独立于其他租户
+        stubTier("T2", 20L, "basic");
+        assertEquals(3, count("T2", null, 10));
+        // 档位只加载一次
+        verify(tenantCacheService, times(1)).findByTenantId("T1");
+    }
+
+    @Test
+    void acquirePermission_UserQuotaWithinTenant() {
+        stubTier("T1", 10L, "basic");
+
+        assertEquals(2, count("T1", 1L, 10));
+        assertEquals(1, count("T1", 2L, 10));
+    }
+
+    @Test
+    void acquirePermission_UnknownTier_UsesDefaultTier() {
+        stubTier("T1", 10L, "gold");
+
+        assertEquals(10, count("T1", 1L, 10));
+    }
+
+    @Test
+    void acquirePermission_TierLoadFails_UsesDefaultTier() {
+        when(tenantCacheService.findByTenantId(anyString())).thenThrow(new RuntimeException("db down"));
+
+        assertEquals(10, count("T1", 1L, 10));
+    }
+
+    private int count(String tenantId, Long userId, int attempts) {
+        int allowed = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (as(tenantId, userId, () -> limiters.acquirePermission())) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+
+    private boolean as(String tenantId, Long userId, BooleanSupplier action) {
+        AtomicBoolean result = new AtomicBoolean();
+        ScopedValue.where(TenantContextHolder.TENANT_ID, tenantId)
+                .where(TenantContextHolder.USER_ID, userId)
+                .run(() -> result.set(action.getAsBoolean()));
+        return result.get();
+    }
+
+    private void stubTier(String tenantId, Long packageId, String tier) {
+        TenantDTO tenant = new TenantDTO();
+        tenant.setTenantId(tenantId);
+        tenant.setPackageId(packageId);
+        when(tenantCacheService.findByTenantId(tenantId)).thenReturn(tenant);
+        when(tenantPackageService.getTierByPackage(packageId)).thenReturn(tier);
+    }
+
+    private static RateLimitTier tier(String name, int tenantLimit, int userLimit) {
+        RateLimitTier tier = new RateLimitTier(name);
+        tier.setTenantLimit(tenantLimit);
+        tier.setUserLimit(userLimit);
+        tier.setRefreshPeriod(Duration.ofHours(1));
+        return tier;
+    }
+}
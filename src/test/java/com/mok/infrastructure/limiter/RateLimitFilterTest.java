@@ -14,6 +14,7 @@ import org.mockito.MockitoAnnotations;
 import reactor.core.publisher.Mono;
 
 import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -34,6 +35,11 @@ class RateLimitFilterTest {
 
     private RateLimitConfig config;
 
+    private DistributedRateLimiter distributedRateLimiter;
+
+    @Mock
+    private KeyedRateLimiters keyedRateLimiters;
+
     private RateLimitFilter filter;
 
     @BeforeEach
@@ -42,6 +48,11 @@ class RateLimitFilterTest {
         when(rateLimiterRegistry.rateLimiter("default")).thenReturn(defaultLimiter);
         when(rateLimiterRegistry.rateLimiter("high")).thenReturn(highLimiter);
         when(rateLimiterRegistry.rateLimiter("sensitive")).thenReturn(sensitiveLimiter);
+        when(rateLimiterRegistry.find("high")).thenReturn(Optional.of(highLimiter));
+        when(rateLimiterRegistry.find("sensitive")).thenReturn(Optional.of(sensitiveLimiter));
+
+        distributedRateLimiter = new DistributedRateLimiter(null, new DistributedRateLimitConfig(), Runnable::run);
+        when(keyedRateLimiters.acquirePermission()).thenReturn(true);
 
         config = new RateLimitConfig();
         config.setMappings(Map.of(
@@ -49,7 +60,7 @@ class RateLimitFilterTest {
             "/api/users:post", "sensitive"
         ));
 
-        filter = new RateLimitFilter(rateLimiterRegistry, config);
+        filter = new RateLimitFilter(rateLimiterRegistry, config, distributedRateLimiter, keyedRateLimiters);
     }
 
     /**
@@ -119,4 +130,47 @@ class RateLimitFilterTest {
         assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatus());
         verify(defaultLimiter).acquirePermission();
     }
-}
\ No newline at end of file
+
+    /**
+     * 测试未知限流器名称 - 映射被忽略，使用默认限流器
+     */
+    @Test
+    void testUnknownLimiter_FallsBackToDefault() {
+        config.setMappings(Map.of("/api/unknown/**", "typo"));
+        filter = new RateLimitFilter(rateLimiterRegistry, config, distributedRateLimiter, keyedRateLimiters);
+        when(defaultLimiter.acquirePermission()).thenReturn(true);
+
+        Mono.from(filter.doFilter(HttpRequest.GET("/api/unknown/1"), req -> Mono.just(HttpResponse.ok()))).block();
+
+        verify(defaultLimiter).acquirePermission();
+        verify(rateLimiterRegistry, never()).rateLimiter("typo");
+    }
+
+    /**
+     * 测试配置刷新 - 下次请求时按新映射重新编译
+     */
+    @Test
+    void testRefresh_RecompilesMappings() {
+        config.setMappings(Map.of("/api/other/**", "high"));
+        filter.onRefresh(null);
+        when(highLimiter.acquirePermission()).thenReturn(true);
+
+        Mono.from(filter.doFilter(HttpRequest.GET("/api/other/1"), req -> Mono.just(HttpResponse.ok()))).block();
+
+        verify(highLimiter).acquirePermission();
+    }
+
+    /**
+     * 测试租户配额耗尽 - 不消耗共享限流器的许可
+     */
+    @Test
+    void testKeyedLimited_SkipsSharedLimiter() {
+        when(keyedRateLimiters.acquirePermission()).thenReturn(false);
+
+        MutableHttpResponse<?> response = Mono.from(filter.doFilter(HttpRequest.GET("/api/other"),
+                req -> Mono.just(HttpResponse.ok()))).block();
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatus());
+        verify(defaultLimiter, never()).acquirePermission();
+    }
+}
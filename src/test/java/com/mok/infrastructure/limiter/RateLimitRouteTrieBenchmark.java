@@ -0,0 +1,91 @@
+package com.mok.infrastructure.limiter;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.micronaut.http.HttpMethod;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流映射查找对比：逐条遍历映射并按名称取限流器（原有路径）与预编译前缀树。
+ * <p>
+ * 运行：在 IDE 中执行 main，或 {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.mok.infrastructure.limiter.RateLimitRouteTrieBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimitRouteTrieBenchmark {
+
+    @Param({"100", "500"})
+    public int mappings;
+
+    private Map<String, String> config;
+    private Map<String, RateLimiter> registry;
+    private RateLimitRouteTrie trie;
+    private String hitPath;
+    private String missPath;
+
+    @Setup
+    public void setUp() {
+        registry = new HashMap<>();
+        for (String name : new String[]{"default", "high", "sensitive"}) {
+            registry.put(name, RateLimiter.ofDefaults(name));
+        }
+        config = new LinkedHashMap<>();
+        for (int i = 0; i < mappings; i++) {
+            if (i % 4 == 0) {
+                config.put("/api/module" + i + "/resource:post", "sensitive");
+            } else {
+                config.put("/api/module" + i + "/**", "high");
+            }
+        }
+        trie = RateLimitRouteTrie.compile(config, registry::get, registry.get("default"));
+        hitPath = "/api/module" + (mappings - 1) + "/resource/42";
+        missPath = "/api/users/42";
+    }
+
+    /**
+     * 原有路径：每次请求遍历全部映射，拆分 key 后再按名称取限流器
+     */
+    @Benchmark
+    public RateLimiter[] linearScan() {
+        return new RateLimiter[]{linear("POST", hitPath), linear("GET", missPath)};
+    }
+
+    @Benchmark
+    public RateLimiter[] trie() {
+        return new RateLimiter[]{trie.match(HttpMethod.POST, hitPath), trie.match(HttpMethod.GET, missPath)};
+    }
+
+    private RateLimiter linear(String method, String path) {
+        String name = "default";
+        for (Map.Entry<String, String> entry : config.entrySet()) {
+            String key = entry.getKey();
+            if (key.contains(":")) {
+                String[] parts = key.split(":");
+                if (parts.length == 2 && path.startsWith(parts[0]) && method.equalsIgnoreCase(parts[1])) {
+                    name = entry.getValue();
+                    break;
+                }
+            } else if (path.startsWith(key.replace("/**", ""))) {
+                name = entry.getValue();
+                break;
+            }
+        }
+        return registry.get(name);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RateLimitRouteTrieBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,78 @@
+package com.mok.infrastructure.limiter;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.micronaut.http.HttpMethod;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class RateLimitRouteTrieTest {
+
+    private final Map<String, RateLimiter> limiters = new HashMap<>();
+    private RateLimiter fallback;
+
+    @BeforeEach
+    void setUp() {
+        fallback = mock(RateLimiter.class);
+        limiters.put("high", mock(RateLimiter.class));
+        limiters.put("sensitive", mock(RateLimiter.class));
+        limiters.put("low", mock(RateLimiter.class));
+    }
+
+    @Test
+    void match_PrefixMapping() {
+        RateLimitRouteTrie trie = compile(Map.of("/api/seckill/**", "high"));
+
+        assertSame(limiters.get("high"), trie.match(HttpMethod.GET, "/api/seckill/product"));
+        assertSame(limiters.get("high"), trie.match(HttpMethod.POST, "/api/seckill"));
+        assertSame(fallback, trie.match(HttpMethod.GET, "/api/seck"));
+        assertSame(fallback, trie.match(HttpMethod.GET, "/other"));
+    }
+
+    @Test
+    void match_MethodMapping_CaseInsensitive() {
+        RateLimitRouteTrie trie = compile(Map.of("/api/users:post", "sensitive"));
+
+        assertSame(limiters.get("sensitive"), trie.match(HttpMethod.POST, "/api/users"));
+        assertSame(limiters.get("sensitive"), trie.match(HttpMethod.POST, "/api/users/1"));
+        assertSame(fallback, trie.match(HttpMethod.GET, "/api/users"));
+    }
+
+    @Test
+    void match_LongestPrefixAndMethodWin() {
+        RateLimitRouteTrie trie = compile(Map.of(
+                "/api/**", "low",
+                "/api/users/**", "high",
+                "/api/users:delete", "sensitive"));
+
+        assertSame(limiters.get("low"), trie.match(HttpMethod.GET, "/api/roles"));
+        assertSame(limiters.get("high"), trie.match(HttpMethod.GET, "/api/users/1"));
+        assertSame(limiters.get("sensitive"), trie.match(HttpMethod.DELETE, "/api/users/1"));
+    }
+
+    @Test
+    void compile_SkipsUnknownLimiterAndMalformedKeys() {
+        RateLimitRouteTrie trie = compile(Map.of(
+                "/api/a/**", "missing",
+                "/api/b:get:post", "high"));
+
+        assertSame(fallback, trie.match(HttpMethod.GET, "/api/a/1"));
+        assertSame(fallback, trie.match(HttpMethod.GET, "/api/b"));
+    }
+
+    @Test
+    void compile_NullMappings_UsesFallback() {
+        RateLimitRouteTrie trie = RateLimitRouteTrie.compile(null, limiters::get, fallback);
+
+        assertSame(fallback, trie.match(HttpMethod.GET, "/api/users"));
+    }
+
+    private RateLimitRouteTrie compile(Map<String, String> mappings) {
+        return RateLimitRouteTrie.compile(mappings, limiters::get, fallback);
+    }
+}
@@ -0,0 +1,99 @@
+package com.mok.infrastructure.limiter;
+
+import com.mok.application.sys.dto.tenant.TenantDTO;
+import com.mok.application.sys.service.TenantCacheService;
+import com.mok.application.sys.service.TenantPackageService;
+import com.mok.infrastructure.common.Const;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TenantTiersTest {
+
+    @Mock
+    private TenantCacheService tenantCacheService;
+
+    @Mock
+    private TenantPackageService tenantPackageService;
+
+    private TenantTiers tenantTiers;
+
+    @BeforeEach
+    void setUp() {
+        tenantTiers = new TenantTiers(tenantCacheService, tenantPackageService,
+                List.of(new RateLimitTier("basic"), new RateLimitTier(Const.TenantPackageTier.DEFAULT)),
+                Runnable::run,
+                100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void resolve_UsesPackageTierAndCachesIt() {
+        stubTenant("T1", 10L);
+        when(tenantPackageService.getTierByPackage(10L)).thenReturn("basic");
+
+        assertEquals("basic", tenantTiers.resolve("T1").getName());
+        assertEquals("basic", tenantTiers.resolve("T1").getName());
+
+        verify(tenantCacheService, times(1)).findByTenantId("T1");
+    }
+
+    @Test
+    void resolve_UnknownTier_UsesDefault() {
+        stubTenant("T1", 10L);
+        when(tenantPackageService.getTierByPackage(10L)).thenReturn("gold");
+
+        assertEquals(Const.TenantPackageTier.DEFAULT, tenantTiers.resolve("T1").getName());
+    }
+
+    @Test
+    void resolve_TenantWithoutPackage_UsesDefault() {
+        stubTenant("T1", null);
+
+        assertEquals(Const.TenantPackageTier.DEFAULT, tenantTiers.resolve("T1").getName());
+        verifyNoInteractions(tenantPackageService);
+    }
+
+    @Test
+    void resolve_LoadFails_UsesDefault() {
+        when(tenantCacheService.findByTenantId(anyString())).thenThrow(new RuntimeException("db down"));
+
+        assertEquals(Const.TenantPackageTier.DEFAULT, tenantTiers.resolve("T1").getName());
+    }
+
+    @Test
+    void resolve_WhileLoading_UsesDefaultWithoutWaiting() {
+        stubTenant("T1", 10L);
+        when(tenantPackageService.getTierByPackage(10L)).thenReturn("basic");
+        List<Runnable> pending = new ArrayList<>();
+        TenantTiers asyncTiers = new TenantTiers(tenantCacheService, tenantPackageService,
+                List.of(new RateLimitTier("basic"), new RateLimitTier(Const.TenantPackageTier.DEFAULT)),
+                pending::add, 100, Duration.ofMinutes(1));
+
+        CompletableFuture<RateLimitTier> loaded = asyncTiers.resolveAsync("T1");
+        assertEquals(Const.TenantPackageTier.DEFAULT, asyncTiers.resolve("T1").getName());
+        assertFalse(loaded.isDone());
+
+        pending.forEach(Runnable::run);
+        assertEquals("basic", loaded.join().getName());
+        assertEquals("basic", asyncTiers.resolve("T1").getName());
+    }
+
+    private void stubTenant(String tenantId, Long packageId) {
+        TenantDTO tenant = new TenantDTO();
+        tenant.setTenantId(tenantId);
+        tenant.setPackageId(packageId);
+        when(tenantCacheService.findByTenantId(tenantId)).thenReturn(tenant);
+    }
+}
@@ -0,0 +1,181 @@
+package com.mok.infrastructure.security;
+
+import com.mok.application.sys.dto.tenant.TenantDTO;
+import com.mok.application.sys.service.TenantCacheService;
+import com.mok.infrastructure.tenant.TenantContextHolder;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MutableHttpResponse;
+import io.micronaut.http.filter.ServerFilterChain;
+import io.micronaut.security.authentication.Authentication;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ApiPermissionFilterTest {
+
+    private ApiPermissionMatcher permissionMatcher;
+    private AuthorizationEngine authorizationEngine;
+    private TenantCacheService tenantCacheService;
+    private ExecutorService blockingExecutor;
+    private ApiPermissionFilter filter;
+    private HttpRequest<?> request;
+    private ServerFilterChain chain;
+
+    @BeforeEach
+    void setUp() {
+        permissionMatcher = mock(ApiPermissionMatcher.class);
+        authorizationEngine = mock(AuthorizationEngine.class);
+        tenantCacheService = mock(TenantCacheService.class);
+        blockingExecutor = Executors.newSingleThreadExecutor();
+        filter = new ApiPermissionFilter(permissionMatcher, authorizationEngine, tenantCacheService,
+                blockingExecutor, Duration.ofMinutes(1));
+        request = mock(HttpRequest.class);
+        when(request.getMethodName()).thenReturn("GET");
+        when(request.getPath()).thenReturn("/api/users");
+        chain = mock(ServerFilterChain.class);
+        when(chain.proceed(any())).thenReturn(Mono.just(HttpResponse.ok()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        blockingExecutor.shutdownNow();
+    }
+
+    @Test
+    void doFilter_Anonymous_Proceeds() {
+        when(request.getUserPrincipal(Authentication.class)).thenReturn(Optional.empty());
+
+        assertEquals(HttpStatus.OK, execute().getStatus());
+        verifyNoInteractions(permissionMatcher);
+    }
+
+    @Test
+    void doFilter_UnconfiguredPath_Proceeds() {
+        authenticate(Map.of("roleIds", Set.of(1L)));
+        when(permissionMatcher.match("GET", "/api/users")).thenReturn(null);
+
+        assertEquals(HttpStatus.OK, execute().getStatus());
+        verifyNoInteractions(authorizationEngine);
+    }
+
+    @Test
+    void doFilter_GrantedByAnyRole_Proceeds() {
+        authenticate(Map.of("roleIds", Set.of(1L)));
+        when(permissionMatcher.match("GET", "/api/users")).thenReturn(List.of("user:list", "user:all"));
+        when(authorizationEngine.hasAuthority(Set.of(1L), null, "user:all")).thenReturn(true);
+
+        assertEquals(HttpStatus.OK, execute().getStatus());
+    }
+
+    @Test
+    void doFilter_NotGranted_Returns403() {
+        authenticate(Map.of("roleIds", List.of(1, 2)));
+        when(permissionMatcher.match("GET", "/api/users")).thenReturn(List.of("user:list"));
+
+        assertEquals(HttpStatus.FORBIDDEN, execute().getStatus());
+        verify(authorizationEngine).hasAuthority(Set.of(1L, 2L), null, "user:list");
+        verify(chain, never()).proceed(any());
+    }
+
+    @Test
+    void doFilter_NoRoles_Returns403() {
+        authenticate(Map.of());
+        when(permissionMatcher.match("GET", "/api/users")).thenReturn(List.of("user:list"));
+
+        assertEquals(HttpStatus.FORBIDDEN, execute().getStatus());
+    }
+
+    @Test
+    void doFilter_Admins_Proceed() {
+        when(permissionMatcher.match("GET", "/api/users")).thenReturn(List.of("user:list"));
+
+        authenticate(Map.of("isSuperAdmin", true));
+        assertEquals(HttpStatus.OK, execute().getStatus());
+
+        authenticate(Map.of("isTenantAdmin", true));
+        assertEquals(HttpStatus.OK, execute().getStatus());
+
+        verify(authorizationEngine, never()).hasAuthority(any(), any(), anyString());
+    }
+
+    @Test
+    void doFilter_RestrictedByTenantPackage() {
+        authenticate(Map.of("roleIds", Set.of(1L), "tenantId", "t1"));
+        when(permissionMatcher.match("GET", "/api/users")).thenReturn(List.of("user:list"));
+        TenantDTO tenant = new TenantDTO();
+        tenant.setPackageId(100L);
+        when(tenantCacheService.findByTenantId("t1")).thenReturn(tenant);
+
+        assertEquals(HttpStatus.FORBIDDEN, execute().getStatus());
+        verify(authorizationEngine).hasAuthority(Set.of(1L), 100L, "user:list");
+    }
+
+    @Test
+    void doFilter_BitsLoaded_ChecksOnCallerThread() {
+        authenticate(Map.of("roleIds", Set.of(1L), "tenantId", "t1"));
+        when(permissionMatcher.match("GET", "/api/users")).thenReturn(List.of("user:list"));
+        when(tenantCacheService.findByTenantId("t1")).thenReturn(new TenantDTO());
+        when(authorizationEngine.hasAuthority(Set.of(1L), null, "user:list")).thenReturn(true);
+        execute();
+
+        when(authorizationEngine.isLoaded(Set.of(1L), null)).thenReturn(true);
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        when(chain.proceed(any())).thenAnswer(invocation -> {
+            thread.set(Thread.currentThread());
+            return Mono.just(HttpResponse.ok());
+        });
+
+        assertEquals(HttpStatus.OK, execute().getStatus());
+        assertSame(Thread.currentThread(), thread.get());
+        verify(tenantCacheService, times(1)).findByTenantId("t1");
+    }
+
+    @Test
+    void doFilter_BitsMissed_ChecksOnBlockingThreadWithTenantContext() {
+        authenticate(Map.of("roleIds", Set.of(1L)));
+        when(permissionMatcher.match("GET", "/api/users")).thenReturn(List.of("user:list"));
+        when(authorizationEngine.hasAuthority(Set.of(1L), null, "user:list")).thenReturn(true);
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        AtomicReference<String> tenantId = new AtomicReference<>();
+        when(chain.proceed(any())).thenAnswer(invocation -> {
+            thread.set(Thread.currentThread());
+            tenantId.set(TenantContextHolder.getTenantId());
+            return Mono.just(HttpResponse.ok());
+        });
+
+        AtomicReference<MutableHttpResponse<?>> response = new AtomicReference<>();
+        ScopedValue.where(TenantContextHolder.TENANT_ID, "t1").run(() -> response.set(execute()));
+
+        assertEquals(HttpStatus.OK, response.get().getStatus());
+        assertNotSame(Thread.currentThread(), thread.get());
+        assertEquals("t1", tenantId.get());
+    }
+
+    private void authenticate(Map<String, Object> attributes) {
+        Authentication auth = mock(Authentication.class);
+        when(auth.getAttributes()).thenReturn(attributes);
+        when(request.getUserPrincipal(Authentication.class)).thenReturn(Optional.of(auth));
+    }
+
+    @SuppressWarnings("unchecked")
+    private MutableHttpResponse<?> execute() {
+        return ((Mono<MutableHttpResponse<?>>) filter.doFilter(request, chain)).block();
+    }
+}
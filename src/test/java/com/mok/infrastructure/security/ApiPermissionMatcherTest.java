@@ -0,0 +1,97 @@
+package com.mok.infrastructure.security;
+
+import com.mok.application.sys.dto.permission.PermissionUrlDTO;
+import com.mok.application.sys.event.ApiPermissionChangedEvent;
+import com.mok.domain.sys.repository.PermissionRepository;
+import com.mok.infrastructure.cache.CacheInvalidationBus;
+import com.mok.infrastructure.common.Const;
+import io.micronaut.context.event.StartupEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ApiPermissionMatcherTest {
+
+    private PermissionRepository permissionRepository;
+    private CacheInvalidationBus invalidationBus;
+    private List<Runnable> pending;
+    private ApiPermissionMatcher matcher;
+    private Consumer<String> remoteListener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        permissionRepository = mock(PermissionRepository.class);
+        invalidationBus = mock(CacheInvalidationBus.class);
+        pending = new ArrayList<>();
+        matcher = new ApiPermissionMatcher(permissionRepository, invalidationBus, pending::add);
+        ArgumentCaptor<Consumer<String>> captor = ArgumentCaptor.forClass(Consumer.class);
+        verify(invalidationBus).subscribe(eq(Const.Channel.PERMISSION_CHANGED), captor.capture());
+        remoteListener = captor.getValue();
+
+        when(permissionRepository.findAllUrlRules())
+                .thenReturn(List.of(new PermissionUrlDTO("user:list", "/api/users", "GET")));
+    }
+
+    @Test
+    void match_LoadsOnceThenServesFromSnapshot() {
+        assertEquals(List.of("user:list"), matcher.match("GET", "/api/users"));
+        assertNull(matcher.match("GET", "/api/roles"));
+
+        verify(permissionRepository, times(1)).findAllUrlRules();
+    }
+
+    @Test
+    void onStartup_CompilesBeforeFirstRequest() {
+        matcher.onApplicationEvent(mock(StartupEvent.class));
+        verify(permissionRepository, times(1)).findAllUrlRules();
+
+        assertEquals(List.of("user:list"), matcher.match("GET", "/api/users"));
+        verify(permissionRepository, times(1)).findAllUrlRules();
+    }
+
+    @Test
+    void onApiPermissionChanged_SchedulesSingleRebuildAndPublishes() {
+        matcher.onApiPermissionChanged(new ApiPermissionChangedEvent(1L));
+        remoteListener.accept("");
+
+        assertEquals(1, pending.size());
+        verify(invalidationBus).publish(Const.Channel.PERMISSION_CHANGED, "");
+
+        when(permissionRepository.findAllUrlRules())
+                .thenReturn(List.of(new PermissionUrlDTO("role:list", "/api/roles", "GET")));
+        pending.getFirst().run();
+
+        assertNull(matcher.match("GET", "/api/users"));
+        assertEquals(List.of("role:list"), matcher.match("GET", "/api/roles"));
+
+        // 执行后允许再次调度
+        remoteListener.accept("");
+        assertEquals(2, pending.size());
+    }
+
+    @Test
+    void rebuild_FailureKeepsPreviousSnapshot() {
+        matcher.match("GET", "/api/users");
+        when(permissionRepository.findAllUrlRules()).thenThrow(new RuntimeException("db down"));
+
+        matcher.rebuild();
+
+        assertEquals(List.of("user:list"), matcher.match("GET", "/api/users"));
+    }
+
+    @Test
+    void match_InitialLoadFailure_Throws() {
+        when(permissionRepository.findAllUrlRules()).thenThrow(new RuntimeException("db down"));
+
+        assertThrows(RuntimeException.class, () -> matcher.match("GET", "/api/users"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.mok.infrastructure.security;
+
+import io.lettuce.core.api.sync.RedisCommands;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AuthoritySetCacheTest {
+
+    private RedisCommands<String, String> redisCommands;
+    private AuthoritySetCache authoritySetCache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisCommands = mock(RedisCommands.class);
+        authoritySetCache = new AuthoritySetCache(redisCommands, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void serialize_OrderIndependent() {
+        String a = authoritySetCache.serialize(List.of("user:list", "role:list"));
+        String b = authoritySetCache.serialize(Set.of("role:list", "user:list"));
+
+        assertEquals("role:list\nuser:list", a);
+        assertEquals(a, b);
+        assertEquals(authoritySetCache.digest(a), authoritySetCache.digest(b));
+        assertEquals(32, authoritySetCache.digest(a).length());
+    }
+
+    @Test
+    void digest_DifferentContentDiffers() {
+        assertNotEquals(authoritySetCache.digest("user:list"), authoritySetCache.digest("user:create"));
+    }
+
+    @Test
+    void resolve_LoadsFromRedisOnceThenCachesLocally() {
+        when(redisCommands.get("auth:authorities:d1")).thenReturn("role:list\nuser:list");
+
+        assertEquals(List.of("role:list", "user:list"), authoritySetCache.resolve("d1"));
+        assertEquals(List.of("role:list", "user:list"), authoritySetCache.resolve("d1"));
+
+        verify(redisCommands, times(1)).get("auth:authorities:d1");
+    }
+
+    @Test
+    void resolve_EmptySet() {
+        when(redisCommands.get("auth:authorities:d1")).thenReturn("");
+
+        assertEquals(List.of(), authoritySetCache.resolve("d1"));
+    }
+
+    @Test
+    void resolve_Missing_ReturnsNull() {
+        assertNull(authoritySetCache.resolve("d1"));
+    }
+
+    @Test
+    void put_SkipsRedis() {
+        authoritySetCache.put("d1", List.of("user:list"));
+
+        assertEquals(List.of("user:list"), authoritySetCache.resolve("d1"));
+        verifyNoInteractions(redisCommands);
+    }
+}
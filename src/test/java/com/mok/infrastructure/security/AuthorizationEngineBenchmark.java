@@ -0,0 +1,109 @@
+package com.mok.infrastructure.security;
+
+import com.mok.application.sys.dto.permission.RolePermissionCodeDTO;
+import com.mok.domain.sys.repository.PermissionRepository;
+import com.mok.infrastructure.cache.CacheInvalidationBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 权限判定对比：按请求合并角色权限为 {@code Set<String>} 后查找（原有路径）与位图判定。
+ * <p>
+ * 运行：在 IDE 中执行 main，或 {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.mok.infrastructure.security.AuthorizationEngineBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizationEngineBenchmark {
+
+    private static final int ROLES = 3;
+
+    @Param({"20", "200"})
+    public int permissionsPerRole;
+
+    private Map<Long, List<String>> rolePerms;
+    private Set<Long> roleIds;
+    private Set<String> authorities;
+    private AuthorizationEngine engine;
+    private long[] compiled;
+    private String granted;
+    private String denied;
+
+    @Setup
+    public void setUp() {
+        rolePerms = new HashMap<>();
+        List<RolePermissionCodeDTO> rows = new ArrayList<>();
+        List<String> packageCodes = new ArrayList<>();
+        for (long roleId = 1; roleId <= ROLES; roleId++) {
+            List<String> codes = new ArrayList<>();
+            for (int i = 0; i < permissionsPerRole; i++) {
+                String code = "module" + roleId + ":resource" + i + ":action";
+                codes.add(code);
+                rows.add(new RolePermissionCodeDTO(roleId, code));
+                packageCodes.add(code);
+            }
+            rolePerms.put(roleId, codes);
+        }
+        roleIds = rolePerms.keySet();
+
+        authorities = new HashSet<>();
+        rolePerms.values().forEach(authorities::addAll);
+
+        PermissionRepository permissionRepository = mock(PermissionRepository.class);
+        when(permissionRepository.findCodesByRoleIds(anyCollection())).thenReturn(rows);
+        when(permissionRepository.findCodesByPackageId(anyLong())).thenReturn(packageCodes);
+        engine = new AuthorizationEngine(permissionRepository, mock(CacheInvalidationBus.class));
+        compiled = engine.compile(roleIds, 1L);
+
+        granted = "module" + ROLES + ":resource" + (permissionsPerRole - 1) + ":action";
+        denied = "module9:resource0:action";
+    }
+
+    /**
+     * 原有路径：每次请求合并角色权限列表再查找
+     */
+    @Benchmark
+    public boolean stringSetPerRequest() {
+        Set<String> result = new HashSet<>();
+        for (Long roleId : roleIds) {
+            result.addAll(rolePerms.get(roleId));
+        }
+        return result.contains(granted) & !result.contains(denied);
+    }
+
+    /**
+     * 会话中已合并好的权限集合
+     */
+    @Benchmark
+    public boolean stringSetPrecomputed() {
+        return authorities.contains(granted) & !authorities.contains(denied);
+    }
+
+    @Benchmark
+    public boolean bitsetPerRequest() {
+        return engine.hasAuthority(roleIds, 1L, granted) & !engine.hasAuthority(roleIds, 1L, denied);
+    }
+
+    @Benchmark
+    public boolean bitsetPrecomputed() {
+        return engine.hasAuthority(compiled, granted) & !engine.hasAuthority(compiled, denied);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AuthorizationEngineBenchmark.class.getSimpleName()).build()).run();
+    }
+}
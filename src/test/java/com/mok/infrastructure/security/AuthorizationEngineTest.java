@@ -0,0 +1,167 @@
+package com.mok.infrastructure.security;
+
+import com.mok.application.sys.dto.permission.RolePermissionCodeDTO;
+import com.mok.application.sys.event.AuthorizationChangedEvent;
+import com.mok.domain.sys.repository.PermissionRepository;
+import com.mok.infrastructure.cache.CacheInvalidationBus;
+import com.mok.infrastructure.common.Const;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AuthorizationEngineTest {
+
+    private PermissionRepository permissionRepository;
+    private CacheInvalidationBus invalidationBus;
+    private AuthorizationEngine engine;
+    private Consumer<String> remoteListener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        permissionRepository = mock(PermissionRepository.class);
+        invalidationBus = mock(CacheInvalidationBus.class);
+        engine = new AuthorizationEngine(permissionRepository, invalidationBus);
+        ArgumentCaptor<Consumer<String>> captor = ArgumentCaptor.forClass(Consumer.class);
+        verify(invalidationBus).subscribe(eq(Const.Channel.AUTHORIZATION_INVALIDATE), captor.capture());
+        remoteListener = captor.getValue();
+
+        when(permissionRepository.findCodesByRoleIds(anyCollection())).thenAnswer(invocation -> {
+            List<RolePermissionCodeDTO> rows = new ArrayList<>();
+            for (Object roleId : (Iterable<?>) invocation.getArgument(0)) {
+                if (roleId.equals(1L)) {
+                    rows.add(new RolePermissionCodeDTO(1L, "user:list"));
+                    rows.add(new RolePermissionCodeDTO(1L, "user:create"));
+                } else if (roleId.equals(2L)) {
+                    rows.add(new RolePermissionCodeDTO(2L, "role:list"));
+                }
+            }
+            return rows;
+        });
+        when(permissionRepository.findCodesByPackageId(100L)).thenReturn(List.of("user:list", "role:list"));
+    }
+
+    @Test
+    void hasAuthority_UnionOfRoles() {
+        assertTrue(engine.hasAuthority(Set.of(1L, 2L), null, "user:create"));
+        assertTrue(engine.hasAuthority(Set.of(1L, 2L), null, "role:list"));
+        assertFalse(engine.hasAuthority(Set.of(1L), null, "role:list"));
+        assertFalse(engine.hasAuthority(Set.of(1L, 2L), null, "unknown"));
+        assertFalse(engine.hasAuthority(Set.of(), null, "user:list"));
+    }
+
+    @Test
+    void hasAuthority_RestrictedByPackage() {
+        assertTrue(engine.hasAuthority(Set.of(1L), 100L, "user:list"));
+        assertFalse(engine.hasAuthority(Set.of(1L), 100L, "user:create"));
+    }
+
+    @Test
+    void compile_IntersectsRolesWithPackage() {
+        long[] bits = engine.compile(Set.of(1L, 2L), 100L);
+
+        assertTrue(engine.hasAuthority(bits, "user:list"));
+        assertTrue(engine.hasAuthority(bits, "role:list"));
+        assertFalse(engine.hasAuthority(bits, "user:create"));
+    }
+
+    @Test
+    void compilePackage_ContainsAllPackagePermissions() {
+        long[] bits = engine.compilePackage(100L);
+
+        assertTrue(engine.hasAuthority(bits, "user:list"));
+        assertTrue(engine.hasAuthority(bits, "role:list"));
+        assertFalse(engine.hasAuthority(bits, "user:create"));
+    }
+
+    @Test
+    void roleBits_LoadedOnceAndBatched() {
+        engine.hasAuthority(Set.of(1L, 2L), null, "user:list");
+        engine.hasAuthority(Set.of(1L, 2L), null, "role:list");
+
+        verify(permissionRepository, times(1)).findCodesByRoleIds(anyCollection());
+    }
+
+    @Test
+    void evictRole_ReloadsAndPublishes() {
+        engine.hasAuthority(Set.of(1L), null, "user:list");
+
+        engine.evictRole(1L);
+        engine.hasAuthority(Set.of(1L), null, "user:list");
+
+        verify(permissionRepository, times(2)).findCodesByRoleIds(anyCollection());
+        verify(invalidationBus).publish(Const.Channel.AUTHORIZATION_INVALIDATE, "role:1");
+    }
+
+    @Test
+    void evictPackage_ReloadsAndPublishes() {
+        engine.hasAuthority(Set.of(1L), 100L, "user:list");
+        when(permissionRepository.findCodesByPackageId(100L)).thenReturn(List.of("user:create"));
+
+        engine.evictPackage(100L);
+
+        assertFalse(engine.hasAuthority(Set.of(1L), 100L, "user:list"));
+        assertTrue(engine.hasAuthority(Set.of(1L), 100L, "user:create"));
+        verify(invalidationBus).publish(Const.Channel.AUTHORIZATION_INVALIDATE, "package:100");
+    }
+
+    @Test
+    void removePermission_DeniesImmediately() {
+        long[] bits = engine.compile(Set.of(1L), null);
+
+        engine.removePermission("user:list");
+
+        assertFalse(engine.hasAuthority(bits, "user:list"));
+        assertTrue(engine.hasAuthority(bits, "user:create"));
+        verify(invalidationBus).publish(Const.Channel.AUTHORIZATION_INVALIDATE, "permission:user:list");
+    }
+
+    @Test
+    void onAuthorizationChanged_EvictsRolesAndRemovesCodes() {
+        long[] bits = engine.compile(Set.of(1L, 2L), null);
+
+        engine.onAuthorizationChanged(AuthorizationChangedEvent.ofRemovedPermissions(Set.of(1L), Set.of("user:list")));
+
+        assertFalse(engine.hasAuthority(bits, "user:list"));
+        engine.hasAuthority(Set.of(1L), null, "user:create");
+        verify(permissionRepository, times(2)).findCodesByRoleIds(anyCollection());
+        verify(invalidationBus).publish(Const.Channel.AUTHORIZATION_INVALIDATE, "role:1");
+        verify(invalidationBus).publish(Const.Channel.AUTHORIZATION_INVALIDATE, "permission:user:list");
+    }
+
+    @Test
+    void remoteMessage_EvictsRole() {
+        engine.hasAuthority(Set.of(2L), null, "role:list");
+
+        remoteListener.accept("role:2");
+        engine.hasAuthority(Set.of(2L), null, "role:list");
+
+        verify(permissionRepository, times(2)).findCodesByRoleIds(anyCollection());
+    }
+
+    @Test
+    void compile_ManyPermissions_SpansMultipleWords() {
+        List<RolePermissionCodeDTO> rows = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            rows.add(new RolePermissionCodeDTO(3L, "perm:" + i));
+        }
+        when(permissionRepository.findCodesByRoleIds(List.of(3L))).thenReturn(rows);
+
+        long[] bits = engine.compile(Set.of(3L), null);
+
+        assertTrue(bits.length >= 4);
+        assertTrue(engine.hasAuthority(bits, "perm:0"));
+        assertTrue(engine.hasAuthority(bits, "perm:199"));
+        assertFalse(engine.hasAuthority(bits, "perm:200"));
+    }
+}
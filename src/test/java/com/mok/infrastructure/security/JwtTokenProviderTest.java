@@ -1,12 +1,19 @@
 package com.mok.infrastructure.security;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.lettuce.core.ScanIterator;
-import io.lettuce.core.ScanArgs;
+import com.mok.application.exception.BizException;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.Limit;
+import io.lettuce.core.Range;
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.ScriptOutputType;
 import io.lettuce.core.api.sync.RedisCommands;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
+import java.time.Duration;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -15,247 +22,390 @@ import static org.mockito.Mockito.*;
 
 class JwtTokenProviderTest {
 
+    private static final String SESSION_JSON = "{\"token\":\"testToken\",\"username\":\"user\",\"tenantId\":\"tenant1\",\"ip\":\"127.0.0.1\",\"browser\":\"Chrome\",\"loginTime\":1234567890}";
+
     private RedisCommands<String, String> redisCommands;
     private ObjectMapper objectMapper;
+    private TokenSessionCache sessionCache;
+    private AuthoritySetCache authoritySetCache;
     private JwtTokenProvider jwtTokenProvider;
 
     @BeforeEach
-    void setUp() {
+    void setUp() throws Exception {
         redisCommands = mock(RedisCommands.class);
         objectMapper = new ObjectMapper();
-        jwtTokenProvider = new JwtTokenProvider(redisCommands, objectMapper);
+        sessionCache = mock(TokenSessionCache.class);
+        authoritySetCache = new AuthoritySetCache(redisCommands, 100, Duration.ofMinutes(1));
+        jwtTokenProvider = new JwtTokenProvider(redisCommands, new TokenSessionCodec(objectMapper, "json"), sessionCache, authoritySetCache);
+        setField("jwtExpirationInMs", 7_200_000L);
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        var field = JwtTokenProvider.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(jwtTokenProvider, value);
+    }
+
+    private void stubSession(String tokenKey, String json, long ttl) {
+        when(redisCommands.evalsha(anyString(), eq(ScriptOutputType.MULTI), argThat((String[] keys) -> keys[0].equals(tokenKey)), any(String[].class)))
+                .thenReturn(json == null ? null : List.of(json, ttl));
+    }
+
+    private void stubOnlineCount(String onlineKey, long count) {
+        when(redisCommands.evalsha(anyString(), eq(ScriptOutputType.INTEGER), eq(new String[]{onlineKey}), any(String[].class)))
+                .thenReturn(count);
+    }
+
+    private void stubTouch(long result) {
+        when(redisCommands.evalsha(anyString(), eq(ScriptOutputType.INTEGER), argThat((String[] keys) -> keys.length == 2), eq("7200")))
+                .thenReturn(result);
     }
 
     @Test
     void createToken_AllowMultiDevice_Success() throws Exception {
-        try {
-            var allowMultiDeviceField = JwtTokenProvider.class.getDeclaredField("allowMultiDevice");
-            allowMultiDeviceField.setAccessible(true);
-            allowMultiDeviceField.set(jwtTokenProvider, true);
-        } catch (Exception e) {
-            fail("Failed to set private field", e);
-        }
-
-        String username = "testuser";
-        String tenantId = "tenant1";
-        CustomUserDetail principal = mock(CustomUserDetail.class);
-        String ip = "127.0.0.1";
-        String browser = "Chrome";
-
-        String token = jwtTokenProvider.createToken(username, tenantId, principal, ip, browser);
+        setField("allowMultiDevice", true);
+        CustomUserDetail principal = new CustomUserDetail(1L, "testuser", null, "tenant1", Set.of(), false, List.of());
+
+        String token = jwtTokenProvider.createToken("testuser", "tenant1", principal, "127.0.0.1", "Chrome");
 
         assertNotNull(token);
-        verify(redisCommands).setex(anyString(), anyLong(), anyString());
-        verify(redisCommands).sadd(anyString(), eq(token));
-        verify(redisCommands).expire(anyString(), anyLong());
+        ArgumentCaptor<String[]> keys = ArgumentCaptor.forClass(String[].class);
+        ArgumentCaptor<String[]> args = ArgumentCaptor.forClass(String[].class);
+        verify(redisCommands).evalsha(anyString(), eq(ScriptOutputType.VALUE), keys.capture(), args.capture());
+        String digest = authoritySetCache.digest("");
+        assertArrayEquals(new String[]{"user:tokens:tenant1:testuser", "auth:token:" + token, "auth:online:tenant1", "auth:online-all", "auth:authorities:" + digest}, keys.getValue());
+        assertEquals(token, args.getValue()[0]);
+        assertEquals("7200", args.getValue()[2]);
+        assertEquals("1", args.getValue()[3]);
+        verify(sessionCache, never()).invalidate(anyString());
+        verifyNoMoreInteractions(redisCommands);
     }
 
     @Test
-    void createToken_NotAllowMultiDevice_Success() throws Exception {
-        // Set allowMultiDevice to false
-        try {
-            var allowMultiDeviceField = JwtTokenProvider.class.getDeclaredField("allowMultiDevice");
-            allowMultiDeviceField.setAccessible(true);
-            allowMultiDeviceField.set(jwtTokenProvider, false);
-        } catch (Exception e) {
-            fail("Failed to set private field", e);
-        }
-
-        String username = "testuser";
-        String tenantId = "tenant1";
-        CustomUserDetail principal = mock(CustomUserDetail.class);
-        String ip = "127.0.0.1";
-        String browser = "Chrome";
-
-        when(redisCommands.get(anyString())).thenReturn("oldToken");
-
-        String token = jwtTokenProvider.createToken(username, tenantId, principal, ip, browser);
+    void createToken_StoresAuthoritiesOnceByDigest() throws Exception {
+        CustomUserDetail principal = new CustomUserDetail(1L, "testuser", null, "tenant1", Set.of(2L), false,
+                List.of("user:list", "role:list"));
+
+        jwtTokenProvider.createToken("testuser", "tenant1", principal, "127.0.0.1", "Chrome");
+
+        ArgumentCaptor<String[]> keys = ArgumentCaptor.forClass(String[].class);
+        ArgumentCaptor<String[]> args = ArgumentCaptor.forClass(String[].class);
+        verify(redisCommands).evalsha(anyString(), eq(ScriptOutputType.VALUE), keys.capture(), args.capture());
+        String digest = authoritySetCache.digest("role:list\nuser:list");
+        assertEquals("auth:authorities:" + digest, keys.getValue()[4]);
+        assertEquals("role:list\nuser:list", args.getValue()[6]);
+        String sessionData = args.getValue()[1];
+        assertFalse(sessionData.contains("user:list"));
+        assertTrue(sessionData.contains(digest));
+    }
+
+    @Test
+    void createToken_NotAllowMultiDevice_InvalidatesOldToken() throws Exception {
+        setField("allowMultiDevice", false);
+        when(redisCommands.evalsha(anyString(), eq(ScriptOutputType.VALUE), any(String[].class), any(String[].class)))
+                .thenReturn("oldToken");
+
+        String token = jwtTokenProvider.createToken("testuser", "tenant1", null, "127.0.0.1", "Chrome");
 
         assertNotNull(token);
-        verify(redisCommands).get(anyString());
-        verify(redisCommands).del(anyString());
-        verify(redisCommands).setex(anyString(), anyLong(), anyString());
-        verify(redisCommands).set(anyString(), eq(token));
-        verify(redisCommands).expire(anyString(), anyLong());
+        ArgumentCaptor<String[]> args = ArgumentCaptor.forClass(String[].class);
+        verify(redisCommands).evalsha(anyString(), eq(ScriptOutputType.VALUE), any(String[].class), args.capture());
+        assertEquals("0", args.getValue()[3]);
+        verify(sessionCache).invalidate("oldToken");
     }
 
     @Test
-    void getSession_ValidToken_ReturnsSession() throws Exception {
-        String token = "testToken";
-        String sessionJson = "{\"token\":\"testToken\",\"username\":\"user\",\"tenantId\":\"tenant1\",\"ip\":\"127.0.0.1\",\"browser\":\"Chrome\",\"loginTime\":1234567890}";
-        TokenSessionDTO expectedSession = new TokenSessionDTO("user", "tenant1", null, "127.0.0.1", "Chrome", 1234567890);
+    void createToken_ScriptNotLoaded_FallsBackToEval() throws Exception {
+        when(redisCommands.evalsha(anyString(), eq(ScriptOutputType.VALUE), any(String[].class), any(String[].class)))
+                .thenThrow(new RedisNoScriptException("NOSCRIPT"));
 
-        when(redisCommands.get(anyString())).thenReturn(sessionJson);
-        when(redisCommands.ttl(anyString())).thenReturn(700L); // > 600, no refresh
+        jwtTokenProvider.createToken("testuser", "tenant1", null, "127.0.0.1", "Chrome");
 
-        TokenSessionDTO session = jwtTokenProvider.getSession(token);
+        verify(redisCommands).eval(contains("SADD"), eq(ScriptOutputType.VALUE), any(String[].class), any(String[].class));
+    }
+
+    @Test
+    void getSession_ValidToken_ReturnsSession() {
+        stubSession("auth:token:testToken", SESSION_JSON, 700L);
+
+        TokenSessionDTO session = jwtTokenProvider.getSession("testToken");
 
         assertNotNull(session);
         assertEquals("user", session.getUsername());
         assertEquals("tenant1", session.getTenantId());
-        verify(redisCommands, never()).expire(anyString(), anyLong());
+        verify(redisCommands, times(1)).evalsha(anyString(), any(), any(String[].class), any(String[].class));
+        verifyNoMoreInteractions(redisCommands);
     }
 
     @Test
-    void getSession_TokenNeedsRefresh_Refreshes() throws Exception {
-        String token = "testToken";
-        String sessionJson = "{\"token\":\"testToken\",\"username\":\"user\",\"tenantId\":\"tenant1\",\"ip\":\"127.0.0.1\",\"browser\":\"Chrome\",\"loginTime\":1234567890}";
-        TokenSessionDTO expectedSession = new TokenSessionDTO("user", "tenant1", null, "127.0.0.1", "Chrome", 1234567890);
+    void getSession_PassesRefreshArgumentsToScript() {
+        stubSession("auth:token:testToken", SESSION_JSON, 7200L);
+
+        jwtTokenProvider.getSession("testToken");
 
-        when(redisCommands.get(anyString())).thenReturn(sessionJson);
-        when(redisCommands.ttl(anyString())).thenReturn(300L); // < 600, refresh
+        ArgumentCaptor<String[]> args = ArgumentCaptor.forClass(String[].class);
+        verify(redisCommands).evalsha(anyString(), eq(ScriptOutputType.MULTI), any(String[].class), args.capture());
+        assertArrayEquals(new String[]{"600", "7200", "user:tokens:", "auth:authorities:"}, args.getValue());
+    }
+
+    @Test
+    void getSession_BinaryEncoded_ReturnsSession() throws Exception {
+        TokenSessionCodec binaryCodec = new TokenSessionCodec(objectMapper, "binary");
+        TokenSessionDTO stored = new TokenSessionDTO("user", "tenant1", null, "127.0.0.1", "Chrome", 1234567890);
+        stubSession("auth:token:testToken", binaryCodec.encode(stored), 700L);
 
-        TokenSessionDTO session = jwtTokenProvider.getSession(token);
+        TokenSessionDTO session = jwtTokenProvider.getSession("testToken");
 
         assertNotNull(session);
         assertEquals("user", session.getUsername());
-        verify(redisCommands, times(2)).expire(anyString(), anyLong());
+        assertEquals("testToken", session.getToken());
     }
 
     @Test
-    void getSession_TokenExpired_NoRefresh() throws Exception {
-        String token = "testToken";
-        String sessionJson = "{\"token\":\"testToken\",\"username\":\"user\",\"tenantId\":\"tenant1\",\"ip\":\"127.0.0.1\",\"browser\":\"Chrome\",\"loginTime\":1234567890}";
-        TokenSessionDTO expectedSession = new TokenSessionDTO("user", "tenant1", null, "127.0.0.1", "Chrome", 1234567890);
+    void getSession_SharedAuthorities_Resolved() {
+        String digest = authoritySetCache.digest("role:list\nuser:list");
+        stubSession("auth:token:testToken", "{\"username\":\"user\",\"tenantId\":\"tenant1\",\"authoritiesRef\":\"" + digest
+                + "\",\"principal\":{\"userId\":1,\"username\":\"user\"}}", 700L);
+        when(redisCommands.get("auth:authorities:" + digest)).thenReturn("role:list\nuser:list");
 
-        when(redisCommands.get(anyString())).thenReturn(sessionJson);
-        when(redisCommands.ttl(anyString())).thenReturn(-1L); // Expired
-
-        TokenSessionDTO session = jwtTokenProvider.getSession(token);
+        TokenSessionDTO session = jwtTokenProvider.getSession("testToken");
 
         assertNotNull(session);
-        assertEquals("user", session.getUsername());
-        verify(redisCommands, never()).expire(anyString(), anyLong());
+        assertEquals(List.of("role:list", "user:list"), List.copyOf(session.getPrincipal().authrizes()));
+        assertEquals(1L, session.getPrincipal().userId());
     }
 
     @Test
-    void getSession_TokenNotExpired_NoRefresh() throws Exception {
-        String token = "testToken";
-        String sessionJson = "{\"token\":\"testToken\",\"username\":\"user\",\"tenantId\":\"tenant1\",\"ip\":\"127.0.0.1\",\"browser\":\"Chrome\",\"loginTime\":1234567890}";
-        TokenSessionDTO expectedSession = new TokenSessionDTO("user", "tenant1", null, "127.0.0.1", "Chrome", 1234567890);
+    void getSession_SharedAuthoritiesMissing_ReturnsNull() {
+        stubSession("auth:token:testToken", "{\"username\":\"user\",\"tenantId\":\"tenant1\",\"authoritiesRef\":\"abc\","
+                + "\"principal\":{\"userId\":1,\"username\":\"user\"}}", 700L);
+
+        assertNull(jwtTokenProvider.getSession("testToken"));
+        verify(sessionCache, never()).put(anyString(), any(), anyLong());
+    }
+
+    @Test
+    void getSession_CacheHitNearExpiry_RefreshesSharedAuthorities() {
+        TokenSessionDTO cached = new TokenSessionDTO("user", "tenant1", null, "127.0.0.1", "Chrome", 1234567890);
+        cached.setAuthoritiesRef("abc");
+        when(sessionCache.get("testToken"))
+                .thenReturn(new TokenSessionCache.Entry(cached, System.currentTimeMillis() + 300_000));
+        when(redisCommands.evalsha(anyString(), eq(ScriptOutputType.INTEGER), any(String[].class), eq("7200"))).thenReturn(1L);
+
+        jwtTokenProvider.getSession("testToken");
+
+        ArgumentCaptor<String[]> keys = ArgumentCaptor.forClass(String[].class);
+        verify(redisCommands).evalsha(anyString(), eq(ScriptOutputType.INTEGER), keys.capture(), eq("7200"));
+        assertArrayEquals(new String[]{"auth:token:testToken", "user:tokens:tenant1:user", "auth:authorities:abc"}, keys.getValue());
+    }
 
-        when(redisCommands.get(anyString())).thenReturn(sessionJson);
-        when(redisCommands.ttl(anyString())).thenReturn(700L); // > 600, no refresh
+    @Test
+    void getSession_NoExpire_CachedWithoutDeadline() {
+        stubSession("auth:token:testToken", SESSION_JSON, -1L);
 
-        TokenSessionDTO session = jwtTokenProvider.getSession(token);
+        TokenSessionDTO session = jwtTokenProvider.getSession("testToken");
 
         assertNotNull(session);
-        assertEquals("user", session.getUsername());
-        verify(redisCommands, never()).expire(anyString(), anyLong());
+        verify(sessionCache).put("testToken", session, Long.MAX_VALUE);
     }
 
     @Test
-    void getSession_InvalidJson_ReturnsNull() {
-        String token = "testToken";
-        String invalidJson = "invalid json";
+    void getSession_LoadedFromRedis_PutsIntoCache() {
+        stubSession("auth:token:testToken", SESSION_JSON, 700L);
+
+        TokenSessionDTO session = jwtTokenProvider.getSession("testToken");
 
-        when(redisCommands.get(anyString())).thenReturn(invalidJson);
+        verify(sessionCache).put(eq("testToken"), same(session), longThat(expireAt -> expireAt > System.currentTimeMillis()));
+    }
+
+    @Test
+    void getSession_CacheHit_SkipsRedis() {
+        TokenSessionDTO cached = new TokenSessionDTO("user", "tenant1", null, "127.0.0.1", "Chrome", 1234567890);
+        when(sessionCache.get("testToken"))
+                .thenReturn(new TokenSessionCache.Entry(cached, System.currentTimeMillis() + 3_600_000));
 
-        TokenSessionDTO session = jwtTokenProvider.getSession(token);
+        TokenSessionDTO session = jwtTokenProvider.getSession("testToken");
 
-        assertNull(session);
+        assertSame(cached, session);
+        verifyNoInteractions(redisCommands);
     }
 
     @Test
-    void getSession_NoData_ReturnsNull() {
-        String token = "testToken";
+    void getSession_CacheHitNearExpiry_RefreshesRedis() {
+        TokenSessionDTO cached = new TokenSessionDTO("user", "tenant1", null, "127.0.0.1", "Chrome", 1234567890);
+        when(sessionCache.get("testToken"))
+                .thenReturn(new TokenSessionCache.Entry(cached, System.currentTimeMillis() + 300_000));
+        stubTouch(1L);
+
+        TokenSessionDTO session = jwtTokenProvider.getSession("testToken");
+
+        assertSame(cached, session);
+        ArgumentCaptor<String[]> keys = ArgumentCaptor.forClass(String[].class);
+        verify(redisCommands).evalsha(anyString(), eq(ScriptOutputType.INTEGER), keys.capture(), eq("7200"));
+        assertArrayEquals(new String[]{"auth:token:testToken", "user:tokens:tenant1:user"}, keys.getValue());
+        verify(sessionCache).put(eq("testToken"), same(cached), anyLong());
+    }
 
-        when(redisCommands.get(anyString())).thenReturn(null);
+    @Test
+    void getSession_CacheHitButRemovedInRedis_ReturnsNull() {
+        TokenSessionDTO cached = new TokenSessionDTO("user", "tenant1", null, "127.0.0.1", "Chrome", 1234567890);
+        when(sessionCache.get("testToken"))
+                .thenReturn(new TokenSessionCache.Entry(cached, System.currentTimeMillis() + 300_000));
+        stubTouch(0L);
 
-        TokenSessionDTO session = jwtTokenProvider.getSession(token);
+        TokenSessionDTO session = jwtTokenProvider.getSession("testToken");
 
         assertNull(session);
+        verify(sessionCache).invalidate("testToken");
     }
 
     @Test
-    void getAllOnlineUsers_SuperUser_ReturnsAll() {
-        Map<String, String> tenantMap = Map.of("tenant1", "Tenant One");
-        String currentTenantId = "tenant1";
-        boolean isSuper = true;
+    void getSession_InvalidJson_ReturnsNull() {
+        stubSession("auth:token:testToken", "invalid json", 700L);
 
-        ScanIterator<String> scanIterator = mock(ScanIterator.class);
-        when(scanIterator.hasNext()).thenReturn(true, false);
-        when(scanIterator.next()).thenReturn("auth:token:token1");
+        TokenSessionDTO session = jwtTokenProvider.getSession("testToken");
 
-        try (var mockedStatic = mockStatic(ScanIterator.class)) {
-            mockedStatic.when(() -> ScanIterator.scan(any(), any(ScanArgs.class))).thenReturn(scanIterator);
+        assertNull(session);
+        verify(sessionCache, never()).put(anyString(), any(), anyLong());
+    }
 
-            when(redisCommands.get(anyString())).thenReturn("{\"username\":\"user1\",\"tenantId\":\"tenant1\"}");
+    @Test
+    void getSession_NoData_ReturnsNull() {
+        stubSession("auth:token:testToken", null, 0L);
 
-            List<OnlineUserDTO> result = jwtTokenProvider.getAllOnlineUsers(tenantMap, currentTenantId, isSuper);
+        TokenSessionDTO session = jwtTokenProvider.getSession("testToken");
 
-            assertNotNull(result);
-        }
+        assertNull(session);
     }
 
     @Test
-    void getAllOnlineUsers_NonSuperUser_ReturnsFiltered() {
-        Map<String, String> tenantMap = Map.of("tenant1", "Tenant One", "tenant2", "Tenant Two");
-        String currentTenantId = "tenant1";
-        boolean isSuper = false;
+    void getOnlineUsers_FirstPage_GroupsSessionsByUser() {
+        when(redisCommands.zrevrangebyscoreWithScores(eq("auth:online:tenant1"), any(Range.class), any(Limit.class)))
+                .thenReturn(List.of(
+                        ScoredValue.just(3000, "token3"),
+                        ScoredValue.just(2000, "token2"),
+                        ScoredValue.just(1000, "token1")));
+        when(redisCommands.mget("auth:token:token3", "auth:token:token2", "auth:token:token1")).thenReturn(List.of(
+                KeyValue.just("auth:token:token3", "{\"username\":\"user1\",\"tenantId\":\"tenant1\",\"loginTime\":3000,\"principal\":{\"userId\":1}}"),
+                KeyValue.just("auth:token:token2", "{\"username\":\"user2\",\"tenantId\":\"tenant1\",\"loginTime\":2000,\"principal\":{\"userId\":2}}"),
+                KeyValue.just("auth:token:token1", "{\"username\":\"user1\",\"tenantId\":\"tenant1\",\"loginTime\":1000,\"principal\":{\"userId\":1}}")));
+        stubOnlineCount("auth:online:tenant1", 3L);
+
+        OnlineUserPageDTO page = jwtTokenProvider.getOnlineUsers("tenant1", id -> "Tenant One", "", 10);
+
+        assertEquals(3, page.total());
+        assertNull(page.nextCursor());
+        assertEquals(2, page.records().size());
+        OnlineUserDTO first = page.records().getFirst();
+        assertEquals(1L, first.userId());
+        assertEquals("Tenant One", first.tenantName());
+        assertEquals(List.of("token3", "token1"), first.sessions().stream().map(OnlineUserDTO.SessionDetail::id).toList());
+        assertEquals(2L, page.records().get(1).userId());
+        verify(redisCommands, never()).zrem(anyString(), any(String[].class));
+    }
 
-        ScanIterator<String> scanIterator = mock(ScanIterator.class);
-        when(scanIterator.hasNext()).thenReturn(true, true, true, false);
-        when(scanIterator.next()).thenReturn("auth:token:token1", "auth:token:token2", "auth:token:token3");
+    @Test
+    void getOnlineUsers_ExpiredSessions_RemovedFromIndex() {
+        when(redisCommands.zrevrangebyscoreWithScores(eq("auth:online:tenant1"), any(Range.class), any(Limit.class)))
+                .thenReturn(List.of(ScoredValue.just(2000, "token2"), ScoredValue.just(1000, "token1")));
+        when(redisCommands.mget(any(String[].class))).thenReturn(List.of(
+                KeyValue.empty("auth:token:token2"),
+                KeyValue.just("auth:token:token1", "{\"username\":\"user1\",\"tenantId\":\"tenant1\",\"principal\":{\"userId\":1}}")));
 
-        try (var mockedStatic = mockStatic(ScanIterator.class)) {
-            mockedStatic.when(() -> ScanIterator.scan(any(), any(ScanArgs.class))).thenReturn(scanIterator);
+        OnlineUserPageDTO page = jwtTokenProvider.getOnlineUsers("tenant1", id -> "Tenant One", "", 10);
 
-            when(redisCommands.get("auth:token:token1")).thenReturn("{\"username\":\"user1\",\"tenantId\":\"tenant1\",\"principal\":{\"userId\":1,\"username\":\"user1\",\"tenantId\":\"tenant1\"}}");
-            when(redisCommands.get("auth:token:token2")).thenReturn("{\"username\":\"user2\",\"tenantId\":\"tenant2\",\"principal\":{\"userId\":2,\"username\":\"user2\",\"tenantId\":\"tenant2\"}}");
-            when(redisCommands.get("auth:token:token3")).thenReturn("{\"username\":\"user3\",\"tenantId\":\"tenant1\",\"principal\":null}");
+        assertEquals(1, page.records().size());
+        verify(redisCommands).zrem("auth:online:tenant1", "token2");
+    }
 
-            List<OnlineUserDTO> result = jwtTokenProvider.getAllOnlineUsers(tenantMap, currentTenantId, isSuper);
+    @Test
+    void getOnlineUsers_FullPage_ReturnsCursorCountingSameLoginTime() {
+        when(redisCommands.zrevrangebyscoreWithScores(eq("auth:online:tenant1"), any(Range.class), any(Limit.class)))
+                .thenReturn(List.of(ScoredValue.just(2000, "token3"), ScoredValue.just(1000, "token2")));
+        when(redisCommands.mget(any(String[].class))).thenReturn(List.of(
+                KeyValue.just("auth:token:token3", "{}"),
+                KeyValue.just("auth:token:token2", "{}")));
+
+        OnlineUserPageDTO page = jwtTokenProvider.getOnlineUsers("tenant1", id -> "Tenant One", "1000-1", 2);
+
+        ArgumentCaptor<Range<Long>> range = ArgumentCaptor.forClass(Range.class);
+        ArgumentCaptor<Limit> limit = ArgumentCaptor.forClass(Limit.class);
+        verify(redisCommands).zrevrangebyscoreWithScores(eq("auth:online:tenant1"), range.capture(), limit.capture());
+        assertEquals(1000L, range.getValue().getUpper().getValue());
+        assertTrue(range.getValue().getUpper().isIncluding());
+        assertEquals(1, limit.getValue().getOffset());
+        assertEquals(2, limit.getValue().getCount());
+        assertEquals("1000-2", page.nextCursor());
+    }
 
-            assertNotNull(result);
-            assertEquals(1, result.size());
-            assertEquals("user1", result.getFirst().username());
-            assertEquals("tenant1", result.getFirst().tenantId());
-        }
+    @Test
+    void getOnlineUsers_TotalCountsLiveSessionsOnly() {
+        stubOnlineCount("auth:online:tenant1", 2L);
+        long before = System.currentTimeMillis();
+
+        OnlineUserPageDTO page = jwtTokenProvider.getOnlineUsers("tenant1", id -> "Tenant One", "", 10);
+
+        // 统计脚本清理已过期的索引项后再计数，不使用 ZCARD
+        assertEquals(2, page.total());
+        ArgumentCaptor<String[]> args = ArgumentCaptor.forClass(String[].class);
+        verify(redisCommands).evalsha(anyString(), eq(ScriptOutputType.INTEGER), eq(new String[]{"auth:online:tenant1"}), args.capture());
+        assertEquals("auth:token:", args.getValue()[0]);
+        long cutoff = Long.parseLong(args.getValue()[1]);
+        assertTrue(cutoff >= before - 7_200_000L && cutoff <= System.currentTimeMillis() - 7_200_000L);
+        verify(redisCommands, never()).zcard(anyString());
     }
 
     @Test
-    void removeToken_AllowMultiDevice_RemovesFromSet() {
-        // Set allowMultiDevice to true
-        try {
-            var allowMultiDeviceField = JwtTokenProvider.class.getDeclaredField("allowMultiDevice");
-            allowMultiDeviceField.setAccessible(true);
-            allowMultiDeviceField.set(jwtTokenProvider, true);
-        } catch (Exception e) {
-            fail("Failed to set private field", e);
-        }
+    void getOnlineUsers_AllTenants_UsesGlobalIndexAndResolvesEachTenantName() {
+        when(redisCommands.zrevrangebyscoreWithScores(eq("auth:online-all"), any(Range.class), any(Limit.class)))
+                .thenReturn(List.of(ScoredValue.just(2000, "token2"), ScoredValue.just(1000, "token1")));
+        when(redisCommands.mget("auth:token:token2", "auth:token:token1")).thenReturn(List.of(
+                KeyValue.just("auth:token:token2", "{\"username\":\"admin\",\"tenantId\":\"tenant2\",\"principal\":{\"userId\":1}}"),
+                KeyValue.just("auth:token:token1", "{\"username\":\"admin\",\"tenantId\":\"tenant1\",\"principal\":{\"userId\":1}}")));
+        stubOnlineCount("auth:online-all", 2L);
+
+        OnlineUserPageDTO page = jwtTokenProvider.getOnlineUsers(null, id -> "Name of " + id, "", 10);
+
+        // 不同租户的同一用户 ID 不合并
+        assertEquals(2, page.total());
+        assertEquals(List.of("Name of tenant2", "Name of tenant1"), page.records().stream().map(OnlineUserDTO::tenantName).toList());
+    }
 
-        String token = "testToken";
-        TokenSessionDTO session = new TokenSessionDTO("user", "tenant1", null, "127.0.0.1", "Chrome", 1234567890);
+    @Test
+    void getOnlineUsers_InvalidCursor_Throws() {
+        assertThrows(BizException.class, () -> jwtTokenProvider.getOnlineUsers("tenant1", id -> "Tenant One", "abc", 10));
+    }
 
-        when(redisCommands.get(anyString())).thenReturn("{\"username\":\"user\",\"tenantId\":\"tenant1\"}");
+    @Test
+    void removeToken_AllowMultiDevice_RemovesFromSet() throws Exception {
+        setField("allowMultiDevice", true);
+        stubSession("auth:token:testToken", "{\"username\":\"user\",\"tenantId\":\"tenant1\"}", 700L);
 
-        jwtTokenProvider.removeToken(token);
+        jwtTokenProvider.removeToken("testToken");
 
-        verify(redisCommands).del(anyString());
-        verify(redisCommands).srem(anyString(), eq(token));
+        ArgumentCaptor<String[]> keys = ArgumentCaptor.forClass(String[].class);
+        verify(redisCommands).evalsha(anyString(), eq(ScriptOutputType.INTEGER), keys.capture(), eq("testToken"), eq("1"));
+        assertArrayEquals(new String[]{"auth:token:testToken", "user:tokens:tenant1:user", "auth:online:tenant1", "auth:online-all"}, keys.getValue());
+        verify(sessionCache).invalidate("testToken");
     }
 
     @Test
     void removeToken_NotAllowMultiDevice_RemovesKey() {
-        String token = "testToken";
-        TokenSessionDTO session = new TokenSessionDTO("user", "tenant1", null, "127.0.0.1", "Chrome", 1234567890);
-
-        when(redisCommands.get(anyString())).thenReturn("{\"username\":\"user\",\"tenantId\":\"tenant1\"}");
+        stubSession("auth:token:testToken", "{\"username\":\"user\",\"tenantId\":\"tenant1\"}", 700L);
 
-        jwtTokenProvider.removeToken(token);
+        jwtTokenProvider.removeToken("testToken");
 
-        verify(redisCommands, times(2)).del(anyString());
+        verify(redisCommands).evalsha(anyString(), eq(ScriptOutputType.INTEGER), any(String[].class), eq("testToken"), eq("0"));
+        verify(sessionCache).invalidate("testToken");
     }
 
     @Test
     void removeToken_NoSession_DoesNothing() {
-        String token = "testToken";
-
-        when(redisCommands.get(anyString())).thenReturn(null);
+        stubSession("auth:token:testToken", null, 0L);
 
-        jwtTokenProvider.removeToken(token);
+        jwtTokenProvider.removeToken("testToken");
 
-        verify(redisCommands, never()).del(anyString());
+        verify(redisCommands, never()).evalsha(anyString(), eq(ScriptOutputType.INTEGER), any(String[].class), any(String[].class));
+        verify(sessionCache, never()).invalidate(anyString());
     }
 }
@@ -0,0 +1,61 @@
+package com.mok.infrastructure.security;
+
+import com.mok.application.sys.dto.permission.PermissionUrlDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PermissionUrlTrieTest {
+
+    private final PermissionUrlTrie trie = PermissionUrlTrie.compile(List.of(
+            new PermissionUrlDTO("user:list", "/api/users", "GET"),
+            new PermissionUrlDTO("user:create", "/api/users", "POST"),
+            new PermissionUrlDTO("user:update", "/api/users/{id}", "PUT"),
+            new PermissionUrlDTO("user:export", "/api/users/export", "GET"),
+            new PermissionUrlDTO("user:detail", "/api/users/*", "GET"),
+            new PermissionUrlDTO("role:all", "/api/roles/**", null),
+            new PermissionUrlDTO("role:all-alias", "/api/roles/**", "ALL"),
+            new PermissionUrlDTO("file:download", "/api/files/**/raw", "get"),
+            new PermissionUrlDTO("ignored", "", "GET")
+    ));
+
+    @Test
+    void match_LiteralWithMethod() {
+        assertEquals(List.of("user:list"), trie.match("GET", "/api/users"));
+        assertEquals(List.of("user:create"), trie.match("post", "/api/users/"));
+        assertNull(trie.match("DELETE", "/api/users"));
+    }
+
+    @Test
+    void match_LiteralPreferredOverVariable() {
+        assertEquals(List.of("user:export"), trie.match("GET", "/api/users/export"));
+        assertEquals(List.of("user:detail"), trie.match("GET", "/api/users/42"));
+        assertEquals(List.of("user:update"), trie.match("PUT", "/api/users/42"));
+    }
+
+    @Test
+    void match_BacktracksToVariableWhenLiteralHasNoMethod() {
+        assertEquals(List.of("user:update"), trie.match("PUT", "/api/users/export"));
+    }
+
+    @Test
+    void match_DoubleWildcardMatchesAnyDepthAndMethod() {
+        assertEquals(List.of("role:all", "role:all-alias"), trie.match("DELETE", "/api/roles/1/menus"));
+        assertEquals(List.of("role:all", "role:all-alias"), trie.match("GET", "/api/roles"));
+    }
+
+    @Test
+    void match_DoubleWildcardInMiddle() {
+        assertEquals(List.of("file:download"), trie.match("GET", "/api/files/a/b/raw"));
+        assertEquals(List.of("file:download"), trie.match("GET", "/api/files/raw"));
+        assertNull(trie.match("GET", "/api/files/a/b"));
+    }
+
+    @Test
+    void match_UnconfiguredPath_ReturnsNull() {
+        assertNull(trie.match("GET", "/api/menus"));
+        assertNull(trie.match("GET", "/api/users/1/roles"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.mok.infrastructure.security;
+
+import com.mok.infrastructure.cache.CacheInvalidationBus;
+import com.mok.infrastructure.common.Const;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TokenSessionCacheTest {
+
+    private CacheInvalidationBus invalidationBus;
+    private TokenSessionCache sessionCache;
+    private Consumer<String> remoteListener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        invalidationBus = mock(CacheInvalidationBus.class);
+        sessionCache = new TokenSessionCache(invalidationBus, 100, Duration.ofMinutes(1));
+        ArgumentCaptor<Consumer<String>> captor = ArgumentCaptor.forClass(Consumer.class);
+        verify(invalidationBus).subscribe(eq(Const.Channel.TOKEN_INVALIDATE), captor.capture());
+        remoteListener = captor.getValue();
+    }
+
+    @Test
+    void get_AfterPut_ReturnsEntry() {
+        TokenSessionDTO session = new TokenSessionDTO("user", "tenant1", null, "127.0.0.1", "Chrome", 1L);
+        long expireAt = System.currentTimeMillis() + 60_000;
+
+        sessionCache.put("token", session, expireAt);
+
+        TokenSessionCache.Entry entry = sessionCache.get("token");
+        assertNotNull(entry);
+        assertSame(session, entry.session());
+        assertEquals(expireAt, entry.expireAt());
+    }
+
+    @Test
+    void get_ExpiredInRedis_ReturnsNull() {
+        TokenSessionDTO session = new TokenSessionDTO("user", "tenant1", null, "127.0.0.1", "Chrome", 1L);
+        sessionCache.put("token", session, System.currentTimeMillis() - 1);
+
+        assertNull(sessionCache.get("token"));
+    }
+
+    @Test
+    void invalidate_RemovesLocallyAndPublishes() {
+        TokenSessionDTO session = new TokenSessionDTO("user", "tenant1", null, "127.0.0.1", "Chrome", 1L);
+        sessionCache.put("token", session, System.currentTimeMillis() + 60_000);
+
+        sessionCache.invalidate("token");
+
+        assertNull(sessionCache.get("token"));
+        verify(invalidationBus).publish(Const.Channel.TOKEN_INVALIDATE, "token");
+    }
+
+    @Test
+    void remoteInvalidation_RemovesLocalEntry() {
+        TokenSessionDTO session = new TokenSessionDTO("user", "tenant1", null, "127.0.0.1", "Chrome", 1L);
+        sessionCache.put("token", session, System.currentTimeMillis() + 60_000);
+
+        remoteListener.accept("token");
+
+        assertNull(sessionCache.get("token"));
+        verify(invalidationBus, never()).publish(anyString(), anyString());
+    }
+
+    @Test
+    void entry_RemainingSeconds() {
+        TokenSessionCache.Entry entry = new TokenSessionCache.Entry(null, 10_000);
+        assertEquals(5, entry.remainingSeconds(5_000));
+    }
+}
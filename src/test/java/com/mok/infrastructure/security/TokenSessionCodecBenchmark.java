@@ -0,0 +1,81 @@
+package com.mok.infrastructure.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 会话编解码对比：JSON（ObjectMapper）与二进制格式的编码体积和编解码耗时。
+ * <p>
+ * 运行：在 IDE 中执行 main，或 {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.mok.infrastructure.security.TokenSessionCodecBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenSessionCodecBenchmark {
+
+    @Param({"json", "binary"})
+    public String codec;
+
+    @Param({"20", "200"})
+    public int authorities;
+
+    private TokenSessionCodec sessionCodec;
+    private TokenSessionDTO session;
+    private String encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        sessionCodec = new TokenSessionCodec(new ObjectMapper(), codec);
+        session = sampleSession(authorities);
+        encoded = sessionCodec.encode(session);
+    }
+
+    @Benchmark
+    public String encode() throws IOException {
+        return sessionCodec.encode(session);
+    }
+
+    @Benchmark
+    public TokenSessionDTO decode() throws IOException {
+        return sessionCodec.decode(encoded);
+    }
+
+    static TokenSessionDTO sampleSession(int authorities) {
+        List<String> codes = new ArrayList<>(authorities);
+        for (int i = 0; i < authorities; i++) {
+            codes.add("module" + (i / 10) + ":resource" + i + ":action");
+        }
+        CustomUserDetail principal = new CustomUserDetail(10086L, "operator", null, "T10001",
+                Set.of(1L, 2L, 3L), false, codes);
+        TokenSessionDTO session = new TokenSessionDTO("operator", "T10001", principal, "192.168.10.24",
+                "Chrome 131", System.currentTimeMillis());
+        session.setToken("2f1c7a9e-8b3d-4c55-9a77-0d1e2f3a4b5c");
+        return session;
+    }
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (int authorities : new int[]{0, 20, 200}) {
+            TokenSessionDTO session = sampleSession(authorities);
+            int json = new TokenSessionCodec(objectMapper, "json").encode(session).getBytes(StandardCharsets.UTF_8).length;
+            int binary = new TokenSessionCodec(objectMapper, "binary").encode(session).getBytes(StandardCharsets.UTF_8).length;
+            System.out.printf("authorities=%d json=%d bytes binary=%d bytes (%.0f%%)%n",
+                    authorities, json, binary, binary * 100.0 / json);
+        }
+        new Runner(new OptionsBuilder().include(TokenSessionCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,176 @@
+package com.mok.infrastructure.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenSessionCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TokenSessionCodec jsonCodec = new TokenSessionCodec(objectMapper, "json");
+    private final TokenSessionCodec binaryCodec = new TokenSessionCodec(objectMapper, "binary");
+
+    private TokenSessionDTO session() {
+        CustomUserDetail principal = new CustomUserDetail(42L, "张三", null, "tenant1", Set.of(1L, 300L),
+                false, List.of("user:list", "user:create", "role:list"));
+        TokenSessionDTO session = new TokenSessionDTO("张三", "tenant1", principal, "10.0.0.1", "Chrome", 1700000000000L);
+        session.setToken("token");
+        return session;
+    }
+
+    @Test
+    void json_EncodesAsJson() throws Exception {
+        String data = jsonCodec.encode(session());
+
+        assertTrue(data.startsWith("{"));
+        assertEquals("张三", jsonCodec.decode(data).getUsername());
+    }
+
+    @Test
+    void binary_RoundTrip() throws Exception {
+        TokenSessionDTO original = session();
+
+        TokenSessionDTO decoded = binaryCodec.decode(binaryCodec.encode(original));
+
+        assertEquals(original.getUsername(), decoded.getUsername());
+        assertEquals(original.getTenantId(), decoded.getTenantId());
+        assertEquals(original.getIp(), decoded.getIp());
+        assertEquals(original.getBrowser(), decoded.getBrowser());
+        assertEquals(original.getLoginTime(), decoded.getLoginTime());
+        CustomUserDetail principal = decoded.getPrincipal();
+        assertEquals(42L, principal.userId());
+        assertEquals("张三", principal.username());
+        assertEquals("tenant1", principal.tenantId());
+        assertEquals(Set.of(1L, 300L), principal.roleIds());
+        assertFalse(principal.isSuperAdmin());
+        assertEquals(Set.of("user:list", "user:create", "role:list"), Set.copyOf(principal.authrizes()));
+        assertNull(principal.password());
+    }
+
+    @Test
+    void binary_NullFieldsRoundTrip() throws Exception {
+        TokenSessionDTO original = new TokenSessionDTO("admin", "000000",
+                new CustomUserDetail(null, "admin", null, "000000", null, true, null), null, null, 0);
+
+        TokenSessionDTO decoded = binaryCodec.decode(binaryCodec.encode(original));
+
+        assertNull(decoded.getIp());
+        assertNull(decoded.getBrowser());
+        assertNull(decoded.getPrincipal().userId());
+        assertNull(decoded.getPrincipal().roleIds());
+        assertNull(decoded.getPrincipal().authrizes());
+        assertTrue(decoded.getPrincipal().isSuperAdmin());
+    }
+
+    @Test
+    void binary_NoPrincipalRoundTrip() throws Exception {
+        TokenSessionDTO original = new TokenSessionDTO("admin", "000000", null, "ip", "browser", 1);
+
+        assertNull(binaryCodec.decode(binaryCodec.encode(original)).getPrincipal());
+    }
+
+    @Test
+    void binary_HeaderCarriesUserIndexKey() throws Exception {
+        String data = binaryCodec.encode(session());
+
+        assertTrue(data.startsWith("$3 - 14 tenant1:张三\n"));
+    }
+
+    @Test
+    void binary_UsernameWithSpaceAndNewlineRoundTrip() throws Exception {
+        TokenSessionDTO original = new TokenSessionDTO("a b\nc", "tenant1", null, "ip", "browser", 1);
+
+        String data = binaryCodec.encode(original);
+
+        assertTrue(data.startsWith("$3 - 13 tenant1:a b\nc\n"));
+        assertEquals("a b\nc", binaryCodec.decode(data).getUsername());
+        assertEquals("tenant1", binaryCodec.decode(data).getTenantId());
+    }
+
+    @Test
+    void binary_DecodesToSameObjectAsJson() throws Exception {
+        TokenSessionDTO session = session();
+        session.setPrincipal(new CustomUserDetail(42L, "张三", "secret", "tenant1", Set.of(1L), false, List.of("user:list")));
+        session.setAuthoritiesRef("0123abcd");
+
+        TokenSessionDTO fromJson = jsonCodec.decode(jsonCodec.encode(session));
+        TokenSessionDTO fromBinary = binaryCodec.decode(binaryCodec.encode(session));
+
+        assertEquals(objectMapper.writeValueAsString(fromJson), objectMapper.writeValueAsString(fromBinary));
+        assertEquals("token", fromBinary.getToken());
+        assertEquals("secret", fromBinary.getPrincipal().password());
+    }
+
+    @Test
+    void binary_BodyIsAscii() throws Exception {
+        String data = binaryCodec.encode(session());
+        String body = data.substring(data.lastIndexOf('\n') + 1);
+
+        assertEquals(body.length(), body.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    void decode_Version2StillReadable() throws Exception {
+        // 版本 2：首行不带字节数，正文按 ISO-8859-1 映射
+        TokenSessionDTO session = binaryCodec.decode("$2 - t:u\n\u0004u\u0004t\u0000\u0000\u0002\u0000\u0000");
+
+        assertEquals("u", session.getUsername());
+        assertEquals("t", session.getTenantId());
+        assertEquals(1L, session.getLoginTime());
+        assertNull(session.getPrincipal());
+    }
+
+    @Test
+    void binary_AuthoritiesRefInHeaderAndBody() throws Exception {
+        TokenSessionDTO session = session();
+        session.setAuthoritiesRef("0123abcd");
+
+        String data = binaryCodec.encode(session);
+
+        assertTrue(data.startsWith("$3 0123abcd 14 tenant1:张三\n"));
+        assertEquals("0123abcd", binaryCodec.decode(data).getAuthoritiesRef());
+        assertEquals("0123abcd", jsonCodec.decode(jsonCodec.encode(session)).getAuthoritiesRef());
+    }
+
+    @Test
+    void binary_SmallerThanJsonInRedis() throws Exception {
+        TokenSessionDTO session = session();
+
+        // Redis 中按 UTF-8 存储
+        assertTrue(binaryCodec.encode(session).getBytes(StandardCharsets.UTF_8).length
+                < jsonCodec.encode(session).getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    void binary_SharedAuthorityPrefixesRoundTrip() throws Exception {
+        List<String> codes = List.of("user:list", "user:create", "user", "", "role:list", "user:list:export");
+        TokenSessionDTO session = new TokenSessionDTO("admin", "t", new CustomUserDetail(1L, "admin", null, "t",
+                Set.of(), false, codes), null, null, 0);
+
+        TokenSessionDTO decoded = binaryCodec.decode(binaryCodec.encode(session));
+
+        assertEquals(Set.copyOf(codes), Set.copyOf(decoded.getPrincipal().authrizes()));
+        assertEquals(codes.size(), decoded.getPrincipal().authrizes().size());
+    }
+
+    @Test
+    void decode_ReadsBothFormatsRegardlessOfConfiguredCodec() throws Exception {
+        TokenSessionDTO session = session();
+
+        assertEquals("张三", binaryCodec.decode(jsonCodec.encode(session)).getUsername());
+        assertEquals("张三", jsonCodec.decode(binaryCodec.encode(session)).getUsername());
+    }
+
+    @Test
+    void decode_UnsupportedVersion_Throws() {
+        assertThrows(IOException.class, () -> binaryCodec.decode("$9 t:u\nAAAA"));
+        assertThrows(IOException.class, () -> binaryCodec.decode("$1 no-newline"));
+        assertThrows(IOException.class, () -> binaryCodec.decode("$3 - 3 t:u\n#not-base64"));
+    }
+}
@@ -2,6 +2,8 @@ package com.mok.infrastructure.sys.security;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class BCryptPasswordEncoderTest {
@@ -61,4 +63,38 @@ class BCryptPasswordEncoderTest {
         assertNotNull(hashed);
         assertTrue(encoder.matches(rawPassword, hashed));
     }
-}
\ No newline at end of file
+
+    @Test
+    void encode_UsesConfiguredStrength() {
+        BCryptPasswordEncoder weak = new BCryptPasswordEncoder(4, null);
+
+        assertEquals(4, BCryptPasswordEncoder.strengthOf(weak.encode("password123")));
+    }
+
+    @Test
+    void upgradeEncoding_OnlyForWeakerHashes() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(6, null);
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4, null).encode("password123")));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("password123")));
+        assertFalse(encoder.upgradeEncoding("plain"));
+        assertFalse(encoder.upgradeEncoding(null));
+    }
+
+    @Test
+    void calibrate_PicksHighestStrengthWithinTarget() {
+        // 强度 10 耗时 10ms，目标 45ms 可到 12（40ms）
+        assertEquals(12, BCryptPasswordEncoder.calibrate(10, Duration.ofMillis(45), s -> 10_000_000L << (s - 10)));
+        // 最低强度已超出目标时保持最低强度
+        assertEquals(10, BCryptPasswordEncoder.calibrate(10, Duration.ofMillis(5), s -> 10_000_000L));
+        assertEquals(BCryptPasswordEncoder.MAX_STRENGTH, BCryptPasswordEncoder.calibrate(10, Duration.ofHours(1), s -> 1L));
+    }
+
+    @Test
+    void constructor_WithTargetLatency_CalibratesAtLeastMinimum() {
+        BCryptPasswordEncoder calibrated = new BCryptPasswordEncoder(4, Duration.ofMillis(1));
+
+        assertTrue(calibrated.getStrength() >= 4);
+        assertTrue(calibrated.matches("password123", calibrated.encode("password123")));
+    }
+}
@@ -1,150 +1,149 @@
 package com.mok.infrastructure.sys.security;
 
-import com.mok.domain.sys.model.Role;
-import com.mok.domain.sys.model.User;
-import com.mok.domain.sys.repository.UserRepository;
+import com.mok.application.sys.service.LoginUserCache;
+import io.micronaut.context.event.ApplicationEventPublisher;
 import io.micronaut.http.HttpRequest;
-import io.micronaut.security.authentication.AuthenticationRequest;
 import io.micronaut.security.authentication.AuthenticationResponse;
+import io.micronaut.security.authentication.UsernamePasswordCredentials;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
+import java.time.Duration;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 class DatabaseAuthenticationProviderTest {
 
-    private UserRepository userRepository;
+    private LoginUserCache loginUserCache;
     private PasswordEncoder passwordEncoder;
+    private ApplicationEventPublisher<PasswordRehashEvent> eventPublisher;
+    private LoginThrottle loginThrottle;
     private DatabaseAuthenticationProvider provider;
     private HttpRequest<?> request;
 
     @BeforeEach
+    @SuppressWarnings("unchecked")
     void setUp() {
-        userRepository = mock(UserRepository.class);
+        loginUserCache = mock(LoginUserCache.class);
         passwordEncoder = mock(PasswordEncoder.class);
-        provider = new DatabaseAuthenticationProvider(userRepository, passwordEncoder);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        loginThrottle = mock(LoginThrottle.class);
+        when(loginThrottle.check(any(), any(), any())).thenReturn(Duration.ZERO);
+        provider = new DatabaseAuthenticationProvider(loginUserCache, passwordEncoder, eventPublisher, loginThrottle);
         request = mock(HttpRequest.class);
+        when(loginThrottle.clientIp(request)).thenReturn("10.0.0.1");
+    }
+
+    @Test
+    void getExecutorName_UsesLoginExecutor() {
+        assertEquals(LoginExecutor.NAME, provider.getExecutorName());
     }
 
     @Test
     void authenticate_UserExistsAndPasswordMatches_ReturnsSuccess() {
-        String username = "testuser";
-        String password = "password";
-        String tenantId = "tenant1";
-        Long userId = 1L;
-
-        User user = mock(User.class);
-        when(user.getState()).thenReturn(1); // Normal state
-        when(user.getTenantId()).thenReturn(tenantId);
-        when(user.getId()).thenReturn(userId);
-        when(user.getUsername()).thenReturn(username);
-
-        Role role = mock(Role.class);
-        when(role.getId()).thenReturn(1L);
-        when(user.getRoles()).thenReturn(Set.of(role));
-
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
-        when(passwordEncoder.matches(password, user.getPassword())).thenReturn(true);
-
-        AuthenticationRequest<String, String> authRequest = new AuthenticationRequest<String, String>() {
-            @Override
-            public String getIdentity() {
-                return username;
-            }
-
-            @Override
-            public String getSecret() {
-                return password;
-            }
-        };
-        AuthenticationResponse response = provider.authenticate(request, authRequest);
+        LoginUserCache.LoginUser user = new LoginUserCache.LoginUser(1L, "hash", 1, false, Set.of(1L));
+        when(loginUserCache.find("tenant1", "testuser")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("password", "hash")).thenReturn(true);
+
+        AuthenticationResponse response = provider.authenticate(request,
+                new TenantUsernamePasswordCredentials("tenant1", "testuser", "password"));
 
         assertTrue(response.isAuthenticated());
-        assertEquals(username, response.getAuthentication().get().getName());
-        verify(passwordEncoder).matches(password, user.getPassword());
+        assertEquals("testuser", response.getAuthentication().get().getName());
+        var attributes = response.getAuthentication().get().getAttributes();
+        assertEquals("tenant1", attributes.get("tenantId"));
+        assertEquals(1L, attributes.get("userId"));
+        assertEquals(Set.of(1L), attributes.get("roleIds"));
+        assertEquals(false, attributes.get("isTenantAdmin"));
+        verify(passwordEncoder).matches("password", "hash");
+        verify(eventPublisher, never()).publishEvent(any());
+        verify(loginThrottle).onSuccess("tenant1", "testuser");
     }
 
     @Test
-    void authenticate_UserExistsButDisabled_ReturnsFailure() {
-        String username = "testuser";
-        String password = "password";
+    void authenticate_WeakHash_PublishesRehash() {
+        LoginUserCache.LoginUser user = new LoginUserCache.LoginUser(1L, "$2a$04$weak", 1, false, Set.of());
+        when(loginUserCache.find("tenant1", "testuser")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("password", "$2a$04$weak")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("$2a$04$weak")).thenReturn(true);
 
-        User user = mock(User.class);
-        when(user.getState()).thenReturn(0); // Disabled state
+        AuthenticationResponse response = provider.authenticate(request,
+                new TenantUsernamePasswordCredentials("tenant1", "testuser", "password"));
 
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
+        assertTrue(response.isAuthenticated());
+        ArgumentCaptor<PasswordRehashEvent> captor = ArgumentCaptor.forClass(PasswordRehashEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertEquals(1L, captor.getValue().getUserId());
+        assertEquals("tenant1", captor.getValue().getTenantId());
+        assertEquals("testuser", captor.getValue().getUsername());
+        assertEquals("$2a$04$weak", captor.getValue().getEncodedPassword());
+        assertEquals("password", captor.getValue().getRawPassword());
+    }
 
-        AuthenticationRequest<String, String> authRequest = new AuthenticationRequest<String, String>() {
-            @Override
-            public String getIdentity() {
-                return username;
-            }
+    @Test
+    void authenticate_UserExistsButDisabled_ReturnsFailure() {
+        LoginUserCache.LoginUser user = new LoginUserCache.LoginUser(1L, "hash", 0, false, Set.of());
+        when(loginUserCache.find("tenant1", "testuser")).thenReturn(Optional.of(user));
 
-            @Override
-            public String getSecret() {
-                return password;
-            }
-        };
-        AuthenticationResponse response = provider.authenticate(request, authRequest);
+        AuthenticationResponse response = provider.authenticate(request,
+                new TenantUsernamePasswordCredentials("tenant1", "testuser", "password"));
 
         assertFalse(response.isAuthenticated());
         assertEquals("账户已禁用", response.getMessage().get());
+        verify(passwordEncoder, never()).matches(any(), anyString());
     }
 
     @Test
     void authenticate_UserExistsButPasswordNotMatches_ReturnsFailure() {
-        String username = "testuser";
-        String password = "password";
+        LoginUserCache.LoginUser user = new LoginUserCache.LoginUser(1L, "hash", 1, false, Set.of());
+        when(loginUserCache.find("tenant1", "testuser")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("wrong", "hash")).thenReturn(false);
 
-        User user = mock(User.class);
-        when(user.getState()).thenReturn(1);
+        AuthenticationResponse response = provider.authenticate(request,
+                new TenantUsernamePasswordCredentials("tenant1", "testuser", "wrong"));
 
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
-        when(passwordEncoder.matches(password, user.getPassword())).thenReturn(false);
+        assertFalse(response.isAuthenticated());
+        assertEquals("用户不存在或密码错误", response.getMessage().get());
+        verify(loginThrottle).onFailure("tenant1", "testuser", "10.0.0.1");
+    }
 
-        AuthenticationRequest<String, String> authRequest = new AuthenticationRequest<String, String>() {
-            @Override
-            public String getIdentity() {
-                return username;
-            }
+    @Test
+    void authenticate_UserNotFound_ReturnsFailure() {
+        when(loginUserCache.find("tenant1", "nonexistent")).thenReturn(Optional.empty());
 
-            @Override
-            public String getSecret() {
-                return password;
-            }
-        };
-        AuthenticationResponse response = provider.authenticate(request, authRequest);
+        AuthenticationResponse response = provider.authenticate(request,
+                new TenantUsernamePasswordCredentials("tenant1", "nonexistent", "password"));
 
         assertFalse(response.isAuthenticated());
         assertEquals("用户不存在或密码错误", response.getMessage().get());
+        verify(loginThrottle).onFailure("tenant1", "nonexistent", "10.0.0.1");
     }
 
     @Test
-    void authenticate_UserNotFound_ReturnsFailure() {
-        String username = "nonexistent";
-        String password = "password";
+    void authenticate_Throttled_RejectsBeforeLookup() {
+        when(loginThrottle.check("tenant1", "testuser", "10.0.0.1")).thenReturn(Duration.ofSeconds(30));
 
-        when(userRepository.findByUsername(username)).thenReturn(Optional.empty());
+        AuthenticationResponse response = provider.authenticate(request,
+                new TenantUsernamePasswordCredentials("tenant1", "testuser", "password"));
 
-        AuthenticationRequest<String, String> authRequest = new AuthenticationRequest<String, String>() {
-            @Override
-            public String getIdentity() {
-                return username;
-            }
+        assertFalse(response.isAuthenticated());
+        assertEquals("登录尝试过于频繁，请 30 秒后重试", response.getMessage().get());
+        verifyNoInteractions(loginUserCache, passwordEncoder);
+    }
 
-            @Override
-            public String getSecret() {
-                return password;
-            }
-        };
-        AuthenticationResponse response = provider.authenticate(request, authRequest);
+    @Test
+    void authenticate_WithoutTenant_ReturnsFailureWithoutLookup() {
+        AuthenticationResponse response = provider.authenticate(request,
+                new UsernamePasswordCredentials("testuser", "password"));
 
         assertFalse(response.isAuthenticated());
         assertEquals("用户不存在或密码错误", response.getMessage().get());
+        verifyNoInteractions(loginUserCache);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,77 @@
+package com.mok.infrastructure.sys.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoginExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new LoginExecutor(1, 1, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void submit_RecordsWaitAndExecutionTime() throws Exception {
+        Future<String> future = executor.submit(() -> "ok");
+
+        assertEquals("ok", future.get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.get("login.executor.wait").timer().count());
+        assertEquals(1, meterRegistry.get("login.executor.execution").timer().count());
+    }
+
+    @Test
+    void submit_Saturated_RejectsImmediately() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            running.countDown();
+            await(release);
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        executor.execute(() -> {
+        });
+
+        assertEquals(1.0, meterRegistry.get("login.executor.queued").gauge().value());
+        assertEquals(1.0, meterRegistry.get("login.executor.active").gauge().value());
+        assertThrows(RejectedExecutionException.class, () -> executor.submit(() -> "late"));
+        assertEquals(1.0, meterRegistry.get("login.executor.rejected").counter().count());
+        release.countDown();
+    }
+
+    @Test
+    void constructor_NonPositiveConcurrency_UsesProcessorCount() {
+        LoginExecutor defaults = new LoginExecutor(0, 0, meterRegistry);
+
+        assertEquals(Runtime.getRuntime().availableProcessors(), defaults.getMaximumPoolSize());
+        assertEquals(1, defaults.getQueue().remainingCapacity());
+        defaults.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.mok.infrastructure.sys.security;
+
+import io.lettuce.core.RedisException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LoginThrottleTest {
+
+    private RedisCommands<String, String> redisCommands;
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisCommands = mock(RedisCommands.class);
+        throttle = new LoginThrottle(redisCommands, Duration.ofMinutes(15), 5, 50,
+                Duration.ofMinutes(1), Duration.ofHours(1), Duration.ofHours(24), 3, 0.001, List.of("10.0.0.1"), false);
+        stubCheck(-2L, -2L);
+        stubFail(0L, 0L);
+    }
+
+    @Test
+    void check_NotLocked_Allows() {
+        assertEquals(Duration.ZERO, throttle.check("t1", "alice", "1.1.1.1"));
+
+        verify(redisCommands).evalsha(anyString(), eq(ScriptOutputType.MULTI),
+                eq(new String[]{"auth:login:throttle:account:lock:t1:alice", "auth:login:throttle:ip:lock:1.1.1.1"}),
+                any(String[].class));
+    }
+
+    @Test
+    void check_LockedInRedis_RemembersLocally() {
+        stubCheck(30_000L, -2L);
+
+        assertTrue(throttle.check("t1", "alice", "1.1.1.1").toSeconds() > 0);
+        stubCheck(-2L, -2L);
+        assertTrue(throttle.check("t1", "alice", "1.1.1.1").toSeconds() > 0);
+        // IP 未被锁定，其他账号不受影响
+        assertEquals(Duration.ZERO, throttle.check("t1", "bob", "1.1.1.1"));
+
+        verify(redisCommands, times(2)).evalsha(anyString(), eq(ScriptOutputType.MULTI),
+                argThat((String[] keys) -> keys.length == 2), any(String[].class));
+    }
+
+    @Test
+    void checkLocal_BurstExceeded_RejectsWithoutRedis() {
+        throttle.checkLocal("t1", "a", "2.2.2.2");
+        throttle.checkLocal("t1", "b", "2.2.2.2");
+        throttle.checkLocal("t1", "c", "2.2.2.2");
+
+        assertFalse(throttle.checkLocal("t1", "d", "2.2.2.2").isZero());
+        assertEquals(Duration.ZERO, throttle.checkLocal("t1", "d", "3.3.3.3"));
+        verifyNoInteractions(redisCommands);
+    }
+
+    @Test
+    void check_DoesNotConsumeIpTokens() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Duration.ZERO, throttle.check("t1", "a", "2.2.2.2"));
+        }
+
+        assertEquals(Duration.ZERO, throttle.checkLocal("t1", "a", "2.2.2.2"));
+    }
+
+    @Test
+    void clientIp_UntrustedPeer_IgnoresForwardedFor() {
+        HttpRequest<?> request = request("5.5.5.5", "1.2.3.4");
+
+        assertEquals("5.5.5.5", throttle.clientIp(request));
+    }
+
+    @Test
+    void clientIp_TrustedProxy_UsesLastUntrustedHop() {
+        // 客户端伪造的 1.2.3.4 位于最左侧，代理追加的才是真实地址
+        HttpRequest<?> request = request("10.0.0.1", "1.2.3.4, 6.6.6.6, 10.0.0.1");
+
+        assertEquals("6.6.6.6", throttle.clientIp(request));
+    }
+
+    @Test
+    void onFailure_PassesThresholdsAndLocksLocally() {
+        stubFail(60_000L, 0L);
+
+        throttle.onFailure("t1", "alice", "1.1.1.1");
+
+        verify(redisCommands).evalsha(anyString(), eq(ScriptOutputType.MULTI),
+                argThat((String[] keys) -> keys.length == 6 && keys[0].equals("auth:login:throttle:account:window:t1:alice")
+                        && keys[3].equals("auth:login:throttle:ip:window:1.1.1.1")),
+                anyString(), eq("900000"), eq("5"), eq("50"), eq("60000"), eq("3600000"), eq("86400000"), anyString());
+        clearInvocations(redisCommands);
+        assertTrue(throttle.check("t1", "alice", "4.4.4.4").toSeconds() > 0);
+        verifyNoInteractions(redisCommands);
+    }
+
+    @Test
+    void noProxyConfigured_AppliesAccountLimitsOnly() {
+        LoginThrottle accountOnly = new LoginThrottle(redisCommands, Duration.ofMinutes(15), 5, 50,
+                Duration.ofMinutes(1), Duration.ofHours(1), Duration.ofHours(24), 3, 0.001, List.of(), false);
+        when(redisCommands.evalsha(anyString(), eq(ScriptOutputType.MULTI),
+                argThat((String[] keys) -> keys.length == 3), any(String[].class)))
+                .thenReturn(List.of(0L));
+        when(redisCommands.evalsha(anyString(), eq(ScriptOutputType.MULTI),
+                argThat((String[] keys) -> keys.length == 1), any(String[].class)))
+                .thenReturn(List.of(-2L));
+
+        // 代理之后的用户共用一个地址，既不限速也不按地址锁定
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Duration.ZERO, accountOnly.checkLocal("t1", "user" + i, "10.0.0.9"));
+        }
+        accountOnly.onFailure("t1", "alice", "10.0.0.9");
+        assertEquals(Duration.ZERO, accountOnly.check("t1", "bob", "10.0.0.9"));
+
+        verify(redisCommands).evalsha(anyString(), eq(ScriptOutputType.MULTI),
+                eq(new String[]{"auth:login:throttle:account:window:t1:alice",
+                        "auth:login:throttle:account:lock:t1:alice", "auth:login:throttle:account:level:t1:alice"}),
+                any(String[].class));
+        verify(redisCommands).evalsha(anyString(), eq(ScriptOutputType.MULTI),
+                eq(new String[]{"auth:login:throttle:account:lock:t1:bob"}), any(String[].class));
+    }
+
+    @Test
+    void directClients_AppliesIpLimitsWithoutProxies() {
+        LoginThrottle direct = new LoginThrottle(redisCommands, Duration.ofMinutes(15), 5, 50,
+                Duration.ofMinutes(1), Duration.ofHours(1), Duration.ofHours(24), 3, 0.001, List.of(), true);
+        for (int i = 0; i < 3; i++) {
+            direct.checkLocal("t1", "user" + i, "2.2.2.2");
+        }
+
+        assertFalse(direct.checkLocal("t1", "user3", "2.2.2.2").isZero());
+    }
+
+    @Test
+    void onSuccess_ClearsAccountWindowAndLevel() {
+        throttle.onSuccess("t1", "alice");
+
+        verify(redisCommands).del("auth:login:throttle:account:window:t1:alice", "auth:login:throttle:account:level:t1:alice");
+    }
+
+    @Test
+    void redisUnavailable_FailsOpen() {
+        when(redisCommands.evalsha(anyString(), any(), any(String[].class), any(String[].class)))
+                .thenThrow(new RedisException("down"));
+
+        assertEquals(Duration.ZERO, throttle.check("t1", "alice", "1.1.1.1"));
+        assertDoesNotThrow(() -> throttle.onFailure("t1", "alice", "1.1.1.1"));
+    }
+
+    private static HttpRequest<?> request(String remoteIp, String forwardedFor) {
+        HttpRequest<?> request = mock(HttpRequest.class);
+        HttpHeaders headers = mock(HttpHeaders.class);
+        when(headers.get("X-Forwarded-For")).thenReturn(forwardedFor);
+        when(request.getHeaders()).thenReturn(headers);
+        when(request.getRemoteAddress()).thenReturn(new InetSocketAddress(remoteIp, 443));
+        return request;
+    }
+
+    private void stubCheck(Long account, Long ip) {
+        when(redisCommands.evalsha(anyString(), eq(ScriptOutputType.MULTI),
+                argThat((String[] keys) -> keys.length == 2), any(String[].class)))
+                .thenReturn(List.of(account, ip));
+    }
+
+    private void stubFail(Long account, Long ip) {
+        when(redisCommands.evalsha(anyString(), eq(ScriptOutputType.MULTI),
+                argThat((String[] keys) -> keys.length == 6), any(String[].class)))
+                .thenReturn(List.of(account, ip));
+    }
+}
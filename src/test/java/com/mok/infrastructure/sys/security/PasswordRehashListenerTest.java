@@ -0,0 +1,47 @@
+package com.mok.infrastructure.sys.security;
+
+import com.mok.application.sys.service.LoginUserCache;
+import com.mok.domain.sys.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PasswordRehashListenerTest {
+
+    private UserRepository userRepository;
+    private PasswordEncoder passwordEncoder;
+    private LoginUserCache loginUserCache;
+    private PasswordRehashListener listener;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        passwordEncoder = mock(PasswordEncoder.class);
+        loginUserCache = mock(LoginUserCache.class);
+        listener = new PasswordRehashListener(userRepository, passwordEncoder, loginUserCache);
+    }
+
+    @Test
+    void rehash_UpdatesOnlyIfPasswordUnchangedAndEvictsLoginCache() {
+        when(passwordEncoder.encode("secret")).thenReturn("$2a$12$strong");
+
+        listener.rehash(new PasswordRehashEvent(1L, "t1", "alice", "$2a$04$weak", "secret"));
+
+        verify(userRepository).updatePassword(1L, "$2a$04$weak", "$2a$12$strong");
+        verify(loginUserCache).evict("t1", "alice");
+    }
+
+    @Test
+    void rehash_Failure_ReleasesUser() {
+        when(passwordEncoder.encode("secret")).thenReturn("$2a$12$strong");
+        doThrow(new IllegalStateException("db")).doNothing()
+                .when(userRepository).updatePassword(anyLong(), anyString(), anyString());
+
+        listener.rehash(new PasswordRehashEvent(1L, "t1", "alice", "$2a$04$weak", "secret"));
+        listener.rehash(new PasswordRehashEvent(1L, "t1", "alice", "$2a$04$weak", "secret"));
+
+        verify(userRepository, times(2)).updatePassword(1L, "$2a$04$weak", "$2a$12$strong");
+    }
+}
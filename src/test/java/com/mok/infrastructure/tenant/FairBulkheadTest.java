@@ -0,0 +1,93 @@
+package com.mok.infrastructure.tenant;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FairBulkheadTest {
+
+    @Test
+    void acquire_WithinLimits_GrantsImmediately() {
+        FairBulkhead bulkhead = new FairBulkhead(4, 10);
+
+        assertTrue(bulkhead.acquire("A", 2).isDone());
+        assertTrue(bulkhead.acquire("A", 2).isDone());
+        assertFalse(bulkhead.acquire("A", 2).isDone());
+        assertTrue(bulkhead.acquire("B", 2).isDone());
+
+        assertEquals(3, bulkhead.getInUse());
+        assertEquals(1, bulkhead.getQueued());
+    }
+
+    @Test
+    void acquire_QueueFull_ReturnsNull() {
+        FairBulkhead bulkhead = new FairBulkhead(1, 1);
+        bulkhead.acquire("A", 0);
+
+        assertNotNull(bulkhead.acquire("A", 0));
+        assertNull(bulkhead.acquire("A", 0));
+        // 其他租户的排队不受影响
+        assertNotNull(bulkhead.acquire("B", 0));
+    }
+
+    @Test
+    void release_GrantsRoundRobinAcrossTenants() {
+        FairBulkhead bulkhead = new FairBulkhead(1, 10);
+        bulkhead.acquire("A", 0);
+        List<CompletableFuture<Void>> heavy = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            heavy.add(bulkhead.acquire("A", 0));
+        }
+        CompletableFuture<Void> small = bulkhead.acquire("B", 0);
+
+        bulkhead.release("A");
+        assertTrue(heavy.get(0).isDone());
+        assertFalse(small.isDone());
+
+        // A 的下一个请求排在 B 之后
+        bulkhead.release("A");
+        assertTrue(small.isDone());
+        assertFalse(heavy.get(1).isDone());
+    }
+
+    @Test
+    void release_TenantAtOwnLimit_LetsOthersProceed() {
+        FairBulkhead bulkhead = new FairBulkhead(3, 10);
+        bulkhead.acquire("A", 1);
+        CompletableFuture<Void> queuedA = bulkhead.acquire("A", 1);
+        bulkhead.acquire("B", 0);
+        bulkhead.acquire("B", 0);
+        CompletableFuture<Void> queuedB = bulkhead.acquire("B", 0);
+
+        bulkhead.release("B");
+
+        assertTrue(queuedB.isDone());
+        assertFalse(queuedA.isDone());
+
+        bulkhead.release("A");
+        assertTrue(queuedA.isDone());
+    }
+
+    @Test
+    void cancel_RemovesWaiterAndSkipsIt() {
+        FairBulkhead bulkhead = new FairBulkhead(1, 10);
+        bulkhead.acquire("A", 0);
+        CompletableFuture<Void> cancelled = bulkhead.acquire("B", 0);
+        CompletableFuture<Void> next = bulkhead.acquire("C", 0);
+
+        cancelled.cancel(false);
+        assertEquals(1, bulkhead.getQueued());
+
+        bulkhead.release("A");
+        assertTrue(next.isDone());
+        assertEquals(1, bulkhead.getInUse());
+
+        bulkhead.release("C");
+        assertEquals(0, bulkhead.getInUse());
+        assertEquals(0, bulkhead.getQueued());
+    }
+}
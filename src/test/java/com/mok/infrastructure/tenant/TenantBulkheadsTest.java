@@ -0,0 +1,151 @@
+package com.mok.infrastructure.tenant;
+
+import com.mok.infrastructure.common.Const;
+import com.mok.infrastructure.limiter.RateLimitTier;
+import com.mok.infrastructure.limiter.TenantTiers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MutableHttpResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class TenantBulkheadsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TenantTiers tenantTiers;
+    private TenantBulkheads bulkheads;
+    private HttpRequest<?> request;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tenantTiers = mock(TenantTiers.class);
+        RateLimitTier tier = new RateLimitTier("basic");
+        tier.setMaxConcurrent(1);
+        when(tenantTiers.resolveAsync(anyString())).thenReturn(CompletableFuture.completedFuture(tier));
+        request = mock(HttpRequest.class);
+        bulkheads = new TenantBulkheads(tenantTiers, meterRegistry, true, 10, 10, Duration.ofMillis(50));
+    }
+
+    @Test
+    void execute_ReleasesPermitWhenResponseCompletes() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(HttpStatus.OK, Mono.from(bulkheads.execute(request, "T1", TenantBulkheadsTest::ok)).block().getStatus());
+        }
+        assertEquals(0.0, meterRegistry.get("tenant.bulkhead.in-use").gauge().value());
+    }
+
+    @Test
+    void execute_WaitsForPermitOfSameTenant() {
+        Sinks.One<MutableHttpResponse<?>> first = Sinks.one();
+        Mono.from(bulkheads.execute(request, "T1", first::asMono)).subscribe();
+
+        Mono<MutableHttpResponse<?>> second = Mono.from(bulkheads.execute(request, "T1", TenantBulkheadsTest::ok)).cache();
+        second.subscribe();
+        assertEquals(1.0, meterRegistry.get("tenant.bulkhead.queued").gauge().value());
+
+        first.tryEmitValue(HttpResponse.ok());
+        assertEquals(HttpStatus.OK, second.block(Duration.ofSeconds(1)).getStatus());
+    }
+
+    @Test
+    void execute_WaitTimeout_Returns503() {
+        Sinks.One<MutableHttpResponse<?>> first = Sinks.one();
+        Mono.from(bulkheads.execute(request, "T1", first::asMono)).subscribe();
+
+        MutableHttpResponse<?> response = Mono.from(bulkheads.execute(request, "T1", TenantBulkheadsTest::ok))
+                .block(Duration.ofSeconds(1));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatus());
+        assertEquals(1.0, meterRegistry.get("tenant.bulkhead.rejected").counter().count());
+        assertEquals(0.0, meterRegistry.get("tenant.bulkhead.queued").gauge().value());
+    }
+
+    @Test
+    void execute_OtherTenantNotBlocked() {
+        Sinks.One<MutableHttpResponse<?>> first = Sinks.one();
+        Mono.from(bulkheads.execute(request, "T1", first::asMono)).subscribe();
+
+        assertEquals(HttpStatus.OK, Mono.from(bulkheads.execute(request, "T2", TenantBulkheadsTest::ok)).block().getStatus());
+    }
+
+    @Test
+    void execute_SuperTenant_Bypasses() {
+        Mono.from(bulkheads.execute(request, Const.SUPER_TENANT_ID, TenantBulkheadsTest::ok)).block();
+
+        verifyNoInteractions(tenantTiers);
+    }
+
+    @Test
+    void execute_TierNotLoaded_WaitsWithoutBlocking() {
+        CompletableFuture<RateLimitTier> tier = new CompletableFuture<>();
+        when(tenantTiers.resolveAsync("T3")).thenReturn(tier);
+        AtomicInteger calls = new AtomicInteger();
+
+        Mono<MutableHttpResponse<?>> response = Mono.from(bulkheads.execute(request, "T3", () -> {
+            calls.incrementAndGet();
+            return ok();
+        })).cache();
+        response.subscribe();
+        assertEquals(0, calls.get());
+
+        tier.complete(new RateLimitTier("basic"));
+        assertEquals(HttpStatus.OK, response.block(Duration.ofSeconds(1)).getStatus());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_NotSubscribed_DoesNotAcquire() {
+        bulkheads.execute(request, "T1", TenantBulkheadsTest::ok);
+
+        assertEquals(0.0, meterRegistry.get("tenant.bulkhead.in-use").gauge().value());
+    }
+
+    @Test
+    void execute_CancelledAfterGrant_ReleasesOnce() {
+        // 等待时间足够长，排队的请求一定在超时前获得许可
+        meterRegistry = new SimpleMeterRegistry();
+        bulkheads = new TenantBulkheads(tenantTiers, meterRegistry, true, 10, 10, Duration.ofSeconds(5));
+        Sinks.One<MutableHttpResponse<?>> first = Sinks.one();
+        Mono.from(bulkheads.execute(request, "T1", first::asMono)).subscribe();
+        Sinks.One<MutableHttpResponse<?>> second = Sinks.one();
+        Disposable queued = Mono.from(bulkheads.execute(request, "T1", second::asMono)).subscribe();
+
+        first.tryEmitValue(HttpResponse.ok());
+        assertEquals(1.0, meterRegistry.get("tenant.bulkhead.in-use").gauge().value());
+
+        queued.dispose();
+        queued.dispose();
+        assertEquals(0.0, meterRegistry.get("tenant.bulkhead.in-use").gauge().value());
+    }
+
+    @Test
+    void execute_CancelledWhileQueued_DoesNotLeak() {
+        Sinks.One<MutableHttpResponse<?>> first = Sinks.one();
+        Mono.from(bulkheads.execute(request, "T1", first::asMono)).subscribe();
+        Disposable queued = Mono.from(bulkheads.execute(request, "T1", TenantBulkheadsTest::ok)).subscribe();
+
+        queued.dispose();
+        first.tryEmitValue(HttpResponse.ok());
+
+        assertEquals(0.0, meterRegistry.get("tenant.bulkhead.in-use").gauge().value());
+        assertEquals(0.0, meterRegistry.get("tenant.bulkhead.queued").gauge().value());
+    }
+
+    private static Mono<MutableHttpResponse<?>> ok() {
+        return Mono.just(HttpResponse.ok());
+    }
+}
@@ -1,6 +1,8 @@
 package com.mok.infrastructure.tenant;
 
 import com.mok.application.exception.BizException;
+import com.mok.infrastructure.limiter.TenantTiers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.micronaut.http.HttpRequest;
 import io.micronaut.http.MutableHttpResponse;
 import io.micronaut.http.filter.ServerFilterChain;
@@ -11,6 +13,7 @@ import org.junit.jupiter.api.Test;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -29,7 +32,8 @@ class TenantContextPopulatingFilterTest {
     @BeforeEach
     void setUp() {
         securityService = mock(SecurityService.class);
-        filter = new TenantContextPopulatingFilter(securityService);
+        filter = new TenantContextPopulatingFilter(securityService,
+                new TenantBulkheads(mock(TenantTiers.class), new SimpleMeterRegistry(), false, 32, 64, Duration.ofSeconds(2)));
         request = mock(HttpRequest.class);
         chain = mock(ServerFilterChain.class);
 
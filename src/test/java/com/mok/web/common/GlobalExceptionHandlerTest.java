@@ -13,6 +13,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -52,6 +53,15 @@ class GlobalExceptionHandlerTest {
         assertFalse(response.body().isState());
     }
 
+    @Test
+    void handleRejectedExecutionException() {
+        HttpResponse<RestResponse<?>> response = globalExceptionHandler.handle(request, new RejectedExecutionException("full"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatus());
+        assertEquals(503, response.body().getCode());
+        assertFalse(response.body().isState());
+    }
+
     @Test
     void handleConstraintViolationException() {
         ConstraintViolation<?> violation = mock(ConstraintViolation.class);
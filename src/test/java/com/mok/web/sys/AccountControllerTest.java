@@ -4,6 +4,7 @@ import com.mok.application.sys.dto.auth.AccountInfoDTO;
 import com.mok.application.sys.dto.auth.SelfPasswordUpdateDTO;
 import com.mok.application.sys.dto.user.UserDTO;
 import com.mok.application.sys.dto.user.UserPasswordDTO;
+import com.mok.application.sys.service.AccountInfoCache;
 import com.mok.application.sys.service.UserService;
 import com.mok.infrastructure.tenant.TenantContextHolder;
 import com.mok.web.common.RestResponse;
@@ -12,20 +13,25 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
 
+import java.util.function.Supplier;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class AccountControllerTest {
 
     private UserService userService;
+    private AccountInfoCache accountInfoCache;
     private AccountController accountController;
     private MockedStatic<TenantContextHolder> tenantContextHolderMock;
 
     @BeforeEach
     void setUp() {
         userService = mock(UserService.class);
-        accountController = new AccountController(userService);
+        accountInfoCache = mock(AccountInfoCache.class);
+        accountController = new AccountController(userService, accountInfoCache);
         tenantContextHolderMock = mockStatic(TenantContextHolder.class);
     }
 
@@ -66,6 +72,7 @@ class AccountControllerTest {
     }
 
     @Test
+    @SuppressWarnings("unchecked")
     void getMyInfo() {
         String username = "testUser";
         AccountInfoDTO accountInfoDTO = new AccountInfoDTO();
@@ -74,7 +81,10 @@ class AccountControllerTest {
         accountInfoDTO.setUser(userDTO);
 
         tenantContextHolderMock.when(TenantContextHolder::getUsername).thenReturn(username);
+        tenantContextHolderMock.when(TenantContextHolder::getTenantId).thenReturn("tenant1");
+        tenantContextHolderMock.when(TenantContextHolder::getUserId).thenReturn(1L);
         when(userService.findAccountInfoByUsername(username)).thenReturn(accountInfoDTO);
+        when(accountInfoCache.get(eq("tenant1"), eq(1L), any())).thenAnswer(inv -> ((Supplier<AccountInfoDTO>) inv.getArgument(2)).get());
 
         RestResponse<AccountInfoDTO> response = accountController.getMyInfo();
 
@@ -5,6 +5,7 @@ import com.mok.application.sys.dto.auth.LoginRequest;
 import com.mok.application.sys.dto.auth.LoginResDTO;
 import com.mok.infrastructure.security.CustomUserDetail;
 import com.mok.infrastructure.security.JwtTokenProvider;
+import com.mok.infrastructure.sys.security.LoginThrottle;
 import com.mok.web.common.RestResponse;
 import io.micronaut.http.HttpHeaders;
 import io.micronaut.http.HttpRequest;
@@ -16,6 +17,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -29,6 +31,7 @@ class AuthControllerTest {
 
     private Authenticator<HttpRequest<?>> authenticator;
     private JwtTokenProvider tokenProvider;
+    private LoginThrottle loginThrottle;
     private AuthController authController;
     private HttpRequest<?> request;
 
@@ -36,7 +39,10 @@ class AuthControllerTest {
     void setUp() {
         authenticator = mock(Authenticator.class);
         tokenProvider = mock(JwtTokenProvider.class);
-        authController = new AuthController(authenticator, tokenProvider);
+        loginThrottle = mock(LoginThrottle.class);
+        when(loginThrottle.clientIp(any())).thenReturn("1.1.1.1");
+        when(loginThrottle.checkLocal(any(), any(), any())).thenReturn(Duration.ZERO);
+        authController = new AuthController(authenticator, tokenProvider, loginThrottle);
         request = mock(HttpRequest.class);
         HttpHeaders headers = mock(HttpHeaders.class);
         when(request.getHeaders()).thenReturn(headers);
@@ -67,6 +73,7 @@ class AuthControllerTest {
 
         when(tokenProvider.createToken(anyString(), anyString(), any(CustomUserDetail.class), any(), any()))
                 .thenReturn("mock-jwt-token");
+        when(request.getHeaders().get("X-Forwarded-For")).thenReturn("9.9.9.9");
 
         Mono<RestResponse<LoginResDTO>> responseMono = authController.authenticateUser(loginRequest, request);
         RestResponse<LoginResDTO> response = responseMono.block();
@@ -79,7 +86,9 @@ class AuthControllerTest {
         assertEquals("admin", response.getData().getUsername());
         assertEquals("tenant1", response.getData().getTenantId());
 
-        verify(tokenProvider).createToken(eq("admin"), eq("tenant1"), any(CustomUserDetail.class), any(), any());
+        // 会话记录的 IP 沿用转发头，限流使用的 IP 不受其影响
+        verify(tokenProvider).createToken(eq("admin"), eq("tenant1"), any(CustomUserDetail.class), eq("9.9.9.9"), any());
+        verify(loginThrottle).checkLocal("tenant1", "admin", "1.1.1.1");
     }
 
     @Test
@@ -104,6 +113,22 @@ class AuthControllerTest {
         verify(tokenProvider, never()).createToken(anyString(), anyString(), any(), anyString(), anyString()); // Should not be called
     }
 
+    @Test
+    void loginFailure_ThrottledLocally_SkipsAuthenticator() {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsername("admin");
+        loginRequest.setPassword("password");
+        loginRequest.setTenantId("tenant1");
+        when(loginThrottle.checkLocal("tenant1", "admin", "1.1.1.1")).thenReturn(Duration.ofSeconds(30));
+
+        RestResponse<LoginResDTO> response = authController.authenticateUser(loginRequest, request).block();
+
+        assertNotNull(response);
+        assertFalse(response.isState());
+        assertEquals("登录尝试过于频繁，请 30 秒后重试", response.getMessage());
+        verifyNoInteractions(authenticator);
+    }
+
     @Test
     void loginFailure_AuthenticatedButNoAuthentication() throws JsonProcessingException {
         LoginRequest loginRequest = new LoginRequest();
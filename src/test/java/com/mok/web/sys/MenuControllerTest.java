@@ -27,8 +27,7 @@ class MenuControllerTest {
     @Test
     void getTree() {
         List<MenuDTO> menuList = Collections.singletonList(new MenuDTO());
-        when(menuService.findAll()).thenReturn(menuList);
-        when(menuService.buildMenuTree(menuList)).thenReturn(menuList);
+        when(menuService.findTree()).thenReturn(menuList);
 
         RestResponse<List<MenuDTO>> response = menuController.getTree();
 
@@ -37,8 +36,7 @@ class MenuControllerTest {
         assertTrue(response.isState());
         assertEquals(menuList, response.getData());
 
-        verify(menuService).findAll();
-        verify(menuService).buildMenuTree(menuList);
+        verify(menuService).findTree();
     }
 
     @Test
@@ -1,21 +1,21 @@
 package com.mok.web.sys;
 
-import com.mok.application.sys.dto.tenant.TenantOptionDTO;
-import com.mok.application.sys.service.TenantService;
+import com.mok.application.sys.dto.tenant.TenantDTO;
+import com.mok.application.sys.service.TenantCacheService;
 import com.mok.infrastructure.security.JwtTokenProvider;
 import com.mok.infrastructure.security.OnlineUserDTO;
+import com.mok.infrastructure.security.OnlineUserPageDTO;
 import com.mok.infrastructure.tenant.TenantContextHolder;
 import com.mok.web.common.RestResponse;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockedStatic;
 
 import java.util.Collections;
-import java.util.List;
 import java.util.Map;
-
-import static org.mockito.ArgumentMatchers.anyMap;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -23,15 +23,15 @@ import static org.mockito.Mockito.*;
 class OnlineUserControllerTest {
 
     private JwtTokenProvider tokenProvider;
-    private TenantService tenantService;
+    private TenantCacheService tenantCacheService;
     private OnlineUserController onlineUserController;
     private MockedStatic<TenantContextHolder> tenantContextHolderMock;
 
     @BeforeEach
     void setUp() {
         tokenProvider = mock(JwtTokenProvider.class);
-        tenantService = mock(TenantService.class);
-        onlineUserController = new OnlineUserController(tokenProvider, tenantService);
+        tenantCacheService = mock(TenantCacheService.class);
+        onlineUserController = new OnlineUserController(tokenProvider, tenantCacheService);
         tenantContextHolderMock = mockStatic(TenantContextHolder.class);
     }
 
@@ -43,71 +43,84 @@ class OnlineUserControllerTest {
     @Test
     void list() {
         String tenantId = "tenant1";
-        TenantOptionDTO tenantOption = new TenantOptionDTO(1L, tenantId, "Tenant One");
-        List<TenantOptionDTO> tenantOptions = Collections.singletonList(tenantOption);
-        List<OnlineUserDTO> onlineUsers = Collections.singletonList(new OnlineUserDTO(1L, "user", tenantId, "Tenant One", Collections.emptyList()));
+        TenantDTO tenant = new TenantDTO();
+        tenant.setTenantId(tenantId);
+        tenant.setName("Tenant One");
+        OnlineUserPageDTO page = new OnlineUserPageDTO(
+                Collections.singletonList(new OnlineUserDTO(1L, "user", tenantId, "Tenant One", Collections.emptyList())), 1, null);
 
-        when(tenantService.findOptions(null)).thenReturn(tenantOptions);
+        when(tenantCacheService.findByTenantId(tenantId)).thenReturn(tenant);
         tenantContextHolderMock.when(TenantContextHolder::getTenantId).thenReturn(tenantId);
         tenantContextHolderMock.when(TenantContextHolder::isSuperTenant).thenReturn(false);
-        when(tokenProvider.getAllOnlineUsers(anyMap(), eq(tenantId), eq(false))).thenReturn(onlineUsers);
+        when(tokenProvider.getOnlineUsers(eq(tenantId), any(), eq(""), eq(20))).thenReturn(page);
 
-        RestResponse<List<OnlineUserDTO>> response = onlineUserController.list();
+        RestResponse<OnlineUserPageDTO> response = onlineUserController.list("", "", 20);
 
         assertNotNull(response);
         assertEquals(200, response.getCode());
         assertTrue(response.isState());
-        assertEquals(onlineUsers, response.getData());
-
-        verify(tenantService).findOptions(null);
-        verify(tokenProvider).getAllOnlineUsers(anyMap(), eq(tenantId), eq(false));
+        assertEquals(page, response.getData());
     }
 
     @Test
-    void list_SuperTenant() {
-        String tenantId = "super";
-        TenantOptionDTO tenantOption = new TenantOptionDTO(1L, "tenant1", "Tenant One");
-        List<TenantOptionDTO> tenantOptions = Collections.singletonList(tenantOption);
-        List<OnlineUserDTO> onlineUsers = Collections.singletonList(new OnlineUserDTO(1L, "user", "tenant1", "Tenant One", Collections.emptyList()));
-
-        when(tenantService.findOptions(null)).thenReturn(tenantOptions);
+    void list_NonSuperTenant_IgnoresRequestedTenant() {
+        String tenantId = "tenant1";
         tenantContextHolderMock.when(TenantContextHolder::getTenantId).thenReturn(tenantId);
+        tenantContextHolderMock.when(TenantContextHolder::isSuperTenant).thenReturn(false);
+
+        onlineUserController.list("tenant2", "1700000000000-1", 10);
+
+        verify(tokenProvider).getOnlineUsers(eq(tenantId), any(), eq("1700000000000-1"), eq(10));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void list_SuperTenant_DefaultsToAllTenants() {
+        TenantDTO tenant = new TenantDTO();
+        tenant.setTenantId("tenant1");
+        tenant.setName("Tenant One");
+        when(tenantCacheService.findByTenantId("tenant1")).thenReturn(tenant);
+        tenantContextHolderMock.when(TenantContextHolder::getTenantId).thenReturn("super");
         tenantContextHolderMock.when(TenantContextHolder::isSuperTenant).thenReturn(true);
-        when(tokenProvider.getAllOnlineUsers(anyMap(), eq(tenantId), eq(true))).thenReturn(onlineUsers);
 
-        RestResponse<List<OnlineUserDTO>> response = onlineUserController.list();
+        onlineUserController.list("", "", 20);
 
-        assertNotNull(response);
-        assertEquals(200, response.getCode());
-        assertTrue(response.isState());
-        assertEquals(onlineUsers, response.getData());
+        // 租户为空表示查询所有租户，租户名称按会话所属租户逐个解析
+        ArgumentCaptor<Function<String, String>> tenantNames = ArgumentCaptor.forClass(Function.class);
+        verify(tokenProvider).getOnlineUsers(eq(""), tenantNames.capture(), eq(""), eq(20));
+        assertEquals("Tenant One", tenantNames.getValue().apply("tenant1"));
+        assertEquals("tenant2", tenantNames.getValue().apply("tenant2"));
+    }
 
-        verify(tenantService).findOptions(null);
-        verify(tokenProvider).getAllOnlineUsers(anyMap(), eq(tenantId), eq(true));
+    @Test
+    void list_NonSuperTenantWithoutTenant_ReturnsEmptyPage() {
+        tenantContextHolderMock.when(TenantContextHolder::getTenantId).thenReturn(null);
+        tenantContextHolderMock.when(TenantContextHolder::isSuperTenant).thenReturn(false);
+
+        RestResponse<OnlineUserPageDTO> response = onlineUserController.list("", "", 20);
+
+        assertTrue(response.getData().records().isEmpty());
+        verifyNoInteractions(tokenProvider);
     }
 
     @Test
-    void list_WithDuplicateTenantIds() {
-        String tenantId = "tenant1";
-        TenantOptionDTO tenantOption1 = new TenantOptionDTO(1L, tenantId, "Tenant One");
-        TenantOptionDTO tenantOption2 = new TenantOptionDTO(2L, tenantId, "Tenant Duplicate"); // Same tenantId
-        List<TenantOptionDTO> tenantOptions = List.of(tenantOption1, tenantOption2);
-        List<OnlineUserDTO> onlineUsers = Collections.singletonList(new OnlineUserDTO(1L, "user", tenantId, "Tenant One", Collections.emptyList()));
+    void list_SuperTenant_CanViewOtherTenant() {
+        tenantContextHolderMock.when(TenantContextHolder::getTenantId).thenReturn("super");
+        tenantContextHolderMock.when(TenantContextHolder::isSuperTenant).thenReturn(true);
 
-        when(tenantService.findOptions(null)).thenReturn(tenantOptions);
-        tenantContextHolderMock.when(TenantContextHolder::getTenantId).thenReturn(tenantId);
-        tenantContextHolderMock.when(TenantContextHolder::isSuperTenant).thenReturn(false);
-        when(tokenProvider.getAllOnlineUsers(anyMap(), eq(tenantId), eq(false))).thenReturn(onlineUsers);
+        onlineUserController.list("tenant1", "", 20);
 
-        RestResponse<List<OnlineUserDTO>> response = onlineUserController.list();
+        verify(tokenProvider).getOnlineUsers(eq("tenant1"), any(), eq(""), eq(20));
+    }
 
-        assertNotNull(response);
-        assertEquals(200, response.getCode());
-        assertTrue(response.isState());
-        assertEquals(onlineUsers, response.getData());
+    @Test
+    void list_SizeClamped() {
+        tenantContextHolderMock.when(TenantContextHolder::getTenantId).thenReturn("tenant1");
+        tenantContextHolderMock.when(TenantContextHolder::isSuperTenant).thenReturn(false);
+
+        onlineUserController.list("", "", 10_000);
 
-        verify(tenantService).findOptions(null);
-        verify(tokenProvider).getAllOnlineUsers(anyMap(), eq(tenantId), eq(false));
+        verify(tokenProvider).getOnlineUsers(eq("tenant1"), any(), eq(""), eq(200));
     }
 
     @Test